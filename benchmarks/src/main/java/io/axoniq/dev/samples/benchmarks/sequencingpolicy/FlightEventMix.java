@@ -0,0 +1,24 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+/**
+ * The share of {@code FlightEvent}s among the events a {@link SyntheticFlightEvents} pool holds, expressed as a
+ * percentage. The other events have a payload unrelated to flights, for which the sequencing policies fall back to the
+ * event identifier.
+ */
+public enum FlightEventMix {
+
+    FLIGHT_ONLY(100),
+    MOSTLY_FLIGHT(90),
+    HALF_AND_HALF(50),
+    MOSTLY_OTHER(10);
+
+    private final int flightEventPercentage;
+
+    FlightEventMix(int flightEventPercentage) {
+        this.flightEventPercentage = flightEventPercentage;
+    }
+
+    public int getFlightEventPercentage() {
+        return flightEventPercentage;
+    }
+}
@@ -0,0 +1,105 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+import org.axonframework.eventhandling.Segment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link FlightIdForm}s on the path assigning an event to a segment, being the segment of every thread of
+ * a processor checking whether the flight id of the event matches its segment.
+ * <p>
+ * The pool holds {@link SyntheticFlightEvents#POOL_SIZE} flight ids of {@link SyntheticFlightEvents#FLIGHT_COUNT}
+ * flights, every one a separate instance, like the flight ids of deserialized events. Every invocation handles the
+ * whole pool, which JMH reports per flight id:
+ * <ul>
+ *     <li>{@link #assignSegment} matches every flight id against all {@link #segmentCount} segments,</li>
+ *     <li>{@link #createAndAssignSegment} first creates the flight id from a new copy of its {@code String} form, as
+ *     deserializing an event does, so hashes cached by earlier invocations do not count,</li>
+ *     <li>{@link #lookUpFlight} looks up every flight id in a map keyed by flight id, comparing it with a key of
+ *     another instance.</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class FlightIdBenchmark {
+
+    @Param({"STRING", "TWO_LONGS"})
+    public FlightIdForm form;
+
+    @Param({"4", "16"})
+    public int segmentCount;
+
+    private final String[] idStrings = new String[SyntheticFlightEvents.POOL_SIZE];
+    private final Object[] ids = new Object[SyntheticFlightEvents.POOL_SIZE];
+    private final Map<Object, Integer> flights = new HashMap<>();
+    private Segment[] segments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        String[] flightIds = new String[SyntheticFlightEvents.FLIGHT_COUNT];
+        for (int i = 0; i < flightIds.length; i++) {
+            flightIds[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+            flights.put(form.create(flightIds[i]), i);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            idStrings[i] = flightIds[random.nextInt(flightIds.length)];
+            ids[i] = form.create(new String(idStrings[i].toCharArray()));
+        }
+        List<Segment> balancedSegments = Segment.splitBalanced(Segment.ROOT_SEGMENT, segmentCount - 1);
+        segments = balancedSegments.toArray(new Segment[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SyntheticFlightEvents.POOL_SIZE)
+    public void assignSegment(Blackhole blackhole) {
+        for (Object id : ids) {
+            matchSegments(id, blackhole);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SyntheticFlightEvents.POOL_SIZE)
+    public void createAndAssignSegment(Blackhole blackhole) {
+        for (String idString : idStrings) {
+            matchSegments(form.create(new String(idString.toCharArray())), blackhole);
+        }
+    }
+
+    private void matchSegments(Object id, Blackhole blackhole) {
+        for (Segment segment : segments) {
+            blackhole.consume(segment.matches(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SyntheticFlightEvents.POOL_SIZE)
+    public void lookUpFlight(Blackhole blackhole) {
+        for (Object id : ids) {
+            blackhole.consume(flights.get(id));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+
+/**
+ * The forms of the flight id the {@link FlightIdBenchmark} compares.
+ */
+public enum FlightIdForm {
+
+    /**
+     * The {@link LegacyFlightId}, wrapping the {@code String} form of the UUID.
+     */
+    STRING {
+        @Override
+        Object create(String id) {
+            return new LegacyFlightId(id);
+        }
+    },
+
+    /**
+     * The {@link FlightId}, storing the UUID as two {@code long}s with a precomputed hash.
+     */
+    TWO_LONGS {
+        @Override
+        Object create(String id) {
+            return new FlightId(id);
+        }
+    };
+
+    /**
+     * Creates a flight id of this form from the given {@code String} form of a UUID.
+     *
+     * @param id the {@code String} form of a UUID
+     * @return a flight id of this form
+     */
+    abstract Object create(String id);
+}
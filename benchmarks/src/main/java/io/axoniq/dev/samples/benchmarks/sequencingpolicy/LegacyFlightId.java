@@ -0,0 +1,37 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+import java.util.Objects;
+
+/**
+ * A copy of the {@link io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId} as it was before it was stored as two
+ * {@code long}s, wrapping the {@code String} form of the UUID and hashing it with {@link Objects#hash(Object...)}.
+ */
+public class LegacyFlightId {
+
+    private final String id;
+
+    public LegacyFlightId(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        LegacyFlightId flightId1 = (LegacyFlightId) o;
+        return Objects.equals(id, flightId1.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,175 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.ArrivalTimeChangedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import io.axoniq.dev.samples.sequencingpolicy.loadgen.LatencyRecorder;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.FlightTime;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.FlightTimeProjector;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.FlightTimeRepository;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.InMemoryFlightTimeRepository;
+import org.axonframework.eventhandling.AnnotationEventHandlerAdapter;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.axonframework.messaging.unitofwork.RollbackConfigurationType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link FlightTimeProjector} writing every event to its read model with the projector in batch mode,
+ * writing only the final arrival time per flight of a batch.
+ * <p>
+ * The pool holds {@link SyntheticFlightEvents#POOL_SIZE} delays and arrival time changes of {@link #flights} scheduled
+ * flights, like the updates during a disruption. Every invocation handles the whole pool through the annotated handlers
+ * of the projector, in {@link BatchingUnitOfWork}s of {@link #batchSize} events as a processor does. JMH reports the
+ * throughput in events per millisecond. The {@link WriteCounters} report the arrival times written per millisecond,
+ * which divided by the throughput gives the number of writes per event.
+ * <p>
+ * The read model is the {@link InMemoryFlightTimeRepository}, which writes far cheaper than a database would. With a
+ * {@link #writeCost} above zero, every write also spends that many {@link Blackhole#consumeCPU(long)} tokens, standing
+ * in for the cost of writing a row to a real store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProjectionBatchBenchmark {
+
+    @Param({"false", "true"})
+    public boolean batchMode;
+
+    @Param({"1", "16", "64", "256"})
+    public int batchSize;
+
+    @Param({"16"})
+    public int flights;
+
+    @Param({"0", "500"})
+    public long writeCost;
+
+    private final List<List<EventMessage<?>>> batches = new ArrayList<>();
+    private WriteCostRepository repository;
+    private AnnotationEventHandlerAdapter projector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (SyntheticFlightEvents.POOL_SIZE % batchSize != 0) {
+            throw new IllegalArgumentException(
+                    "The batch size should divide the pool size of " + SyntheticFlightEvents.POOL_SIZE
+                            + ", but was [" + batchSize + "]"
+            );
+        }
+        repository = new WriteCostRepository(writeCost);
+        projector = new AnnotationEventHandlerAdapter(
+                new FlightTimeProjector(repository, new LatencyRecorder(), batchMode)
+        );
+        Random random = new Random(42L);
+        FlightId[] flightIds = new FlightId[flights];
+        Instant scheduledArrival = Instant.parse("2021-11-01T12:00:00Z");
+        for (int i = 0; i < flights; i++) {
+            flightIds[i] = new FlightId(new UUID(random.nextLong(), random.nextLong()));
+            repository.save(FlightTime.scheduled(flightIds[i], scheduledArrival));
+        }
+        EventMessage<?>[] events = new EventMessage<?>[SyntheticFlightEvents.POOL_SIZE];
+        for (int i = 0; i < events.length; i++) {
+            FlightId flightId = flightIds[random.nextInt(flights)];
+            events[i] = GenericEventMessage.asEventMessage(
+                    random.nextBoolean()
+                            ? new FlightDelayedEvent(flightId, Duration.ofMinutes(1 + random.nextInt(30)))
+                            : new ArrivalTimeChangedEvent(flightId, scheduledArrival.plusSeconds(random.nextInt(7200)))
+            );
+        }
+        for (int start = 0; start < events.length; start += batchSize) {
+            batches.add(Arrays.asList(Arrays.copyOfRange(events, start, start + batchSize)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SyntheticFlightEvents.POOL_SIZE)
+    public void handleEvents(WriteCounters counters) {
+        long writesBefore = repository.getWriteCount();
+        for (List<EventMessage<?>> batch : batches) {
+            BatchingUnitOfWork<EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(batch);
+            unitOfWork.executeWithResult(() -> projector.handle(unitOfWork.getMessage()),
+                                         RollbackConfigurationType.ANY_THROWABLE);
+        }
+        counters.writes += repository.getWriteCount() - writesBefore;
+    }
+
+    /**
+     * Counters reported by JMH as a rate next to the primary result, thus per millisecond.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class WriteCounters {
+
+        /**
+         * The number of arrival times written to the read model.
+         */
+        public long writes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            writes = 0;
+        }
+    }
+
+    /**
+     * An {@link InMemoryFlightTimeRepository} spending the given number of CPU tokens on every write.
+     */
+    private static class WriteCostRepository implements FlightTimeRepository {
+
+        private final InMemoryFlightTimeRepository delegate = new InMemoryFlightTimeRepository();
+        private final long writeCost;
+
+        private WriteCostRepository(long writeCost) {
+            this.writeCost = writeCost;
+        }
+
+        @Override
+        public Optional<FlightTime> find(FlightId flightId) {
+            return delegate.find(flightId);
+        }
+
+        @Override
+        public void save(FlightTime flightTime) {
+            Blackhole.consumeCPU(writeCost);
+            delegate.save(flightTime);
+        }
+
+        @Override
+        public List<FlightTime> findArrivingBetween(Instant from, Instant to, int limit) {
+            return delegate.findArrivingBetween(from, to, limit);
+        }
+
+        long getWriteCount() {
+            return delegate.getWriteCount();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to resolve the sequence identifier of a single event with the {@link SequencingPolicy}
+ * implementations of the sequencing-policy module.
+ * <p>
+ * Every invocation resolves the sequence identifier of all {@link SyntheticFlightEvents#POOL_SIZE} events in the pool,
+ * which JMH reports per event. Running with {@code -prof gc} thus reports the bytes allocated per event as {@code
+ * gc.alloc.rate.norm}. The {@link #flightEventTypes} parameter selects whether the flight event call sites in the
+ * policies see a single receiver type or all four, to show the effect of megamorphic call sites.
+ * <p>
+ * With {@link #serialized} set, every event is a new message holding the serialized payload and meta data, like an
+ * event read from the event store. The cost of a policy then includes deserializing whatever it reads from the event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SequencingPolicyBenchmark {
+
+    @Param({"FLIGHT_ID", "PROPERTY", "CLASS_VALUE_PROPERTY", "CLASS_VALUE_EXTRACTOR", "METADATA"})
+    public SequencingPolicyType policyType;
+
+    @Param({"FLIGHT_ONLY", "MOSTLY_FLIGHT", "HALF_AND_HALF", "MOSTLY_OTHER"})
+    public FlightEventMix mix;
+
+    @Param({"1", "4"})
+    public int flightEventTypes;
+
+    @Param({"false", "true"})
+    public boolean serialized;
+
+    private SequencingPolicy<EventMessage<?>> policy;
+    private SyntheticFlightEvents events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        policy = policyType.build();
+        events = new SyntheticFlightEvents(mix, flightEventTypes, 42L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SyntheticFlightEvents.POOL_SIZE)
+    public void resolveSequenceIdentifiers(Blackhole blackhole) {
+        for (int i = 0; i < SyntheticFlightEvents.POOL_SIZE; i++) {
+            EventMessage<?> event = serialized ? events.serializedEvent(i) : events.event(i);
+            blackhole.consume(policy.getSequenceIdentifierFor(event));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+import io.axoniq.dev.samples.sequencingpolicy.AxonConfig;
+import io.axoniq.dev.samples.sequencingpolicy.ClassValueSequencingPolicy;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.async.PropertySequencingPolicy;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+
+/**
+ * The {@link SequencingPolicy} implementations of the sequencing-policy module a benchmark can select.
+ */
+public enum SequencingPolicyType {
+
+    /**
+     * The custom {@code FlightIdSequencingPolicy}, as constructed by the {@link AxonConfig}.
+     */
+    FLIGHT_ID {
+        @Override
+        public SequencingPolicy<EventMessage<?>> build() {
+            return new AxonConfig().flightIdSequencingPolicy();
+        }
+    },
+
+    /**
+     * The reflective {@link PropertySequencingPolicy} reading the {@code flightId} property, as constructed by the
+     * {@link AxonConfig}, but returning {@code null} for other events like the {@code FlightIdSequencingPolicy} does.
+     * The policy of the {@code AxonConfig} raises an exception for those instead.
+     */
+    PROPERTY {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override
+        public SequencingPolicy<EventMessage<?>> build() {
+            SequencingPolicy policy = PropertySequencingPolicy.builder(FlightEvent.class, FlightId.class)
+                                                              .propertyName("flightId")
+                                                              .fallbackSequencingPolicy(event -> null)
+                                                              .build();
+            return (SequencingPolicy<EventMessage<?>>) policy;
+        }
+    },
+
+    /**
+     * The {@link ClassValueSequencingPolicy} reading the {@code flightId} property through a generated function per
+     * payload class, as constructed by the {@link AxonConfig}.
+     */
+    CLASS_VALUE_PROPERTY {
+        @Override
+        public SequencingPolicy<EventMessage<?>> build() {
+            return new AxonConfig().classValueSequencingPolicy();
+        }
+    },
+
+    /**
+     * The {@link ClassValueSequencingPolicy} extracting the flight id with a method reference to {@link
+     * FlightEvent#getFlightId()}.
+     */
+    CLASS_VALUE_EXTRACTOR {
+        @Override
+        public SequencingPolicy<EventMessage<?>> build() {
+            return ClassValueSequencingPolicy.forExtractor(FlightEvent.class, FlightEvent::getFlightId);
+        }
+    },
+
+    /**
+     * The {@code FlightIdMetaDataSequencingPolicy}, reading the flight id from the meta data instead of the payload, as
+     * constructed by the {@link AxonConfig}.
+     */
+    METADATA {
+        @Override
+        public SequencingPolicy<EventMessage<?>> build() {
+            return new AxonConfig().flightIdMetaDataSequencingPolicy();
+        }
+    };
+
+    /**
+     * Constructs the {@link SequencingPolicy} of this type.
+     *
+     * @return the {@link SequencingPolicy} of this type
+     */
+    public abstract SequencingPolicy<EventMessage<?>> build();
+}
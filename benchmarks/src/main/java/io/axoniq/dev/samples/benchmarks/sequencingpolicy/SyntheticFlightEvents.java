@@ -0,0 +1,136 @@
+package io.axoniq.dev.samples.benchmarks.sequencingpolicy;
+
+import com.thoughtworks.xstream.XStream;
+import io.axoniq.dev.samples.sequencingpolicy.FlightIdConverter;
+import io.axoniq.dev.samples.sequencingpolicy.FlightIdMetaDataDispatchInterceptor;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.ArrivalTimeChangedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightCanceledEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightScheduledEvent;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.serialization.SerializedMessage;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.xml.XStreamSerializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * A pool of event messages following a {@link FlightEventMix}, generated up front so a benchmark measures the
+ * sequencing policy rather than the creation of events.
+ * <p>
+ * The flight events are spread over {@link #FLIGHT_COUNT} flights and over the given number of flight event classes.
+ * With a single class, the {@code FlightEvent#getFlightId()} call sites of the policies only ever see one receiver
+ * type. With all four classes they see four, which makes these call sites megamorphic, as they are in the application.
+ * The order of the events is random, but fixed by the seed.
+ * <p>
+ * Every flight event carries its flight id in its meta data, as added by the {@link
+ * FlightIdMetaDataDispatchInterceptor} when publishing. Next to the events themselves, the pool holds their payload and
+ * meta data serialized with XStream, the default serializer of the application, with the {@link FlightIdConverter}
+ * registered as in the application. The {@link #serializedEvent(int)} method returns these as a new message that
+ * deserializes them lazily, like an event read from the event store.
+ */
+public class SyntheticFlightEvents {
+
+    /**
+     * The number of events in a pool, being a power of two to cycle through it cheaply.
+     */
+    public static final int POOL_SIZE = 1024;
+    /**
+     * The number of distinct flights the flight events belong to.
+     */
+    public static final int FLIGHT_COUNT = 64;
+    /**
+     * The maximum number of flight event classes a pool can contain.
+     */
+    public static final int MAX_FLIGHT_EVENT_TYPES = 4;
+
+    private final EventMessage<?>[] events = new EventMessage<?>[POOL_SIZE];
+    private final SerializedObject<?>[] serializedPayloads = new SerializedObject<?>[POOL_SIZE];
+    private final SerializedObject<?>[] serializedMetaData = new SerializedObject<?>[POOL_SIZE];
+    private final Serializer serializer;
+
+    /**
+     * Generates a pool of events following the given {@code mix}, of which the flight events are of the first {@code
+     * flightEventTypes} flight event classes.
+     *
+     * @param mix              the share of flight events in the pool
+     * @param flightEventTypes the number of flight event classes to use, between {@code 1} and {@link
+     *                         #MAX_FLIGHT_EVENT_TYPES}
+     * @param seed             the seed of the random order of the events
+     */
+    public SyntheticFlightEvents(FlightEventMix mix, int flightEventTypes, long seed) {
+        if (flightEventTypes < 1 || flightEventTypes > MAX_FLIGHT_EVENT_TYPES) {
+            throw new IllegalArgumentException(
+                    "The number of flight event types should be between 1 and " + MAX_FLIGHT_EVENT_TYPES
+                            + ", but was [" + flightEventTypes + "]"
+            );
+        }
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"io.axoniq.dev.samples.**"});
+        xStream.registerConverter(new FlightIdConverter());
+        serializer = XStreamSerializer.builder().xStream(xStream).build();
+        FlightIdMetaDataDispatchInterceptor interceptor = new FlightIdMetaDataDispatchInterceptor();
+        Random random = new Random(seed);
+        FlightId[] flightIds = new FlightId[FLIGHT_COUNT];
+        for (int i = 0; i < FLIGHT_COUNT; i++) {
+            flightIds[i] = new FlightId(new UUID(random.nextLong(), random.nextLong()));
+        }
+        for (int i = 0; i < POOL_SIZE; i++) {
+            Object payload = random.nextInt(100) < mix.getFlightEventPercentage()
+                    ? flightEvent(random.nextInt(flightEventTypes), flightIds[random.nextInt(FLIGHT_COUNT)])
+                    : "passenger-checked-in-" + i;
+            events[i] = interceptor.handle(GenericEventMessage.asEventMessage(payload));
+            serializedPayloads[i] = serializer.serialize(payload, byte[].class);
+            serializedMetaData[i] = serializer.serialize(events[i].getMetaData(), byte[].class);
+        }
+    }
+
+    private static Object flightEvent(int type, FlightId flightId) {
+        switch (type) {
+            case 0:
+                return new FlightDelayedEvent(flightId, Duration.ofMinutes(30));
+            case 1:
+                return new FlightScheduledEvent(flightId, "AMS", "CDG", LocalDateTime.of(2021, 11, 1, 12, 0));
+            case 2:
+                return new ArrivalTimeChangedEvent(flightId, Instant.ofEpochSecond(1635768000L));
+            default:
+                return new FlightCanceledEvent(flightId);
+        }
+    }
+
+    /**
+     * Returns the event at the given {@code index} of the pool, wrapping around at {@link #POOL_SIZE}.
+     *
+     * @param index the index of the event
+     * @return the event at the given {@code index} of the pool
+     */
+    public EventMessage<?> event(int index) {
+        return events[index & (POOL_SIZE - 1)];
+    }
+
+    /**
+     * Returns a new message for the event at the given {@code index} of the pool, wrapping around at {@link
+     * #POOL_SIZE}. The payload and meta data of the message are only deserialized when they are first read.
+     *
+     * @param index the index of the event
+     * @return a new message for the event at the given {@code index}, holding its serialized payload and meta data
+     */
+    public EventMessage<?> serializedEvent(int index) {
+        int poolIndex = index & (POOL_SIZE - 1);
+        EventMessage<?> event = events[poolIndex];
+        return new GenericEventMessage<>(
+                new SerializedMessage<>(event.getIdentifier(),
+                                        serializedPayloads[poolIndex],
+                                        serializedMetaData[poolIndex],
+                                        serializer),
+                event::getTimestamp
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package io.axoniq.dev.samples.benchmarks.upcaster;
+
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import io.axoniq.dev.samples.upcaster.json.JacksonFormat;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares replaying events stored as plain JSON with replaying events stored in one of the binary {@link
+ * JacksonFormat}s, Smile or CBOR.
+ * <p>
+ * Every invocation replays the complete pool of {@link SyntheticEventStream#POOL_SIZE} events through either the tree
+ * based or the streaming upcaster chain of the selected {@link #format}. The {@link ReplayCounters} report the events
+ * and the stored payload bytes read per second. Dividing {@code payloadBytes} by {@code events} gives the average
+ * stored payload size per event, thus the storage and read I/O each format takes for the same events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BinaryFormatBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public JacksonFormat format;
+
+    @Param({"false", "true"})
+    public boolean streaming;
+
+    @Param({"HALF_AND_HALF"})
+    public EventMix mix;
+
+    @Param({"3"})
+    public int passengersPerEvent;
+
+    private EventUpcasterChain upcasterChain;
+    private SyntheticEventStream events;
+    private long poolPayloadBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upcasterChain = streaming
+                ? EventUpcasterChainFactory.buildStreamingEventUpcasterChain(format)
+                : EventUpcasterChainFactory.buildEventUpcasterChain();
+        events = new SyntheticEventStream(mix, passengersPerEvent, format.serializer(), format.objectMapper());
+        poolPayloadBytes = events.poolPayloadBytes();
+    }
+
+    @Benchmark
+    public void replay(ReplayCounters counters, Blackhole blackhole) {
+        upcasterChain.upcast(events.stream(SyntheticEventStream.POOL_SIZE))
+                     .forEach(representation -> {
+                         blackhole.consume(representation.getType());
+                         blackhole.consume(representation.getData().getData());
+                     });
+        counters.events += SyntheticEventStream.POOL_SIZE;
+        counters.payloadBytes += poolPayloadBytes;
+    }
+
+    /**
+     * Counters reported by JMH as a rate next to the primary result, thus per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ReplayCounters {
+
+        /**
+         * The number of events read from the event stream.
+         */
+        public long events;
+        /**
+         * The number of stored payload bytes read from the event stream.
+         */
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+            payloadBytes = 0;
+        }
+    }
+}
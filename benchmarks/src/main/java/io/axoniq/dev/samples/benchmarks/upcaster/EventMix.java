@@ -0,0 +1,38 @@
+package io.axoniq.dev.samples.benchmarks.upcaster;
+
+/**
+ * The distribution of event types a {@link SyntheticEventStream} generates, expressed as percentages.
+ * <p>
+ * Next to the revision {@code 0} {@code FlightDelayedEvent} and {@code PassengerSeatsAdjustedEvent}, which both have
+ * an upcaster, a mix can contain "up to date" events. These are {@code FlightDelayedEvent}s at revision {@code 1.0},
+ * for which no upcaster applies. They reflect the bulk of a real event store, where only old events need upcasting.
+ */
+public enum EventMix {
+
+    FLIGHT_DELAYED_ONLY(100, 0, 0),
+    PASSENGER_SEATS_ONLY(0, 100, 0),
+    HALF_AND_HALF(50, 50, 0),
+    MOSTLY_UP_TO_DATE(5, 5, 90);
+
+    private final int flightDelayedPercentage;
+    private final int passengerSeatsPercentage;
+    private final int upToDatePercentage;
+
+    EventMix(int flightDelayedPercentage, int passengerSeatsPercentage, int upToDatePercentage) {
+        this.flightDelayedPercentage = flightDelayedPercentage;
+        this.passengerSeatsPercentage = passengerSeatsPercentage;
+        this.upToDatePercentage = upToDatePercentage;
+    }
+
+    public int getFlightDelayedPercentage() {
+        return flightDelayedPercentage;
+    }
+
+    public int getPassengerSeatsPercentage() {
+        return passengerSeatsPercentage;
+    }
+
+    public int getUpToDatePercentage() {
+        return upToDatePercentage;
+    }
+}
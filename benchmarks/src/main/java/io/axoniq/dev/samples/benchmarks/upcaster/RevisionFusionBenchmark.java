@@ -0,0 +1,129 @@
+package io.axoniq.dev.samples.benchmarks.upcaster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.axoniq.dev.samples.upcaster.json.RevisionChainFuser;
+import io.axoniq.dev.samples.upcaster.json.RevisionUpcaster;
+import io.axoniq.dev.samples.upcaster.json.TypeIndexedEventUpcasterChain;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares upcasting a revision {@code 0} {@code FlightDelayedEvent} through {@link #revisionHops} separate revision
+ * upcasters with upcasting it through the single upcaster the {@link RevisionChainFuser} fuses them into.
+ * <p>
+ * Every hop adds a field to the payload, representing a typical schema change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RevisionFusionBenchmark {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+
+    @Param({"1", "3", "5"})
+    public int revisionHops;
+
+    @Param({"false", "true"})
+    public boolean fused;
+
+    private EventUpcasterChain upcasterChain;
+    private SyntheticEventStream events;
+    private int nextEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<EventUpcaster> upcasters = new ArrayList<>();
+        for (int hop = 0; hop < revisionHops; hop++) {
+            upcasters.add(new AddedFieldRevisionUpcaster(revision(hop), revision(hop + 1)));
+        }
+        upcasterChain = new TypeIndexedEventUpcasterChain(fused ? RevisionChainFuser.fuse(upcasters) : upcasters);
+        events = new SyntheticEventStream(EventMix.FLIGHT_DELAYED_ONLY, 0, JacksonSerializer.defaultSerializer());
+    }
+
+    private static String revision(int revision) {
+        return revision == 0 ? null : revision + ".0";
+    }
+
+    @Benchmark
+    public void upcastEvent(Blackhole blackhole) {
+        IntermediateEventRepresentation event = events.event(nextEvent);
+        nextEvent = (nextEvent + 1) % SyntheticEventStream.POOL_SIZE;
+        upcasterChain.upcast(Stream.of(event))
+                     .forEach(representation -> blackhole.consume(representation.getData().getData()));
+    }
+
+    /**
+     * Revision upcaster adding a field named after the target revision to the payload.
+     */
+    private static class AddedFieldRevisionUpcaster extends SingleEventUpcaster
+            implements RevisionUpcaster<JsonNode> {
+
+        private final SerializedType sourceType;
+        private final SerializedType targetType;
+        private final String fieldName;
+
+        private AddedFieldRevisionUpcaster(String sourceRevision, String targetRevision) {
+            this.sourceType = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, sourceRevision);
+            this.targetType = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, targetRevision);
+            this.fieldName = "addedInRevision" + targetRevision;
+        }
+
+        @Override
+        public SerializedType sourceType() {
+            return sourceType;
+        }
+
+        @Override
+        public SerializedType targetType() {
+            return targetType;
+        }
+
+        @Override
+        public Class<JsonNode> payloadType() {
+            return JsonNode.class;
+        }
+
+        @Override
+        public JsonNode transformPayload(JsonNode payload) {
+            ((ObjectNode) payload).put(fieldName, true);
+            return payload;
+        }
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.getType().equals(sourceType);
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.upcastPayload(targetType, JsonNode.class, this::transformPayload);
+        }
+    }
+}
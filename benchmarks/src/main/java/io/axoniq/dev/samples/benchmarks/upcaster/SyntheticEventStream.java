@@ -0,0 +1,179 @@
+package io.axoniq.dev.samples.benchmarks.upcaster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.axonframework.eventhandling.EventData;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates streams of serialized events as an event store would hand them to the upcaster chain.
+ * <p>
+ * Generating millions of distinct events up front would make the benchmark measure the heap instead of the upcasters.
+ * Hence, a fixed pool of {@link #POOL_SIZE} serialized events is created following the given {@link EventMix}. Streams
+ * cycle through this pool, wrapping every entry in a fresh {@link InitialEventRepresentation} just like Axon does when
+ * reading from the event store.
+ */
+public class SyntheticEventStream {
+
+    static final int POOL_SIZE = 1024;
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+    private static final String[] AIRPORT_CODES = new String[]{"AMS", "LON", "PAR", "NYC", "LAX"};
+    private static final long SEED = 42L;
+
+    private final Serializer serializer;
+    private final EventData<?>[] pool;
+
+    /**
+     * Construct a synthetic event stream following the given {@code mix}.
+     *
+     * @param mix                the distribution of event types to generate
+     * @param passengersPerEvent the number of passenger seats contained in every {@code PassengerSeatsAdjustedEvent}
+     * @param serializer         the {@link Serializer} used to create the {@link InitialEventRepresentation}s
+     */
+    public SyntheticEventStream(EventMix mix, int passengersPerEvent, Serializer serializer) {
+        this(mix, passengersPerEvent, serializer, new ObjectMapper());
+    }
+
+    /**
+     * Construct a synthetic event stream following the given {@code mix}, with payloads and metadata written by the
+     * given {@code objectMapper}. This allows generating events in a binary format like Smile or CBOR.
+     *
+     * @param mix                the distribution of event types to generate
+     * @param passengersPerEvent the number of passenger seats contained in every {@code PassengerSeatsAdjustedEvent}
+     * @param serializer         the {@link Serializer} used to create the {@link InitialEventRepresentation}s
+     * @param objectMapper       the {@link ObjectMapper} writing the payloads and metadata of the generated events
+     */
+    public SyntheticEventStream(EventMix mix,
+                                int passengersPerEvent,
+                                Serializer serializer,
+                                ObjectMapper objectMapper) {
+        this.serializer = serializer;
+        this.pool = generatePool(mix, passengersPerEvent, objectMapper);
+    }
+
+    private static EventData<?>[] generatePool(EventMix mix, int passengersPerEvent, ObjectMapper objectMapper) {
+        Random random = new Random(SEED);
+        List<EventData<?>> events = new ArrayList<>(POOL_SIZE);
+        int flightDelayedCount = POOL_SIZE * mix.getFlightDelayedPercentage() / 100;
+        int passengerSeatsCount = POOL_SIZE * mix.getPassengerSeatsPercentage() / 100;
+        for (int i = 0; i < flightDelayedCount; i++) {
+            events.add(flightDelayedEvent(objectMapper, random, null));
+        }
+        for (int i = 0; i < passengerSeatsCount; i++) {
+            events.add(passengerSeatsAdjustedEvent(objectMapper, random, passengersPerEvent));
+        }
+        while (events.size() < POOL_SIZE) {
+            events.add(flightDelayedEvent(objectMapper, random, "1.0"));
+        }
+        Collections.shuffle(events, random);
+        return events.toArray(new EventData<?>[0]);
+    }
+
+    private static EventData<?> flightDelayedEvent(ObjectMapper objectMapper, Random random, String revision) {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("arrivalTime", LocalDateTime.of(2021, 5, 27, 15, 6).plusMinutes(random.nextInt(100_000))
+                                                .toString());
+        payload.put("flightId", "KL" + random.nextInt(10_000));
+        String origin = AIRPORT_CODES[random.nextInt(AIRPORT_CODES.length)];
+        String destination = AIRPORT_CODES[random.nextInt(AIRPORT_CODES.length)];
+        if (revision == null) {
+            payload.put("origin", origin);
+            payload.put("destination", destination);
+        } else {
+            ObjectNode leg = payload.putObject("leg");
+            leg.put("origin", origin);
+            leg.put("destination", destination);
+        }
+        return domainEventEntry(objectMapper, FLIGHT_DELAYED_EVENT_TYPE, revision, toBytes(objectMapper, payload));
+    }
+
+    private static EventData<?> passengerSeatsAdjustedEvent(ObjectMapper objectMapper,
+                                                            Random random,
+                                                            int passengersPerEvent) {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("flightId", new UUID(random.nextLong(), random.nextLong()).toString());
+        ObjectNode passengerSeats = payload.putObject("passengerSeats");
+        for (int seat = 1; seat <= passengersPerEvent; seat++) {
+            passengerSeats.put(new UUID(random.nextLong(), random.nextLong()).toString(), seat);
+        }
+        return domainEventEntry(
+                objectMapper, PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null, toBytes(objectMapper, payload)
+        );
+    }
+
+    private static byte[] toBytes(ObjectMapper objectMapper, ObjectNode payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EventData<?> domainEventEntry(ObjectMapper objectMapper,
+                                                 String payloadType,
+                                                 String payloadRevision,
+                                                 byte[] payload) {
+        return new GenericDomainEventEntry<>("Flight",
+                                             UUID.randomUUID().toString(),
+                                             0,
+                                             UUID.randomUUID().toString(),
+                                             Instant.now(),
+                                             payloadType,
+                                             payloadRevision,
+                                             payload,
+                                             toBytes(objectMapper, objectMapper.createObjectNode()));
+    }
+
+    /**
+     * Returns a lazily generated stream of {@code size} {@link IntermediateEventRepresentation}s.
+     *
+     * @param size the number of events in the stream
+     * @return a lazily generated stream of {@code size} {@link IntermediateEventRepresentation}s
+     */
+    public Stream<IntermediateEventRepresentation> stream(long size) {
+        return LongStream.range(0, size)
+                         .mapToObj(index -> event((int) (index % POOL_SIZE)));
+    }
+
+    /**
+     * Returns the {@link IntermediateEventRepresentation} of the event at the given {@code index} of the pool.
+     *
+     * @param index the index of the event in the pool, between {@code 0} and {@link #POOL_SIZE}
+     * @return the {@link IntermediateEventRepresentation} of the event at the given {@code index} of the pool
+     */
+    public IntermediateEventRepresentation event(int index) {
+        return new InitialEventRepresentation(pool[index], serializer);
+    }
+
+    /**
+     * Returns the total size in bytes of the serialized payloads in the pool, as a measure of the storage the events
+     * take up in the chosen format.
+     *
+     * @return the total size in bytes of the serialized payloads in the pool
+     */
+    public long poolPayloadBytes() {
+        long total = 0;
+        for (EventData<?> event : pool) {
+            total += ((byte[]) event.getPayload().getData()).length;
+        }
+        return total;
+    }
+}
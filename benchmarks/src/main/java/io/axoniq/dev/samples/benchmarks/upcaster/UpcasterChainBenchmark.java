@@ -0,0 +1,94 @@
+package io.axoniq.dev.samples.benchmarks.upcaster;
+
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of an {@link EventUpcasterChain} for streams of {@link #streamSize} events.
+ * <p>
+ * Every invocation pushes one complete stream through the chain and reads the type and payload of every resulting
+ * event, as the event processor would. Since upcasting is lazy, reading the payload is what triggers the actual
+ * transformation. The {@link EventCounters} report the number of events read from the stream and emitted by the chain
+ * per second. Run with {@code -prof gc} to get the allocation rate; dividing {@code gc.alloc.rate.norm} by the stream
+ * size gives the bytes allocated per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UpcasterChainBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public long streamSize;
+
+    @Param({"FLIGHT_DELAYED_ONLY", "PASSENGER_SEATS_ONLY", "HALF_AND_HALF", "MOSTLY_UP_TO_DATE"})
+    public EventMix mix;
+
+    @Param({"3"})
+    public int passengersPerEvent;
+
+    @Param({"DEFAULT", "STREAMING", "TYPE_INDEXED", "FUSED", "PARALLEL", "LAZY", "RULES"})
+    public UpcasterChainType chainType;
+
+    private EventUpcasterChain upcasterChain;
+    private SyntheticEventStream events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upcasterChain = chainType.build();
+        events = new SyntheticEventStream(mix, passengersPerEvent, JacksonSerializer.defaultSerializer());
+    }
+
+    @Benchmark
+    public void upcastStream(EventCounters counters, Blackhole blackhole) {
+        upcasterChain.upcast(events.stream(streamSize))
+                     .forEach(representation -> {
+                         blackhole.consume(representation.getType());
+                         blackhole.consume(representation.getData().getData());
+                         counters.upcastedEvents++;
+                     });
+        counters.events += streamSize;
+    }
+
+    /**
+     * Counters reported by JMH as a rate next to the primary result, thus as events per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class EventCounters {
+
+        /**
+         * The number of events read from the event stream.
+         */
+        public long events;
+        /**
+         * The number of events emitted by the upcaster chain, which differs from {@link #events} when upcasters split
+         * events.
+         */
+        public long upcastedEvents;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+            upcastedEvents = 0;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.axoniq.dev.samples.benchmarks.upcaster;
+
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Samples the latency of upcasting a single event through an {@link EventUpcasterChain}, reporting the percentiles
+ * (including p99) of the time per event.
+ * <p>
+ * As every operation handles exactly one event, running with {@code -prof gc} reports the bytes allocated per event
+ * directly as {@code gc.alloc.rate.norm}. Note that every operation wraps the event in a {@link Stream}
+ * of its own, which slightly overestimates the cost compared to {@link UpcasterChainBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UpcasterChainLatencyBenchmark {
+
+    @Param({"FLIGHT_DELAYED_ONLY", "PASSENGER_SEATS_ONLY", "HALF_AND_HALF", "MOSTLY_UP_TO_DATE"})
+    public EventMix mix;
+
+    @Param({"3", "400"})
+    public int passengersPerEvent;
+
+    @Param({"DEFAULT", "STREAMING", "TYPE_INDEXED", "FUSED", "LAZY", "RULES"})
+    public UpcasterChainType chainType;
+
+    private EventUpcasterChain upcasterChain;
+    private SyntheticEventStream events;
+    private int nextEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upcasterChain = chainType.build();
+        events = new SyntheticEventStream(mix, passengersPerEvent, JacksonSerializer.defaultSerializer());
+    }
+
+    @Benchmark
+    public void upcastEvent(Blackhole blackhole) {
+        IntermediateEventRepresentation event = events.event(nextEvent);
+        nextEvent = (nextEvent + 1) % SyntheticEventStream.POOL_SIZE;
+        upcasterChain.upcast(Stream.of(event))
+                     .forEach(representation -> {
+                         blackhole.consume(representation.getType());
+                         blackhole.consume(representation.getData().getData());
+                     });
+    }
+}
@@ -0,0 +1,30 @@
+package io.axoniq.dev.samples.benchmarks.upcaster;
+
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@link EventUpcasterChain} variants the upcaster benchmarks can run against.
+ */
+public enum UpcasterChainType {
+
+    DEFAULT(EventUpcasterChainFactory::buildEventUpcasterChain),
+    STREAMING(EventUpcasterChainFactory::buildStreamingEventUpcasterChain),
+    TYPE_INDEXED(EventUpcasterChainFactory::buildTypeIndexedEventUpcasterChain),
+    FUSED(EventUpcasterChainFactory::buildFusedEventUpcasterChain),
+    PARALLEL(EventUpcasterChainFactory::buildParallelEventUpcasterChain),
+    LAZY(EventUpcasterChainFactory::buildLazyEventUpcasterChain),
+    RULES(EventUpcasterChainFactory::buildRuleBasedEventUpcasterChain);
+
+    private final Supplier<EventUpcasterChain> chainBuilder;
+
+    UpcasterChainType(Supplier<EventUpcasterChain> chainBuilder) {
+        this.chainBuilder = chainBuilder;
+    }
+
+    public EventUpcasterChain build() {
+        return chainBuilder.get();
+    }
+}
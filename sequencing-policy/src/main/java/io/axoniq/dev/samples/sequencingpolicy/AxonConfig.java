@@ -1,12 +1,16 @@
 package io.axoniq.dev.samples.sequencingpolicy;
 
+import com.thoughtworks.xstream.XStream;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightEvent;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import org.axonframework.eventhandling.EventBus;
 import org.axonframework.eventhandling.EventMessage;
 import org.axonframework.eventhandling.async.PropertySequencingPolicy;
 import org.axonframework.eventhandling.async.SequencingPolicy;
 import org.axonframework.eventhandling.tokenstore.TokenStore;
 import org.axonframework.eventhandling.tokenstore.inmemory.InMemoryTokenStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -55,4 +59,59 @@ public class AxonConfig {
                                        .propertyName("flightId")
                                        .build();
     }
+
+    /**
+     * Constructs a {@link ClassValueSequencingPolicy} reading the {@code flightId} property of {@link FlightEvent}
+     * implementations.
+     * <p>
+     * Added as a faster replacement of both the {@link FlightIdSequencingPolicy} and the {@link
+     * PropertySequencingPolicy}, as it decides how to read the {@link FlightId} once per payload class instead of once
+     * per event.
+     *
+     * @return a {@link ClassValueSequencingPolicy} using the {@link FlightId} to sequence on
+     */
+    @Bean
+    @Qualifier("classValueSequencingPolicy")
+    @ConditionalOnProperty(value = "policy", havingValue = "classvalue")
+    public SequencingPolicy<EventMessage<?>> classValueSequencingPolicy() {
+        return ClassValueSequencingPolicy.forProperty(FlightEvent.class, "flightId");
+    }
+
+    /**
+     * Constructs the {@link FlightIdMetaDataSequencingPolicy}, which reads the flight id from the meta data of the
+     * events instead of from their payload.
+     *
+     * @return the {@link FlightIdMetaDataSequencingPolicy}
+     */
+    @Bean
+    @Qualifier("flightIdMetaDataSequencingPolicy")
+    @ConditionalOnProperty(value = "policy", havingValue = "metadata")
+    public SequencingPolicy<EventMessage<?>> flightIdMetaDataSequencingPolicy() {
+        return new FlightIdMetaDataSequencingPolicy();
+    }
+
+    /**
+     * Registers the {@link FlightIdMetaDataDispatchInterceptor} with the {@link EventBus}, which adds the flight id to
+     * the meta data of every published flight event.
+     * <p>
+     * The interceptor is registered regardless of the configured policy. This way, all events carry the flight id in
+     * their meta data by the time the {@link FlightIdMetaDataSequencingPolicy} is taken into use.
+     *
+     * @param eventBus the {@link EventBus} to register the {@link FlightIdMetaDataDispatchInterceptor} with
+     */
+    @Autowired
+    public void registerFlightIdMetaDataInterceptor(EventBus eventBus) {
+        eventBus.registerDispatchInterceptor(new FlightIdMetaDataDispatchInterceptor());
+    }
+
+    /**
+     * Registers the {@link FlightIdConverter} with the {@link XStream} instance of the default serializer, if any, to
+     * keep the serialized form of the {@link FlightId} as it was before it was stored as two {@code long}s.
+     *
+     * @param xStream the {@link XStream} instance of the default serializer, if any
+     */
+    @Autowired
+    public void registerFlightIdConverter(ObjectProvider<XStream> xStream) {
+        xStream.ifAvailable(instance -> instance.registerConverter(new FlightIdConverter()));
+    }
 }
@@ -0,0 +1,159 @@
+package io.axoniq.dev.samples.sequencingpolicy;
+
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Implementation of the {@link SequencingPolicy} that decides once per payload class how to extract the sequence
+ * identifier, instead of once per event.
+ * <p>
+ * The decision is cached in a {@link ClassValue}. For a payload class assignable to the configured payload type, it
+ * holds the function extracting the identifier from the payload. For any other class, it holds the decision to use
+ * the fallback policy. Resolving the identifier of an event thus takes a single {@code ClassValue} lookup, after which
+ * the payload is handed to the cached function without further type checks.
+ * <p>
+ * Use {@link #forExtractor(Class, Function)} to extract the identifier with a given function, like a method reference
+ * to {@link io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightEvent#getFlightId()}. Use {@link #forProperty(Class,
+ * String)} as a replacement for the {@link org.axonframework.eventhandling.async.PropertySequencingPolicy}, reading a
+ * property through its getter. Rather than invoking the getter reflectively for every event, a function invoking the
+ * getter of the concrete payload class directly is generated for every payload class.
+ * <p>
+ * Events of which the payload is not of the payload type are handed to the fallback policy, which by default returns
+ * {@code null}, like the {@link FlightIdSequencingPolicy}. Use {@link #withFallback(SequencingPolicy)} to change it.
+ */
+public class ClassValueSequencingPolicy implements SequencingPolicy<EventMessage<?>> {
+
+    private static final Function<Object, Object> USE_FALLBACK = payload -> null;
+
+    private final ClassValue<Function<Object, Object>> extractors;
+    private final SequencingPolicy<? super EventMessage<?>> fallbackPolicy;
+
+    /**
+     * Constructs a policy extracting the sequence identifier of payloads of the given {@code payloadType} with the
+     * given {@code extractor}.
+     *
+     * @param payloadType the type of the payloads to extract the sequence identifier from
+     * @param extractor   the function extracting the sequence identifier from a payload
+     * @param <T>         the type of the payloads to extract the sequence identifier from
+     * @return a policy extracting the sequence identifier of payloads of the given {@code payloadType}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ClassValueSequencingPolicy forExtractor(Class<T> payloadType,
+                                                              Function<? super T, ?> extractor) {
+        Function<Object, Object> payloadExtractor = (Function<Object, Object>) extractor;
+        return new ClassValueSequencingPolicy(new ClassValue<Function<Object, Object>>() {
+            @Override
+            protected Function<Object, Object> computeValue(Class<?> payloadClass) {
+                return payloadType.isAssignableFrom(payloadClass) ? payloadExtractor : USE_FALLBACK;
+            }
+        }, event -> null);
+    }
+
+    /**
+     * Constructs a policy returning the property with the given {@code propertyName} of payloads of the given {@code
+     * payloadType} as the sequence identifier. The property is read through its getter, being a public method named
+     * {@code get} followed by the capitalized {@code propertyName}, or named {@code propertyName} itself.
+     *
+     * @param payloadType  the type of the payloads to read the property from
+     * @param propertyName the name of the property holding the sequence identifier
+     * @return a policy returning the property with the given {@code propertyName} as the sequence identifier
+     * @throws IllegalArgumentException if the {@code payloadType} has no getter for the property
+     */
+    public static ClassValueSequencingPolicy forProperty(Class<?> payloadType, String propertyName) {
+        Method getter = findGetter(payloadType, propertyName);
+        Function<Object, Object> declaredExtractor = generateExtractor(payloadType, getter);
+        return new ClassValueSequencingPolicy(new ClassValue<Function<Object, Object>>() {
+            @Override
+            protected Function<Object, Object> computeValue(Class<?> payloadClass) {
+                if (!payloadType.isAssignableFrom(payloadClass)) {
+                    return USE_FALLBACK;
+                }
+                if (!Modifier.isPublic(payloadClass.getModifiers())) {
+                    return declaredExtractor;
+                }
+                try {
+                    return generateExtractor(payloadClass, findGetter(payloadClass, propertyName));
+                } catch (IllegalArgumentException e) {
+                    // The getter of the payload class is not accessible, so invoke it through the payload type
+                    return declaredExtractor;
+                }
+            }
+        }, event -> null);
+    }
+
+    private static Method findGetter(Class<?> type, String propertyName) {
+        String getterName = "get" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        for (String name : new String[]{getterName, propertyName}) {
+            try {
+                Method method = type.getMethod(name);
+                if (method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next name
+            }
+        }
+        throw new IllegalArgumentException(
+                "Type [" + type.getName() + "] has no public getter for property [" + propertyName + "]"
+        );
+    }
+
+    /**
+     * Generates a function invoking the given {@code getter} on payloads of the given {@code payloadClass}. The
+     * generated function invokes the getter directly, so the JIT compiler can inline it like a method reference.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> generateExtractor(Class<?> payloadClass, Method getter) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle getterHandle = lookup.unreflect(getter);
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getterHandle,
+                    MethodType.methodType(getter.getReturnType(), payloadClass).wrap()
+            );
+            return (Function<Object, Object>) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(
+                    "Unable to generate a function invoking [" + getter + "] on [" + payloadClass.getName() + "]", e
+            );
+        }
+    }
+
+    private ClassValueSequencingPolicy(ClassValue<Function<Object, Object>> extractors,
+                                       SequencingPolicy<? super EventMessage<?>> fallbackPolicy) {
+        this.extractors = extractors;
+        this.fallbackPolicy = fallbackPolicy;
+    }
+
+    /**
+     * Returns a policy with the same extraction as this one, handing events of which the payload is not of the payload
+     * type to the given {@code fallbackPolicy}.
+     *
+     * @param fallbackPolicy the policy resolving the sequence identifier of events of another payload type
+     * @return a policy with the same extraction as this one, using the given {@code fallbackPolicy}
+     */
+    public ClassValueSequencingPolicy withFallback(SequencingPolicy<? super EventMessage<?>> fallbackPolicy) {
+        return new ClassValueSequencingPolicy(extractors, fallbackPolicy);
+    }
+
+    @Override
+    public Object getSequenceIdentifierFor(EventMessage<?> event) {
+        Function<Object, Object> extractor = extractors.get(event.getPayloadType());
+        return extractor == USE_FALLBACK
+                ? fallbackPolicy.getSequenceIdentifierFor(event)
+                : extractor.apply(event.getPayload());
+    }
+}
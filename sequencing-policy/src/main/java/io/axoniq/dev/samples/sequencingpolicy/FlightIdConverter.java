@@ -0,0 +1,47 @@
+package io.axoniq.dev.samples.sequencingpolicy;
+
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+
+/**
+ * XStream {@link Converter} writing a {@link FlightId} as an {@code id} element holding its {@code String} form.
+ * <p>
+ * This is the form XStream wrote when the {@code FlightId} held the {@code String} form in its {@code id} field, so
+ * events stored before and after the {@code FlightId} was stored as two {@code long}s can be read alike.
+ */
+public class FlightIdConverter implements Converter {
+
+    private static final String ID_ELEMENT = "id";
+
+    @Override
+    public boolean canConvert(@SuppressWarnings("rawtypes") Class type) {
+        return FlightId.class.equals(type);
+    }
+
+    @Override
+    public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+        writer.startNode(ID_ELEMENT);
+        writer.setValue(((FlightId) source).getId());
+        writer.endNode();
+    }
+
+    @Override
+    public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+        String id = null;
+        while (reader.hasMoreChildren()) {
+            reader.moveDown();
+            if (ID_ELEMENT.equals(reader.getNodeName())) {
+                id = reader.getValue();
+            }
+            reader.moveUp();
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("A serialized FlightId should hold an [" + ID_ELEMENT + "] element");
+        }
+        return new FlightId(id);
+    }
+}
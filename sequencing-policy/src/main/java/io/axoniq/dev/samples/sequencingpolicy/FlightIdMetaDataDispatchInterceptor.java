@@ -0,0 +1,36 @@
+package io.axoniq.dev.samples.sequencingpolicy;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightEvent;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * A {@link MessageDispatchInterceptor} adding the {@link io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId} of
+ * every {@link FlightEvent} to the meta data of the event, under the {@link #FLIGHT_ID_KEY}.
+ * <p>
+ * Adding the flight id while publishing allows the {@link FlightIdMetaDataSequencingPolicy} to sequence events based on
+ * their meta data alone. Other events are dispatched as is.
+ */
+public class FlightIdMetaDataDispatchInterceptor implements MessageDispatchInterceptor<EventMessage<?>> {
+
+    /**
+     * The meta data key holding the identifier of the flight a {@link FlightEvent} belongs to.
+     */
+    public static final String FLIGHT_ID_KEY = "flightId";
+
+    @Override
+    public BiFunction<Integer, EventMessage<?>, EventMessage<?>> handle(List<? extends EventMessage<?>> messages) {
+        return (index, event) -> {
+            Object payload = event.getPayload();
+            return payload instanceof FlightEvent
+                    ? event.andMetaData(Collections.singletonMap(
+                            FLIGHT_ID_KEY, ((FlightEvent) payload).getFlightId().getId()
+                    ))
+                    : event;
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package io.axoniq.dev.samples.sequencingpolicy;
+
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+
+import static io.axoniq.dev.samples.sequencingpolicy.FlightIdMetaDataDispatchInterceptor.FLIGHT_ID_KEY;
+
+/**
+ * Implementation of the {@link SequencingPolicy} returning the flight id from the meta data of an event, as added by
+ * the {@link FlightIdMetaDataDispatchInterceptor}.
+ * <p>
+ * Contrary to the {@link FlightIdSequencingPolicy}, this policy never reads the payload of the event. When events are
+ * read from the event store, the payload thus is not deserialized by every segment to decide whether it should handle
+ * the event, but only by the segment that handles it. Only the meta data is deserialized, which is typically a lot
+ * smaller.
+ * <p>
+ * Events without a flight id in their meta data, like those published before the interceptor was in place, return
+ * {@code null}. Hence, events of a flight that were published before and after introducing the interceptor can end up
+ * in different segments.
+ */
+public class FlightIdMetaDataSequencingPolicy implements SequencingPolicy<EventMessage<?>> {
+
+    @Override
+    public Object getSequenceIdentifierFor(EventMessage<?> event) {
+        // when returning null, Axon will default to EventMessage#getIdentifier
+        return event.getMetaData().get(FLIGHT_ID_KEY);
+    }
+}
@@ -0,0 +1,61 @@
+package io.axoniq.dev.samples.sequencingpolicy.controller;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FindFlightTimeQuery;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FindFlightTimesArrivingBetweenQuery;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.FlightTime;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.QueryGateway;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Endpoint querying the arrival times maintained by the {@link
+ * io.axoniq.dev.samples.sequencingpolicy.querymodel.FlightTimeProjector}, by flight or by the time window of their
+ * arrival. A flight id that is not a UUID fails the request with a bad request status.
+ */
+@Controller
+@RequestMapping("flights")
+public class FlightTimeController {
+
+    private final QueryGateway queryGateway;
+
+    public FlightTimeController(QueryGateway queryGateway) {
+        this.queryGateway = queryGateway;
+    }
+
+    @GetMapping("{flightId}")
+    public Mono<ResponseEntity<FlightTime>> flightTime(@PathVariable String flightId) {
+        FindFlightTimeQuery query;
+        try {
+            query = new FindFlightTimeQuery(new FlightId(flightId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return Mono.fromFuture(queryGateway.query(query, ResponseTypes.optionalInstanceOf(FlightTime.class)))
+                   .map(flightTime -> flightTime.map(ResponseEntity::ok)
+                                                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<FlightTime>>> arrivingBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return Mono.fromFuture(queryGateway.query(new FindFlightTimesArrivingBetweenQuery(from, to, limit),
+                                                  ResponseTypes.multipleInstancesOf(FlightTime.class)))
+                   .map(ResponseEntity::ok);
+    }
+}
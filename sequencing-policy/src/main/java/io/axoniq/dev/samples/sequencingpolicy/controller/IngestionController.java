@@ -0,0 +1,47 @@
+package io.axoniq.dev.samples.sequencingpolicy.controller;
+
+import io.axoniq.dev.samples.sequencingpolicy.ingestion.FlightEventIngestion;
+import io.axoniq.dev.samples.sequencingpolicy.ingestion.FlightEventLine;
+import io.axoniq.dev.samples.sequencingpolicy.ingestion.IngestionReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Endpoint ingesting a newline delimited JSON stream of {@link FlightEventLine}s, for load tests and backfills of any
+ * size. The body is decoded line by line while it is read, and read as fast as the {@link FlightEventIngestion}
+ * publishes the events.
+ * <p>
+ * The response is the {@link IngestionReport} of the stream. A line that is not a valid flight event fails the request
+ * with a bad request status, but the batches published before that line remain published.
+ */
+@Controller
+@RequestMapping("ingest")
+public class IngestionController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final FlightEventIngestion ingestion;
+
+    public IngestionController(FlightEventIngestion ingestion) {
+        this.ingestion = ingestion;
+    }
+
+    @PostMapping(consumes = NDJSON, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<IngestionReport>> ingest(@RequestBody Flux<FlightEventLine> lines,
+                                                        @RequestParam(required = false) Integer batchSize) {
+        return ingestion.ingest(lines.map(FlightEventLine::toEvent),
+                                batchSize == null ? ingestion.getDefaultBatchSize() : batchSize)
+                        .onErrorMap(IllegalArgumentException.class,
+                                    e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e))
+                        .map(ResponseEntity::ok);
+    }
+}
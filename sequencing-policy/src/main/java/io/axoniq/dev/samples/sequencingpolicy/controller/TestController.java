@@ -5,60 +5,107 @@ import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightCanceledEvent;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightScheduledEvent;
-import org.axonframework.eventhandling.gateway.EventGateway;
+import io.axoniq.dev.samples.sequencingpolicy.ingestion.FlightEventIngestion;
+import io.axoniq.dev.samples.sequencingpolicy.ingestion.IngestionReport;
+import io.axoniq.dev.samples.sequencingpolicy.loadgen.LoadGenerator;
+import io.axoniq.dev.samples.sequencingpolicy.loadgen.LoadProfile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.UUID;
-import java.util.stream.IntStream;
 
 @Controller
 @RequestMapping("test")
 public class TestController {
 
-    private static final String[] DESTINATIONS = new String[]{
-            "HEL", "CDG", "ORY", "CGN", "MUC", "BUD", "DUB", "LIN", "MXP", "SKP", "AMS", "EIN", "WRO", "BEG", "BCN",
-            "MAD"
-    };
     private static final Random RANDOM = new Random();
 
-    private final EventGateway eventGateway;
+    private final FlightEventIngestion ingestion;
+    private final LoadGenerator loadGenerator;
 
-    public TestController(EventGateway eventGateway) {
-        this.eventGateway = eventGateway;
+    public TestController(FlightEventIngestion ingestion, LoadGenerator loadGenerator) {
+        this.ingestion = ingestion;
+        this.loadGenerator = loadGenerator;
     }
 
+    /**
+     * Generates five events for every one of the given {@code amount} of flights, published in batches by the {@link
+     * FlightEventIngestion} as they are generated.
+     *
+     * @param amount the number of flights to generate events for
+     * @return the {@link IngestionReport} of the generated events
+     */
     @PostMapping("bulk/{amount}")
-    public ResponseEntity<Void> bulkEvents(@PathVariable Integer amount) {
-        IntStream.range(0, amount)
-                 .forEach(i -> {
-                     FlightId flightId = new FlightId(UUID.randomUUID().toString());
-                     LocalDateTime scheduledArrival = LocalDateTime.now();
-                     String origin = fetchDestination();
-                     String destination = fetchDestination();
-                     eventGateway.publish(
-                             new FlightScheduledEvent(flightId, origin, destination, scheduledArrival),
-                             new FlightDelayedEvent(flightId, Duration.ofHours(1)),
-                             new ArrivalTimeChangedEvent(
-                                     flightId, scheduledArrival.plus(1, ChronoUnit.HOURS).toInstant(ZoneOffset.UTC)
-                             ),
-                             new FlightDelayedEvent(flightId, Duration.ofHours(10)),
-                             new FlightCanceledEvent(flightId)
-                     );
-                 });
+    public Mono<ResponseEntity<IngestionReport>> bulkEvents(@PathVariable Integer amount) {
+        Flux<Object> events = Flux.range(0, amount)
+                                  .concatMapIterable(i -> flightEvents());
+        return ingestion.ingest(events, ingestion.getDefaultBatchSize())
+                        .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Starts an open-loop run of the {@link LoadGenerator}, publishing events at the given {@code rate} for the given
+     * number of {@code seconds}. The latency report is logged once the run is done.
+     *
+     * @param rate       the mean number of events to publish per second
+     * @param seconds    the number of seconds to publish events for
+     * @param flights    the number of flights the events belong to
+     * @param skew       the exponent of the Zipf distribution of the events over the flights
+     * @param seed       the seed making the run repeatable
+     * @param publishers the number of threads publishing the events
+     * @return {@code 202 Accepted} if the run started, or {@code 409 Conflict} if another run is taking place
+     * @throws ResponseStatusException with a bad request status if any of the values is out of range
+     */
+    @PostMapping("load")
+    public ResponseEntity<Void> load(@RequestParam(defaultValue = "500") double rate,
+                                     @RequestParam(defaultValue = "60") long seconds,
+                                     @RequestParam(defaultValue = "10000") int flights,
+                                     @RequestParam(defaultValue = "1.0") double skew,
+                                     @RequestParam(defaultValue = "42") long seed,
+                                     @RequestParam(defaultValue = "4") int publishers) {
+        LoadProfile profile;
+        try {
+            profile = new LoadProfile(rate, Duration.ofSeconds(seconds), flights, skew, seed, publishers);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return loadGenerator.start(profile)
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
 
-        return ResponseEntity.ok().build();
+    private static List<Object> flightEvents() {
+        FlightId flightId = new FlightId(UUID.randomUUID());
+        LocalDateTime scheduledArrival = LocalDateTime.now();
+        String origin = fetchDestination();
+        String destination = fetchDestination();
+        return Arrays.asList(
+                new FlightScheduledEvent(flightId, origin, destination, scheduledArrival),
+                new FlightDelayedEvent(flightId, Duration.ofHours(1)),
+                new ArrivalTimeChangedEvent(
+                        flightId, scheduledArrival.plus(1, ChronoUnit.HOURS).toInstant(ZoneOffset.UTC)
+                ),
+                new FlightDelayedEvent(flightId, Duration.ofHours(10)),
+                new FlightCanceledEvent(flightId)
+        );
     }
 
     private static String fetchDestination() {
-        return DESTINATIONS[RANDOM.nextInt(DESTINATIONS.length)];
+        return LoadGenerator.AIRPORTS[RANDOM.nextInt(LoadGenerator.AIRPORTS.length)];
     }
 }
@@ -0,0 +1,40 @@
+package io.axoniq.dev.samples.sequencingpolicy.coreapi;
+
+import java.util.Objects;
+
+public class FindFlightTimeQuery {
+
+    private final FlightId flightId;
+
+    public FindFlightTimeQuery(FlightId flightId) {
+        this.flightId = flightId;
+    }
+
+    public FlightId getFlightId() {
+        return flightId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FindFlightTimeQuery that = (FindFlightTimeQuery) o;
+        return Objects.equals(flightId, that.flightId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(flightId);
+    }
+
+    @Override
+    public String toString() {
+        return "FindFlightTimeQuery{" +
+                "flightId=" + flightId +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package io.axoniq.dev.samples.sequencingpolicy.coreapi;
+
+import java.time.Instant;
+import java.util.Objects;
+
+public class FindFlightTimesArrivingBetweenQuery {
+
+    private final Instant from;
+    private final Instant to;
+    private final int limit;
+
+    public FindFlightTimesArrivingBetweenQuery(Instant from, Instant to, int limit) {
+        this.from = from;
+        this.to = to;
+        this.limit = limit;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FindFlightTimesArrivingBetweenQuery that = (FindFlightTimesArrivingBetweenQuery) o;
+        return limit == that.limit && Objects.equals(from, that.from) && Objects.equals(to, that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, limit);
+    }
+
+    @Override
+    public String toString() {
+        return "FindFlightTimesArrivingBetweenQuery{" +
+                "from=" + from +
+                ", to=" + to +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -1,18 +1,191 @@
 package io.axoniq.dev.samples.sequencingpolicy.coreapi;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.UUID;
 
+/**
+ * The identifier of a flight, being a {@link UUID}.
+ * <p>
+ * The identifier is stored as the two {@code long}s of the UUID rather than as its {@code String} form, and its hash is
+ * computed once. Comparing and hashing a {@code FlightId}, which the sequencing policies do for every event, thus does
+ * not touch the {@code String} form. The hash equals the one of the {@code FlightId} wrapping the {@code String} form,
+ * so events are assigned to the same segments as before.
+ * <p>
+ * An identifier stored in any other form than the lower case form {@link UUID#toString()} returns, like an upper case
+ * UUID or an identifier that is no UUID at all, is not {@link #isCanonical() canonical}. Such an identifier keeps its
+ * {@code String} form, which it is serialized, compared and hashed by as before, so its events keep their segment. Its
+ * two {@code long}s are those of the name based UUID of the {@code String} form, which differ from those of any random
+ * UUID.
+ * <p>
+ * The serialized form is unchanged, holding the {@code String} form as the {@code id} property. Jackson uses the {@link
+ * #getId()} getter and the annotated constructor, XStream the {@link
+ * io.axoniq.dev.samples.sequencingpolicy.FlightIdConverter}.
+ */
 public class FlightId {
 
-    private final String id;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = new byte['f' + 1];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < HEX_DIGITS.length; i++) {
+            HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+        }
+    }
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final String nonCanonicalId;
+    private final int hash;
+
+    /**
+     * Constructs a {@code FlightId} from the given {@code String} form.
+     * <p>
+     * The lower case form {@link UUID#toString()} returns, which is the form of the serialized flight ids, is parsed
+     * directly and hashed with its cached {@link String#hashCode()}. Any other form is kept as is, as a non canonical
+     * identifier.
+     *
+     * @param id the {@code String} form of the identifier, being the lower case form of a {@link UUID}
+     */
+    @JsonCreator
+    public FlightId(@JsonProperty("id") String id) {
+        long timeLow = -1;
+        long timeMid = -1;
+        long timeHigh = -1;
+        long clockSequence = -1;
+        long node = -1;
+        if (id.length() == 36
+                && id.charAt(8) == '-' && id.charAt(13) == '-' && id.charAt(18) == '-' && id.charAt(23) == '-') {
+            timeLow = hexValue(id, 0, 8);
+            timeMid = hexValue(id, 9, 13);
+            timeHigh = hexValue(id, 14, 18);
+            clockSequence = hexValue(id, 19, 23);
+            node = hexValue(id, 24, 36);
+        }
+        if ((timeLow | timeMid | timeHigh | clockSequence | node) >= 0) {
+            this.mostSignificantBits = timeLow << 32 | timeMid << 16 | timeHigh;
+            this.leastSignificantBits = clockSequence << 48 | node;
+            this.nonCanonicalId = null;
+        } else {
+            UUID nameBased = UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8));
+            this.mostSignificantBits = nameBased.getMostSignificantBits();
+            this.leastSignificantBits = nameBased.getLeastSignificantBits();
+            this.nonCanonicalId = id;
+        }
+        this.hash = 31 + id.hashCode();
+    }
+
+    /**
+     * Constructs a {@code FlightId} from the given {@code id}.
+     *
+     * @param id the {@link UUID} identifying the flight
+     */
+    public FlightId(UUID id) {
+        this.mostSignificantBits = id.getMostSignificantBits();
+        this.leastSignificantBits = id.getLeastSignificantBits();
+        this.nonCanonicalId = null;
+        this.hash = 31 + stringFormHash(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Constructs a {@code FlightId} from the two {@code long}s of its {@link UUID}, as returned by {@link
+     * #getMostSignificantBits()} and {@link #getLeastSignificantBits()} of a {@link #isCanonical() canonical}
+     * identifier.
+     *
+     * @param mostSignificantBits  the most significant bits of the {@link UUID} identifying the flight
+     * @param leastSignificantBits the least significant bits of the {@link UUID} identifying the flight
+     */
+    public FlightId(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.nonCanonicalId = null;
+        this.hash = 31 + stringFormHash(mostSignificantBits, leastSignificantBits);
+    }
 
-    public FlightId(String id) {
-        this.id = id;
+    /**
+     * Returns the most significant bits of the {@link UUID} identifying the flight, or of the name based UUID of a non
+     * {@link #isCanonical() canonical} identifier. Not part of the serialized form.
+     *
+     * @return the most significant bits of the {@link UUID} identifying the flight
+     */
+    @JsonIgnore
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
     }
 
+    /**
+     * Returns the least significant bits of the {@link UUID} identifying the flight, or of the name based UUID of a non
+     * {@link #isCanonical() canonical} identifier. Not part of the serialized form.
+     *
+     * @return the least significant bits of the {@link UUID} identifying the flight
+     */
+    @JsonIgnore
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /**
+     * Returns whether this identifier is in the lower case form {@link UUID#toString()} returns, and thus fully
+     * described by its two {@code long}s. Not part of the serialized form.
+     *
+     * @return {@code true} if this identifier is in the form {@link UUID#toString()} returns, {@code false} otherwise
+     */
+    @JsonIgnore
+    public boolean isCanonical() {
+        return nonCanonicalId == null;
+    }
+
+    /**
+     * Returns the {@code String} form of this identifier, as returned by {@link UUID#toString()} for a {@link
+     * #isCanonical() canonical} identifier, or as it was constructed with otherwise.
+     *
+     * @return the {@code String} form of this identifier
+     */
     public String getId() {
-        return id;
+        return nonCanonicalId != null ? nonCanonicalId : new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    /**
+     * Returns the value of the lower case hexadecimal digits from {@code start} to {@code end} in the given {@code
+     * id}, or {@code -1} if any of them is not a lower case hexadecimal digit.
+     */
+    private static long hexValue(String id, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = id.charAt(i);
+            int digit = c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Computes the {@link String#hashCode()} of the {@code String} form of the UUID with the given bits, without
+     * creating that {@code String}. The form consists of the hexadecimal digits of the bits in groups of 8, 4, 4, 4 and
+     * 12 digits, separated by dashes.
+     */
+    private static int stringFormHash(long mostSignificantBits, long leastSignificantBits) {
+        int hash = hexDigitsHash(0, mostSignificantBits >>> 32, 8);
+        hash = hexDigitsHash(31 * hash + '-', mostSignificantBits >>> 16, 4);
+        hash = hexDigitsHash(31 * hash + '-', mostSignificantBits, 4);
+        hash = hexDigitsHash(31 * hash + '-', leastSignificantBits >>> 48, 4);
+        return hexDigitsHash(31 * hash + '-', leastSignificantBits, 12);
+    }
+
+    private static int hexDigitsHash(int hash, long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            hash = 31 * hash + HEX_DIGITS[(int) (value >>> shift) & 0xF];
+        }
+        return hash;
     }
 
     @Override
@@ -24,18 +197,20 @@ public class FlightId {
             return false;
         }
         FlightId flightId1 = (FlightId) o;
-        return Objects.equals(id, flightId1.id);
+        return mostSignificantBits == flightId1.mostSignificantBits
+                && leastSignificantBits == flightId1.leastSignificantBits
+                && Objects.equals(nonCanonicalId, flightId1.nonCanonicalId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return hash;
     }
 
     @Override
     public String toString() {
         return "FlightId{" +
-                "id=" + id +
+                "id=" + getId() +
                 '}';
     }
 }
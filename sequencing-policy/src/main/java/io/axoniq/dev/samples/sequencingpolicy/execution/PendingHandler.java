@@ -0,0 +1,53 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.EventMessageHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A handler the {@link SequencedHandlerEnhancerDefinition} submitted to the {@link SequencedExecutor}, along with the
+ * event it handles, for the {@link SequencedExecutionInterceptor} to wait for and to report a failure of.
+ */
+final class PendingHandler {
+
+    private final EventMessage<?> event;
+    private final EventMessageHandler handler;
+    private final CompletableFuture<Object> result;
+
+    PendingHandler(EventMessage<?> event, EventMessageHandler handler, CompletableFuture<Object> result) {
+        this.event = event;
+        this.handler = handler;
+        this.result = result;
+    }
+
+    EventMessage<?> getEvent() {
+        return event;
+    }
+
+    EventMessageHandler getHandler() {
+        return handler;
+    }
+
+    CompletableFuture<Object> getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the exception the completed handler failed with, or {@code null} if it completed successfully.
+     */
+    Exception getFailure() {
+        try {
+            result.join();
+            return null;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                return (Exception) cause;
+            }
+            return new ExecutionException(cause);
+        }
+    }
+}
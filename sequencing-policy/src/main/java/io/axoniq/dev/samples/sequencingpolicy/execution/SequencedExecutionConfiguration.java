@@ -0,0 +1,46 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import org.axonframework.config.EventProcessingConfigurer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration handling the events of a segment of the {@code flight-time} processor concurrently per sequence
+ * identifier, on a pool of {@code flight-time.execution.workers} threads. Enabled by setting the {@code
+ * flight-time.execution.mode} property to {@code sequenced}.
+ * <p>
+ * The processor waits for all handlers at the end of every batch, so the events of a segment are only handled
+ * concurrently within a batch. Hence the {@code batch-size} of the processor bounds the parallelism per segment.
+ */
+@Configuration
+@ConditionalOnProperty(value = "flight-time.execution.mode", havingValue = "sequenced")
+public class SequencedExecutionConfiguration {
+
+    private static final String FLIGHT_TIME_PROCESSOR = "flight-time";
+
+    @Bean
+    public SequencedExecutor flightTimeSequencedExecutor(@Value("${flight-time.execution.workers:16}") int workers) {
+        return new SequencedExecutor(FLIGHT_TIME_PROCESSOR + "-worker", workers);
+    }
+
+    @Bean
+    public SequencedHandlerEnhancerDefinition flightTimeSequencedHandlerEnhancer(
+            SequencedExecutor flightTimeSequencedExecutor
+    ) {
+        return new SequencedHandlerEnhancerDefinition(FLIGHT_TIME_PROCESSOR, flightTimeSequencedExecutor);
+    }
+
+    @Autowired
+    public void registerSequencedExecutionInterceptor(EventProcessingConfigurer eventProcessingConfigurer) {
+        eventProcessingConfigurer.registerHandlerInterceptor(
+                FLIGHT_TIME_PROCESSOR,
+                config -> new SequencedExecutionInterceptor(
+                        config.eventProcessingConfiguration().sequencingPolicy(FLIGHT_TIME_PROCESSOR),
+                        config.eventProcessingConfiguration().listenerInvocationErrorHandler(FLIGHT_TIME_PROCESSOR)
+                )
+        );
+    }
+}
@@ -0,0 +1,116 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.ListenerInvocationErrorHandler;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link MessageHandlerInterceptor} holding back the commit of a batch of events until all handlers it handed to a
+ * {@link SequencedExecutor} completed.
+ * <p>
+ * Before every event is handled, the interceptor resolves its sequence identifier with the sequencing policy of the
+ * processor, for the {@link SequencedHandlerEnhancerDefinition} to submit the handlers of the event with. The
+ * enhancer registers the futures of the submitted handlers with the unit of work. After the last event of the batch,
+ * the interceptor waits for all these futures. The processor only stores its token when committing the unit of work,
+ * so the token never advances past an event of which a handler is still running.
+ * <p>
+ * Once all handlers completed, every handler that failed is passed to the {@link ListenerInvocationErrorHandler} of the
+ * processing group, in the order the events were handled, just like the processor does for handlers it invokes itself.
+ * By default that logs the failure and lets the batch commit. Only an error handler rethrowing the failure makes the
+ * batch fail, after which the processor retries it as usual.
+ */
+public class SequencedExecutionInterceptor implements MessageHandlerInterceptor<EventMessage<?>> {
+
+    /**
+     * The resource of the unit of work holding the sequence identifier of the event being handled.
+     */
+    static final String SEQUENCE_IDENTIFIER_RESOURCE = "SequencedExecution/SequenceIdentifier";
+    /**
+     * The resource of the unit of work holding the {@link PendingHandler handlers} submitted to the {@link
+     * SequencedExecutor}.
+     */
+    static final String PENDING_HANDLERS_RESOURCE = "SequencedExecution/PendingHandlers";
+
+    private final SequencingPolicy<? super EventMessage<?>> sequencingPolicy;
+    private final ListenerInvocationErrorHandler errorHandler;
+
+    /**
+     * Constructs an interceptor resolving the sequence identifier of events with the given {@code sequencingPolicy},
+     * and passing failed handlers to the given {@code errorHandler}.
+     *
+     * @param sequencingPolicy the sequencing policy of the processor
+     * @param errorHandler     the {@link ListenerInvocationErrorHandler} of the processing group
+     */
+    public SequencedExecutionInterceptor(SequencingPolicy<? super EventMessage<?>> sequencingPolicy,
+                                         ListenerInvocationErrorHandler errorHandler) {
+        this.sequencingPolicy = sequencingPolicy;
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public Object handle(UnitOfWork<? extends EventMessage<?>> unitOfWork,
+                         InterceptorChain interceptorChain) throws Exception {
+        Object sequenceIdentifier = sequencingPolicy.getSequenceIdentifierFor(unitOfWork.getMessage());
+        if (sequenceIdentifier == null) {
+            unitOfWork.resources().remove(SEQUENCE_IDENTIFIER_RESOURCE);
+        } else {
+            unitOfWork.resources().put(SEQUENCE_IDENTIFIER_RESOURCE, sequenceIdentifier);
+        }
+        Object result;
+        try {
+            result = interceptorChain.proceed();
+        } catch (Exception e) {
+            awaitPendingHandlersQuietly(unitOfWork);
+            throw e;
+        }
+        if (!(unitOfWork instanceof BatchingUnitOfWork) || ((BatchingUnitOfWork<?>) unitOfWork).isLastMessage()) {
+            awaitPendingHandlers(unitOfWork);
+        }
+        return result;
+    }
+
+    private void awaitPendingHandlers(UnitOfWork<?> unitOfWork) throws Exception {
+        List<PendingHandler> pending = removePendingHandlers(unitOfWork);
+        if (pending == null) {
+            return;
+        }
+        allCompleted(pending).join();
+        for (PendingHandler handler : pending) {
+            Exception failure = handler.getFailure();
+            if (failure != null) {
+                errorHandler.onError(failure, handler.getEvent(), handler.getHandler());
+            }
+        }
+    }
+
+    private static void awaitPendingHandlersQuietly(UnitOfWork<?> unitOfWork) {
+        // Let the submitted handlers finish, so a retry of the batch does not run alongside them
+        List<PendingHandler> pending = removePendingHandlers(unitOfWork);
+        if (pending != null) {
+            allCompleted(pending).join();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PendingHandler> removePendingHandlers(UnitOfWork<?> unitOfWork) {
+        return (List<PendingHandler>) unitOfWork.resources().remove(PENDING_HANDLERS_RESOURCE);
+    }
+
+    /**
+     * Returns a future completing once all given handlers completed, successfully or not.
+     */
+    private static CompletableFuture<Void> allCompleted(List<PendingHandler> pending) {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[pending.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = pending.get(i).getResult().handle((result, error) -> null);
+        }
+        return CompletableFuture.allOf(results);
+    }
+}
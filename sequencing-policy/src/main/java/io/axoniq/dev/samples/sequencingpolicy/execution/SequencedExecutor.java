@@ -0,0 +1,95 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executes tasks on a pool of worker threads, keeping the order of the tasks with the same sequence identifier.
+ * <p>
+ * Every sequence identifier with outstanding tasks has its own queue, being the chain of its outstanding tasks. A task
+ * starts once the previous task with the same sequence identifier completed, successfully or not. Tasks with different
+ * sequence identifiers run concurrently. A queue is removed once its last task completed, so only the sequence
+ * identifiers with outstanding tasks take memory. Tasks without a sequence identifier are not ordered at all.
+ */
+public class SequencedExecutor {
+
+    private final ExecutorService workers;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an executor running tasks on the given number of {@code workerThreads}.
+     *
+     * @param name          the name of the executor, used as prefix of the names of the worker threads
+     * @param workerThreads the number of worker threads
+     */
+    public SequencedExecutor(String name, int workerThreads) {
+        this.workers = Executors.newFixedThreadPool(workerThreads, new WorkerThreadFactory(name));
+    }
+
+    /**
+     * Submits the given {@code task}, to be started once all tasks submitted earlier with the same {@code
+     * sequenceIdentifier} completed.
+     *
+     * @param sequenceIdentifier the sequence identifier of the task, or {@code null} if it can run in any order
+     * @param task               the task to execute
+     * @return a future completing with the result of the task
+     */
+    public CompletableFuture<Object> submit(Object sequenceIdentifier, Callable<Object> task) {
+        if (sequenceIdentifier == null) {
+            return CompletableFuture.supplyAsync(unchecked(task), workers);
+        }
+        CompletableFuture<Object> result = queues.compute(
+                sequenceIdentifier,
+                (key, previous) -> previous == null
+                        ? CompletableFuture.supplyAsync(unchecked(task), workers)
+                        : previous.handle((previousResult, error) -> null)
+                                  .thenApplyAsync(ignored -> unchecked(task).get(), workers)
+        );
+        result.whenComplete((taskResult, error) -> queues.remove(sequenceIdentifier, result));
+        return result;
+    }
+
+    /**
+     * Stops accepting tasks, letting the worker threads finish the tasks submitted earlier.
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static Supplier<Object> unchecked(Callable<Object> task) {
+        return () -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private WorkerThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
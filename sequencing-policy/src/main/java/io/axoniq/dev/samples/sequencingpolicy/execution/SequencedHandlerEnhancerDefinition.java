@@ -0,0 +1,110 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import org.axonframework.config.ProcessingGroup;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.EventMessageHandler;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.annotation.HandlerEnhancerDefinition;
+import org.axonframework.messaging.annotation.MessageHandlingMember;
+import org.axonframework.messaging.annotation.WrappedMessageHandlingMember;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link HandlerEnhancerDefinition} handing the event handlers of a processing group to a {@link
+ * SequencedExecutor}, instead of invoking them on the thread of the processor.
+ * <p>
+ * The handlers are submitted with the sequence identifier the {@link SequencedExecutionInterceptor} resolved for the
+ * event, so the events of a single sequence are still handled in order, while the events of different sequences in
+ * the same segment are handled concurrently. Every submitted handler is registered with the unit of work, for the
+ * interceptor to wait for before the batch commits, and to pass a failure of to the {@link
+ * org.axonframework.eventhandling.ListenerInvocationErrorHandler} of the processing group. A wrapped handler returns
+ * {@code null} right away.
+ * <p>
+ * As the handlers run on a worker thread, they cannot use the current unit of work. Only the event handlers of classes
+ * annotated with the configured {@link ProcessingGroup} are wrapped. Other handlers of these classes, like query
+ * handlers, need to return their result, so they are invoked as is. Outside a unit of work, like in tests invoking a
+ * handler directly, the handler is invoked as is too.
+ */
+public class SequencedHandlerEnhancerDefinition implements HandlerEnhancerDefinition {
+
+    private final String processingGroup;
+    private final SequencedExecutor executor;
+
+    /**
+     * Constructs an enhancer handing the event handlers of the given {@code processingGroup} to the given {@code
+     * executor}.
+     *
+     * @param processingGroup the processing group of which to hand the handlers to the {@code executor}
+     * @param executor        the {@link SequencedExecutor} to execute the handlers with
+     */
+    public SequencedHandlerEnhancerDefinition(String processingGroup, SequencedExecutor executor) {
+        this.processingGroup = processingGroup;
+        this.executor = executor;
+    }
+
+    @Override
+    public <T> MessageHandlingMember<T> wrapHandler(MessageHandlingMember<T> original) {
+        ProcessingGroup group = original.declaringClass().getAnnotation(ProcessingGroup.class);
+        return group != null && processingGroup.equals(group.value())
+                && original.canHandleMessageType(EventMessage.class)
+                ? new SequencedMessageHandlingMember<>(original)
+                : original;
+    }
+
+    private class SequencedMessageHandlingMember<T> extends WrappedMessageHandlingMember<T> {
+
+        private final MessageHandlingMember<T> delegate;
+
+        private SequencedMessageHandlingMember(MessageHandlingMember<T> delegate) {
+            super(delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object handle(Message<?> message, T target) throws Exception {
+            if (!CurrentUnitOfWork.isStarted()) {
+                return super.handle(message, target);
+            }
+            UnitOfWork<?> unitOfWork = CurrentUnitOfWork.get();
+            Object sequenceIdentifier =
+                    unitOfWork.getResource(SequencedExecutionInterceptor.SEQUENCE_IDENTIFIER_RESOURCE);
+            CompletableFuture<Object> result = executor.submit(sequenceIdentifier, () -> super.handle(message, target));
+            List<PendingHandler> pending = unitOfWork.getOrComputeResource(
+                    SequencedExecutionInterceptor.PENDING_HANDLERS_RESOURCE, key -> new ArrayList<>()
+            );
+            pending.add(new PendingHandler((EventMessage<?>) message, new TargetHandler<>(delegate, target), result));
+            return null;
+        }
+    }
+
+    /**
+     * The handler of a single target, as reported to the {@link
+     * org.axonframework.eventhandling.ListenerInvocationErrorHandler} when it fails on a worker thread. Handling an
+     * event with it invokes the handler on the calling thread.
+     */
+    private static class TargetHandler<T> implements EventMessageHandler {
+
+        private final MessageHandlingMember<T> member;
+        private final T target;
+
+        private TargetHandler(MessageHandlingMember<T> member, T target) {
+            this.member = member;
+            this.target = target;
+        }
+
+        @Override
+        public Object handle(EventMessage<?> event) throws Exception {
+            return member.handle(event, target);
+        }
+
+        @Override
+        public Class<?> getTargetType() {
+            return target.getClass();
+        }
+    }
+}
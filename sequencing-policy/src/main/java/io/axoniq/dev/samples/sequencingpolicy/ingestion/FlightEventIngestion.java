@@ -0,0 +1,140 @@
+package io.axoniq.dev.samples.sequencingpolicy.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.axonframework.eventhandling.gateway.EventGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a stream of events on the {@link EventGateway} in batches, reading the stream only as fast as the batches
+ * are published.
+ * <p>
+ * The events are gathered in batches of the requested size, of which at most one is gathered while the previous one is
+ * published. As the stream is only requested from as batches are published, a stream read from a request body is read
+ * from the connection at the pace of publishing, so the events never pile up on the heap. Publishing blocks until the
+ * event store accepted the batch, so it is done on the bounded elastic scheduler rather than on the thread reading the
+ * stream.
+ * <p>
+ * Next to the {@link IngestionReport} of every stream, the number of accepted events and their publish latency are
+ * recorded as the {@code flight.ingestion.accepted} and {@code flight.ingestion.publish.latency} meters.
+ */
+@Component
+public class FlightEventIngestion {
+
+    private final EventGateway eventGateway;
+    private final int defaultBatchSize;
+    private final Counter acceptedCounter;
+    private final Timer publishLatencyTimer;
+
+    public FlightEventIngestion(EventGateway eventGateway,
+                                MeterRegistry meterRegistry,
+                                @Value("${ingestion.batch-size:100}") int defaultBatchSize) {
+        this.eventGateway = eventGateway;
+        this.defaultBatchSize = defaultBatchSize;
+        this.acceptedCounter = Counter.builder("flight.ingestion.accepted")
+                                      .description("Flight events published through the ingestion")
+                                      .register(meterRegistry);
+        this.publishLatencyTimer = Timer.builder("flight.ingestion.publish.latency")
+                                        .description("Time between receiving a flight event and publishing it")
+                                        .publishPercentiles(0.5, 0.99)
+                                        .register(meterRegistry);
+    }
+
+    /**
+     * Returns the batch size used when none is requested, as configured through the {@code ingestion.batch-size}
+     * property.
+     *
+     * @return the batch size used when none is requested
+     */
+    public int getDefaultBatchSize() {
+        return defaultBatchSize;
+    }
+
+    /**
+     * Publishes the given {@code events} in batches of the given {@code batchSize}.
+     *
+     * @param events    the events to publish
+     * @param batchSize the number of events to publish at once
+     * @return a {@link Mono} of the {@link IngestionReport}, completing once all events are published
+     */
+    public Mono<IngestionReport> ingest(Flux<?> events, int batchSize) {
+        if (batchSize < 1) {
+            return Mono.error(new IllegalArgumentException(
+                    "The batch size should be positive, but was [" + batchSize + "]"
+            ));
+        }
+        return Mono.defer(() -> {
+            Statistics statistics = new Statistics();
+            return events.map(event -> new ReceivedEvent(event, System.nanoTime()))
+                         .buffer(batchSize)
+                         .concatMap(batch -> publish(batch, statistics), 1)
+                         .then(Mono.fromSupplier(statistics::report));
+        });
+    }
+
+    private Mono<Void> publish(List<ReceivedEvent> batch, Statistics statistics) {
+        return Mono.<Void>fromRunnable(() -> {
+            List<Object> events = new ArrayList<>(batch.size());
+            for (ReceivedEvent received : batch) {
+                events.add(received.event);
+            }
+            eventGateway.publish(events);
+            long publishedAt = System.nanoTime();
+            for (ReceivedEvent received : batch) {
+                long latency = publishedAt - received.receivedAt;
+                publishLatencyTimer.record(latency, TimeUnit.NANOSECONDS);
+                statistics.record(latency);
+            }
+            acceptedCounter.increment(batch.size());
+            statistics.batches++;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static final class ReceivedEvent {
+
+        private final Object event;
+        private final long receivedAt;
+
+        private ReceivedEvent(Object event, long receivedAt) {
+            this.event = event;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+    /**
+     * The statistics of a single stream. Batches are published one after the other, so they are never updated
+     * concurrently.
+     */
+    private static final class Statistics {
+
+        private final long start = System.nanoTime();
+        private long accepted;
+        private long batches;
+        private long totalLatency;
+        private long maxLatency;
+
+        private void record(long latency) {
+            accepted++;
+            totalLatency += latency;
+            maxLatency = Math.max(maxLatency, latency);
+        }
+
+        private IngestionReport report() {
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            return new IngestionReport(accepted,
+                                       batches,
+                                       (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1),
+                                       accepted == 0 ? 0 : totalLatency / nanosPerMilli / accepted,
+                                       maxLatency / nanosPerMilli);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.axoniq.dev.samples.sequencingpolicy.ingestion;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.ArrivalTimeChangedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightCanceledEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightScheduledEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * A single line of a newline delimited JSON stream of flight events, as read by the {@link
+ * io.axoniq.dev.samples.sequencingpolicy.controller.IngestionController}.
+ * <p>
+ * The {@code type} selects the flight event, and thereby the other fields to fill:
+ * <ul>
+ *     <li>{@code scheduled} for a {@link FlightScheduledEvent}, with {@code origin}, {@code destination} and
+ *     {@code scheduledArrival},</li>
+ *     <li>{@code delayed} for a {@link FlightDelayedEvent}, with {@code delay},</li>
+ *     <li>{@code arrivalTimeChanged} for an {@link ArrivalTimeChangedEvent}, with {@code newArrivalTime},</li>
+ *     <li>{@code canceled} for a {@link FlightCanceledEvent}.</li>
+ * </ul>
+ * For example: {@code {"type":"delayed","flightId":"0c3f8f2e-5d3a-4b8e-9a51-6c0f0b9d2e11","delay":"PT1H"}}.
+ */
+public class FlightEventLine {
+
+    private String type;
+    private String flightId;
+    private String origin;
+    private String destination;
+    private LocalDateTime scheduledArrival;
+    private Duration delay;
+    private Instant newArrivalTime;
+
+    /**
+     * Converts this line into the flight event it describes.
+     *
+     * @return the flight event this line describes
+     * @throws IllegalArgumentException if the type is unknown or a field of the type is missing
+     */
+    public FlightEvent toEvent() {
+        if (type == null || flightId == null) {
+            throw new IllegalArgumentException("A flight event line should hold a [type] and a [flightId]");
+        }
+        FlightId id = new FlightId(flightId);
+        switch (type) {
+            case "scheduled":
+                return new FlightScheduledEvent(id,
+                                                require(origin, "origin"),
+                                                require(destination, "destination"),
+                                                require(scheduledArrival, "scheduledArrival"));
+            case "delayed":
+                return new FlightDelayedEvent(id, require(delay, "delay"));
+            case "arrivalTimeChanged":
+                return new ArrivalTimeChangedEvent(id, require(newArrivalTime, "newArrivalTime"));
+            case "canceled":
+                return new FlightCanceledEvent(id);
+            default:
+                throw new IllegalArgumentException("Unknown flight event type [" + type + "]");
+        }
+    }
+
+    private <T> T require(T value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException(
+                    "A flight event line of type [" + type + "] should hold a [" + field + "]"
+            );
+        }
+        return value;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalDateTime getScheduledArrival() {
+        return scheduledArrival;
+    }
+
+    public void setScheduledArrival(LocalDateTime scheduledArrival) {
+        this.scheduledArrival = scheduledArrival;
+    }
+
+    public Duration getDelay() {
+        return delay;
+    }
+
+    public void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    public Instant getNewArrivalTime() {
+        return newArrivalTime;
+    }
+
+    public void setNewArrivalTime(Instant newArrivalTime) {
+        this.newArrivalTime = newArrivalTime;
+    }
+}
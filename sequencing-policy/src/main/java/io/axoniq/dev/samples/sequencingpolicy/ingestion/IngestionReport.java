@@ -0,0 +1,49 @@
+package io.axoniq.dev.samples.sequencingpolicy.ingestion;
+
+/**
+ * The outcome of ingesting a stream of flight events with the {@link FlightEventIngestion}.
+ * <p>
+ * The publish latency of an event is the time between receiving it and the completion of publishing the batch it is
+ * part of, thus including the time it waited for its batch to fill and for earlier batches to be published.
+ */
+public class IngestionReport {
+
+    private final long accepted;
+    private final long batches;
+    private final double elapsedSeconds;
+    private final double meanPublishLatencyMs;
+    private final double maxPublishLatencyMs;
+
+    IngestionReport(long accepted, long batches, double elapsedSeconds,
+                    double meanPublishLatencyMs, double maxPublishLatencyMs) {
+        this.accepted = accepted;
+        this.batches = batches;
+        this.elapsedSeconds = elapsedSeconds;
+        this.meanPublishLatencyMs = meanPublishLatencyMs;
+        this.maxPublishLatencyMs = maxPublishLatencyMs;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public double getAcceptedPerSecond() {
+        return elapsedSeconds == 0 ? 0 : accepted / elapsedSeconds;
+    }
+
+    public double getMeanPublishLatencyMs() {
+        return meanPublishLatencyMs;
+    }
+
+    public double getMaxPublishLatencyMs() {
+        return maxPublishLatencyMs;
+    }
+}
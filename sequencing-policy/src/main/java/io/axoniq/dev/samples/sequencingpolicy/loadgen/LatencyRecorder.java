@@ -0,0 +1,74 @@
+package io.axoniq.dev.samples.sequencingpolicy.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency between publishing an event of the {@link LoadGenerator} and handling it, in {@link Histogram}s
+ * of nanoseconds.
+ * <p>
+ * The generator adds two {@link System#nanoTime()} values to the meta data of every event: the time the event was
+ * intended to be published according to the load profile, and the time it was actually published. The latency from the
+ * intended time includes any delay in publishing, so it is not flattered when publishing falls behind the intended
+ * rate. Events without these meta data values, like those of other endpoints, are not recorded.
+ */
+@Component
+public class LatencyRecorder {
+
+    /**
+     * The meta data key of the time an event was intended to be published.
+     */
+    public static final String INTENDED_AT_KEY = "loadIntendedAt";
+    /**
+     * The meta data key of the time an event was published.
+     */
+    public static final String PUBLISHED_AT_KEY = "loadPublishedAt";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram publishToHandle = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Histogram intendedToHandle = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder handled = new LongAdder();
+
+    /**
+     * Records the handling of an event published by the {@link LoadGenerator} at the given times.
+     *
+     * @param intendedAt  the time the event was intended to be published, or {@code null} if it is not from the {@link
+     *                    LoadGenerator}
+     * @param publishedAt the time the event was published, or {@code null} if it is not from the {@link
+     *                    LoadGenerator}
+     */
+    public void recordHandled(Long intendedAt, Long publishedAt) {
+        if (intendedAt == null || publishedAt == null) {
+            return;
+        }
+        long handledAt = System.nanoTime();
+        publishToHandle.recordValue(Math.max(0, handledAt - publishedAt));
+        intendedToHandle.recordValue(Math.max(0, handledAt - intendedAt));
+        handled.increment();
+    }
+
+    /**
+     * Clears all recorded latencies, to start a new run.
+     */
+    public void reset() {
+        publishToHandle.reset();
+        intendedToHandle.reset();
+        handled.reset();
+    }
+
+    public long getHandled() {
+        return handled.sum();
+    }
+
+    public Histogram getPublishToHandle() {
+        return publishToHandle;
+    }
+
+    public Histogram getIntendedToHandle() {
+        return intendedToHandle;
+    }
+}
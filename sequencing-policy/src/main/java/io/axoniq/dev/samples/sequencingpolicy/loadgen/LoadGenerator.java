@@ -0,0 +1,231 @@
+package io.axoniq.dev.samples.sequencingpolicy.loadgen;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.ArrivalTimeChangedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightScheduledEvent;
+import org.HdrHistogram.Histogram;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.gateway.EventGateway;
+import org.axonframework.messaging.MetaData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generates an open-loop load of flight events, of which the {@link LatencyRecorder} records the latency until the
+ * {@code FlightTimeProjector} has handled them.
+ * <p>
+ * Events arrive as a Poisson process at the rate of the {@link LoadProfile}: the time between two events is drawn from
+ * an exponential distribution. The generator publishes every event at its intended time, regardless of whether earlier
+ * events have been published or handled yet, so a slow event processor does not slow down the load. The flight of
+ * every event is drawn with a {@link ZipfSampler}, making a few flights account for most events, like the hot sequence
+ * identifiers a real system sees. The first event of a flight schedules it, after which it is delayed or its arrival
+ * time changes. All randomness comes from the seed of the profile, so runs with the same profile are repeatable.
+ * <p>
+ * Every flight is assigned to one of the single threaded publishers of the profile, so the events of a flight are
+ * published in the order they were generated in, while the events of different flights are published concurrently.
+ * <p>
+ * A run publishes for the duration of the profile, after which it waits for the published events to be handled and
+ * logs a report of the latencies. Only one run takes place at a time.
+ */
+@Component
+public class LoadGenerator {
+
+    /**
+     * The airports flights depart from and arrive at.
+     */
+    public static final String[] AIRPORTS = new String[]{
+            "HEL", "CDG", "ORY", "CGN", "MUC", "BUD", "DUB", "LIN", "MXP", "SKP", "AMS", "EIN", "WRO", "BEG", "BCN",
+            "MAD"
+    };
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(1);
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+
+    private final EventGateway eventGateway;
+    private final LatencyRecorder latencyRecorder;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LoadGenerator(EventGateway eventGateway, LatencyRecorder latencyRecorder) {
+        this.eventGateway = eventGateway;
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /**
+     * Starts a run with the given {@code profile} on a thread of its own, unless a run is taking place already.
+     *
+     * @param profile the {@link LoadProfile} of the run
+     * @return {@code true} if the run started, {@code false} if another run is taking place
+     */
+    public boolean start(LoadProfile profile) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread runner = new Thread(() -> {
+            try {
+                run(profile);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted the load run of {}", profile);
+            } finally {
+                running.set(false);
+            }
+        }, "load-generator");
+        runner.setDaemon(true);
+        runner.start();
+        return true;
+    }
+
+    /**
+     * Returns whether a run is taking place.
+     *
+     * @return {@code true} if a run is taking place, {@code false} otherwise
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void run(LoadProfile profile) throws InterruptedException {
+        logger.info("Starting a load run of {}", profile);
+        latencyRecorder.reset();
+        Random random = new Random(profile.getSeed());
+        ZipfSampler popularity = new ZipfSampler(profile.getFlights(), profile.getSkew());
+        Flight[] flights = new Flight[profile.getFlights()];
+        ExecutorService[] publishers = new ExecutorService[profile.getPublishers()];
+        for (int i = 0; i < publishers.length; i++) {
+            publishers[i] = Executors.newSingleThreadExecutor();
+        }
+        AtomicLong failed = new AtomicLong();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.getRate();
+
+        long start = System.nanoTime();
+        long end = start + profile.getDuration().toNanos();
+        long intendedAt = start;
+        long published = 0;
+        while (true) {
+            intendedAt += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+            if (intendedAt - end >= 0) {
+                break;
+            }
+            int flightIndex = popularity.sample(random);
+            if (flights[flightIndex] == null) {
+                flights[flightIndex] = new Flight(random);
+            }
+            Object event = flights[flightIndex].nextEvent(random);
+            long delay = intendedAt - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            long eventIntendedAt = intendedAt;
+            publishers[flightIndex % publishers.length].execute(() -> publish(event, eventIntendedAt, failed));
+            published++;
+        }
+        long publishEnd = System.nanoTime();
+        long publishDeadline = publishEnd + DRAIN_TIMEOUT.toNanos();
+        for (ExecutorService publisher : publishers) {
+            publisher.shutdown();
+        }
+        for (ExecutorService publisher : publishers) {
+            publisher.awaitTermination(Math.max(0, publishDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (latencyRecorder.getHandled() < published - failed.get() && System.nanoTime() - drainDeadline < 0) {
+            Thread.sleep(100);
+        }
+        logger.info(report(profile, published, failed.get(), publishEnd - start));
+    }
+
+    private void publish(Object event, long intendedAt, AtomicLong failed) {
+        Map<String, Object> metaData = new HashMap<>();
+        metaData.put(LatencyRecorder.INTENDED_AT_KEY, intendedAt);
+        metaData.put(LatencyRecorder.PUBLISHED_AT_KEY, System.nanoTime());
+        try {
+            eventGateway.publish(GenericEventMessage.asEventMessage(event).andMetaData(MetaData.from(metaData)));
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.debug("Unable to publish load event [{}]", event, e);
+        }
+    }
+
+    private String report(LoadProfile profile, long published, long failed, long publishNanos) {
+        long handled = latencyRecorder.getHandled();
+        StringBuilder report = new StringBuilder();
+        report.append("Finished the load run of ").append(profile).append('\n');
+        report.append(String.format("published [%d] events at [%.1f] events/s, [%d] failed and [%d] were handled%n",
+                                    published, published * 1e9 / publishNanos, failed, handled));
+        appendPercentiles(report, "publish to handle", latencyRecorder.getPublishToHandle());
+        appendPercentiles(report, "intended to handle", latencyRecorder.getIntendedToHandle());
+        report.append("intended to handle distribution in ms:\n");
+        ByteArrayOutputStream distribution = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(distribution, true, "UTF-8")) {
+            latencyRecorder.getIntendedToHandle().outputPercentileDistribution(out, NANOS_PER_MILLI);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return report.append(new String(distribution.toByteArray(), StandardCharsets.UTF_8)).toString();
+    }
+
+    private static void appendPercentiles(StringBuilder report, String name, Histogram histogram) {
+        report.append(String.format(
+                "%-18s in ms: p50 [%.3f], p90 [%.3f], p99 [%.3f], p99.9 [%.3f], max [%.3f]%n",
+                name,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI
+        ));
+    }
+
+    /**
+     * A flight of the run, scheduled by its first event.
+     */
+    private static class Flight {
+
+        private final FlightId flightId;
+        private LocalDateTime arrivalTime;
+        private boolean scheduled;
+
+        private Flight(Random random) {
+            this.flightId = new FlightId(new UUID(random.nextLong(), random.nextLong()));
+            this.arrivalTime = LocalDateTime.of(2021, 1, 1, 0, 0).plusMinutes(random.nextInt(365 * 24 * 60));
+        }
+
+        private Object nextEvent(Random random) {
+            if (!scheduled) {
+                scheduled = true;
+                return new FlightScheduledEvent(flightId,
+                                                AIRPORTS[random.nextInt(AIRPORTS.length)],
+                                                AIRPORTS[random.nextInt(AIRPORTS.length)],
+                                                arrivalTime);
+            }
+            Duration delay = Duration.ofMinutes(1 + random.nextInt(60));
+            arrivalTime = arrivalTime.plus(delay);
+            return random.nextBoolean()
+                    ? new FlightDelayedEvent(flightId, delay)
+                    : new ArrivalTimeChangedEvent(flightId, arrivalTime.toInstant(ZoneOffset.UTC));
+        }
+    }
+}
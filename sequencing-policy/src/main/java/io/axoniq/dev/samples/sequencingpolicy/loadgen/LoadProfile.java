@@ -0,0 +1,83 @@
+package io.axoniq.dev.samples.sequencingpolicy.loadgen;
+
+import java.time.Duration;
+
+/**
+ * The load the {@link LoadGenerator} produces: events arriving at the given {@code rate} for the given {@code
+ * duration}, spread over the given number of {@code flights} with a Zipf distribution skewed by the given {@code
+ * skew}. A run with the same profile produces the same events in the same order.
+ */
+public class LoadProfile {
+
+    private final double rate;
+    private final Duration duration;
+    private final int flights;
+    private final double skew;
+    private final long seed;
+    private final int publishers;
+
+    /**
+     * Constructs a load profile.
+     *
+     * @param rate       the mean number of events to publish per second
+     * @param duration   the time to publish events for
+     * @param flights    the number of flights the events belong to
+     * @param skew       the exponent of the Zipf distribution of the events over the flights
+     * @param seed       the seed of the random arrivals, flights and events
+     * @param publishers the number of threads publishing the events
+     * @throws IllegalArgumentException if any of the values is out of range
+     */
+    public LoadProfile(double rate, Duration duration, int flights, double skew, long seed, int publishers) {
+        if (rate <= 0 || duration.isNegative() || duration.isZero() || flights < 1 || publishers < 1) {
+            throw new IllegalArgumentException(
+                    "The rate, duration, number of flights and number of publishers should be positive, but were ["
+                            + rate + "], [" + duration + "], [" + flights + "] and [" + publishers + "]"
+            );
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("The skew should not be negative, but was [" + skew + "]");
+        }
+        this.rate = rate;
+        this.duration = duration;
+        this.flights = flights;
+        this.skew = skew;
+        this.seed = seed;
+        this.publishers = publishers;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getFlights() {
+        return flights;
+    }
+
+    public double getSkew() {
+        return skew;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getPublishers() {
+        return publishers;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadProfile{" +
+                "rate=" + rate +
+                ", duration=" + duration +
+                ", flights=" + flights +
+                ", skew=" + skew +
+                ", seed=" + seed +
+                ", publishers=" + publishers +
+                '}';
+    }
+}
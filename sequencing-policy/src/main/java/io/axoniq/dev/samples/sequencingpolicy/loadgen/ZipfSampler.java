@@ -0,0 +1,52 @@
+package io.axoniq.dev.samples.sequencingpolicy.loadgen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples item indices following a Zipf distribution, in which the item of rank {@code k} (starting at 1) has a
+ * probability proportional to {@code 1 / k^exponent}. An exponent of {@code 0} samples all items uniformly, while an
+ * exponent around {@code 1} makes a few items account for most samples.
+ * <p>
+ * The cumulative distribution is computed up front, so a sample takes a single binary search.
+ */
+public class ZipfSampler {
+
+    private final double[] cumulativeProbabilities;
+
+    /**
+     * Constructs a sampler of the given number of {@code items}, following a Zipf distribution with the given {@code
+     * exponent}.
+     *
+     * @param items    the number of items to sample from
+     * @param exponent the exponent of the distribution, skewing the samples towards the first items
+     */
+    public ZipfSampler(int items, double exponent) {
+        if (items < 1) {
+            throw new IllegalArgumentException("The number of items should be positive, but was [" + items + "]");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("The exponent should not be negative, but was [" + exponent + "]");
+        }
+        cumulativeProbabilities = new double[items];
+        double total = 0;
+        for (int i = 0; i < items; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulativeProbabilities[i] = total;
+        }
+        for (int i = 0; i < items; i++) {
+            cumulativeProbabilities[i] /= total;
+        }
+    }
+
+    /**
+     * Samples the index of an item, the most popular item being at index {@code 0}.
+     *
+     * @param random the source of randomness to sample with
+     * @return the index of the sampled item
+     */
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index + 1, cumulativeProbabilities.length - 1);
+    }
+}
@@ -0,0 +1,46 @@
+package io.axoniq.dev.samples.sequencingpolicy.monitoring;
+
+import org.axonframework.config.EventProcessingConfigurer;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+/**
+ * Spring configuration monitoring the load on the segments of the {@code flight-time} processor, exposed through the
+ * {@link SegmentLoadEndpoint}.
+ */
+@Configuration
+public class SegmentLoadConfiguration {
+
+    private static final String FLIGHT_TIME_PROCESSOR = "flight-time";
+    private static final int SKETCH_CAPACITY = 64;
+
+    @Bean
+    public SegmentLoadMonitor flightTimeSegmentLoadMonitor() {
+        return new SegmentLoadMonitor(FLIGHT_TIME_PROCESSOR, SKETCH_CAPACITY);
+    }
+
+    @Bean
+    public SegmentLoadEndpoint segmentLoadEndpoint(SegmentLoadMonitor flightTimeSegmentLoadMonitor) {
+        return new SegmentLoadEndpoint(flightTimeSegmentLoadMonitor);
+    }
+
+    @Autowired
+    public void registerSegmentLoadInterceptor(EventProcessingConfigurer eventProcessingConfigurer,
+                                               SegmentLoadMonitor flightTimeSegmentLoadMonitor) {
+        eventProcessingConfigurer.registerHandlerInterceptor(
+                FLIGHT_TIME_PROCESSOR,
+                config -> new SegmentLoadInterceptor(
+                        flightTimeSegmentLoadMonitor,
+                        config.eventProcessingConfiguration().sequencingPolicy(FLIGHT_TIME_PROCESSOR),
+                        () -> config.eventProcessingConfiguration()
+                                    .eventProcessor(FLIGHT_TIME_PROCESSOR, StreamingEventProcessor.class)
+                                    .map(StreamingEventProcessor::processingStatus)
+                                    .orElse(Collections.emptyMap())
+                )
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package io.axoniq.dev.samples.sequencingpolicy.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint summarizing the load on every segment of the processor monitored by a {@link SegmentLoadMonitor},
+ * to spot a segment overloaded by a few busy sequence identifiers at a glance. Exposed under {@code
+ * /actuator/segmentload} once included in the {@code management.endpoints.web.exposure.include} property.
+ * <p>
+ * Every segment is summarized by the number of events it handled, its share of all handled events, the total and mean
+ * time spent handling them in milliseconds, and its most frequent sequence identifiers.
+ */
+@Endpoint(id = "segmentload")
+public class SegmentLoadEndpoint {
+
+    private static final int TOP_SEQUENCE_IDENTIFIERS = 10;
+
+    private final SegmentLoadMonitor monitor;
+
+    /**
+     * Construct an endpoint summarizing the load recorded by the given {@code monitor}.
+     *
+     * @param monitor the {@link SegmentLoadMonitor} recording the load on the segments
+     */
+    public SegmentLoadEndpoint(SegmentLoadMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Returns the summary of the load on every segment of the monitored processor.
+     *
+     * @return the summary of the load on every segment of the monitored processor
+     */
+    @ReadOperation
+    public Map<String, Object> segmentLoad() {
+        Map<Integer, SegmentLoadMonitor.SegmentLoad> segments = monitor.segments();
+        long totalEvents = 0;
+        for (SegmentLoadMonitor.SegmentLoad load : segments.values()) {
+            totalEvents += load.getEvents();
+        }
+        Map<String, Object> segmentSummaries = new LinkedHashMap<>();
+        for (Map.Entry<Integer, SegmentLoadMonitor.SegmentLoad> segment : segments.entrySet()) {
+            segmentSummaries.put(String.valueOf(segment.getKey()), summarize(segment.getValue(), totalEvents));
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("processor", monitor.getProcessorName());
+        summary.put("events", totalEvents);
+        summary.put("segments", segmentSummaries);
+        return summary;
+    }
+
+    private Map<String, Object> summarize(SegmentLoadMonitor.SegmentLoad load, long totalEvents) {
+        long events = load.getEvents();
+        double handlingMs = (double) load.getHandlingNanos() / TimeUnit.MILLISECONDS.toNanos(1);
+        List<Map<String, Object>> topSequenceIdentifiers = new ArrayList<>();
+        for (SpaceSavingSketch.HeavyHitter<Object> hitter :
+                load.getSequenceIdentifiers().top(TOP_SEQUENCE_IDENTIFIERS)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sequenceIdentifier", String.valueOf(hitter.getKey()));
+            entry.put("events", hitter.getCount());
+            entry.put("maxOvercount", hitter.getError());
+            topSequenceIdentifiers.add(entry);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("events", events);
+        summary.put("share", totalEvents == 0 ? 0 : (double) events / totalEvents);
+        summary.put("handlingTotalMs", handlingMs);
+        summary.put("handlingMeanMs", events == 0 ? 0 : handlingMs / events);
+        summary.put("topSequenceIdentifiers", topSequenceIdentifiers);
+        return summary;
+    }
+}
@@ -0,0 +1,76 @@
+package io.axoniq.dev.samples.sequencingpolicy.monitoring;
+
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.EventTrackerStatus;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A {@link MessageHandlerInterceptor} recording every event handled by a streaming event processor with a {@link
+ * SegmentLoadMonitor}.
+ * <p>
+ * The segment handling the event is taken from the resources of the {@link UnitOfWork}, in which the {@link
+ * org.axonframework.eventhandling.TrackingEventProcessor} registers it. The sequence identifier is resolved with the
+ * sequencing policy of the processor, the same way the processor assigned the event to the segment. A {@link
+ * org.axonframework.eventhandling.pooled.PooledStreamingEventProcessor} does not register the segment, in which case
+ * the segment is the one of the processing status of the processor matching the sequence identifier.
+ */
+public class SegmentLoadInterceptor implements MessageHandlerInterceptor<EventMessage<?>> {
+
+    private static final int UNKNOWN_SEGMENT = -1;
+
+    private final SegmentLoadMonitor monitor;
+    private final SequencingPolicy<? super EventMessage<?>> sequencingPolicy;
+    private final Supplier<Map<Integer, EventTrackerStatus>> processingStatus;
+    private final String segmentIdResourceKey;
+
+    /**
+     * Constructs an interceptor recording events with the given {@code monitor}, resolving their sequence identifier
+     * with the given {@code sequencingPolicy}.
+     *
+     * @param monitor          the {@link SegmentLoadMonitor} to record the handled events with
+     * @param sequencingPolicy the sequencing policy of the monitored processor
+     * @param processingStatus the processing status of the monitored processor, to find the segment of an event in if
+     *                         the processor does not register it with the unit of work
+     */
+    public SegmentLoadInterceptor(SegmentLoadMonitor monitor,
+                                  SequencingPolicy<? super EventMessage<?>> sequencingPolicy,
+                                  Supplier<Map<Integer, EventTrackerStatus>> processingStatus) {
+        this.monitor = monitor;
+        this.sequencingPolicy = sequencingPolicy;
+        this.processingStatus = processingStatus;
+        this.segmentIdResourceKey = "Processor[" + monitor.getProcessorName() + "]/SegmentId";
+    }
+
+    @Override
+    public Object handle(UnitOfWork<? extends EventMessage<?>> unitOfWork,
+                         InterceptorChain interceptorChain) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return interceptorChain.proceed();
+        } finally {
+            EventMessage<?> event = unitOfWork.getMessage();
+            Object sequenceIdentifier = sequencingPolicy.getSequenceIdentifierFor(event);
+            Integer segmentId = unitOfWork.getResource(segmentIdResourceKey);
+            monitor.record(segmentId == null ? matchingSegmentId(event, sequenceIdentifier) : segmentId,
+                           sequenceIdentifier,
+                           System.nanoTime() - start);
+        }
+    }
+
+    private int matchingSegmentId(EventMessage<?> event, Object sequenceIdentifier) {
+        // Events without a sequence identifier are assigned to a segment by their identifier
+        Object segmentKey = sequenceIdentifier == null ? event.getIdentifier() : sequenceIdentifier;
+        for (EventTrackerStatus status : processingStatus.get().values()) {
+            if (status.getSegment().matches(segmentKey)) {
+                return status.getSegment().getSegmentId();
+            }
+        }
+        return UNKNOWN_SEGMENT;
+    }
+}
@@ -0,0 +1,94 @@
+package io.axoniq.dev.samples.sequencingpolicy.monitoring;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the load on every segment of a streaming event processor, being the number of events handled, the
+ * time spent handling them, and the sequence identifiers occurring most often.
+ * <p>
+ * As the sequencing policy assigns all events with the same sequence identifier to the same segment, a few busy
+ * sequence identifiers can overload a single segment while the others idle. The {@link SpaceSavingSketch} per segment
+ * reveals these identifiers, without having to count every identifier ever seen.
+ */
+public class SegmentLoadMonitor {
+
+    private final String processorName;
+    private final int sketchCapacity;
+    private final Map<Integer, SegmentLoad> segments = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a monitor for the processor with the given {@code processorName}, tracking at most {@code
+     * sketchCapacity} sequence identifiers per segment.
+     *
+     * @param processorName  the name of the processor to monitor
+     * @param sketchCapacity the maximum number of sequence identifiers to track per segment
+     */
+    public SegmentLoadMonitor(String processorName, int sketchCapacity) {
+        this.processorName = processorName;
+        this.sketchCapacity = sketchCapacity;
+    }
+
+    /**
+     * Returns the name of the monitored processor.
+     *
+     * @return the name of the monitored processor
+     */
+    public String getProcessorName() {
+        return processorName;
+    }
+
+    /**
+     * Records that the segment with the given {@code segmentId} handled an event with the given {@code
+     * sequenceIdentifier} in {@code handlingNanos} nanoseconds.
+     *
+     * @param segmentId          the identifier of the segment handling the event
+     * @param sequenceIdentifier the sequence identifier of the event, or {@code null} if it is sequenced on its own
+     * @param handlingNanos      the time spent handling the event in nanoseconds
+     */
+    public void record(int segmentId, Object sequenceIdentifier, long handlingNanos) {
+        SegmentLoad load = segments.computeIfAbsent(segmentId, id -> new SegmentLoad(sketchCapacity));
+        load.events.increment();
+        load.handlingNanos.add(handlingNanos);
+        if (sequenceIdentifier != null) {
+            load.sequenceIdentifiers.offer(sequenceIdentifier);
+        }
+    }
+
+    /**
+     * Returns the load of every segment that handled events, ordered by segment identifier.
+     *
+     * @return the load of every segment that handled events, ordered by segment identifier
+     */
+    public Map<Integer, SegmentLoad> segments() {
+        return new TreeMap<>(segments);
+    }
+
+    /**
+     * The load on a single segment.
+     */
+    public static class SegmentLoad {
+
+        private final LongAdder events = new LongAdder();
+        private final LongAdder handlingNanos = new LongAdder();
+        private final SpaceSavingSketch<Object> sequenceIdentifiers;
+
+        private SegmentLoad(int sketchCapacity) {
+            this.sequenceIdentifiers = new SpaceSavingSketch<>(sketchCapacity);
+        }
+
+        public long getEvents() {
+            return events.sum();
+        }
+
+        public long getHandlingNanos() {
+            return handlingNanos.sum();
+        }
+
+        public SpaceSavingSketch<Object> getSequenceIdentifiers() {
+            return sequenceIdentifiers;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package io.axoniq.dev.samples.sequencingpolicy.monitoring;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Space-Saving sketch, tracking the most frequent keys of a stream in a fixed number of counters.
+ * <p>
+ * While there are free counters, every new key gets one. Once all counters are taken, a new key takes over the counter
+ * with the lowest count, and continues counting from there. The count of a key is thus never underestimated, and
+ * overestimated by at most the count it took over, which is reported as its error. Any key occurring more often than
+ * the total number of offered keys divided by the capacity is guaranteed to be tracked.
+ * <p>
+ * The counters are kept in a Stream-Summary: a linked list of buckets in ascending order of count, each holding the
+ * counters with that count. Counting a tracked key moves its counter to the next bucket, and the counter with the
+ * lowest count is the first one of the first bucket, so offering a key takes constant time whatever the capacity.
+ * <p>
+ * The sketch is meant to be fed by a single thread, like the thread processing a segment, and read occasionally from
+ * another. Its methods are synchronized accordingly.
+ *
+ * @param <K> the type of the keys to count
+ */
+public class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    // The bucket with the lowest count, and the one with the highest
+    private Bucket<K> lowest;
+    private Bucket<K> highest;
+    private long offered;
+
+    /**
+     * Constructs a sketch tracking at most {@code capacity} keys.
+     *
+     * @param capacity the maximum number of keys to track
+     */
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity should be positive, but was [" + capacity + "]");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Counts one occurrence of the given {@code key}.
+     *
+     * @param key the key to count
+     */
+    public synchronized void offer(K key) {
+        offered++;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            increment(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter<>(key, 0);
+            counters.put(key, counter);
+            if (lowest == null || lowest.count != 1) {
+                insertAfter(null, new Bucket<>(1));
+            }
+            lowest.append(counter);
+        } else {
+            counter = lowest.first;
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = lowest.count;
+            counters.put(key, counter);
+            increment(counter);
+        }
+    }
+
+    private void increment(Counter<K> counter) {
+        Bucket<K> bucket = counter.bucket;
+        long count = bucket.count + 1;
+        if (bucket.next == null || bucket.next.count != count) {
+            insertAfter(bucket, new Bucket<>(count));
+        }
+        bucket.remove(counter);
+        bucket.next.append(counter);
+        if (bucket.first == null) {
+            unlink(bucket);
+        }
+    }
+
+    /**
+     * Inserts the given {@code bucket} after the given {@code previous} bucket, or as the lowest if that is {@code
+     * null}.
+     */
+    private void insertAfter(Bucket<K> previous, Bucket<K> bucket) {
+        Bucket<K> next = previous == null ? lowest : previous.next;
+        bucket.previous = previous;
+        bucket.next = next;
+        if (previous == null) {
+            lowest = bucket;
+        } else {
+            previous.next = bucket;
+        }
+        if (next == null) {
+            highest = bucket;
+        } else {
+            next.previous = bucket;
+        }
+    }
+
+    private void unlink(Bucket<K> bucket) {
+        if (bucket.previous == null) {
+            lowest = bucket.next;
+        } else {
+            bucket.previous.next = bucket.next;
+        }
+        if (bucket.next == null) {
+            highest = bucket.previous;
+        } else {
+            bucket.next.previous = bucket.previous;
+        }
+    }
+
+    /**
+     * Returns the number of keys offered to this sketch.
+     *
+     * @return the number of keys offered to this sketch
+     */
+    public synchronized long offered() {
+        return offered;
+    }
+
+    /**
+     * Returns at most {@code limit} of the most frequent keys, most frequent first.
+     *
+     * @param limit the maximum number of keys to return
+     * @return at most {@code limit} of the most frequent keys, most frequent first
+     */
+    public synchronized List<HeavyHitter<K>> top(int limit) {
+        List<HeavyHitter<K>> top = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Bucket<K> bucket = highest; bucket != null && top.size() < limit; bucket = bucket.previous) {
+            for (Counter<K> counter = bucket.first; counter != null && top.size() < limit; counter = counter.next) {
+                top.add(new HeavyHitter<>(counter.key, bucket.count, counter.error));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * A key tracked by a {@link SpaceSavingSketch}, with its estimated count.
+     *
+     * @param <K> the type of the key
+     */
+    public static class HeavyHitter<K> {
+
+        private final K key;
+        private final long count;
+        private final long error;
+
+        private HeavyHitter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the estimated count of the key, which is at least its actual count.
+         *
+         * @return the estimated count of the key
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the maximum overestimation of the {@link #getCount() count}.
+         *
+         * @return the maximum overestimation of the count
+         */
+        public long getError() {
+            return error;
+        }
+    }
+
+    /**
+     * The counters with the same count, in the order they reached it.
+     */
+    private static final class Bucket<K> {
+
+        private final long count;
+        private Bucket<K> previous;
+        private Bucket<K> next;
+        private Counter<K> first;
+        private Counter<K> last;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+
+        private void append(Counter<K> counter) {
+            counter.bucket = this;
+            counter.previous = last;
+            counter.next = null;
+            if (last == null) {
+                first = counter;
+            } else {
+                last.next = counter;
+            }
+            last = counter;
+        }
+
+        private void remove(Counter<K> counter) {
+            if (counter.previous == null) {
+                first = counter.next;
+            } else {
+                counter.previous.next = counter.next;
+            }
+            if (counter.next == null) {
+                last = counter.previous;
+            } else {
+                counter.next.previous = counter.previous;
+            }
+        }
+    }
+
+    private static final class Counter<K> {
+
+        private K key;
+        private long error;
+        private Bucket<K> bucket;
+        private Counter<K> previous;
+        private Counter<K> next;
+
+        private Counter(K key, long error) {
+            this.key = key;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The arrival time of a flight, as maintained by the {@link FlightTimeProjector}. Every change returns a new instance.
+ */
+public class FlightTime {
+
+    private final FlightId flightId;
+    private final Instant scheduledArrival;
+    private final Instant arrival;
+    private final boolean canceled;
+
+    /**
+     * Constructs the arrival time of a flight that was just scheduled to arrive at the given {@code scheduledArrival}.
+     *
+     * @param flightId         the identifier of the flight
+     * @param scheduledArrival the time the flight is scheduled to arrive
+     * @return the arrival time of the scheduled flight
+     */
+    public static FlightTime scheduled(FlightId flightId, Instant scheduledArrival) {
+        return new FlightTime(flightId, scheduledArrival, scheduledArrival, false);
+    }
+
+    public FlightTime(FlightId flightId, Instant scheduledArrival, Instant arrival, boolean canceled) {
+        this.flightId = flightId;
+        this.scheduledArrival = scheduledArrival;
+        this.arrival = arrival;
+        this.canceled = canceled;
+    }
+
+    public FlightTime delayedBy(Duration delay) {
+        return new FlightTime(flightId, scheduledArrival, arrival.plus(delay), canceled);
+    }
+
+    public FlightTime arrivingAt(Instant newArrival) {
+        return new FlightTime(flightId, scheduledArrival, newArrival, canceled);
+    }
+
+    public FlightTime cancel() {
+        return new FlightTime(flightId, scheduledArrival, arrival, true);
+    }
+
+    public FlightId getFlightId() {
+        return flightId;
+    }
+
+    public Instant getScheduledArrival() {
+        return scheduledArrival;
+    }
+
+    public Instant getArrival() {
+        return arrival;
+    }
+
+    public boolean isDelayed() {
+        return arrival.isAfter(scheduledArrival);
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FlightTime that = (FlightTime) o;
+        return canceled == that.canceled && Objects.equals(flightId, that.flightId)
+                && Objects.equals(scheduledArrival, that.scheduledArrival) && Objects.equals(arrival, that.arrival);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(flightId, scheduledArrival, arrival, canceled);
+    }
+
+    @Override
+    public String toString() {
+        return "FlightTime{" +
+                "flightId=" + flightId +
+                ", scheduledArrival=" + scheduledArrival +
+                ", arrival=" + arrival +
+                ", canceled=" + canceled +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * The changes to the arrival times of the flights in a single batch of events, of which only the final arrival time
+ * per flight is written to the {@link FlightTimeRepository} when the batch commits.
+ * <p>
+ * A flight is read from the repository on its first change in the batch. Every next change applies to the pending
+ * arrival time in the batch, so a flight delayed a dozen times in one batch is written once instead of a dozen times.
+ * The batch is kept as a resource of the root unit of work, which writes it in its prepare commit phase. The processor
+ * stores its token in the same phase, so with a transactional repository the writes and the token commit together.
+ * When the batch rolls back, the pending arrival times are discarded with it.
+ */
+class FlightTimeBatch {
+
+    private static final String RESOURCE_KEY = FlightTimeBatch.class.getName();
+
+    private final FlightTimeRepository repository;
+    private final Map<FlightId, FlightTime> pending = new LinkedHashMap<>();
+
+    /**
+     * Returns the batch of the root of the given {@code unitOfWork}, creating it on the first change in the unit of
+     * work.
+     *
+     * @param unitOfWork the unit of work handling the batch of events
+     * @param repository the repository to read and write the arrival times of the batch with
+     * @return the batch of the root of the given {@code unitOfWork}
+     */
+    static FlightTimeBatch forUnitOfWork(UnitOfWork<?> unitOfWork, FlightTimeRepository repository) {
+        UnitOfWork<?> root = unitOfWork.root();
+        return root.getOrComputeResource(RESOURCE_KEY, key -> {
+            FlightTimeBatch batch = new FlightTimeBatch(repository);
+            root.onPrepareCommit(u -> batch.flush());
+            return batch;
+        });
+    }
+
+    private FlightTimeBatch(FlightTimeRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Applies the given {@code change} to the pending arrival time of the flight with the given {@code flightId}. The
+     * change receives {@code null} for an unknown flight, and may return {@code null} to leave the flight unchanged.
+     *
+     * @param flightId the identifier of the flight to change
+     * @param change   the change to apply to the arrival time of the flight
+     */
+    void update(FlightId flightId, UnaryOperator<FlightTime> change) {
+        FlightTime current = pending.get(flightId);
+        if (current == null) {
+            current = repository.find(flightId).orElse(null);
+        }
+        FlightTime changed = change.apply(current);
+        if (changed != null) {
+            pending.put(flightId, changed);
+        }
+    }
+
+    private void flush() {
+        if (!pending.isEmpty()) {
+            repository.saveAll(pending.values());
+            pending.clear();
+        }
+    }
+}
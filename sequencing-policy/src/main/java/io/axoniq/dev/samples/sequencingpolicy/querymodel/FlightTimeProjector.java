@@ -2,15 +2,26 @@ package io.axoniq.dev.samples.sequencingpolicy.querymodel;
 
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.ArrivalTimeChangedEvent;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightCanceledEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FindFlightTimeQuery;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FindFlightTimesArrivingBetweenQuery;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
 import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightScheduledEvent;
+import io.axoniq.dev.samples.sequencingpolicy.loadgen.LatencyRecorder;
 import org.axonframework.config.ProcessingGroup;
 import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.messaging.annotation.MetaDataValue;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.queryhandling.QueryHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.lang.invoke.MethodHandles;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * Simple projector logging the {@link io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId} and {@link
@@ -19,6 +30,17 @@ import java.lang.invoke.MethodHandles;
  * Doing so shows in the logs that the same thread is in charge of all events for a given {@code FlightId}. This further
  * shows that the {@link org.axonframework.eventhandling.async.SequencingPolicy} based on the {@code FlightId} is in
  * effect.
+ * <p>
+ * Next to logging, the projector maintains the {@link FlightTime} of every flight in the {@link FlightTimeRepository}.
+ * In batch mode, enabled with the {@code flight-time.projection.batch-mode} property, the changes of a batch of events
+ * are collected in a {@link FlightTimeBatch}, which writes only the final arrival time per flight when the batch
+ * commits. Otherwise, or when a handler runs outside a unit of work, every event is written on its own. The arrival
+ * times are queried by flight with the {@link FindFlightTimeQuery}, and by arrival with the {@link
+ * FindFlightTimesArrivingBetweenQuery}.
+ * <p>
+ * Events published by the {@link io.axoniq.dev.samples.sequencingpolicy.loadgen.LoadGenerator} carry the times they
+ * were intended to be published and were published in their meta data, with which the {@link LatencyRecorder} records
+ * their latency once handled.
  */
 @Component
 @ProcessingGroup("flight-time")
@@ -26,27 +48,83 @@ public class FlightTimeProjector {
 
     private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private final FlightTimeRepository repository;
+    private final LatencyRecorder latencyRecorder;
+    private final boolean batchMode;
+
+    public FlightTimeProjector(FlightTimeRepository repository,
+                               LatencyRecorder latencyRecorder,
+                               @Value("${flight-time.projection.batch-mode:false}") boolean batchMode) {
+        this.repository = repository;
+        this.latencyRecorder = latencyRecorder;
+        this.batchMode = batchMode;
+    }
+
     @EventHandler
-    public void on(FlightScheduledEvent event) {
+    public void on(FlightScheduledEvent event,
+                   @MetaDataValue(LatencyRecorder.INTENDED_AT_KEY) Long intendedAt,
+                   @MetaDataValue(LatencyRecorder.PUBLISHED_AT_KEY) Long publishedAt) {
         logger.info("Thread[{}] handling FlightScheduledEvent with Flight Id [{}]",
                     Thread.currentThread().getId(), event.getFlightId());
+        update(event.getFlightId(), flightTime -> FlightTime.scheduled(
+                event.getFlightId(), event.getArrivalTime().toInstant(ZoneOffset.UTC)
+        ));
+        latencyRecorder.recordHandled(intendedAt, publishedAt);
     }
 
     @EventHandler
-    public void on(FlightDelayedEvent event) {
+    public void on(FlightDelayedEvent event,
+                   @MetaDataValue(LatencyRecorder.INTENDED_AT_KEY) Long intendedAt,
+                   @MetaDataValue(LatencyRecorder.PUBLISHED_AT_KEY) Long publishedAt) {
         logger.info("Thread[{}] handling FlightDelayedEvent with Flight Id [{}]",
                     Thread.currentThread().getId(), event.getFlightId());
+        update(event.getFlightId(), flightTime -> flightTime == null ? null : flightTime.delayedBy(event.getDelay()));
+        latencyRecorder.recordHandled(intendedAt, publishedAt);
     }
 
     @EventHandler
-    public void on(FlightCanceledEvent event) {
+    public void on(FlightCanceledEvent event,
+                   @MetaDataValue(LatencyRecorder.INTENDED_AT_KEY) Long intendedAt,
+                   @MetaDataValue(LatencyRecorder.PUBLISHED_AT_KEY) Long publishedAt) {
         logger.info("Thread[{}] handling FlightCanceledEvent with Flight Id [{}]",
                     Thread.currentThread().getId(), event.getFlightId());
+        update(event.getFlightId(), flightTime -> flightTime == null ? null : flightTime.cancel());
+        latencyRecorder.recordHandled(intendedAt, publishedAt);
     }
 
     @EventHandler
-    public void on(ArrivalTimeChangedEvent event) {
+    public void on(ArrivalTimeChangedEvent event,
+                   @MetaDataValue(LatencyRecorder.INTENDED_AT_KEY) Long intendedAt,
+                   @MetaDataValue(LatencyRecorder.PUBLISHED_AT_KEY) Long publishedAt) {
         logger.info("Thread[{}] handling ArrivalTimeChangedEvent with Flight Id [{}]",
                     Thread.currentThread().getId(), event.getFlightId());
+        update(event.getFlightId(),
+               flightTime -> flightTime == null ? null : flightTime.arrivingAt(event.getNewArrivalTime()));
+        latencyRecorder.recordHandled(intendedAt, publishedAt);
+    }
+
+    @QueryHandler
+    public FlightTime handle(FindFlightTimeQuery query) {
+        return repository.find(query.getFlightId()).orElse(null);
+    }
+
+    @QueryHandler
+    public List<FlightTime> handle(FindFlightTimesArrivingBetweenQuery query) {
+        return repository.findArrivingBetween(query.getFrom(), query.getTo(), query.getLimit());
+    }
+
+    /**
+     * Applies the given {@code change} to the arrival time of the flight with the given {@code flightId}. The change
+     * receives {@code null} for an unknown flight, and returns {@code null} to leave the flight unchanged.
+     */
+    private void update(FlightId flightId, UnaryOperator<FlightTime> change) {
+        if (batchMode && CurrentUnitOfWork.isStarted()) {
+            FlightTimeBatch.forUnitOfWork(CurrentUnitOfWork.get(), repository).update(flightId, change);
+            return;
+        }
+        FlightTime changed = change.apply(repository.find(flightId).orElse(null));
+        if (changed != null) {
+            repository.save(changed);
+        }
     }
 }
@@ -0,0 +1,22 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration of the read model the {@link FlightTimeProjector} maintains, being an {@link
+ * OpenAddressingFlightTimeRepository} sized with the {@code flight-time.read-model.expected-flights} property. Setting
+ * {@code flight-time.read-model.off-heap} to {@code true} stores the arrival times outside of the heap.
+ */
+@Configuration
+public class FlightTimeReadModelConfiguration {
+
+    @Bean
+    public FlightTimeRepository flightTimeRepository(
+            @Value("${flight-time.read-model.expected-flights:100000}") int expectedFlights,
+            @Value("${flight-time.read-model.off-heap:false}") boolean offHeap
+    ) {
+        return new OpenAddressingFlightTimeRepository(expectedFlights, offHeap);
+    }
+}
@@ -0,0 +1,49 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The read model holding the {@link FlightTime} of every flight, written by the {@link FlightTimeProjector}.
+ */
+public interface FlightTimeRepository {
+
+    /**
+     * Returns the arrival time of the flight with the given {@code flightId}.
+     *
+     * @param flightId the identifier of the flight
+     * @return the arrival time of the flight, or an empty {@link Optional} if the flight is unknown
+     */
+    Optional<FlightTime> find(FlightId flightId);
+
+    /**
+     * Stores the given {@code flightTime}, replacing the arrival time stored for the same flight, if any.
+     *
+     * @param flightTime the arrival time of a flight to store
+     */
+    void save(FlightTime flightTime);
+
+    /**
+     * Stores all given {@code flightTimes} at once. By default, they are stored one by one.
+     *
+     * @param flightTimes the arrival times of distinct flights to store
+     */
+    default void saveAll(Collection<FlightTime> flightTimes) {
+        flightTimes.forEach(this::save);
+    }
+
+    /**
+     * Returns the arrival times of the flights arriving from {@code from}, inclusive, until {@code to}, exclusive,
+     * ordered by their arrival.
+     *
+     * @param from  the start of the time window, inclusive
+     * @param to    the end of the time window, exclusive
+     * @param limit the maximum number of arrival times to return, being the earliest ones in the window
+     * @return the arrival times of the flights arriving in the time window, ordered by their arrival
+     */
+    List<FlightTime> findArrivingBetween(Instant from, Instant to, int limit);
+}
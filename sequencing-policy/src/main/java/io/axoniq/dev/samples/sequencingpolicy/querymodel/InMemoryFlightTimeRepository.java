@@ -0,0 +1,56 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link FlightTimeRepository} holding the arrival times as objects in a {@link ConcurrentHashMap}, counting the number
+ * of writes to show the effect of coalescing them.
+ * <p>
+ * Every flight takes a map entry, a {@link FlightId}, a {@link FlightTime} and two {@link Instant}s on the heap. The
+ * application uses the {@link OpenAddressingFlightTimeRepository} instead, which holds the same in a few arrays.
+ */
+public class InMemoryFlightTimeRepository implements FlightTimeRepository {
+
+    private final Map<FlightId, FlightTime> flightTimes = new ConcurrentHashMap<>();
+    private final LongAdder writes = new LongAdder();
+
+    @Override
+    public Optional<FlightTime> find(FlightId flightId) {
+        return Optional.ofNullable(flightTimes.get(flightId));
+    }
+
+    @Override
+    public void save(FlightTime flightTime) {
+        flightTimes.put(flightTime.getFlightId(), flightTime);
+        writes.increment();
+    }
+
+    @Override
+    public List<FlightTime> findArrivingBetween(Instant from, Instant to, int limit) {
+        return flightTimes.values()
+                          .stream()
+                          .filter(flightTime -> !flightTime.getArrival().isBefore(from)
+                                  && flightTime.getArrival().isBefore(to))
+                          .sorted(Comparator.comparing(FlightTime::getArrival))
+                          .limit(limit)
+                          .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the number of arrival times stored since this repository was created.
+     *
+     * @return the number of arrival times stored since this repository was created
+     */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+}
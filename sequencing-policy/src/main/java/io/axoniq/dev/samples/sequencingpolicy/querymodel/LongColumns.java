@@ -0,0 +1,97 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A fixed number of parallel columns of {@code long}s, all with the same number of rows, stored either in {@code long}
+ * arrays on the heap or in direct buffers outside of it.
+ */
+abstract class LongColumns {
+
+    /**
+     * The maximum number of rows, for a column to fit in a single direct buffer of at most 1 GB.
+     */
+    static final int MAX_ROWS = 1 << 27;
+
+    private final int rows;
+
+    /**
+     * Allocates the given number of {@code columns} of the given number of {@code rows}, all zero, on the heap or in
+     * direct buffers.
+     *
+     * @param columns the number of columns to allocate
+     * @param rows    the number of rows of every column
+     * @param offHeap whether to allocate the columns in direct buffers instead of on the heap
+     * @return the allocated columns
+     */
+    static LongColumns allocate(int columns, int rows, boolean offHeap) {
+        if (rows < 1 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException(
+                    "The number of rows should be between 1 and " + MAX_ROWS + ", but was [" + rows + "]"
+            );
+        }
+        return offHeap ? new OffHeap(columns, rows) : new OnHeap(columns, rows);
+    }
+
+    private LongColumns(int rows) {
+        this.rows = rows;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    abstract long get(int column, int row);
+
+    abstract void set(int column, int row, long value);
+
+    private static class OnHeap extends LongColumns {
+
+        private final long[][] columns;
+
+        private OnHeap(int columns, int rows) {
+            super(rows);
+            this.columns = new long[columns][rows];
+        }
+
+        @Override
+        long get(int column, int row) {
+            return columns[column][row];
+        }
+
+        @Override
+        void set(int column, int row, long value) {
+            columns[column][row] = value;
+        }
+    }
+
+    /**
+     * Columns in direct buffers, which are zeroed when allocated and released once the buffers are garbage collected.
+     */
+    private static class OffHeap extends LongColumns {
+
+        private final LongBuffer[] columns;
+
+        private OffHeap(int columns, int rows) {
+            super(rows);
+            this.columns = new LongBuffer[columns];
+            for (int i = 0; i < columns; i++) {
+                this.columns[i] = ByteBuffer.allocateDirect(rows * Long.BYTES)
+                                            .order(ByteOrder.nativeOrder())
+                                            .asLongBuffer();
+            }
+        }
+
+        @Override
+        long get(int column, int row) {
+            return columns[column].get(row);
+        }
+
+        @Override
+        void set(int column, int row, long value) {
+            columns[column].put(row, value);
+        }
+    }
+}
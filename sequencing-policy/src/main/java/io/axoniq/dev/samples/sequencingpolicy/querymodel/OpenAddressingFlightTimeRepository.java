@@ -0,0 +1,311 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A {@link FlightTimeRepository} holding the arrival times in an open addressing hash table of primitive {@code long}s,
+ * for millions of flights without millions of objects on the heap.
+ * <p>
+ * A flight takes a single row in seven parallel {@link LongColumns}: the two {@code long}s of its {@link FlightId} as
+ * the key, its scheduled arrival and arrival as epoch milliseconds, its status flags, and the previous and next row
+ * arriving in the same {@link #ARRIVAL_BUCKET_MILLIS arrival bucket}. A row is found by linear probing from the hash of
+ * the key, comparing the two {@code long}s of the key without creating a {@code FlightId}. The table doubles its rows
+ * when it is filled for {@link #MAX_LOAD_PERCENTAGE} percent, and never shrinks, as flights are not removed. With the
+ * columns off heap, the arrival times take no heap but a map entry per arrival bucket, and the garbage collector has
+ * nothing to trace but the few buffer objects and these entries.
+ * <p>
+ * The rows arriving in the same bucket are doubly linked through the columns, and a sorted map points to the first row
+ * of every bucket. A save moves the row to another bucket in constant time when its arrival changes bucket. A time
+ * window query only visits the rows in the buckets overlapping the window, and stops at the first bucket after the
+ * {@code limit} earliest arrivals are found, rather than scanning all rows.
+ * <p>
+ * A flight with a non {@link FlightId#isCanonical() canonical} identifier is keyed by the two {@code long}s of the name
+ * based UUID of that identifier, and its {@code FlightId} is kept in a map to return it from time window queries.
+ * <p>
+ * Arrival times are stored at millisecond precision. Writes take an exclusive lock. A lookup first reads optimistically
+ * without locking, and only takes the read lock when a write interfered. A time window query holds the read lock while
+ * visiting the rows of the window, blocking writes only for as long as that takes.
+ */
+public class OpenAddressingFlightTimeRepository implements FlightTimeRepository {
+
+    /**
+     * The percentage of the rows in use at which the table doubles its rows.
+     */
+    static final int MAX_LOAD_PERCENTAGE = 70;
+
+    /**
+     * The width of an arrival bucket of the arrival time index, in milliseconds.
+     */
+    static final long ARRIVAL_BUCKET_MILLIS = 60_000L;
+
+    private static final int MOST_SIGNIFICANT_BITS = 0;
+    private static final int LEAST_SIGNIFICANT_BITS = 1;
+    private static final int SCHEDULED_ARRIVAL = 2;
+    private static final int ARRIVAL = 3;
+    private static final int FLAGS = 4;
+    private static final int PREVIOUS_IN_BUCKET = 5;
+    private static final int NEXT_IN_BUCKET = 6;
+    private static final int COLUMN_COUNT = 7;
+
+    /**
+     * The value of the {@link #PREVIOUS_IN_BUCKET} and {@link #NEXT_IN_BUCKET} columns linking to no row. Other rows
+     * are linked by their row plus one, as the columns are allocated all zero.
+     */
+    private static final long NO_ROW = 0L;
+
+    private static final long OCCUPIED = 1L;
+    private static final long CANCELED = 1L << 1;
+    private static final long NON_CANONICAL = 1L << 2;
+
+    private final boolean offHeap;
+    private final StampedLock lock = new StampedLock();
+    private final NavigableMap<Long, Integer> firstRowByArrivalBucket = new TreeMap<>();
+    private final Map<UUID, FlightId> nonCanonicalFlightIds = new HashMap<>();
+    private LongColumns columns;
+    private int size;
+
+    /**
+     * Constructs a repository sized to hold the given number of {@code expectedFlights} without growing.
+     *
+     * @param expectedFlights the number of flights the repository should hold without growing
+     * @param offHeap         whether to store the arrival times in direct buffers instead of on the heap
+     */
+    public OpenAddressingFlightTimeRepository(int expectedFlights, boolean offHeap) {
+        this.offHeap = offHeap;
+        this.columns = LongColumns.allocate(COLUMN_COUNT, rowsFor(expectedFlights), offHeap);
+    }
+
+    private static int rowsFor(int flights) {
+        long minimumRows = Math.max(2L, (long) flights * 100 / MAX_LOAD_PERCENTAGE + 1);
+        if (minimumRows > LongColumns.MAX_ROWS) {
+            throw new IllegalArgumentException("Unable to hold [" + flights + "] flights");
+        }
+        return Integer.highestOneBit((int) minimumRows - 1) << 1;
+    }
+
+    @Override
+    public Optional<FlightTime> find(FlightId flightId) {
+        long mostSignificantBits = flightId.getMostSignificantBits();
+        long leastSignificantBits = flightId.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        LongColumns current = columns;
+        int row = findRow(current, mostSignificantBits, leastSignificantBits);
+        long flags = current.get(FLAGS, row);
+        long scheduledArrival = current.get(SCHEDULED_ARRIVAL, row);
+        long arrival = current.get(ARRIVAL, row);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = columns;
+                row = findRow(current, mostSignificantBits, leastSignificantBits);
+                flags = current.get(FLAGS, row);
+                scheduledArrival = current.get(SCHEDULED_ARRIVAL, row);
+                arrival = current.get(ARRIVAL, row);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return (flags & OCCUPIED) == 0
+                ? Optional.empty()
+                : Optional.of(toFlightTime(flightId, scheduledArrival, arrival, flags));
+    }
+
+    @Override
+    public void save(FlightTime flightTime) {
+        FlightId flightId = flightTime.getFlightId();
+        long mostSignificantBits = flightId.getMostSignificantBits();
+        long leastSignificantBits = flightId.getLeastSignificantBits();
+        long stamp = lock.writeLock();
+        try {
+            if (!flightId.isCanonical()) {
+                nonCanonicalFlightIds.put(new UUID(mostSignificantBits, leastSignificantBits), flightId);
+            }
+            long arrival = flightTime.getArrival().toEpochMilli();
+            int row = findRow(columns, mostSignificantBits, leastSignificantBits);
+            boolean linked = (columns.get(FLAGS, row) & OCCUPIED) != 0;
+            if (!linked) {
+                if ((long) (size + 1) * 100 > (long) columns.rows() * MAX_LOAD_PERCENTAGE) {
+                    grow();
+                    row = findRow(columns, mostSignificantBits, leastSignificantBits);
+                }
+                size++;
+            } else if (arrivalBucket(columns.get(ARRIVAL, row)) != arrivalBucket(arrival)) {
+                unlinkFromArrivalBucket(row);
+                linked = false;
+            }
+            writeRow(columns, row, mostSignificantBits, leastSignificantBits,
+                     flightTime.getScheduledArrival().toEpochMilli(),
+                     arrival,
+                     OCCUPIED | (flightTime.isCanceled() ? CANCELED : 0)
+                             | (flightId.isCanonical() ? 0 : NON_CANONICAL));
+            if (!linked) {
+                linkToArrivalBucket(row);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<FlightTime> findArrivingBetween(Instant from, Instant to, int limit) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<FlightTime> result = new ArrayList<>();
+        if (fromMillis >= toMillis) {
+            return result;
+        }
+        long stamp = lock.readLock();
+        try {
+            for (Integer firstRow : firstRowByArrivalBucket.subMap(arrivalBucket(fromMillis), true,
+                                                                   arrivalBucket(toMillis - 1), true).values()) {
+                for (long link = firstRow + 1L; link != NO_ROW; link = columns.get(NEXT_IN_BUCKET, (int) link - 1)) {
+                    int row = (int) link - 1;
+                    long arrival = columns.get(ARRIVAL, row);
+                    if (arrival >= fromMillis && arrival < toMillis) {
+                        long flags = columns.get(FLAGS, row);
+                        long mostSignificantBits = columns.get(MOST_SIGNIFICANT_BITS, row);
+                        long leastSignificantBits = columns.get(LEAST_SIGNIFICANT_BITS, row);
+                        FlightId flightId = (flags & NON_CANONICAL) != 0
+                                ? nonCanonicalFlightIds.get(new UUID(mostSignificantBits, leastSignificantBits))
+                                : new FlightId(mostSignificantBits, leastSignificantBits);
+                        result.add(toFlightTime(flightId, columns.get(SCHEDULED_ARRIVAL, row), arrival, flags));
+                    }
+                }
+                if (result.size() >= limit) {
+                    // all flights in later buckets arrive after those found so far
+                    break;
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        result.sort(Comparator.comparing(FlightTime::getArrival));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Returns the number of flights in the repository.
+     *
+     * @return the number of flights in the repository
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the row of the flight with the given key, or the empty row where it would be inserted. As the table is
+     * never full, an empty row is found within the rows of the table. A read interfered by a write may probe a
+     * torn table, so the probing is bounded by the number of rows rather than by finding an empty row.
+     */
+    private static int findRow(LongColumns columns, long mostSignificantBits, long leastSignificantBits) {
+        int mask = columns.rows() - 1;
+        int row = hash(mostSignificantBits, leastSignificantBits) & mask;
+        for (int probes = 0; probes < columns.rows(); probes++) {
+            if ((columns.get(FLAGS, row) & OCCUPIED) == 0
+                    || columns.get(MOST_SIGNIFICANT_BITS, row) == mostSignificantBits
+                    && columns.get(LEAST_SIGNIFICANT_BITS, row) == leastSignificantBits) {
+                return row;
+            }
+            row = (row + 1) & mask;
+        }
+        return row;
+    }
+
+    /**
+     * Spreads the bits of both {@code long}s of the key over the hash, with the finalizer of MurmurHash3.
+     */
+    private static int hash(long mostSignificantBits, long leastSignificantBits) {
+        long hash = mostSignificantBits ^ Long.rotateLeft(leastSignificantBits, 32);
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (hash ^ (hash >>> 33));
+    }
+
+    private void grow() {
+        LongColumns grown = LongColumns.allocate(COLUMN_COUNT, columns.rows() << 1, offHeap);
+        for (int row = 0; row < columns.rows(); row++) {
+            long flags = columns.get(FLAGS, row);
+            if ((flags & OCCUPIED) != 0) {
+                long mostSignificantBits = columns.get(MOST_SIGNIFICANT_BITS, row);
+                long leastSignificantBits = columns.get(LEAST_SIGNIFICANT_BITS, row);
+                writeRow(grown, findRow(grown, mostSignificantBits, leastSignificantBits),
+                         mostSignificantBits, leastSignificantBits,
+                         columns.get(SCHEDULED_ARRIVAL, row), columns.get(ARRIVAL, row), flags);
+            }
+        }
+        columns = grown;
+        firstRowByArrivalBucket.clear();
+        for (int row = 0; row < columns.rows(); row++) {
+            if ((columns.get(FLAGS, row) & OCCUPIED) != 0) {
+                linkToArrivalBucket(row);
+            }
+        }
+    }
+
+    private static long arrivalBucket(long arrival) {
+        return Math.floorDiv(arrival, ARRIVAL_BUCKET_MILLIS);
+    }
+
+    /**
+     * Links the given {@code row} as the first row of the bucket of its arrival.
+     */
+    private void linkToArrivalBucket(int row) {
+        Integer firstRow = firstRowByArrivalBucket.put(arrivalBucket(columns.get(ARRIVAL, row)), row);
+        columns.set(PREVIOUS_IN_BUCKET, row, NO_ROW);
+        columns.set(NEXT_IN_BUCKET, row, firstRow == null ? NO_ROW : firstRow + 1L);
+        if (firstRow != null) {
+            columns.set(PREVIOUS_IN_BUCKET, firstRow, row + 1L);
+        }
+    }
+
+    /**
+     * Unlinks the given {@code row} from the bucket of its arrival, removing the bucket when it was its only row.
+     */
+    private void unlinkFromArrivalBucket(int row) {
+        long previous = columns.get(PREVIOUS_IN_BUCKET, row);
+        long next = columns.get(NEXT_IN_BUCKET, row);
+        if (previous != NO_ROW) {
+            columns.set(NEXT_IN_BUCKET, (int) previous - 1, next);
+        } else if (next != NO_ROW) {
+            firstRowByArrivalBucket.put(arrivalBucket(columns.get(ARRIVAL, row)), (int) next - 1);
+        } else {
+            firstRowByArrivalBucket.remove(arrivalBucket(columns.get(ARRIVAL, row)));
+        }
+        if (next != NO_ROW) {
+            columns.set(PREVIOUS_IN_BUCKET, (int) next - 1, previous);
+        }
+    }
+
+    private static void writeRow(LongColumns columns, int row, long mostSignificantBits, long leastSignificantBits,
+                                 long scheduledArrival, long arrival, long flags) {
+        columns.set(MOST_SIGNIFICANT_BITS, row, mostSignificantBits);
+        columns.set(LEAST_SIGNIFICANT_BITS, row, leastSignificantBits);
+        columns.set(SCHEDULED_ARRIVAL, row, scheduledArrival);
+        columns.set(ARRIVAL, row, arrival);
+        columns.set(FLAGS, row, flags);
+    }
+
+    private static FlightTime toFlightTime(FlightId flightId, long scheduledArrival, long arrival, long flags) {
+        return new FlightTime(flightId,
+                              Instant.ofEpochMilli(scheduledArrival),
+                              Instant.ofEpochMilli(arrival),
+                              (flags & CANCELED) != 0);
+    }
+}
@@ -0,0 +1,72 @@
+package io.axoniq.dev.samples.sequencingpolicy.scaling;
+
+/**
+ * The action the {@link SegmentScalingPolicy} decided on: splitting a segment, merging a segment with its counterpart,
+ * or leaving the segments as they are.
+ */
+public class ScalingAction {
+
+    private static final ScalingAction NONE = new ScalingAction(Type.NONE, -1);
+
+    private final Type type;
+    private final int segmentId;
+
+    /**
+     * Returns the action leaving the segments as they are.
+     *
+     * @return the action leaving the segments as they are
+     */
+    public static ScalingAction none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the action splitting the segment with the given {@code segmentId} in two.
+     *
+     * @param segmentId the identifier of the segment to split
+     * @return the action splitting the segment with the given {@code segmentId}
+     */
+    public static ScalingAction split(int segmentId) {
+        return new ScalingAction(Type.SPLIT, segmentId);
+    }
+
+    /**
+     * Returns the action merging the segment with the given {@code segmentId} with its counterpart.
+     *
+     * @param segmentId the identifier of the segment to merge
+     * @return the action merging the segment with the given {@code segmentId}
+     */
+    public static ScalingAction merge(int segmentId) {
+        return new ScalingAction(Type.MERGE, segmentId);
+    }
+
+    private ScalingAction(Type type, int segmentId) {
+        this.type = type;
+        this.segmentId = segmentId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the identifier of the segment to split or merge, or {@code -1} if the segments are left as they are.
+     *
+     * @return the identifier of the segment to split or merge
+     */
+    public int getSegmentId() {
+        return segmentId;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.NONE ? type.name() : type.name() + "[" + segmentId + "]";
+    }
+
+    /**
+     * The types of actions.
+     */
+    public enum Type {
+        NONE, SPLIT, MERGE
+    }
+}
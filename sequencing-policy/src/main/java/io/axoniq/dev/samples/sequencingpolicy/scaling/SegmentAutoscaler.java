@@ -0,0 +1,124 @@
+package io.axoniq.dev.samples.sequencingpolicy.scaling;
+
+import io.axoniq.dev.samples.sequencingpolicy.monitoring.SegmentLoadMonitor;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.EventTrackerStatus;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.StreamableMessageSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Periodically splits and merges the segments of a streaming event processor, as decided by a {@link
+ * SegmentScalingPolicy}.
+ * <p>
+ * The lag of every segment is the distance between its position and the head of the event store. The number of events
+ * every segment handled since the previous check is taken from the {@link SegmentLoadMonitor} of the processor, and
+ * tells the policy which segment to split. The maximum number of segments is capped at the capacity of the processor,
+ * as segments beyond the number of threads of a {@link org.axonframework.eventhandling.TrackingEventProcessor} would
+ * not be processed at all. A {@link org.axonframework.eventhandling.pooled.PooledStreamingEventProcessor} does not
+ * bind segments to threads, so its segments can be split well beyond its number of threads.
+ * <p>
+ * A split or merge is only requested when the previous one completed and no segment is merging. Both only succeed for
+ * segments claimed by this instance, so the autoscaler is meant for a processor running on a single instance.
+ */
+public class SegmentAutoscaler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final String processorName;
+    private final EventProcessingConfiguration eventProcessingConfiguration;
+    private final StreamableMessageSource<?> messageSource;
+    private final SegmentLoadMonitor loadMonitor;
+    private final SegmentScalingPolicy scalingPolicy;
+    private final Map<Integer, Long> previouslyHandledEvents = new HashMap<>();
+    private CompletableFuture<Boolean> pendingAction = CompletableFuture.completedFuture(true);
+
+    /**
+     * Constructs an autoscaler for the processor with the given {@code processorName}.
+     *
+     * @param processorName                the name of the processor to scale
+     * @param eventProcessingConfiguration the configuration to retrieve the processor from
+     * @param messageSource                the source of the events of the processor, to find the head position in
+     * @param loadMonitor                  the {@link SegmentLoadMonitor} recording the events the segments handled
+     * @param scalingPolicy                the {@link SegmentScalingPolicy} deciding on splitting and merging
+     */
+    public SegmentAutoscaler(String processorName,
+                             EventProcessingConfiguration eventProcessingConfiguration,
+                             StreamableMessageSource<?> messageSource,
+                             SegmentLoadMonitor loadMonitor,
+                             SegmentScalingPolicy scalingPolicy) {
+        this.processorName = processorName;
+        this.eventProcessingConfiguration = eventProcessingConfiguration;
+        this.messageSource = messageSource;
+        this.loadMonitor = loadMonitor;
+        this.scalingPolicy = scalingPolicy;
+    }
+
+    /**
+     * Checks the segments of the processor, splitting or merging one of them if the {@link SegmentScalingPolicy}
+     * decides so.
+     */
+    @Scheduled(initialDelayString = "${flight-time.autoscaler.interval:10000}",
+            fixedDelayString = "${flight-time.autoscaler.interval:10000}")
+    public synchronized void scale() {
+        Optional<StreamingEventProcessor> processor =
+                eventProcessingConfiguration.eventProcessor(processorName, StreamingEventProcessor.class);
+        if (!processor.isPresent() || !processor.get().isRunning() || !pendingAction.isDone()) {
+            return;
+        }
+        Map<Integer, EventTrackerStatus> status = processor.get().processingStatus();
+        if (status.values().stream().anyMatch(EventTrackerStatus::isMerging)) {
+            return;
+        }
+        ScalingAction action = scalingPolicy.decide(segmentStates(status), processor.get().maxCapacity());
+        switch (action.getType()) {
+            case SPLIT:
+                pendingAction = processor.get().splitSegment(action.getSegmentId());
+                break;
+            case MERGE:
+                pendingAction = processor.get().mergeSegment(action.getSegmentId());
+                break;
+            default:
+                return;
+        }
+        logger.info("Requested {} of processor [{}] with {} segments", action, processorName, status.size());
+        pendingAction.whenComplete((succeeded, error) -> {
+            if (error != null || !Boolean.TRUE.equals(succeeded)) {
+                logger.warn("Unable to perform {} of processor [{}]", action, processorName, error);
+            }
+        });
+    }
+
+    private List<SegmentState> segmentStates(Map<Integer, EventTrackerStatus> status) {
+        long headPosition = position(messageSource.createHeadToken()).orElse(-1L);
+        Map<Integer, SegmentLoadMonitor.SegmentLoad> loads = loadMonitor.segments();
+        List<SegmentState> states = new ArrayList<>(status.size());
+        for (EventTrackerStatus trackerStatus : status.values()) {
+            int segmentId = trackerStatus.getSegment().getSegmentId();
+            long lag = Math.max(0, headPosition - trackerStatus.getCurrentPosition().orElse(-1L));
+            SegmentLoadMonitor.SegmentLoad load = loads.get(segmentId);
+            long handledEvents = load == null ? 0 : load.getEvents();
+            Long previous = previouslyHandledEvents.put(segmentId, handledEvents);
+            states.add(new SegmentState(trackerStatus.getSegment(),
+                                        lag,
+                                        previous == null ? handledEvents : Math.max(0, handledEvents - previous)));
+        }
+        return states;
+    }
+
+    private static OptionalLong position(TrackingToken token) {
+        return token == null ? OptionalLong.empty() : token.position();
+    }
+}
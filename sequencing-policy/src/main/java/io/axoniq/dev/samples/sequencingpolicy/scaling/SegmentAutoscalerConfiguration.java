@@ -0,0 +1,43 @@
+package io.axoniq.dev.samples.sequencingpolicy.scaling;
+
+import io.axoniq.dev.samples.sequencingpolicy.monitoring.SegmentLoadMonitor;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Spring configuration scaling the segments of the {@code flight-time} processor with its lag, within the bounds
+ * configured through the {@code flight-time.autoscaler} properties. Enabled through the {@code
+ * flight-time.autoscaler.enabled} property, which the {@code autoscaling} profile sets.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(value = "flight-time.autoscaler.enabled", havingValue = "true")
+public class SegmentAutoscalerConfiguration {
+
+    private static final String FLIGHT_TIME_PROCESSOR = "flight-time";
+
+    @Bean
+    public SegmentAutoscaler flightTimeSegmentAutoscaler(
+            EventProcessingConfiguration eventProcessingConfiguration,
+            EventStore eventStore,
+            SegmentLoadMonitor flightTimeSegmentLoadMonitor,
+            @Value("${flight-time.autoscaler.min-segments:1}") int minSegments,
+            @Value("${flight-time.autoscaler.max-segments:16}") int maxSegments,
+            @Value("${flight-time.autoscaler.split-lag:1000}") long splitLag,
+            @Value("${flight-time.autoscaler.merge-lag:10}") long mergeLag,
+            @Value("${flight-time.autoscaler.merge-after-checks:6}") int mergeAfterChecks
+    ) {
+        return new SegmentAutoscaler(
+                FLIGHT_TIME_PROCESSOR,
+                eventProcessingConfiguration,
+                eventStore,
+                flightTimeSegmentLoadMonitor,
+                new SegmentScalingPolicy(minSegments, maxSegments, splitLag, mergeLag, mergeAfterChecks)
+        );
+    }
+}
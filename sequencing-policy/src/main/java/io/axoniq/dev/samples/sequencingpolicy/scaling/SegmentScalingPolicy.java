@@ -0,0 +1,124 @@
+package io.axoniq.dev.samples.sequencingpolicy.scaling;
+
+import org.axonframework.eventhandling.Segment;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides whether to split or merge the segments of a streaming event processor, based on how far every segment lags
+ * behind the head of the event store and how many events every segment handled since the previous check.
+ * <p>
+ * A segment lagging at least the split lag gets split, as long as there are less than the maximum number of segments.
+ * The lag is the distance to the head of the event store, so segments at the same position lag equally, however many
+ * of the events in between are theirs. Of several such segments the one that handled the most events since the
+ * previous check is split, as that is where the load is. Between segments that handled equally many events, the one
+ * lagging most is split, or the one covering the largest share of the sequence identifiers. Once all segments lag at most the merge lag for the configured number of
+ * consecutive checks, the pair of segments that handled the fewest events since the previous check is merged, as long
+ * as there are more than the minimum number of segments. Only segments of equal size can be merged, so the segment
+ * counts in between powers of two may not always be reachable.
+ * <p>
+ * At most one action is decided on per check, so every split or merge is reflected in the lag before the next one.
+ */
+public class SegmentScalingPolicy {
+
+    private final int minSegments;
+    private final int maxSegments;
+    private final long splitLag;
+    private final long mergeLag;
+    private final int mergeAfterChecks;
+    private int idleChecks;
+
+    /**
+     * Constructs a policy keeping the number of segments between {@code minSegments} and {@code maxSegments}.
+     *
+     * @param minSegments      the minimum number of segments to merge down to
+     * @param maxSegments      the maximum number of segments to split up to
+     * @param splitLag         the lag from which a segment is split
+     * @param mergeLag         the lag up to which a segment is considered idle
+     * @param mergeAfterChecks the number of consecutive checks all segments should be idle before merging
+     */
+    public SegmentScalingPolicy(int minSegments, int maxSegments, long splitLag, long mergeLag, int mergeAfterChecks) {
+        if (minSegments < 1 || maxSegments < minSegments) {
+            throw new IllegalArgumentException(
+                    "The segment bounds should satisfy 1 <= min <= max, but were [" + minSegments + ", "
+                            + maxSegments + "]"
+            );
+        }
+        if (mergeLag >= splitLag) {
+            throw new IllegalArgumentException(
+                    "The merge lag [" + mergeLag + "] should be less than the split lag [" + splitLag + "]"
+            );
+        }
+        this.minSegments = minSegments;
+        this.maxSegments = maxSegments;
+        this.splitLag = splitLag;
+        this.mergeLag = mergeLag;
+        this.mergeAfterChecks = mergeAfterChecks;
+    }
+
+    /**
+     * Decides on the action to take for the given {@code segments}, being the state of all segments of the processor.
+     * The number of segments is not split beyond the given {@code capacity} of the processor.
+     *
+     * @param segments the state of all segments of the processor
+     * @param capacity the maximum number of segments the processor can process
+     * @return the action to take
+     */
+    public ScalingAction decide(List<SegmentState> segments, int capacity) {
+        if (segments.isEmpty()) {
+            return ScalingAction.none();
+        }
+        long maxLag = segments.stream().mapToLong(SegmentState::getLag).max().getAsLong();
+        if (maxLag >= splitLag) {
+            idleChecks = 0;
+            if (segments.size() >= Math.min(maxSegments, capacity)) {
+                return ScalingAction.none();
+            }
+            SegmentState busiest = segments.stream()
+                                           .filter(state -> state.getLag() >= splitLag)
+                                           .max(Comparator.comparingLong(SegmentState::getHandledEvents)
+                                                          .thenComparingLong(SegmentState::getLag)
+                                                          .thenComparing(state -> -state.getSegment().getMask()))
+                                           .get();
+            return ScalingAction.split(busiest.getSegment().getSegmentId());
+        }
+        if (maxLag > mergeLag) {
+            idleChecks = 0;
+            return ScalingAction.none();
+        }
+        if (++idleChecks < mergeAfterChecks || segments.size() <= minSegments) {
+            return ScalingAction.none();
+        }
+        return leastBusyMergeablePair(segments);
+    }
+
+    private ScalingAction leastBusyMergeablePair(List<SegmentState> segments) {
+        Map<Integer, SegmentState> segmentsById = new HashMap<>();
+        for (SegmentState state : segments) {
+            segmentsById.put(state.getSegment().getSegmentId(), state);
+        }
+        SegmentState leastBusy = null;
+        long leastHandledEvents = Long.MAX_VALUE;
+        for (SegmentState state : segments) {
+            Segment segment = state.getSegment();
+            SegmentState counterpart = segmentsById.get(segment.mergeableSegmentId());
+            if (counterpart == null || counterpart == state
+                    || !segment.isMergeableWith(counterpart.getSegment())) {
+                continue;
+            }
+            long handledEvents = state.getHandledEvents() + counterpart.getHandledEvents();
+            if (handledEvents < leastHandledEvents) {
+                leastBusy = state;
+                leastHandledEvents = handledEvents;
+            }
+        }
+        if (leastBusy == null) {
+            return ScalingAction.none();
+        }
+        idleChecks = 0;
+        return ScalingAction.merge(leastBusy.getSegment().getSegmentId());
+    }
+}
@@ -0,0 +1,38 @@
+package io.axoniq.dev.samples.sequencingpolicy.scaling;
+
+import org.axonframework.eventhandling.Segment;
+
+/**
+ * The state of a single segment of a streaming event processor, as seen by the {@link SegmentScalingPolicy}.
+ */
+public class SegmentState {
+
+    private final Segment segment;
+    private final long lag;
+    private final long handledEvents;
+
+    /**
+     * Constructs the state of the given {@code segment}.
+     *
+     * @param segment       the {@link Segment} this state belongs to
+     * @param lag           the number of events in the event store after the position of the segment
+     * @param handledEvents the number of events the segment handled since the previous check
+     */
+    public SegmentState(Segment segment, long lag, long handledEvents) {
+        this.segment = segment;
+        this.lag = lag;
+        this.handledEvents = handledEvents;
+    }
+
+    public Segment getSegment() {
+        return segment;
+    }
+
+    public long getLag() {
+        return lag;
+    }
+
+    public long getHandledEvents() {
+        return handledEvents;
+    }
+}
@@ -0,0 +1,74 @@
+package io.axoniq.dev.samples.sequencingpolicy;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightCanceledEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassValueSequencingPolicyTest {
+
+    private final FlightId flightId = new FlightId(UUID.randomUUID().toString());
+
+    @Test
+    void testPropertyPolicyReturnsFlightIdForFlightEventImplementations() {
+        ClassValueSequencingPolicy testSubject = ClassValueSequencingPolicy.forProperty(FlightEvent.class, "flightId");
+
+        assertEquals(flightId, testSubject.getSequenceIdentifierFor(
+                GenericEventMessage.asEventMessage(new FlightCanceledEvent(flightId))
+        ));
+        assertEquals(flightId, testSubject.getSequenceIdentifierFor(
+                GenericEventMessage.asEventMessage(new FlightDelayedEvent(flightId, Duration.ofHours(1)))
+        ));
+        assertEquals(flightId, testSubject.getSequenceIdentifierFor(
+                GenericEventMessage.asEventMessage(new PrivateFlightEvent(flightId))
+        ));
+    }
+
+    @Test
+    void testExtractorPolicyReturnsFlightIdForFlightEventImplementations() {
+        ClassValueSequencingPolicy testSubject =
+                ClassValueSequencingPolicy.forExtractor(FlightEvent.class, FlightEvent::getFlightId);
+
+        assertEquals(flightId, testSubject.getSequenceIdentifierFor(
+                GenericEventMessage.asEventMessage(new FlightCanceledEvent(flightId))
+        ));
+    }
+
+    @Test
+    void testReturnsFallbackForNoneFlightEvent() {
+        EventMessage<Object> testEvent = GenericEventMessage.asEventMessage("some-event");
+        ClassValueSequencingPolicy testSubject = ClassValueSequencingPolicy.forProperty(FlightEvent.class, "flightId");
+
+        assertNull(testSubject.getSequenceIdentifierFor(testEvent));
+        assertEquals(testEvent.getIdentifier(),
+                     testSubject.withFallback(EventMessage::getIdentifier).getSequenceIdentifierFor(testEvent));
+    }
+
+    @Test
+    void testRejectsPayloadTypeWithoutGetter() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> ClassValueSequencingPolicy.forProperty(FlightEvent.class, "aircraft"));
+    }
+
+    private static class PrivateFlightEvent implements FlightEvent {
+
+        private final FlightId flightId;
+
+        private PrivateFlightEvent(FlightId flightId) {
+            this.flightId = flightId;
+        }
+
+        @Override
+        public FlightId getFlightId() {
+            return flightId;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.axoniq.dev.samples.sequencingpolicy;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightCanceledEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.junit.jupiter.api.*;
+
+import java.util.UUID;
+
+import static io.axoniq.dev.samples.sequencingpolicy.FlightIdMetaDataDispatchInterceptor.FLIGHT_ID_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightIdMetaDataSequencingPolicyTest {
+
+    private final FlightIdMetaDataDispatchInterceptor interceptor = new FlightIdMetaDataDispatchInterceptor();
+    private final FlightIdMetaDataSequencingPolicy testSubject = new FlightIdMetaDataSequencingPolicy();
+
+    @Test
+    void testReturnsNullForNoneFlightEvent() {
+        EventMessage<?> testEvent = interceptor.handle(GenericEventMessage.asEventMessage("some-event"));
+
+        assertFalse(testEvent.getMetaData().containsKey(FLIGHT_ID_KEY));
+        assertNull(testSubject.getSequenceIdentifierFor(testEvent));
+    }
+
+    @Test
+    void testReturnsFlightIdAddedByInterceptorForFlightEventImplementations() {
+        FlightId flightId = new FlightId(UUID.randomUUID().toString());
+        EventMessage<Object> testEvent = GenericEventMessage.asEventMessage(new FlightCanceledEvent(flightId));
+
+        EventMessage<?> result = interceptor.handle(testEvent);
+
+        assertEquals(flightId.getId(), result.getMetaData().get(FLIGHT_ID_KEY));
+        assertEquals(flightId.getId(), testSubject.getSequenceIdentifierFor(result));
+    }
+
+    @Test
+    void testReturnsNullForFlightEventWithoutFlightIdInMetaData() {
+        FlightId flightId = new FlightId(UUID.randomUUID().toString());
+        EventMessage<Object> testEvent = GenericEventMessage.asEventMessage(new FlightCanceledEvent(flightId));
+
+        assertNull(testSubject.getSequenceIdentifierFor(testEvent));
+    }
+}
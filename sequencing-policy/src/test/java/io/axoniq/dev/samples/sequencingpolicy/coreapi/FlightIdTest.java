@@ -0,0 +1,90 @@
+package io.axoniq.dev.samples.sequencingpolicy.coreapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thoughtworks.xstream.XStream;
+import io.axoniq.dev.samples.sequencingpolicy.FlightIdConverter;
+import org.junit.jupiter.api.*;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightIdTest {
+
+    private final String id = UUID.randomUUID().toString();
+
+    @Test
+    void testHashCodeEqualsHashOfStringForm() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+
+            // The FlightId wrapping the String form hashed with Objects.hash
+            assertEquals(Objects.hash(uuid.toString()), new FlightId(uuid).hashCode());
+            assertEquals(Objects.hash(uuid.toString()), new FlightId(uuid.toString()).hashCode());
+        }
+    }
+
+    @Test
+    void testEqualsFlightIdWithSameStringForm() {
+        FlightId testSubject = new FlightId(id);
+
+        assertEquals(new FlightId(UUID.fromString(id)), testSubject);
+        assertNotEquals(new FlightId(UUID.randomUUID()), testSubject);
+        assertEquals(id, testSubject.getId());
+        assertTrue(testSubject.isCanonical());
+    }
+
+    @Test
+    void testKeepsStringFormAndHashOfUpperCaseId() {
+        String upperCaseId = id.toUpperCase();
+        FlightId testSubject = new FlightId(upperCaseId);
+
+        assertFalse(testSubject.isCanonical());
+        assertEquals(upperCaseId, testSubject.getId());
+        assertEquals(Objects.hash(upperCaseId), testSubject.hashCode());
+        assertEquals(new FlightId(upperCaseId), testSubject);
+        assertNotEquals(new FlightId(id), testSubject);
+    }
+
+    @Test
+    void testKeepsStringFormAndHashOfIdThatIsNoUuid() throws Exception {
+        String legacyId = "KL1234-2021-11-01";
+        FlightId testSubject = new FlightId(legacyId);
+        ObjectMapper objectMapper = new ObjectMapper();
+        XStream xStream = new XStream();
+        xStream.allowTypes(new String[]{FlightId.class.getName()});
+        xStream.registerConverter(new FlightIdConverter());
+
+        assertFalse(testSubject.isCanonical());
+        assertEquals(legacyId, testSubject.getId());
+        assertEquals(Objects.hash(legacyId), testSubject.hashCode());
+        assertNotEquals(new FlightId(testSubject.getMostSignificantBits(), testSubject.getLeastSignificantBits()),
+                        testSubject);
+        assertEquals("{\"id\":\"" + legacyId + "\"}", objectMapper.writeValueAsString(testSubject));
+        assertEquals(testSubject, objectMapper.readValue(objectMapper.writeValueAsString(testSubject), FlightId.class));
+        assertEquals(testSubject, xStream.fromXML(xStream.toXML(testSubject)));
+    }
+
+    @Test
+    void testJacksonFormHoldsStringFormAsId() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String json = "{\"id\":\"" + id + "\"}";
+
+        assertEquals(json, objectMapper.writeValueAsString(new FlightId(id)));
+        assertEquals(new FlightId(id), objectMapper.readValue(json, FlightId.class));
+    }
+
+    @Test
+    void testXStreamFormHoldsStringFormAsId() {
+        XStream xStream = new XStream();
+        xStream.allowTypes(new String[]{FlightId.class.getName()});
+        xStream.registerConverter(new FlightIdConverter());
+        String xml = "<" + FlightId.class.getName() + ">\n  <id>" + id + "</id>\n</" + FlightId.class.getName() + ">";
+
+        assertEquals(xml, xStream.toXML(new FlightId(id)));
+        assertEquals(new FlightId(id), xStream.fromXML(xml));
+    }
+}
@@ -0,0 +1,145 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import org.axonframework.config.ProcessingGroup;
+import org.axonframework.eventhandling.AnnotationEventHandlerAdapter;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.ListenerInvocationErrorHandler;
+import org.axonframework.eventhandling.LoggingErrorHandler;
+import org.axonframework.eventhandling.PropagatingErrorHandler;
+import org.axonframework.messaging.DefaultInterceptorChain;
+import org.axonframework.messaging.ResultMessage;
+import org.axonframework.messaging.annotation.AnnotatedMessageHandlingMemberDefinition;
+import org.axonframework.messaging.annotation.ClasspathHandlerEnhancerDefinition;
+import org.axonframework.messaging.annotation.ClasspathParameterResolverFactory;
+import org.axonframework.messaging.annotation.MultiHandlerDefinition;
+import org.axonframework.messaging.annotation.MultiHandlerEnhancerDefinition;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequencedExecutionInterceptorTest {
+
+    private final SequencedExecutor executor = new SequencedExecutor("test", 4);
+    private final FlightHandler flightHandler = new FlightHandler();
+    private final AnnotationEventHandlerAdapter eventHandler = new AnnotationEventHandlerAdapter(
+            flightHandler,
+            ClasspathParameterResolverFactory.forClass(FlightHandler.class),
+            MultiHandlerDefinition.ordered(
+                    MultiHandlerEnhancerDefinition.ordered(
+                            ClasspathHandlerEnhancerDefinition.forClass(FlightHandler.class),
+                            new SequencedHandlerEnhancerDefinition("flights", executor)
+                    ),
+                    new AnnotatedMessageHandlingMemberDefinition()
+            )
+    );
+    private final BatchingUnitOfWork<EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(Arrays.asList(
+            GenericEventMessage.asEventMessage("blocked-flight"),
+            GenericEventMessage.asEventMessage("other-flight")
+    ));
+
+    @AfterEach
+    void tearDown() {
+        flightHandler.release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void testHoldsBackPrepareCommitUntilBlockedHandlerCompleted() throws InterruptedException {
+        AtomicBoolean prepareCommitReached = new AtomicBoolean();
+        List<String> handledAtPrepareCommit = new ArrayList<>();
+        unitOfWork.onPrepareCommit(u -> {
+            handledAtPrepareCommit.addAll(flightHandler.handled);
+            prepareCommitReached.set(true);
+        });
+
+        CompletableFuture<ResultMessage<?>> batch = CompletableFuture.supplyAsync(
+                () -> handleBatch(new LoggingErrorHandler())
+        );
+
+        assertTrue(flightHandler.blocked.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(prepareCommitReached.get());
+        assertFalse(batch.isDone());
+
+        flightHandler.release.countDown();
+
+        assertFalse(batch.join().isExceptional());
+        assertTrue(prepareCommitReached.get());
+        assertTrue(handledAtPrepareCommit.contains("blocked-flight"));
+        assertTrue(handledAtPrepareCommit.contains("other-flight"));
+    }
+
+    @Test
+    void testPassesFailedHandlerToErrorHandler() {
+        flightHandler.failing = true;
+        flightHandler.release.countDown();
+        List<Object> failedEvents = new ArrayList<>();
+        AtomicBoolean committed = new AtomicBoolean();
+        unitOfWork.onCommit(u -> committed.set(true));
+
+        ResultMessage<?> result = handleBatch((exception, event, handler) -> {
+            assertEquals(FlightHandler.class, handler.getTargetType());
+            failedEvents.add(event.getPayload());
+        });
+
+        assertFalse(result.isExceptional());
+        assertTrue(committed.get());
+        assertEquals(Arrays.asList("blocked-flight", "other-flight"), failedEvents);
+    }
+
+    @Test
+    void testFailsBatchWhenErrorHandlerRethrows() {
+        flightHandler.failing = true;
+        flightHandler.release.countDown();
+
+        ResultMessage<?> result = handleBatch(PropagatingErrorHandler.instance());
+
+        assertTrue(result.isExceptional());
+        assertTrue(result.exceptionResult() instanceof IllegalStateException);
+    }
+
+    private ResultMessage<?> handleBatch(ListenerInvocationErrorHandler errorHandler) {
+        SequencedExecutionInterceptor testSubject =
+                new SequencedExecutionInterceptor(event -> event.getPayload(), errorHandler);
+        try {
+            return unitOfWork.executeWithResult(() -> new DefaultInterceptorChain<>(
+                    unitOfWork, Collections.singletonList(testSubject), eventHandler::handle
+            ).proceed());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @ProcessingGroup("flights")
+    private static class FlightHandler {
+
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean failing;
+
+        @EventHandler
+        public void on(String flight) throws InterruptedException {
+            if ("blocked-flight".equals(flight)) {
+                blocked.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            if (failing) {
+                throw new IllegalStateException("Failed to handle " + flight);
+            }
+            handled.add(flight);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequencedExecutorTest {
+
+    private final SequencedExecutor testSubject = new SequencedExecutor("test", 4);
+
+    @AfterEach
+    void tearDown() {
+        testSubject.shutdown();
+    }
+
+    @Test
+    void testKeepsOrderOfTasksWithSameSequenceIdentifier() {
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int task = i;
+            results.add(testSubject.submit("flight", () -> handled.add(task)));
+        }
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, handled.get(i));
+        }
+    }
+
+    @Test
+    void testRunsTasksWithDifferentSequenceIdentifiersConcurrently() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CompletableFuture<Object> blocking = testSubject.submit("flight-1", () -> blocked.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> other = testSubject.submit("flight-2", () -> "handled");
+
+        assertEquals("handled", other.join());
+        assertFalse(blocking.isDone());
+        blocked.countDown();
+        assertEquals(true, blocking.join());
+    }
+
+    @Test
+    void testContinuesSequenceAfterFailingTask() {
+        CompletableFuture<Object> failing = testSubject.submit("flight", () -> {
+            throw new IllegalStateException("failure");
+        });
+        CompletableFuture<Object> next = testSubject.submit("flight", () -> "handled");
+
+        assertThrows(Exception.class, failing::join);
+        assertEquals("handled", next.join());
+    }
+}
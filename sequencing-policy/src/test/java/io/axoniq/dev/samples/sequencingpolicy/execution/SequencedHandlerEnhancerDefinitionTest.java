@@ -0,0 +1,63 @@
+package io.axoniq.dev.samples.sequencingpolicy.execution;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FindFlightTimeQuery;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import io.axoniq.dev.samples.sequencingpolicy.loadgen.LatencyRecorder;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.FlightTime;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.FlightTimeProjector;
+import io.axoniq.dev.samples.sequencingpolicy.querymodel.InMemoryFlightTimeRepository;
+import org.axonframework.messaging.annotation.AnnotatedMessageHandlingMemberDefinition;
+import org.axonframework.messaging.annotation.ClasspathHandlerEnhancerDefinition;
+import org.axonframework.messaging.annotation.ClasspathParameterResolverFactory;
+import org.axonframework.messaging.annotation.MultiHandlerDefinition;
+import org.axonframework.messaging.annotation.MultiHandlerEnhancerDefinition;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.DefaultQueryGateway;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.axonframework.queryhandling.annotation.AnnotationQueryHandlerAdapter;
+import org.junit.jupiter.api.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequencedHandlerEnhancerDefinitionTest {
+
+    private final SequencedExecutor executor = new SequencedExecutor("test", 4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testInvokesQueryHandlersOfProcessingGroupAsIs() {
+        InMemoryFlightTimeRepository repository = new InMemoryFlightTimeRepository();
+        FlightId flightId = new FlightId(UUID.randomUUID());
+        FlightTime flightTime = FlightTime.scheduled(flightId, Instant.parse("2021-11-01T12:00:00Z"));
+        repository.save(flightTime);
+        FlightTimeProjector projector = new FlightTimeProjector(repository, new LatencyRecorder(), false);
+
+        SimpleQueryBus queryBus = SimpleQueryBus.builder().build();
+        new AnnotationQueryHandlerAdapter<>(
+                projector,
+                ClasspathParameterResolverFactory.forClass(FlightTimeProjector.class),
+                MultiHandlerDefinition.ordered(
+                        MultiHandlerEnhancerDefinition.ordered(
+                                ClasspathHandlerEnhancerDefinition.forClass(FlightTimeProjector.class),
+                                new SequencedHandlerEnhancerDefinition("flight-time", executor)
+                        ),
+                        new AnnotatedMessageHandlingMemberDefinition()
+                )
+        ).subscribe(queryBus);
+        QueryGateway queryGateway = DefaultQueryGateway.builder().queryBus(queryBus).build();
+
+        FlightTime result = queryGateway.query(new FindFlightTimeQuery(flightId),
+                                               ResponseTypes.instanceOf(FlightTime.class))
+                                        .join();
+
+        assertEquals(flightTime, result);
+    }
+}
@@ -0,0 +1,82 @@
+package io.axoniq.dev.samples.sequencingpolicy.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.common.Registration;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.gateway.EventGateway;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.junit.jupiter.api.*;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightEventIngestionTest {
+
+    private final RecordingEventGateway eventGateway = new RecordingEventGateway();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FlightEventIngestion testSubject = new FlightEventIngestion(eventGateway, meterRegistry, 100);
+
+    @Test
+    void testPublishesEventsInOrderInBatchesOfRequestedSize() {
+        IngestionReport result = testSubject.ingest(Flux.range(0, 25), 10).block();
+
+        assertNotNull(result);
+        assertEquals(25, result.getAccepted());
+        assertEquals(3, result.getBatches());
+        assertEquals(3, eventGateway.batches.size());
+        assertEquals(10, eventGateway.batches.get(0).size());
+        assertEquals(5, eventGateway.batches.get(2).size());
+        List<Object> published = new ArrayList<>();
+        eventGateway.batches.forEach(published::addAll);
+        for (int i = 0; i < 25; i++) {
+            assertEquals(i, published.get(i));
+        }
+        assertEquals(25, meterRegistry.counter("flight.ingestion.accepted").count());
+    }
+
+    @Test
+    void testReadsEventsOnlyAsFastAsBatchesArePublished() {
+        AtomicLong emitted = new AtomicLong();
+        AtomicLong maxOutstanding = new AtomicLong();
+        AtomicLong requested = new AtomicLong();
+        Flux<Integer> events = Flux.range(0, 10_000)
+                                   .doOnRequest(n -> {
+                                       long total = requested.updateAndGet(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+                                       maxOutstanding.accumulateAndGet(total - emitted.get(), Math::max);
+                                   })
+                                   .doOnNext(event -> emitted.incrementAndGet());
+
+        IngestionReport result = testSubject.ingest(events, 10).block();
+
+        assertNotNull(result);
+        assertEquals(10_000, result.getAccepted());
+        assertTrue(maxOutstanding.get() <= 20, "Requested up to " + maxOutstanding.get() + " events ahead");
+    }
+
+    @Test
+    void testRejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> testSubject.ingest(Flux.just("event"), 0).block());
+    }
+
+    private static class RecordingEventGateway implements EventGateway {
+
+        private final List<List<?>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(List<?> events) {
+            batches.add(new ArrayList<>(events));
+        }
+
+        @Override
+        public Registration registerDispatchInterceptor(
+                MessageDispatchInterceptor<? super EventMessage<?>> dispatchInterceptor
+        ) {
+            return () -> true;
+        }
+    }
+}
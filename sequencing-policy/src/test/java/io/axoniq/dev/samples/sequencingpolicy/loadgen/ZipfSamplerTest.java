@@ -0,0 +1,56 @@
+package io.axoniq.dev.samples.sequencingpolicy.loadgen;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfSamplerTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void testSkewsSamplesTowardsFirstItems() {
+        int[] counts = sample(new ZipfSampler(100, 1.0), 100);
+
+        // With an exponent of 1, the first item is sampled twice as often as the second
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.1);
+        assertTrue(counts[0] > counts[99] * 50);
+    }
+
+    @Test
+    void testSamplesUniformlyWithoutSkew() {
+        int[] counts = sample(new ZipfSampler(10, 0), 10);
+
+        for (int count : counts) {
+            assertEquals(SAMPLES / 10, count, SAMPLES / 100);
+        }
+    }
+
+    @Test
+    void testSamplesRepeatablyWithSameSeed() {
+        ZipfSampler testSubject = new ZipfSampler(1000, 1.2);
+        Random first = new Random(42);
+        Random second = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(testSubject.sample(first), testSubject.sample(second));
+        }
+    }
+
+    @Test
+    void testRejectsInvalidDistribution() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, -1.0));
+    }
+
+    private static int[] sample(ZipfSampler testSubject, int items) {
+        Random random = new Random(42);
+        int[] counts = new int[items];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[testSubject.sample(random)]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,91 @@
+package io.axoniq.dev.samples.sequencingpolicy.monitoring;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void testCountsExactlyWhileWithinCapacity() {
+        SpaceSavingSketch<String> testSubject = new SpaceSavingSketch<>(4);
+        for (int i = 0; i < 3; i++) {
+            testSubject.offer("a");
+        }
+        testSubject.offer("b");
+
+        List<SpaceSavingSketch.HeavyHitter<String>> result = testSubject.top(10);
+
+        assertEquals(2, result.size());
+        assertEquals("a", result.get(0).getKey());
+        assertEquals(3, result.get(0).getCount());
+        assertEquals(0, result.get(0).getError());
+        assertEquals("b", result.get(1).getKey());
+        assertEquals(1, result.get(1).getCount());
+        assertEquals(4, testSubject.offered());
+    }
+
+    @Test
+    void testNewKeyTakesOverLowestCounterWhenFull() {
+        SpaceSavingSketch<String> testSubject = new SpaceSavingSketch<>(2);
+        testSubject.offer("a");
+        testSubject.offer("a");
+        testSubject.offer("b");
+        testSubject.offer("c");
+
+        List<SpaceSavingSketch.HeavyHitter<String>> result = testSubject.top(2);
+
+        assertEquals("a", result.get(0).getKey());
+        assertEquals(2, result.get(0).getCount());
+        assertEquals("c", result.get(1).getKey());
+        assertEquals(2, result.get(1).getCount());
+        assertEquals(1, result.get(1).getError());
+    }
+
+    @Test
+    void testTracksFrequentKeyAmongManyRareKeys() {
+        SpaceSavingSketch<Integer> testSubject = new SpaceSavingSketch<>(8);
+        for (int i = 0; i < 1000; i++) {
+            testSubject.offer(i % 4 == 0 ? -1 : i);
+        }
+
+        SpaceSavingSketch.HeavyHitter<Integer> result = testSubject.top(1).get(0);
+
+        assertEquals(-1, result.getKey());
+        assertTrue(result.getCount() >= 250);
+        assertTrue(result.getCount() - result.getError() <= 250);
+    }
+
+    @Test
+    void testEstimatesBoundActualCountsOfSkewedStream() {
+        SpaceSavingSketch<Integer> testSubject = new SpaceSavingSketch<>(16);
+        Map<Integer, Long> actualCounts = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Squaring a uniform value makes the low keys far more frequent than the high ones
+            double uniform = random.nextDouble();
+            int key = (int) (uniform * uniform * 1000);
+            testSubject.offer(key);
+            actualCounts.merge(key, 1L, Long::sum);
+        }
+
+        List<SpaceSavingSketch.HeavyHitter<Integer>> result = testSubject.top(16);
+
+        assertEquals(16, result.size());
+        assertEquals(100_000, result.stream().mapToLong(SpaceSavingSketch.HeavyHitter::getCount).sum());
+        for (int i = 0; i < result.size(); i++) {
+            SpaceSavingSketch.HeavyHitter<Integer> hitter = result.get(i);
+            long actualCount = actualCounts.getOrDefault(hitter.getKey(), 0L);
+            assertTrue(hitter.getCount() >= actualCount);
+            assertTrue(hitter.getCount() - hitter.getError() <= actualCount);
+            if (i > 0) {
+                assertTrue(result.get(i - 1).getCount() >= hitter.getCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.ArrivalTimeChangedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightDelayedEvent;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightScheduledEvent;
+import io.axoniq.dev.samples.sequencingpolicy.loadgen.LatencyRecorder;
+import org.axonframework.eventhandling.AnnotationEventHandlerAdapter;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.axonframework.messaging.unitofwork.RollbackConfigurationType;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightTimeProjectorTest {
+
+    private static final LocalDateTime SCHEDULED_ARRIVAL = LocalDateTime.of(2021, 11, 1, 12, 0);
+
+    private final FlightId flightId = new FlightId(UUID.randomUUID());
+    private final FlightId otherFlightId = new FlightId(UUID.randomUUID());
+    private final List<EventMessage<?>> batch = Arrays.asList(
+            GenericEventMessage.asEventMessage(new FlightScheduledEvent(flightId, "AMS", "CDG", SCHEDULED_ARRIVAL)),
+            GenericEventMessage.asEventMessage(new FlightDelayedEvent(flightId, Duration.ofMinutes(30))),
+            GenericEventMessage.asEventMessage(new FlightScheduledEvent(otherFlightId, "HEL", "MAD", SCHEDULED_ARRIVAL)),
+            GenericEventMessage.asEventMessage(new FlightDelayedEvent(flightId, Duration.ofMinutes(15))),
+            GenericEventMessage.asEventMessage(
+                    new ArrivalTimeChangedEvent(otherFlightId, Instant.parse("2021-11-01T14:00:00Z"))
+            )
+    );
+
+    private InMemoryFlightTimeRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryFlightTimeRepository();
+    }
+
+    @Test
+    void testWritesEveryEventWithoutBatchMode() throws Exception {
+        handleBatch(new FlightTimeProjector(repository, new LatencyRecorder(), false));
+
+        assertEquals(5, repository.getWriteCount());
+        assertFinalFlightTimes();
+    }
+
+    @Test
+    void testWritesFinalFlightTimePerFlightInBatchMode() throws Exception {
+        handleBatch(new FlightTimeProjector(repository, new LatencyRecorder(), true));
+
+        assertEquals(2, repository.getWriteCount());
+        assertFinalFlightTimes();
+    }
+
+    @Test
+    void testDiscardsBatchOnRollback() throws Exception {
+        AnnotationEventHandlerAdapter adapter =
+                new AnnotationEventHandlerAdapter(new FlightTimeProjector(repository, new LatencyRecorder(), true));
+
+        BatchingUnitOfWork<EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(batch);
+        unitOfWork.executeWithResult(() -> {
+            adapter.handle(unitOfWork.getMessage());
+            throw new IllegalStateException("failing the batch");
+        }, RollbackConfigurationType.ANY_THROWABLE);
+
+        assertEquals(0, repository.getWriteCount());
+        assertFalse(repository.find(flightId).isPresent());
+    }
+
+    private void handleBatch(FlightTimeProjector projector) throws Exception {
+        AnnotationEventHandlerAdapter adapter = new AnnotationEventHandlerAdapter(projector);
+        BatchingUnitOfWork<EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(batch);
+        unitOfWork.executeWithResult(() -> adapter.handle(unitOfWork.getMessage()),
+                                     RollbackConfigurationType.ANY_THROWABLE);
+    }
+
+    private void assertFinalFlightTimes() {
+        FlightTime flightTime = repository.find(flightId).orElseThrow(AssertionError::new);
+        assertEquals(SCHEDULED_ARRIVAL.plusMinutes(45).toInstant(ZoneOffset.UTC), flightTime.getArrival());
+        assertTrue(flightTime.isDelayed());
+        FlightTime otherFlightTime = repository.find(otherFlightId).orElseThrow(AssertionError::new);
+        assertEquals(Instant.parse("2021-11-01T14:00:00Z"), otherFlightTime.getArrival());
+        assertFalse(otherFlightTime.isCanceled());
+    }
+}
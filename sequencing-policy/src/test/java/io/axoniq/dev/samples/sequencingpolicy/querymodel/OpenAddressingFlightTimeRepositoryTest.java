@@ -0,0 +1,140 @@
+package io.axoniq.dev.samples.sequencingpolicy.querymodel;
+
+import io.axoniq.dev.samples.sequencingpolicy.coreapi.FlightId;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAddressingFlightTimeRepositoryTest {
+
+    private static final Instant SCHEDULED_ARRIVAL = Instant.parse("2021-11-01T12:00:00Z");
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testFindsSavedFlightTime(boolean offHeap) {
+        OpenAddressingFlightTimeRepository testSubject = new OpenAddressingFlightTimeRepository(16, offHeap);
+        FlightId flightId = new FlightId(UUID.randomUUID());
+        FlightTime flightTime = FlightTime.scheduled(flightId, SCHEDULED_ARRIVAL).delayedBy(Duration.ofMinutes(20));
+
+        testSubject.save(flightTime);
+
+        assertEquals(flightTime, testSubject.find(new FlightId(flightId.getId())).orElseThrow(AssertionError::new));
+        assertFalse(testSubject.find(new FlightId(UUID.randomUUID())).isPresent());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testReplacesFlightTimeOfSameFlight(boolean offHeap) {
+        OpenAddressingFlightTimeRepository testSubject = new OpenAddressingFlightTimeRepository(16, offHeap);
+        FlightTime scheduled = FlightTime.scheduled(new FlightId(UUID.randomUUID()), SCHEDULED_ARRIVAL);
+
+        testSubject.save(scheduled);
+        testSubject.save(scheduled.cancel());
+
+        assertEquals(1, testSubject.size());
+        assertTrue(testSubject.find(scheduled.getFlightId()).orElseThrow(AssertionError::new).isCanceled());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testGrowsBeyondExpectedFlights(boolean offHeap) {
+        OpenAddressingFlightTimeRepository testSubject = new OpenAddressingFlightTimeRepository(4, offHeap);
+        Random random = new Random(42);
+        FlightId[] flightIds = new FlightId[10_000];
+        for (int i = 0; i < flightIds.length; i++) {
+            flightIds[i] = new FlightId(random.nextLong(), random.nextLong());
+            testSubject.save(FlightTime.scheduled(flightIds[i], SCHEDULED_ARRIVAL.plusSeconds(i)));
+        }
+
+        assertEquals(flightIds.length, testSubject.size());
+        for (int i = 0; i < flightIds.length; i++) {
+            assertEquals(SCHEDULED_ARRIVAL.plusSeconds(i),
+                         testSubject.find(flightIds[i]).orElseThrow(AssertionError::new).getArrival());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testFindsEarliestFlightsArrivingInTimeWindow(boolean offHeap) {
+        OpenAddressingFlightTimeRepository testSubject = new OpenAddressingFlightTimeRepository(16, offHeap);
+        for (int minutes = 0; minutes < 60; minutes += 10) {
+            testSubject.save(FlightTime.scheduled(new FlightId(UUID.randomUUID()),
+                                                  SCHEDULED_ARRIVAL.plus(Duration.ofMinutes(minutes))));
+        }
+
+        List<FlightTime> result = testSubject.findArrivingBetween(
+                SCHEDULED_ARRIVAL.plus(Duration.ofMinutes(10)), SCHEDULED_ARRIVAL.plus(Duration.ofMinutes(50)), 3
+        );
+
+        assertEquals(3, result.size());
+        assertEquals(SCHEDULED_ARRIVAL.plus(Duration.ofMinutes(10)), result.get(0).getArrival());
+        assertEquals(SCHEDULED_ARRIVAL.plus(Duration.ofMinutes(20)), result.get(1).getArrival());
+        assertEquals(SCHEDULED_ARRIVAL.plus(Duration.ofMinutes(30)), result.get(2).getArrival());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testReturnsNonCanonicalFlightIdsAsSaved(boolean offHeap) {
+        OpenAddressingFlightTimeRepository testSubject = new OpenAddressingFlightTimeRepository(16, offHeap);
+        String id = UUID.randomUUID().toString();
+        FlightTime canonical = FlightTime.scheduled(new FlightId(id), SCHEDULED_ARRIVAL);
+        FlightTime upperCase = FlightTime.scheduled(new FlightId(id.toUpperCase()), SCHEDULED_ARRIVAL.plusSeconds(1));
+        FlightTime legacy = FlightTime.scheduled(new FlightId("KL1234-2021-11-01"), SCHEDULED_ARRIVAL.plusSeconds(2));
+
+        testSubject.save(canonical);
+        testSubject.save(upperCase);
+        testSubject.save(legacy);
+
+        assertEquals(3, testSubject.size());
+        assertEquals(upperCase, testSubject.find(upperCase.getFlightId()).orElseThrow(AssertionError::new));
+        List<FlightTime> result = testSubject.findArrivingBetween(
+                SCHEDULED_ARRIVAL, SCHEDULED_ARRIVAL.plus(Duration.ofMinutes(1)), 10
+        );
+        assertEquals(3, result.size());
+        assertEquals(canonical, result.get(0));
+        assertEquals(upperCase, result.get(1));
+        assertEquals(legacy, result.get(2));
+        assertEquals(upperCase.getFlightId().getId(), result.get(1).getFlightId().getId());
+        assertEquals(legacy.getFlightId().getId(), result.get(2).getFlightId().getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testFindsFlightsInTimeWindowOfTheirLatestArrival(boolean offHeap) {
+        OpenAddressingFlightTimeRepository testSubject = new OpenAddressingFlightTimeRepository(4, offHeap);
+        Random random = new Random(42);
+        FlightTime[] flightTimes = new FlightTime[1_000];
+        for (int i = 0; i < flightTimes.length; i++) {
+            flightTimes[i] = FlightTime.scheduled(new FlightId(random.nextLong(), random.nextLong()),
+                                                  SCHEDULED_ARRIVAL.plusSeconds(i));
+            testSubject.save(flightTimes[i]);
+        }
+        for (int i = 0; i < flightTimes.length; i += 2) {
+            flightTimes[i] = flightTimes[i].delayedBy(Duration.ofHours(1));
+            testSubject.save(flightTimes[i]);
+        }
+
+        List<FlightTime> onTime = testSubject.findArrivingBetween(
+                SCHEDULED_ARRIVAL, SCHEDULED_ARRIVAL.plusSeconds(flightTimes.length), flightTimes.length
+        );
+        List<FlightTime> delayed = testSubject.findArrivingBetween(
+                SCHEDULED_ARRIVAL.plus(Duration.ofHours(1)), SCHEDULED_ARRIVAL.plus(Duration.ofHours(2)), 10
+        );
+
+        assertEquals(flightTimes.length / 2, onTime.size());
+        for (int i = 0; i < onTime.size(); i++) {
+            assertEquals(flightTimes[2 * i + 1], onTime.get(i));
+        }
+        assertEquals(10, delayed.size());
+        for (int i = 0; i < delayed.size(); i++) {
+            assertEquals(flightTimes[2 * i], delayed.get(i));
+        }
+    }
+}
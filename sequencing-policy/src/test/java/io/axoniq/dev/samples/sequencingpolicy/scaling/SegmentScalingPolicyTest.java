@@ -0,0 +1,78 @@
+package io.axoniq.dev.samples.sequencingpolicy.scaling;
+
+import org.axonframework.eventhandling.Segment;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentScalingPolicyTest {
+
+    private static final int CAPACITY = 4;
+
+    private final SegmentScalingPolicy testSubject = new SegmentScalingPolicy(1, 4, 1000, 10, 2);
+
+    @Test
+    void testSplitsMostLaggingSegment() {
+        List<SegmentState> segments = Arrays.asList(
+                new SegmentState(Segment.computeSegment(0, 0, 1), 1500, 100),
+                new SegmentState(Segment.computeSegment(1, 0, 1), 2000, 100)
+        );
+
+        ScalingAction result = testSubject.decide(segments, CAPACITY);
+
+        assertEquals(ScalingAction.Type.SPLIT, result.getType());
+        assertEquals(1, result.getSegmentId());
+    }
+
+    @Test
+    void testSplitsSegmentThatHandledMostEventsWhenLaggingEqually() {
+        List<SegmentState> segments = Arrays.asList(
+                new SegmentState(Segment.computeSegment(0, 0, 1), 2000, 100),
+                new SegmentState(Segment.computeSegment(1, 0, 1), 2000, 900)
+        );
+
+        ScalingAction result = testSubject.decide(segments, CAPACITY);
+
+        assertEquals(ScalingAction.Type.SPLIT, result.getType());
+        assertEquals(1, result.getSegmentId());
+    }
+
+    @Test
+    void testDoesNotSplitBeyondMaximumOrCapacity() {
+        List<SegmentState> segments = Arrays.asList(
+                new SegmentState(Segment.computeSegment(0, 0, 1), 1500, 100),
+                new SegmentState(Segment.computeSegment(1, 0, 1), 2000, 100)
+        );
+
+        assertEquals(ScalingAction.none(), testSubject.decide(segments, 2));
+    }
+
+    @Test
+    void testMergesLeastBusyPairOnceIdleForConfiguredChecks() {
+        List<SegmentState> segments = Arrays.asList(
+                new SegmentState(Segment.computeSegment(0, 0, 1, 2, 3), 0, 50),
+                new SegmentState(Segment.computeSegment(1, 0, 1, 2, 3), 5, 1),
+                new SegmentState(Segment.computeSegment(2, 0, 1, 2, 3), 0, 50),
+                new SegmentState(Segment.computeSegment(3, 0, 1, 2, 3), 2, 2)
+        );
+
+        assertEquals(ScalingAction.none(), testSubject.decide(segments, CAPACITY));
+        ScalingAction result = testSubject.decide(segments, CAPACITY);
+
+        assertEquals(ScalingAction.Type.MERGE, result.getType());
+        assertTrue(result.getSegmentId() == 1 || result.getSegmentId() == 3);
+    }
+
+    @Test
+    void testDoesNotMergeBelowMinimum() {
+        List<SegmentState> segments =
+                Collections.singletonList(new SegmentState(Segment.ROOT_SEGMENT, 0, 0));
+
+        assertEquals(ScalingAction.none(), testSubject.decide(segments, CAPACITY));
+        assertEquals(ScalingAction.none(), testSubject.decide(segments, CAPACITY));
+    }
+}
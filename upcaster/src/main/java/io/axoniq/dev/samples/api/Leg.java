@@ -1,15 +1,57 @@
 package io.axoniq.dev.samples.api;
 
-import java.util.Objects;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * A flight leg from an {@link AirportCode origin} to an {@link AirportCode destination}.
+ * <p>
+ * As there are only a handful of airport codes, every combination of origin and destination is created once up front.
+ * Use {@link #of(AirportCode, AirportCode)} to obtain the canonical instance, which Jackson uses when deserializing
+ * events. Legs with a missing origin or destination are not canonicalized.
+ */
 public class Leg {
 
+    private static final AirportCode[] AIRPORT_CODES = AirportCode.values();
+    private static final Leg[][] LEGS = new Leg[AIRPORT_CODES.length][AIRPORT_CODES.length];
+
+    static {
+        for (AirportCode origin : AIRPORT_CODES) {
+            for (AirportCode destination : AIRPORT_CODES) {
+                LEGS[origin.ordinal()][destination.ordinal()] = new Leg(origin, destination);
+            }
+        }
+    }
+
     private final AirportCode origin;
     private final AirportCode destination;
+    private final int hashCode;
 
     public Leg(AirportCode origin, AirportCode destination) {
         this.origin = origin;
         this.destination = destination;
+        this.hashCode = 31 * ordinalHash(origin) + ordinalHash(destination);
+    }
+
+    private static int ordinalHash(AirportCode airportCode) {
+        return airportCode == null ? 0 : airportCode.ordinal() + 1;
+    }
+
+    /**
+     * Returns the canonical {@link Leg} from the given {@code origin} to the given {@code destination}. If either is
+     * {@code null}, a new instance is returned instead.
+     *
+     * @param origin      the {@link AirportCode} the leg departs from
+     * @param destination the {@link AirportCode} the leg arrives at
+     * @return the canonical {@link Leg} from the given {@code origin} to the given {@code destination}
+     */
+    @JsonCreator
+    public static Leg of(@JsonProperty("origin") AirportCode origin,
+                         @JsonProperty("destination") AirportCode destination) {
+        if (origin == null || destination == null) {
+            return new Leg(origin, destination);
+        }
+        return LEGS[origin.ordinal()][destination.ordinal()];
     }
 
     public AirportCode getOrigin() {
@@ -34,6 +76,14 @@ public class Leg {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getOrigin(), getDestination());
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "Leg{" +
+                "origin=" + origin +
+                ", destination=" + destination +
+                '}';
     }
 }
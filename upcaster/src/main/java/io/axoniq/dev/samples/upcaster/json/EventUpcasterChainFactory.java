@@ -1,10 +1,17 @@
 package io.axoniq.dev.samples.upcaster.json;
 
+import io.axoniq.dev.samples.upcaster.metrics.InstrumentedEventUpcaster;
+import io.axoniq.dev.samples.upcaster.rules.UpcastingRule;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.axonframework.config.Configurer;
+import org.axonframework.serialization.json.JacksonSerializer;
 import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
 
+import java.util.Arrays;
 import java.util.function.Function;
 
+import static io.axoniq.dev.samples.upcaster.metrics.InstrumentedEventUpcaster.instrument;
+
 /**
  * Utility class constructing the {@link EventUpcasterChain} to configure on the {@link
  * org.axonframework.eventsourcing.eventstore.EventStore}.
@@ -15,6 +22,9 @@ import java.util.function.Function;
  * When using Axon's {@link org.axonframework.config.Configurer} directly, you should configure all upcasters separately
  * by invoking the {@link org.axonframework.config.Configurer#registerEventUpcaster(Function)} method. The {@link
  * #configureUpcasters(Configurer)} shows how we should implement this.
+ * <p>
+ * Both have a variant wrapping every upcaster in an {@link InstrumentedEventUpcaster}, registering meters with a
+ * Micrometer {@link MeterRegistry}.
  *
  * @author Yvonne Ceelie
  */
@@ -34,6 +44,135 @@ public abstract class EventUpcasterChainFactory {
         );
     }
 
+    /**
+     * Constructs an {@link EventUpcasterChain} combining all the upcasters of this application, each wrapped in an
+     * {@link InstrumentedEventUpcaster} registering its meters with the given {@code meterRegistry}.
+     *
+     * @param meterRegistry the registry to register the meters of every upcaster with
+     * @return an {@link EventUpcasterChain} combining all the instrumented upcasters of this application
+     */
+    public static EventUpcasterChain buildEventUpcasterChain(MeterRegistry meterRegistry) {
+        return new EventUpcasterChain(
+                instrument(new FlightDelayedEvent0_to_1Upcaster(), meterRegistry),
+                instrument(new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(), meterRegistry)
+        );
+    }
+
+    /**
+     * Constructs an {@link EventUpcasterChain} combining all the upcasters of this application, using the {@link
+     * FlightDelayedEvent0_to_1StreamingUpcaster} instead of the tree based {@link FlightDelayedEvent0_to_1Upcaster}.
+     * <p>
+     * The streaming upcaster rewrites the payload without building a {@link com.fasterxml.jackson.databind.JsonNode}
+     * tree, which reduces the garbage created when replaying large numbers of events. Likewise, the {@code
+     * PassengerSeatsAdjustedEvent} is split up from a single parse of its payload.
+     *
+     * @return an {@link EventUpcasterChain} using the streaming {@code FlightDelayedEvent} upcaster
+     */
+    public static EventUpcasterChain buildStreamingEventUpcasterChain() {
+        return new EventUpcasterChain(
+                new FlightDelayedEvent0_to_1StreamingUpcaster(),
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(
+                        JacksonSerializer.defaultSerializer().getConverter()
+                )
+        );
+    }
+
+    /**
+     * Constructs the {@link #buildStreamingEventUpcasterChain()} for events stored in the given {@code format}, like
+     * one of the binary formats Smile or CBOR.
+     * <p>
+     * The payloads are upcast in the given format directly, without converting them to textual JSON.
+     *
+     * @param format the {@link JacksonFormat} the events are stored in
+     * @return an {@link EventUpcasterChain} using the streaming upcasters for the given {@code format}
+     */
+    public static EventUpcasterChain buildStreamingEventUpcasterChain(JacksonFormat format) {
+        return new EventUpcasterChain(
+                new FlightDelayedEvent0_to_1StreamingUpcaster(format.jsonFactory()),
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(format.serializer().getConverter())
+        );
+    }
+
+    /**
+     * Constructs a {@link TypeIndexedEventUpcasterChain} combining all the upcasters of this application.
+     * <p>
+     * This chain only hands an event to the upcasters handling its type, passing on events of any other type in
+     * constant time.
+     *
+     * @return a {@link TypeIndexedEventUpcasterChain} combining all the upcasters of this application
+     */
+    public static EventUpcasterChain buildTypeIndexedEventUpcasterChain() {
+        return new TypeIndexedEventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster()
+        );
+    }
+
+    /**
+     * Constructs a {@link TypeIndexedEventUpcasterChain} combining all the upcasters of this application, with every
+     * linear chain of revision upcasters of one event type fused into a single {@link FusedRevisionUpcaster}.
+     * <p>
+     * A fused upcaster converts the payload once for all revisions it covers, instead of once per revision.
+     *
+     * @return a {@link TypeIndexedEventUpcasterChain} with all linear revision chains fused
+     * @see RevisionChainFuser
+     */
+    public static EventUpcasterChain buildFusedEventUpcasterChain() {
+        return new TypeIndexedEventUpcasterChain(RevisionChainFuser.fuse(Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster()
+        )));
+    }
+
+    /**
+     * Constructs a {@link ParallelEventUpcasterChain} running the {@link #buildTypeIndexedEventUpcasterChain()} on
+     * batches of events in the {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * <p>
+     * Events are still handed downstream in their original order. Use this chain when replays are held up by
+     * upcasting, while the machine has idle cores.
+     *
+     * @return a {@link ParallelEventUpcasterChain} combining all the upcasters of this application
+     */
+    public static EventUpcasterChain buildParallelEventUpcasterChain() {
+        return new ParallelEventUpcasterChain(
+                buildTypeIndexedEventUpcasterChain(), JacksonSerializer.defaultSerializer().getConverter()
+        );
+    }
+
+    /**
+     * Constructs a {@link LazyEventUpcasterChain} running the {@link #buildTypeIndexedEventUpcasterChain()}.
+     * <p>
+     * The payload transformations of this chain are deferred until a handler first asks for the payload, and are
+     * applied at most once. Events no handler is interested in thus only have their type and revision upcast.
+     *
+     * @return a {@link LazyEventUpcasterChain} combining all the upcasters of this application
+     */
+    public static EventUpcasterChain buildLazyEventUpcasterChain() {
+        return new LazyEventUpcasterChain(
+                buildTypeIndexedEventUpcasterChain(), JacksonSerializer.defaultSerializer().getConverter()
+        );
+    }
+
+    /**
+     * Constructs an {@link EventUpcasterChain} of {@link UpcastingRule}s doing the same as all the upcasters of this
+     * application.
+     * <p>
+     * Every rule is compiled into an upcaster rewriting the payload in a single streaming pass, instead of being
+     * written by hand.
+     *
+     * @return an {@link EventUpcasterChain} of the compiled rules of this application
+     */
+    public static EventUpcasterChain buildRuleBasedEventUpcasterChain() {
+        return new EventUpcasterChain(
+                UpcastingRule.forEvent("io.axoniq.dev.samples.api.FlightDelayedEvent", null)
+                             .nest("leg", "origin", "destination")
+                             .toRevision("1.0"),
+                UpcastingRule.forEvent("io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent", null)
+                             .splitInto("io.axoniq.dev.samples.api.PassengerSeatAdjustedEvent", null,
+                                        "passengerSeats", "passengerId", "seatNumber")
+        );
+    }
+
     /**
      * Configures all the upcasters of this application with the given {@code configurer}.
      * <p>
@@ -46,6 +185,22 @@ public abstract class EventUpcasterChainFactory {
                   .registerEventUpcaster(config -> new PassengerSeatsToPassengerSeatAdjustedEventUpcaster());
     }
 
+    /**
+     * Configures all the upcasters of this application with the given {@code configurer}, each wrapped in an {@link
+     * InstrumentedEventUpcaster} registering its meters with the given {@code meterRegistry}.
+     *
+     * @param configurer    the {@link Configurer} to register all upcasters with
+     * @param meterRegistry the registry to register the meters of every upcaster with
+     */
+    public static void configureUpcasters(Configurer configurer, MeterRegistry meterRegistry) {
+        configurer.registerEventUpcaster(
+                          config -> instrument(new FlightDelayedEvent0_to_1Upcaster(), meterRegistry)
+                  )
+                  .registerEventUpcaster(
+                          config -> instrument(new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(), meterRegistry)
+                  );
+    }
+
     private EventUpcasterChainFactory() {
         // Utility class
     }
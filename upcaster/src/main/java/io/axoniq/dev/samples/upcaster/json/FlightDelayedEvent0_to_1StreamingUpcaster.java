@@ -0,0 +1,149 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.axoniq.dev.samples.api.FlightDelayedEvent;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Streaming counterpart of the {@link FlightDelayedEvent0_to_1Upcaster}, upcasting the {@code FlightDelayedEvent} from
+ * revision {@code 0} to revision {@code 1}.
+ * <p>
+ * Instead of building a {@link com.fasterxml.jackson.databind.JsonNode} tree of the entire payload, this upcaster
+ * rewrites the serialized payload in a single {@link JsonParser} to {@link JsonGenerator} pass, straight from {@code
+ * byte[]} to {@code byte[]}. Every field is copied as is, except for the {@code "origin"} and {@code "destination"}
+ * fields. Those are held on to and written in the {@code "leg"} object that closes the payload. The result is identical
+ * to the result of the tree based {@code FlightDelayedEvent0_to_1Upcaster}, without allocating a node per field.
+ */
+public class FlightDelayedEvent0_to_1StreamingUpcaster extends SingleEventUpcaster
+        implements RevisionUpcaster<byte[]> {
+
+    private static final String ORIGIN = "origin";
+    private static final String DESTINATION = "destination";
+    private static final String LEG = "leg";
+    // Room for the leg object wrapping origin and destination, preventing a resize of the output buffer
+    private static final int LEG_OVERHEAD = 16;
+
+    private final SimpleSerializedType sourceType =
+            new SimpleSerializedType(FlightDelayedEvent.class.getTypeName(), null);
+    private final SimpleSerializedType targetType =
+            new SimpleSerializedType(FlightDelayedEvent.class.getTypeName(), "1.0");
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Construct a streaming upcaster reading and writing textual JSON payloads.
+     */
+    public FlightDelayedEvent0_to_1StreamingUpcaster() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * Construct a streaming upcaster reading and writing payloads with the given {@code jsonFactory}.
+     *
+     * @param jsonFactory the {@link JsonFactory} used to create the {@link JsonParser} and {@link JsonGenerator}
+     */
+    public FlightDelayedEvent0_to_1StreamingUpcaster(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public SerializedType sourceType() {
+        return sourceType;
+    }
+
+    @Override
+    public SerializedType targetType() {
+        return targetType;
+    }
+
+    @Override
+    public Class<byte[]> payloadType() {
+        return byte[].class;
+    }
+
+    @Override
+    protected boolean canUpcast(IntermediateEventRepresentation intermediateEventRepresentation) {
+        return intermediateEventRepresentation.getType().equals(sourceType);
+    }
+
+    @Override
+    protected IntermediateEventRepresentation doUpcast(
+            IntermediateEventRepresentation intermediateEventRepresentation
+    ) {
+        return intermediateEventRepresentation.upcastPayload(targetType, byte[].class, this::transformPayload);
+    }
+
+    @Override
+    public byte[] transformPayload(byte[] payload) {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return payload;
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length + LEG_OVERHEAD);
+            try (JsonGenerator generator = jsonFactory.createGenerator(output)) {
+                Object origin = null;
+                Object destination = null;
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.getCurrentName();
+                    parser.nextToken();
+                    if (ORIGIN.equals(fieldName)) {
+                        origin = readValue(parser);
+                    } else if (DESTINATION.equals(fieldName)) {
+                        destination = readValue(parser);
+                    } else if (LEG.equals(fieldName)) {
+                        // The leg is replaced by the origin and destination, just as in the tree based upcaster
+                        parser.skipChildren();
+                    } else {
+                        generator.writeFieldName(fieldName);
+                        generator.copyCurrentStructure(parser);
+                    }
+                }
+                // Write the leg object containing origin and destination at the end, where the tree would add it
+                generator.writeObjectFieldStart(LEG);
+                writeValue(generator, ORIGIN, origin);
+                writeValue(generator, DESTINATION, destination);
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Unable to upcast the payload of a [" + sourceType + "]", e);
+        }
+    }
+
+    /**
+     * Reads the value the given {@code parser} points to. Textual values, like the airport codes, are kept as a {@link
+     * String}. Any other value is buffered as is in a {@link TokenBuffer}.
+     */
+    private static Object readValue(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        TokenBuffer buffer = new TokenBuffer(parser);
+        buffer.copyCurrentStructure(parser);
+        return buffer;
+    }
+
+    private static void writeValue(JsonGenerator generator, String fieldName, Object value) throws IOException {
+        generator.writeFieldName(fieldName);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else {
+            ((TokenBuffer) value).serialize(generator);
+        }
+    }
+}
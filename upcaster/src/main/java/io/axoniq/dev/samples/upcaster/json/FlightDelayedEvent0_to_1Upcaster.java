@@ -4,13 +4,10 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.axoniq.dev.samples.api.FlightDelayedEvent;
+import org.axonframework.serialization.SerializedType;
 import org.axonframework.serialization.SimpleSerializedType;
 import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
 import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.lang.invoke.MethodHandles;
 
 /**
  * Upcaster upcasting the {@code FlightDelayedEvent} from revision {@code 0} to revision {@code 1}.
@@ -24,9 +21,8 @@ import java.lang.invoke.MethodHandles;
  *
  * @author Yvonne Ceelie
  */
-public class FlightDelayedEvent0_to_1Upcaster extends SingleEventUpcaster {
-
-    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+public class FlightDelayedEvent0_to_1Upcaster extends SingleEventUpcaster
+        implements RevisionUpcaster<JsonNode> {
 
     private static final String ORIGIN = "origin";
     private static final String DESTINATION = "destination";
@@ -37,6 +33,21 @@ public class FlightDelayedEvent0_to_1Upcaster extends SingleEventUpcaster {
     private final SimpleSerializedType targetType =
             new SimpleSerializedType(FlightDelayedEvent.class.getTypeName(), "1.0");
 
+    @Override
+    public SerializedType sourceType() {
+        return sourceType;
+    }
+
+    @Override
+    public SerializedType targetType() {
+        return targetType;
+    }
+
+    @Override
+    public Class<JsonNode> payloadType() {
+        return JsonNode.class;
+    }
+
     @Override
     protected boolean canUpcast(IntermediateEventRepresentation intermediateEventRepresentation) {
         return intermediateEventRepresentation.getType().equals(sourceType);
@@ -46,11 +57,11 @@ public class FlightDelayedEvent0_to_1Upcaster extends SingleEventUpcaster {
     protected IntermediateEventRepresentation doUpcast(
             IntermediateEventRepresentation intermediateEventRepresentation
     ) {
-        logger.info("Upcast event: {}", intermediateEventRepresentation.getType());
-        return intermediateEventRepresentation.upcastPayload(targetType, JsonNode.class, this::upcastEvent);
+        return intermediateEventRepresentation.upcastPayload(targetType, JsonNode.class, this::transformPayload);
     }
 
-    private JsonNode upcastEvent(JsonNode jsonNode) {
+    @Override
+    public JsonNode transformPayload(JsonNode jsonNode) {
         if (!jsonNode.isObject()) {
             return jsonNode;
         }
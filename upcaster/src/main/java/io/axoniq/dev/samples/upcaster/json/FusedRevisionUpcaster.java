@@ -0,0 +1,113 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link RevisionUpcaster} combining a linear chain of revision upcasters of one event type into a single upcaster.
+ * <p>
+ * Every separate upcaster would convert the payload to its own representation and back. This upcaster converts the
+ * payload once, applies the {@link RevisionUpcaster#transformPayload(Object)} of every revision in order, and leaves a
+ * single conversion of the result to whoever reads the payload.
+ * <p>
+ * The fused chain replaces the separate revision upcasters, so it handles events stored at any revision in the chain,
+ * not only the first. An event of an intermediate revision gets the transformations from its own revision on.
+ * <p>
+ * Use the {@link RevisionChainFuser} to construct these, as it validates the revisions form a chain.
+ *
+ * @param <T> the payload representation the fused upcasters transform
+ */
+public class FusedRevisionUpcaster<T> extends SingleEventUpcaster implements RevisionUpcaster<T> {
+
+    private final List<RevisionUpcaster<T>> revisions;
+    private final Map<SerializedType, Integer> revisionIndices;
+    private final SerializedType sourceType;
+    private final SerializedType targetType;
+    private final Class<T> payloadType;
+
+    /**
+     * Construct a fused upcaster applying the given {@code revisions} in order. The {@link
+     * RevisionUpcaster#targetType()} of every revision should be the {@link RevisionUpcaster#sourceType()} of the next.
+     *
+     * @param revisions the revision upcasters to fuse, in order
+     */
+    FusedRevisionUpcaster(List<RevisionUpcaster<T>> revisions) {
+        this.revisions = new ArrayList<>(revisions);
+        this.revisionIndices = new HashMap<>();
+        for (int index = 0; index < revisions.size(); index++) {
+            revisionIndices.put(revisions.get(index).sourceType(), index);
+        }
+        this.sourceType = revisions.get(0).sourceType();
+        this.targetType = revisions.get(revisions.size() - 1).targetType();
+        this.payloadType = revisions.get(0).payloadType();
+    }
+
+    @Override
+    public SerializedType sourceType() {
+        return sourceType;
+    }
+
+    @Override
+    public SerializedType targetType() {
+        return targetType;
+    }
+
+    @Override
+    public Class<T> payloadType() {
+        return payloadType;
+    }
+
+    /**
+     * Returns the type name and revision of the events of every revision in the chain, as this upcaster upcasts all of
+     * them to the {@link #targetType()}.
+     *
+     * @return the type name and revision of the events of every revision in the chain
+     */
+    @Override
+    public Set<SerializedType> sourceTypes() {
+        return Collections.unmodifiableSet(revisionIndices.keySet());
+    }
+
+    @Override
+    public T transformPayload(T payload) {
+        return transformPayload(0, payload);
+    }
+
+    private T transformPayload(int firstRevision, T payload) {
+        T result = payload;
+        for (int index = firstRevision; index < revisions.size(); index++) {
+            result = revisions.get(index).transformPayload(result);
+        }
+        return result;
+    }
+
+    @Override
+    protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+        return revisionIndices.containsKey(intermediateRepresentation.getType());
+    }
+
+    @Override
+    protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+        int firstRevision = revisionIndices.get(intermediateRepresentation.getType());
+        return intermediateRepresentation.upcastPayload(targetType,
+                                                        payloadType,
+                                                        payload -> transformPayload(firstRevision, payload));
+    }
+
+    /**
+     * Returns the number of revisions this upcaster moves an event.
+     *
+     * @return the number of revisions this upcaster moves an event
+     */
+    public int revisionCount() {
+        return revisions.size();
+    }
+}
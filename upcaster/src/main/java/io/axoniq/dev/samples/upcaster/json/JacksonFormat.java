@@ -0,0 +1,68 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.axonframework.serialization.json.JacksonSerializer;
+
+import java.util.function.Supplier;
+
+/**
+ * The data formats Jackson can store events in, being textual JSON or one of the binary JSON formats Smile and CBOR.
+ * <p>
+ * The binary formats describe the same data model as JSON, so the {@link com.fasterxml.jackson.databind.JsonNode} based
+ * upcasters work on them as is: the {@link JacksonSerializer} of the format parses the stored bytes directly into a
+ * tree and writes the upcast tree back in the same format, without a detour through text. The streaming upcasters
+ * should be constructed with the {@link #jsonFactory()} of the format instead.
+ */
+public enum JacksonFormat {
+
+    /**
+     * Textual JSON, the default format of the {@link JacksonSerializer}.
+     */
+    JSON(JsonFactory::new),
+    /**
+     * The binary <a href="https://github.com/FasterXML/smile-format-specification">Smile</a> format.
+     */
+    SMILE(SmileFactory::new),
+    /**
+     * The binary <a href="https://cbor.io">CBOR</a> format.
+     */
+    CBOR(CBORFactory::new);
+
+    private final Supplier<JsonFactory> jsonFactorySupplier;
+
+    JacksonFormat(Supplier<JsonFactory> jsonFactorySupplier) {
+        this.jsonFactorySupplier = jsonFactorySupplier;
+    }
+
+    /**
+     * Returns a new {@link JsonFactory} reading and writing this format.
+     *
+     * @return a new {@link JsonFactory} reading and writing this format
+     */
+    public JsonFactory jsonFactory() {
+        return jsonFactorySupplier.get();
+    }
+
+    /**
+     * Returns a new {@link ObjectMapper} reading and writing this format.
+     *
+     * @return a new {@link ObjectMapper} reading and writing this format
+     */
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper(jsonFactory());
+    }
+
+    /**
+     * Returns a new {@link JacksonSerializer} storing events in this format.
+     *
+     * @return a new {@link JacksonSerializer} storing events in this format
+     */
+    public JacksonSerializer serializer() {
+        return JacksonSerializer.builder()
+                                .objectMapper(objectMapper())
+                                .build();
+    }
+}
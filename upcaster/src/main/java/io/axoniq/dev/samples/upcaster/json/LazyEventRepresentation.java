@@ -0,0 +1,120 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.LazyDeserializingObject;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An {@link IntermediateEventRepresentation} wrapping the representation of a stored event, such that every upcast
+ * applied to it results in a {@link LazyUpcastedEventRepresentation}.
+ * <p>
+ * All properties are taken from the wrapped representation. Use the {@link LazyEventUpcasterChain} to wrap every event
+ * before it reaches the upcasters.
+ */
+public class LazyEventRepresentation implements IntermediateEventRepresentation {
+
+    private final IntermediateEventRepresentation source;
+    private final Converter converter;
+
+    /**
+     * Wraps the given {@code source}, such that every upcast applied to it is deferred and memoized.
+     *
+     * @param source    the representation to wrap
+     * @param converter the converter used to convert the upcast data to the types required by the upcasters
+     */
+    public LazyEventRepresentation(IntermediateEventRepresentation source, Converter converter) {
+        this.source = source;
+        this.converter = converter;
+    }
+
+    /**
+     * Returns the representation wrapped by this representation.
+     *
+     * @return the representation wrapped by this representation
+     */
+    IntermediateEventRepresentation getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the converter used to convert the upcast data.
+     *
+     * @return the converter used to convert the upcast data
+     */
+    Converter getConverter() {
+        return converter;
+    }
+
+    @Override
+    public <T> IntermediateEventRepresentation upcast(SerializedType outputType,
+                                                      Class<T> expectedRepresentationType,
+                                                      Function<T, T> upcastFunction,
+                                                      Function<MetaData, MetaData> metaDataUpcastFunction) {
+        return new LazyUpcastedEventRepresentation<>(
+                outputType, this, expectedRepresentationType, upcastFunction, metaDataUpcastFunction, converter
+        );
+    }
+
+    @Override
+    public SerializedType getType() {
+        return source.getType();
+    }
+
+    @Override
+    public SerializedObject<?> getData() {
+        return source.getData();
+    }
+
+    @Override
+    public <D> SerializedObject<D> getData(Class<D> requiredType) {
+        return source.getData(requiredType);
+    }
+
+    @Override
+    public String getMessageIdentifier() {
+        return source.getMessageIdentifier();
+    }
+
+    @Override
+    public Optional<String> getAggregateType() {
+        return source.getAggregateType();
+    }
+
+    @Override
+    public Optional<String> getAggregateIdentifier() {
+        return source.getAggregateIdentifier();
+    }
+
+    @Override
+    public Optional<Long> getSequenceNumber() {
+        return source.getSequenceNumber();
+    }
+
+    @Override
+    public Optional<TrackingToken> getTrackingToken() {
+        return source.getTrackingToken();
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return source.getTimestamp();
+    }
+
+    @Override
+    public LazyDeserializingObject<MetaData> getMetaData() {
+        return source.getMetaData();
+    }
+
+    @Override
+    public boolean canConvertDataTo(Class<?> requiredType) {
+        return source.canConvertDataTo(requiredType);
+    }
+}
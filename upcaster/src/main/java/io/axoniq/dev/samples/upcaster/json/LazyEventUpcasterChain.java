@@ -0,0 +1,58 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.util.stream.Stream;
+
+/**
+ * An {@link EventUpcasterChain} wrapping every event in a {@link LazyEventRepresentation} before handing it to the
+ * delegate upcaster.
+ * <p>
+ * As a result, the upcasters only change the type and revision of an event up front. The payload transformations are
+ * deferred until the payload is first asked for, which only happens if a handler is interested in the event, and are
+ * applied at most once. Upcasters that need the payload to decide what to return, like the {@link
+ * PassengerSeatsToPassengerSeatAdjustedEventUpcaster}, still read it up front.
+ */
+public class LazyEventUpcasterChain extends EventUpcasterChain {
+
+    private final EventUpcaster delegate;
+    private final Converter converter;
+
+    /**
+     * Initializes a lazy upcaster chain running the given {@code delegate}.
+     *
+     * @param delegate  the upcaster to run on the wrapped events, typically an {@link EventUpcasterChain}
+     * @param converter the converter used to convert the upcast data to the types required by the upcasters
+     */
+    public LazyEventUpcasterChain(EventUpcaster delegate, Converter converter) {
+        super(delegate);
+        this.delegate = delegate;
+        this.converter = converter;
+    }
+
+    @Override
+    public Stream<IntermediateEventRepresentation> upcast(
+            Stream<IntermediateEventRepresentation> intermediateRepresentations
+    ) {
+        return delegate.upcast(intermediateRepresentations.map(this::wrap))
+                       .map(LazyEventUpcasterChain::unwrap);
+    }
+
+    private IntermediateEventRepresentation wrap(IntermediateEventRepresentation representation) {
+        return representation instanceof LazyEventRepresentation
+                ? representation
+                : new LazyEventRepresentation(representation, converter);
+    }
+
+    /**
+     * Returns the original representation of events that have not been upcast, so they are passed on as is.
+     */
+    private static IntermediateEventRepresentation unwrap(IntermediateEventRepresentation representation) {
+        return representation.getClass() == LazyEventRepresentation.class
+                ? ((LazyEventRepresentation) representation).getSource()
+                : representation;
+    }
+}
@@ -0,0 +1,101 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.LazyDeserializingObject;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.util.function.Function;
+
+/**
+ * An {@link IntermediateEventRepresentation} that defers an upcast of the payload until the payload is first asked
+ * for, and remembers the outcome from then on.
+ * <p>
+ * The {@link #getType() type and revision} are known up front, so an event processor can decide whether any of its
+ * handlers is interested in the event without transforming the payload. Axon's own {@link
+ * org.axonframework.serialization.upcasting.event.UpcastedEventRepresentation} defers the upcast too, but applies it
+ * again on every invocation of {@link #getData()}, for this stage and every stage before it.
+ * <p>
+ * Upcast functions typically modify a {@link JsonNode} in place. To keep the remembered payload intact, every {@code
+ * JsonNode} handed out by {@link #getData(Class)} is a copy.
+ *
+ * @param <T> the type of data the upcast function transforms
+ */
+public class LazyUpcastedEventRepresentation<T> extends LazyEventRepresentation {
+
+    private final SerializedType outputType;
+    private final Class<T> requiredType;
+    private final Function<T, T> upcastFunction;
+    private final Function<MetaData, MetaData> metaDataUpcastFunction;
+
+    private volatile SerializedObject<T> upcastData;
+    private volatile LazyDeserializingObject<MetaData> upcastMetaData;
+
+    /**
+     * Initializes a representation upcasting the given {@code source} once its payload or meta data is asked for.
+     *
+     * @param outputType             the type of the upcast event
+     * @param source                 the representation to upcast
+     * @param requiredType           the type of data the {@code upcastFunction} transforms
+     * @param upcastFunction         the function transforming the payload
+     * @param metaDataUpcastFunction the function transforming the meta data
+     * @param converter              the converter used to convert the payload to other content types
+     */
+    public LazyUpcastedEventRepresentation(SerializedType outputType,
+                                           IntermediateEventRepresentation source,
+                                           Class<T> requiredType,
+                                           Function<T, T> upcastFunction,
+                                           Function<MetaData, MetaData> metaDataUpcastFunction,
+                                           Converter converter) {
+        super(source, converter);
+        this.outputType = outputType;
+        this.requiredType = requiredType;
+        this.upcastFunction = upcastFunction;
+        this.metaDataUpcastFunction = metaDataUpcastFunction;
+    }
+
+    @Override
+    public SerializedType getType() {
+        return outputType;
+    }
+
+    @Override
+    public SerializedObject<T> getData() {
+        SerializedObject<T> data = upcastData;
+        if (data == null) {
+            T sourceData = getSource().getData(requiredType).getData();
+            data = new SimpleSerializedObject<>(upcastFunction.apply(sourceData), requiredType, outputType);
+            upcastData = data;
+        }
+        return data;
+    }
+
+    @Override
+    public <D> SerializedObject<D> getData(Class<D> requiredType) {
+        SerializedObject<D> data = getConverter().convert(getData(), requiredType);
+        if (data.getData() instanceof JsonNode) {
+            JsonNode copy = ((JsonNode) data.getData()).deepCopy();
+            return new SimpleSerializedObject<>(requiredType.cast(copy), requiredType, outputType);
+        }
+        return data;
+    }
+
+    @Override
+    public LazyDeserializingObject<MetaData> getMetaData() {
+        LazyDeserializingObject<MetaData> metaData = upcastMetaData;
+        if (metaData == null) {
+            metaData = new LazyDeserializingObject<>(metaDataUpcastFunction.apply(getSource().getMetaData().getObject()));
+            upcastMetaData = metaData;
+        }
+        return metaData;
+    }
+
+    @Override
+    public boolean canConvertDataTo(Class<?> requiredType) {
+        return getConverter().canConvert(this.requiredType, requiredType);
+    }
+}
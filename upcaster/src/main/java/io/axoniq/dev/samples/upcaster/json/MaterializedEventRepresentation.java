@@ -0,0 +1,135 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.LazyDeserializingObject;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.UpcastedEventRepresentation;
+
+import java.time.Instant;
+import java.util.function.Function;
+import java.util.Optional;
+
+/**
+ * An {@link IntermediateEventRepresentation} holding data that has already been upcast.
+ * <p>
+ * Axon's upcasted representations are lazy: the upcast functions run once {@link #getData()} is invoked, on whichever
+ * thread invokes it, and again on every invocation. This representation holds the outcome of such an invocation, so the
+ * upcast work can be done upfront. All other properties are taken from the representation the data originates from.
+ * <p>
+ * Upcasters typically modify a {@link JsonNode} in place. To keep the materialized data intact, every {@code JsonNode}
+ * handed out by {@link #getData(Class)} is a copy.
+ */
+public class MaterializedEventRepresentation implements IntermediateEventRepresentation {
+
+    private final SerializedType type;
+    private final SerializedObject<?> data;
+    private final IntermediateEventRepresentation source;
+    private final Converter converter;
+
+    /**
+     * Materializes the data of the given {@code source} by invoking {@link IntermediateEventRepresentation#getData()}.
+     *
+     * @param source    the representation to materialize
+     * @param converter the converter used to convert the materialized data to other content types
+     * @return a representation holding the upcast data of the given {@code source}
+     */
+    public static MaterializedEventRepresentation materialize(IntermediateEventRepresentation source,
+                                                              Converter converter) {
+        return new MaterializedEventRepresentation(source.getType(), source.getData(), source, converter);
+    }
+
+    /**
+     * Initializes a representation with the given {@code type} and {@code data}, taking all other properties from the
+     * given {@code source}.
+     *
+     * @param type      the type of the event
+     * @param data      the serialized data of the event
+     * @param source    the representation to take all other properties from
+     * @param converter the converter used to convert the {@code data} to other content types
+     */
+    public MaterializedEventRepresentation(SerializedType type,
+                                           SerializedObject<?> data,
+                                           IntermediateEventRepresentation source,
+                                           Converter converter) {
+        this.type = type;
+        this.data = data;
+        this.source = source;
+        this.converter = converter;
+    }
+
+    @Override
+    public <T> IntermediateEventRepresentation upcast(SerializedType outputType,
+                                                      Class<T> expectedRepresentationType,
+                                                      Function<T, T> upcastFunction,
+                                                      Function<MetaData, MetaData> metaDataUpcastFunction) {
+        return new UpcastedEventRepresentation<>(
+                outputType, this, upcastFunction, metaDataUpcastFunction, expectedRepresentationType, converter
+        );
+    }
+
+    @Override
+    public SerializedType getType() {
+        return type;
+    }
+
+    @Override
+    public SerializedObject<?> getData() {
+        return data;
+    }
+
+    @Override
+    public <D> SerializedObject<D> getData(Class<D> requiredType) {
+        SerializedObject<D> convertedData = converter.convert(data, requiredType);
+        if (convertedData.getData() instanceof JsonNode) {
+            JsonNode copy = ((JsonNode) convertedData.getData()).deepCopy();
+            return new SimpleSerializedObject<>(requiredType.cast(copy), requiredType, type);
+        }
+        return convertedData;
+    }
+
+    @Override
+    public String getMessageIdentifier() {
+        return source.getMessageIdentifier();
+    }
+
+    @Override
+    public Optional<String> getAggregateType() {
+        return source.getAggregateType();
+    }
+
+    @Override
+    public Optional<String> getAggregateIdentifier() {
+        return source.getAggregateIdentifier();
+    }
+
+    @Override
+    public Optional<Long> getSequenceNumber() {
+        return source.getSequenceNumber();
+    }
+
+    @Override
+    public Optional<TrackingToken> getTrackingToken() {
+        return source.getTrackingToken();
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return source.getTimestamp();
+    }
+
+    @Override
+    public LazyDeserializingObject<MetaData> getMetaData() {
+        return source.getMetaData();
+    }
+
+    @Override
+    public boolean canConvertDataTo(Class<?> requiredType) {
+        return converter.canConvert(data.getContentType(), requiredType);
+    }
+}
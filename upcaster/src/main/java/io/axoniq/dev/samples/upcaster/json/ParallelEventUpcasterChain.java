@@ -0,0 +1,195 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.upcasting.event.ContextAwareEventMultiUpcaster;
+import org.axonframework.serialization.upcasting.event.ContextAwareSingleEventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An {@link EventUpcasterChain} upcasting fixed-size batches of events on a {@link ForkJoinPool}, while handing the
+ * results downstream in the original order of the events.
+ * <p>
+ * Every batch is upcast by the delegate upcaster on a single thread, so an upcaster returning several events for one
+ * event, like the {@link PassengerSeatsToPassengerSeatAdjustedEventUpcaster}, keeps them in order. Batches are handed
+ * downstream in the order they were read, waiting for a batch if it has not been completed yet.
+ * <p>
+ * As every batch is upcast as a separate stream, an upcaster carrying context from one event to the next, like a
+ * {@link ContextAwareSingleEventUpcaster}, starts with a new context at every batch, and loses the context of events
+ * in earlier batches. Such a context aware delegate is rejected when constructing the chain. A context aware upcaster
+ * within a delegate chain cannot be detected, so the delegate should not contain upcasters depending on context from
+ * earlier events.
+ * <p>
+ * Since upcasting in Axon is lazy, the upcast functions would normally run once the event processor reads the data.
+ * This chain forces the data of every upcast event on the pool, wrapping it in a {@link
+ * MaterializedEventRepresentation}. Events that are not upcast are passed on as is.
+ * <p>
+ * To bound memory usage, at most {@code maxBatchesInFlight} batches are read ahead of the event being consumed.
+ */
+public class ParallelEventUpcasterChain extends EventUpcasterChain {
+
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final EventUpcaster delegate;
+    private final Converter converter;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private final ForkJoinPool pool;
+
+    /**
+     * Initializes a parallel upcaster chain running the given {@code delegate} on the {@link
+     * ForkJoinPool#commonPool()}, in batches of {@code 256} events.
+     *
+     * @param delegate  the upcaster to run on every batch, typically an {@link EventUpcasterChain}
+     * @param converter the converter used to convert the upcast data to other content types
+     * @throws IllegalArgumentException if the {@code delegate} is a {@link ContextAwareSingleEventUpcaster} or a {@link
+     *                                  ContextAwareEventMultiUpcaster}
+     */
+    public ParallelEventUpcasterChain(EventUpcaster delegate, Converter converter) {
+        this(delegate, converter, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes a parallel upcaster chain running the given {@code delegate} on the given {@code pool}, in batches of
+     * {@code batchSize} events. Allows twice as many batches in flight as the parallelism of the {@code pool}.
+     *
+     * @param delegate  the upcaster to run on every batch, typically an {@link EventUpcasterChain}
+     * @param converter the converter used to convert the upcast data to other content types
+     * @param batchSize the number of events to upcast in a single task
+     * @param pool      the pool to upcast the batches on
+     * @throws IllegalArgumentException if the {@code delegate} is a {@link ContextAwareSingleEventUpcaster} or a {@link
+     *                                  ContextAwareEventMultiUpcaster}
+     */
+    public ParallelEventUpcasterChain(EventUpcaster delegate, Converter converter, int batchSize, ForkJoinPool pool) {
+        this(delegate, converter, batchSize, 2 * pool.getParallelism(), pool);
+    }
+
+    /**
+     * Initializes a parallel upcaster chain running the given {@code delegate} on the given {@code pool}, in batches of
+     * {@code batchSize} events.
+     *
+     * @param delegate           the upcaster to run on every batch, typically an {@link EventUpcasterChain}
+     * @param converter          the converter used to convert the upcast data to other content types
+     * @param batchSize          the number of events to upcast in a single task
+     * @param maxBatchesInFlight the maximum number of batches read ahead of the event being consumed
+     * @param pool               the pool to upcast the batches on
+     * @throws IllegalArgumentException if the {@code delegate} is a {@link ContextAwareSingleEventUpcaster} or a {@link
+     *                                  ContextAwareEventMultiUpcaster}
+     */
+    public ParallelEventUpcasterChain(EventUpcaster delegate,
+                                      Converter converter,
+                                      int batchSize,
+                                      int maxBatchesInFlight,
+                                      ForkJoinPool pool) {
+        super(delegate);
+        if (batchSize < 1 || maxBatchesInFlight < 1) {
+            throw new IllegalArgumentException(
+                    "The batch size and maximum number of batches in flight should be positive"
+            );
+        }
+        if (delegate instanceof ContextAwareSingleEventUpcaster || delegate instanceof ContextAwareEventMultiUpcaster) {
+            throw new IllegalArgumentException(
+                    "Upcaster [" + delegate.getClass().getName() + "] depends on context from earlier events, "
+                            + "which is lost between the batches of a parallel chain"
+            );
+        }
+        this.delegate = delegate;
+        this.converter = converter;
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+        this.pool = pool;
+    }
+
+    @Override
+    public Stream<IntermediateEventRepresentation> upcast(
+            Stream<IntermediateEventRepresentation> intermediateRepresentations
+    ) {
+        Spliterator<IntermediateEventRepresentation> source = intermediateRepresentations.spliterator();
+        return StreamSupport.stream(new OrderedBatchSpliterator(source), false)
+                            .onClose(intermediateRepresentations::close);
+    }
+
+    private List<IntermediateEventRepresentation> upcastBatch(List<IntermediateEventRepresentation> batch) {
+        return delegate.upcast(batch.stream())
+                       .map(this::materialize)
+                       .collect(Collectors.toList());
+    }
+
+    private IntermediateEventRepresentation materialize(IntermediateEventRepresentation representation) {
+        if (representation instanceof InitialEventRepresentation) {
+            // Not upcast, so there is nothing to do upfront
+            return representation;
+        }
+        return MaterializedEventRepresentation.materialize(representation, converter);
+    }
+
+    /**
+     * Spliterator reading batches from the source, submitting them to the pool, and handing out the results of the
+     * oldest batch first.
+     */
+    private class OrderedBatchSpliterator extends Spliterators.AbstractSpliterator<IntermediateEventRepresentation>
+            implements Consumer<IntermediateEventRepresentation> {
+
+        private final Spliterator<IntermediateEventRepresentation> source;
+        private final Deque<ForkJoinTask<List<IntermediateEventRepresentation>>> batchesInFlight = new ArrayDeque<>();
+        private Iterator<IntermediateEventRepresentation> currentBatch = Collections.emptyIterator();
+        private List<IntermediateEventRepresentation> nextBatch;
+        private boolean sourceExhausted = false;
+
+        private OrderedBatchSpliterator(Spliterator<IntermediateEventRepresentation> source) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super IntermediateEventRepresentation> action) {
+            while (!currentBatch.hasNext()) {
+                submitBatches();
+                ForkJoinTask<List<IntermediateEventRepresentation>> oldestBatch = batchesInFlight.poll();
+                if (oldestBatch == null) {
+                    return false;
+                }
+                currentBatch = oldestBatch.join().iterator();
+            }
+            action.accept(currentBatch.next());
+            return true;
+        }
+
+        private void submitBatches() {
+            while (!sourceExhausted && batchesInFlight.size() < maxBatchesInFlight) {
+                nextBatch = new ArrayList<>(batchSize);
+                while (nextBatch.size() < batchSize && source.tryAdvance(this)) {
+                    // Events are added to the next batch by the accept method
+                }
+                sourceExhausted = nextBatch.size() < batchSize;
+                if (!nextBatch.isEmpty()) {
+                    List<IntermediateEventRepresentation> batch = nextBatch;
+                    batchesInFlight.add(pool.submit(() -> upcastBatch(batch)));
+                }
+                nextBatch = null;
+            }
+        }
+
+        @Override
+        public void accept(IntermediateEventRepresentation representation) {
+            nextBatch.add(representation);
+        }
+    }
+}
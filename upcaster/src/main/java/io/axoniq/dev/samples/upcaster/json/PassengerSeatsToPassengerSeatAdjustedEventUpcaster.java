@@ -3,11 +3,20 @@ package io.axoniq.dev.samples.upcaster.json;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedObject;
 import org.axonframework.serialization.SimpleSerializedType;
 import org.axonframework.serialization.upcasting.event.EventMultiUpcaster;
 import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
@@ -23,10 +32,16 @@ import java.util.stream.StreamSupport;
  * <p>
  * Note that the original event is removed from the result, as it is not part of the returned {@code Stream} by the
  * {@link #doUpcast(IntermediateEventRepresentation)} implementation.
+ * <p>
+ * By default, every resulting event upcasts the original payload separately, removing the entire {@code
+ * "passengerSeats"} collection each time. When constructed with a {@link Converter}, the upcaster instead parses the
+ * original payload once, and builds every resulting payload directly from the shared fields and a single passenger
+ * seat. The cost of this single parse split is linear in the number of passengers.
  *
  * @author Steven van Beelen
  */
-public class PassengerSeatsToPassengerSeatAdjustedEventUpcaster extends EventMultiUpcaster {
+public class PassengerSeatsToPassengerSeatAdjustedEventUpcaster extends EventMultiUpcaster
+        implements SourceTypeAwareUpcaster {
 
     private static final SimpleSerializedType FROM =
             new SimpleSerializedType("io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent", null);
@@ -38,6 +53,34 @@ public class PassengerSeatsToPassengerSeatAdjustedEventUpcaster extends EventMul
     private static final String PASSENGER_ID_FIELD = "passengerId";
     private static final String SEAT_NUMBER_FIELD = "seatNumber";
 
+    private final Converter converter;
+
+    /**
+     * Construct an upcaster in which every resulting event upcasts the original payload separately.
+     */
+    public PassengerSeatsToPassengerSeatAdjustedEventUpcaster() {
+        this(null);
+    }
+
+    /**
+     * Construct an upcaster parsing the original payload once, building every resulting event from that single parse.
+     *
+     * @param converter the converter used to convert the resulting payloads to other content types
+     */
+    public PassengerSeatsToPassengerSeatAdjustedEventUpcaster(Converter converter) {
+        this.converter = converter;
+    }
+
+    @Override
+    public Set<SerializedType> sourceTypes() {
+        return Collections.singleton(FROM);
+    }
+
+    @Override
+    public Optional<Set<SerializedType>> targetTypes() {
+        return Optional.of(Collections.singleton(TO));
+    }
+
     @Override
     protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
         return intermediateRepresentation.getType().equals(FROM);
@@ -51,6 +94,9 @@ public class PassengerSeatsToPassengerSeatAdjustedEventUpcaster extends EventMul
         }
 
         ObjectNode eventData = (ObjectNode) eventJsonNode;
+        if (converter != null) {
+            return splitParsedEvent(intermediateRep, eventData);
+        }
         Spliterator<Map.Entry<String, JsonNode>> passengerSpliterator = Spliterators.spliteratorUnknownSize(
                 eventData.get(PASSENGER_SEATS_FIELD).fields(), Spliterator.ORDERED
         );
@@ -63,6 +109,24 @@ public class PassengerSeatsToPassengerSeatAdjustedEventUpcaster extends EventMul
                             ));
     }
 
+    private Stream<IntermediateEventRepresentation> splitParsedEvent(IntermediateEventRepresentation intermediateRep,
+                                                                     ObjectNode eventData) {
+        JsonNode passengerSeats = eventData.remove(PASSENGER_SEATS_FIELD);
+        List<IntermediateEventRepresentation> result = new ArrayList<>(passengerSeats.size());
+        Iterator<Map.Entry<String, JsonNode>> passengerEntries = passengerSeats.fields();
+        while (passengerEntries.hasNext()) {
+            Map.Entry<String, JsonNode> passengerEntry = passengerEntries.next();
+            // Only the shared fields are copied, the passenger seats were removed up front
+            ObjectNode seatAdjustedData = eventData.deepCopy();
+            seatAdjustedData.set(PASSENGER_ID_FIELD, new TextNode(passengerEntry.getKey()));
+            seatAdjustedData.set(SEAT_NUMBER_FIELD, passengerEntry.getValue());
+            result.add(new MaterializedEventRepresentation(
+                    TO, new SimpleSerializedObject<>(seatAdjustedData, JsonNode.class, TO), intermediateRep, converter
+            ));
+        }
+        return result.stream();
+    }
+
     private JsonNode upcastToSeatAdjustedJson(JsonNode eventJson, String passengerId, JsonNode passengerSeat) {
         if (!eventJson.isObject()) {
             return eventJson;
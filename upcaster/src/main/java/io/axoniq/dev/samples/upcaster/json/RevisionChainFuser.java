@@ -0,0 +1,144 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class detecting linear revision chains of one event type in a list of upcasters, and fusing every chain
+ * into a single {@link FusedRevisionUpcaster}.
+ * <p>
+ * A {@link RevisionUpcaster} is fused with the first upcaster after it in the list that handles its {@link
+ * RevisionUpcaster#targetType()}, if that upcaster is a {@code RevisionUpcaster} working on the same payload type.
+ * Fusing moves the later revisions to the position of the first revision in the list. To guarantee the outcome does
+ * not change, every upcaster in between should be a {@link SourceTypeAwareUpcaster} that neither handles nor produces
+ * any of the types in the chain. An upcaster in between producing a chain type would otherwise hand its events to
+ * revisions that were moved before it. Hence the {@link SourceTypeAwareUpcaster#targetTypes()} of every upcaster in
+ * between should be known. If not, the chain is cut at that point.
+ * <p>
+ * The fused upcaster takes over the events of every revision in the chain, so events stored at an intermediate
+ * revision are upcast from that revision on, as the separate revision upcasters would.
+ */
+public abstract class RevisionChainFuser {
+
+    /**
+     * Returns the given {@code upcasters}, with every linear revision chain of one event type replaced by a single
+     * {@link FusedRevisionUpcaster} at the position of the first revision. Upcasters that are not part of a chain are
+     * returned as is, in their original order.
+     *
+     * @param upcasters the upcasters to fuse, in the order of the upcaster chain
+     * @return the given {@code upcasters} with all linear revision chains fused
+     */
+    public static List<EventUpcaster> fuse(List<? extends EventUpcaster> upcasters) {
+        List<EventUpcaster> result = new ArrayList<>(upcasters.size());
+        boolean[] fused = new boolean[upcasters.size()];
+        for (int position = 0; position < upcasters.size(); position++) {
+            if (fused[position]) {
+                continue;
+            }
+            EventUpcaster upcaster = upcasters.get(position);
+            if (upcaster instanceof RevisionUpcaster) {
+                result.add(fuseFrom(upcasters, position, fused));
+            } else {
+                result.add(upcaster);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> EventUpcaster fuseFrom(List<? extends EventUpcaster> upcasters, int start, boolean[] fused) {
+        RevisionUpcaster<T> first = (RevisionUpcaster<T>) upcasters.get(start);
+        List<RevisionUpcaster<T>> revisions = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        Set<SerializedType> chainTypes = new HashSet<>();
+        revisions.add(first);
+        positions.add(start);
+        chainTypes.add(first.sourceType());
+        chainTypes.add(first.targetType());
+
+        RevisionUpcaster<T> current = first;
+        int currentPosition = start;
+        while (true) {
+            int next = firstUpcasterHandling(upcasters, current.targetType(), currentPosition + 1);
+            if (next < 0 || !(upcasters.get(next) instanceof RevisionUpcaster)) {
+                break;
+            }
+            RevisionUpcaster<T> candidate = (RevisionUpcaster<T>) upcasters.get(next);
+            if (!candidate.payloadType().equals(first.payloadType()) || chainTypes.contains(candidate.targetType())) {
+                break;
+            }
+            Set<SerializedType> candidateTypes = new HashSet<>(chainTypes);
+            candidateTypes.add(candidate.targetType());
+            List<Integer> candidatePositions = new ArrayList<>(positions);
+            candidatePositions.add(next);
+            if (!onlyUnrelatedUpcastersInBetween(upcasters, candidatePositions, candidateTypes)) {
+                break;
+            }
+            revisions.add(candidate);
+            positions.add(next);
+            chainTypes = candidateTypes;
+            current = candidate;
+            currentPosition = next;
+        }
+
+        if (revisions.size() == 1) {
+            return first;
+        }
+        for (int position : positions) {
+            fused[position] = true;
+        }
+        return new FusedRevisionUpcaster<>(revisions);
+    }
+
+    /**
+     * Returns the position of the first upcaster at or after {@code from} that may handle the given {@code type}, or
+     * {@code -1} if there is none. Upcasters that do not declare their types may handle any type.
+     */
+    private static int firstUpcasterHandling(List<? extends EventUpcaster> upcasters, SerializedType type, int from) {
+        for (int position = from; position < upcasters.size(); position++) {
+            EventUpcaster upcaster = upcasters.get(position);
+            if (!(upcaster instanceof SourceTypeAwareUpcaster)
+                    || ((SourceTypeAwareUpcaster) upcaster).sourceTypes().contains(type)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Validates that none of the upcasters between the first and last of the given {@code positions}, other than the
+     * chain itself, handles or produces any of the given {@code chainTypes}.
+     */
+    private static boolean onlyUnrelatedUpcastersInBetween(List<? extends EventUpcaster> upcasters,
+                                                           List<Integer> positions,
+                                                           Set<SerializedType> chainTypes) {
+        int last = positions.get(positions.size() - 1);
+        for (int position = positions.get(0) + 1; position < last; position++) {
+            if (positions.contains(position)) {
+                continue;
+            }
+            EventUpcaster upcaster = upcasters.get(position);
+            if (!(upcaster instanceof SourceTypeAwareUpcaster)) {
+                return false;
+            }
+            SourceTypeAwareUpcaster typedUpcaster = (SourceTypeAwareUpcaster) upcaster;
+            if (!Collections.disjoint(typedUpcaster.sourceTypes(), chainTypes)
+                    || !typedUpcaster.targetTypes()
+                                     .map(targetTypes -> Collections.disjoint(targetTypes, chainTypes))
+                                     .orElse(false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RevisionChainFuser() {
+        // Utility class
+    }
+}
@@ -0,0 +1,60 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.serialization.SerializedType;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link SourceTypeAwareUpcaster} moving exactly one event type from one revision to the next, by transforming the
+ * payload in a given representation.
+ * <p>
+ * Exposing the payload transformation separately from the {@link
+ * org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation} allows the {@link
+ * RevisionChainFuser} to combine consecutive revision upcasters of one event type in a single {@link
+ * FusedRevisionUpcaster}.
+ *
+ * @param <T> the payload representation this upcaster transforms, like a {@link com.fasterxml.jackson.databind.JsonNode}
+ */
+public interface RevisionUpcaster<T> extends SourceTypeAwareUpcaster {
+
+    /**
+     * Returns the type name and revision of the events this upcaster upcasts.
+     *
+     * @return the type name and revision of the events this upcaster upcasts
+     */
+    SerializedType sourceType();
+
+    /**
+     * Returns the type name and revision of the events this upcaster produces.
+     *
+     * @return the type name and revision of the events this upcaster produces
+     */
+    SerializedType targetType();
+
+    /**
+     * Returns the payload representation {@link #transformPayload(Object)} works on.
+     *
+     * @return the payload representation {@link #transformPayload(Object)} works on
+     */
+    Class<T> payloadType();
+
+    /**
+     * Transforms the given {@code payload} of the {@link #sourceType()} into the payload of the {@link #targetType()}.
+     *
+     * @param payload the payload of an event of the {@link #sourceType()}
+     * @return the payload of the event in the {@link #targetType()}
+     */
+    T transformPayload(T payload);
+
+    @Override
+    default Set<SerializedType> sourceTypes() {
+        return Collections.singleton(sourceType());
+    }
+
+    @Override
+    default Optional<Set<SerializedType>> targetTypes() {
+        return Optional.of(Collections.singleton(targetType()));
+    }
+}
@@ -0,0 +1,35 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An {@link EventUpcaster} that declares the {@link SerializedType}s it is able to upcast.
+ * <p>
+ * Knowing these types up front allows the {@link TypeIndexedEventUpcasterChain} to only hand an event to the
+ * upcasters that handle its type, instead of asking every upcaster whether it can upcast the event.
+ */
+public interface SourceTypeAwareUpcaster extends EventUpcaster {
+
+    /**
+     * Returns the {@link SerializedType}s, thus the combinations of type name and revision, this upcaster is able to
+     * upcast. Events of any other type are left untouched by this upcaster.
+     *
+     * @return the {@link SerializedType}s this upcaster is able to upcast
+     */
+    Set<SerializedType> sourceTypes();
+
+    /**
+     * Returns the {@link SerializedType}s of the events this upcaster produces from the events of its {@link
+     * #sourceTypes()}, if known up front. The {@link RevisionChainFuser} only moves a revision upcaster past upcasters
+     * of which it knows these types. By default they are unknown.
+     *
+     * @return the {@link SerializedType}s this upcaster produces, or an empty {@link Optional} if they are unknown
+     */
+    default Optional<Set<SerializedType>> targetTypes() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,248 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An {@link EventUpcasterChain} handing every event only to the upcasters that handle its type.
+ * <p>
+ * The regular {@code EventUpcasterChain} passes every event through every upcaster, each of which validates whether it
+ * can upcast the event. This chain indexes the {@link SourceTypeAwareUpcaster#sourceTypes()} of all upcasters by type
+ * name and revision when it is constructed, mapping every type to the positions of the upcasters handling it. An event
+ * is handed straight to the first upcaster handling its type, and the result of that upcaster to the next upcaster
+ * handling the type of the result. An event of a type no upcaster handles thus passes the whole chain after a single
+ * lookup.
+ * <p>
+ * Just like in the regular chain, every upcaster is invoked once for the whole stream, and sees the events of its
+ * source types in the order of the stream. This keeps upcasters that carry context from one event to the next, like
+ * a {@link org.axonframework.serialization.upcasting.event.ContextAwareSingleEventUpcaster}, working, provided their
+ * source types include every type they read context from. After an upcaster received an event of one of its source
+ * types, it also receives the next event, whatever its type, to find out whether it is done with the previous one.
+ * Once it passes on such an event as is, the events that follow skip it again. The outcome is thus identical to the
+ * regular chain, except for upcasters that hold back an event until they received the next one: events skipping such
+ * an upcaster may overtake the event it holds back. Upcasters that do not implement {@code SourceTypeAwareUpcaster}
+ * cannot be indexed, and thus receive every event.
+ */
+public class TypeIndexedEventUpcasterChain extends EventUpcasterChain {
+
+    private final List<? extends EventUpcaster> upcasters;
+    // The type names to their revisions to the ascending positions of the upcasters handling them
+    private final Map<String, Map<String, int[]>> handlingPositions = new HashMap<>();
+    // The ascending positions of the upcasters handling any type
+    private final int[] untypedPositions;
+
+    /**
+     * Initializes a type indexed upcaster chain from one or more upcasters.
+     *
+     * @param upcasters the upcasters to chain
+     */
+    public TypeIndexedEventUpcasterChain(EventUpcaster... upcasters) {
+        this(Arrays.asList(upcasters));
+    }
+
+    /**
+     * Initializes a type indexed upcaster chain from the given list of upcasters.
+     *
+     * @param upcasters the upcasters to chain
+     */
+    public TypeIndexedEventUpcasterChain(List<? extends EventUpcaster> upcasters) {
+        super(upcasters);
+        this.upcasters = new ArrayList<>(upcasters);
+        Map<String, Map<String, TreeSet<Integer>>> typedPositions = new HashMap<>();
+        TreeSet<Integer> untyped = new TreeSet<>();
+        for (int position = 0; position < upcasters.size(); position++) {
+            EventUpcaster upcaster = upcasters.get(position);
+            if (!(upcaster instanceof SourceTypeAwareUpcaster)) {
+                untyped.add(position);
+                continue;
+            }
+            for (SerializedType sourceType : ((SourceTypeAwareUpcaster) upcaster).sourceTypes()) {
+                typedPositions.computeIfAbsent(sourceType.getName(), name -> new HashMap<>())
+                              .computeIfAbsent(sourceType.getRevision(), revision -> new TreeSet<>())
+                              .add(position);
+            }
+        }
+        this.untypedPositions = toArray(untyped);
+        typedPositions.forEach((name, revisions) -> revisions.forEach((revision, positions) -> {
+            positions.addAll(untyped);
+            handlingPositions.computeIfAbsent(name, n -> new HashMap<>()).put(revision, toArray(positions));
+        }));
+    }
+
+    private static int[] toArray(TreeSet<Integer> positions) {
+        return positions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the position of the first upcaster at or after {@code from} handling the given {@code type}, or the
+     * number of upcasters if there is none.
+     */
+    private int nextPosition(SerializedType type, int from) {
+        int[] positions = untypedPositions;
+        Map<String, int[]> revisions = handlingPositions.get(type.getName());
+        if (revisions != null) {
+            positions = revisions.getOrDefault(type.getRevision(), untypedPositions);
+        }
+        for (int position : positions) {
+            if (position >= from) {
+                return position;
+            }
+        }
+        return upcasters.size();
+    }
+
+    @Override
+    public Stream<IntermediateEventRepresentation> upcast(
+            Stream<IntermediateEventRepresentation> intermediateRepresentations
+    ) {
+        return StreamSupport.stream(new IndexedChainSpliterator(intermediateRepresentations.spliterator()), false)
+                            .onClose(intermediateRepresentations::close);
+    }
+
+    /**
+     * Spliterator routing every event of the source to the upcasters handling its type, and passing on every event
+     * no upcaster after its current position handles.
+     */
+    private class IndexedChainSpliterator extends Spliterators.AbstractSpliterator<IntermediateEventRepresentation>
+            implements Consumer<IntermediateEventRepresentation> {
+
+        private final Spliterator<IntermediateEventRepresentation> source;
+        private final Stage[] stages;
+        // The positions of the upcasters that may still produce results for the events they were handed
+        private final BitSet upcasting = new BitSet();
+        private IntermediateEventRepresentation current;
+
+        private IndexedChainSpliterator(Spliterator<IntermediateEventRepresentation> source) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.source = source;
+            this.stages = new Stage[upcasters.size()];
+            for (int position = 0; position < stages.length; position++) {
+                stages[position] = new Stage(position, upcasters.get(position));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super IntermediateEventRepresentation> action) {
+            IntermediateEventRepresentation representation = pull(stages.length);
+            if (representation == null) {
+                return false;
+            }
+            action.accept(representation);
+            return true;
+        }
+
+        /**
+         * Returns the next event that passed all upcasters before the given {@code position}, or {@code null} if
+         * there are no more events. The results of the last upcaster before the position that is still upcasting
+         * precede any event that did not reach it yet.
+         */
+        private IntermediateEventRepresentation pull(int position) {
+            while (true) {
+                int from = upcasting.previousSetBit(position - 1);
+                IntermediateEventRepresentation representation;
+                if (from < 0) {
+                    if (!source.tryAdvance(this)) {
+                        return null;
+                    }
+                    representation = current;
+                    current = null;
+                } else {
+                    representation = stages[from].next();
+                    if (representation == null) {
+                        continue;
+                    }
+                }
+                int target = nextPosition(representation.getType(), from + 1);
+                if (target >= position) {
+                    return representation;
+                }
+                stages[target].hand(representation);
+            }
+        }
+
+        @Override
+        public void accept(IntermediateEventRepresentation representation) {
+            this.current = representation;
+        }
+
+        /**
+         * An upcaster of the chain, with the single stream of events handed to it.
+         */
+        private class Stage extends Spliterators.AbstractSpliterator<IntermediateEventRepresentation> {
+
+            private final int position;
+            private final EventUpcaster upcaster;
+            private Iterator<IntermediateEventRepresentation> upcastResults;
+            // The next event to hand to the upcaster, if taken from the source already
+            private IntermediateEventRepresentation handedEvent;
+            // The last event handed to the upcaster of a type it does not handle, which it passes on as is
+            private IntermediateEventRepresentation passingEvent;
+
+            private Stage(int position, EventUpcaster upcaster) {
+                super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+                this.position = position;
+                this.upcaster = upcaster;
+            }
+
+            private void hand(IntermediateEventRepresentation representation) {
+                handedEvent = representation;
+                upcasting.set(position);
+            }
+
+            /**
+             * Returns the next result of the upcaster, or {@code null} if it is done with the events handed to it.
+             */
+            private IntermediateEventRepresentation next() {
+                if (upcastResults == null) {
+                    upcastResults = upcaster.upcast(StreamSupport.stream(this, false)).iterator();
+                }
+                if (!upcastResults.hasNext()) {
+                    // The upcaster only runs out of results once the source ran out of events
+                    upcasting.clear(position);
+                    return null;
+                }
+                IntermediateEventRepresentation result = upcastResults.next();
+                if (result == passingEvent) {
+                    passingEvent = null;
+                    upcasting.clear(position);
+                }
+                return result;
+            }
+
+            /**
+             * Hands the upcaster its next event. When the upcaster asks for an event after the one handed to it, it
+             * is given the next event reaching its position, to find out whether it is done with the previous one.
+             */
+            @Override
+            public boolean tryAdvance(Consumer<? super IntermediateEventRepresentation> action) {
+                IntermediateEventRepresentation representation = handedEvent;
+                handedEvent = null;
+                if (representation == null) {
+                    representation = pull(position);
+                    if (representation == null) {
+                        return false;
+                    }
+                    passingEvent = nextPosition(representation.getType(), position) == position ? null : representation;
+                }
+                action.accept(representation);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.axoniq.dev.samples.upcaster.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.LazyDeserializingObject;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An {@link IntermediateEventRepresentation} timing the payload transformation of every upcast applied to it with a
+ * {@link Timer}. The transformation itself is left to the wrapped representation, so it is deferred as usual.
+ * <p>
+ * The result of an upcast is instrumented as well, and refers to the representation handed to the upcaster as its
+ * origin. This allows attributing every result of an upcaster to the event it was upcast from.
+ */
+class InstrumentedEventRepresentation implements IntermediateEventRepresentation {
+
+    private final IntermediateEventRepresentation source;
+    private final Timer transformTimer;
+    private final InstrumentedEventRepresentation origin;
+
+    InstrumentedEventRepresentation(IntermediateEventRepresentation source, Timer transformTimer) {
+        this.source = source;
+        this.transformTimer = transformTimer;
+        this.origin = this;
+    }
+
+    private InstrumentedEventRepresentation(IntermediateEventRepresentation source,
+                                            Timer transformTimer,
+                                            InstrumentedEventRepresentation origin) {
+        this.source = source;
+        this.transformTimer = transformTimer;
+        this.origin = origin;
+    }
+
+    /**
+     * Returns the wrapped representation.
+     *
+     * @return the wrapped representation
+     */
+    IntermediateEventRepresentation getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the instrumented representation handed to the upcaster this representation was upcast from, or this
+     * representation itself if it was not upcast.
+     *
+     * @return the instrumented representation this representation was upcast from
+     */
+    InstrumentedEventRepresentation getOrigin() {
+        return origin;
+    }
+
+    @Override
+    public <T> IntermediateEventRepresentation upcast(SerializedType outputType,
+                                                      Class<T> expectedRepresentationType,
+                                                      Function<T, T> upcastFunction,
+                                                      Function<MetaData, MetaData> metaDataUpcastFunction) {
+        Function<T, T> timedUpcastFunction = data -> transformTimer.record(() -> upcastFunction.apply(data));
+        return new InstrumentedEventRepresentation(
+                source.upcast(outputType, expectedRepresentationType, timedUpcastFunction, metaDataUpcastFunction),
+                transformTimer,
+                origin
+        );
+    }
+
+    @Override
+    public SerializedType getType() {
+        return source.getType();
+    }
+
+    @Override
+    public SerializedObject<?> getData() {
+        return source.getData();
+    }
+
+    @Override
+    public <D> SerializedObject<D> getData(Class<D> requiredType) {
+        return source.getData(requiredType);
+    }
+
+    @Override
+    public String getMessageIdentifier() {
+        return source.getMessageIdentifier();
+    }
+
+    @Override
+    public Optional<String> getAggregateType() {
+        return source.getAggregateType();
+    }
+
+    @Override
+    public Optional<String> getAggregateIdentifier() {
+        return source.getAggregateIdentifier();
+    }
+
+    @Override
+    public Optional<Long> getSequenceNumber() {
+        return source.getSequenceNumber();
+    }
+
+    @Override
+    public Optional<TrackingToken> getTrackingToken() {
+        return source.getTrackingToken();
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return source.getTimestamp();
+    }
+
+    @Override
+    public LazyDeserializingObject<MetaData> getMetaData() {
+        return source.getMetaData();
+    }
+
+    @Override
+    public boolean canConvertDataTo(Class<?> requiredType) {
+        return source.canConvertDataTo(requiredType);
+    }
+}
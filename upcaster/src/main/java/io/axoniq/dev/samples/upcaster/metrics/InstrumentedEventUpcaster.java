@@ -0,0 +1,236 @@
+package io.axoniq.dev.samples.upcaster.metrics;
+
+import io.axoniq.dev.samples.upcaster.json.SourceTypeAwareUpcaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.axonframework.serialization.upcasting.event.EventMultiUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An {@link EventUpcaster} wrapping another upcaster, registering the following meters with a {@link MeterRegistry},
+ * tagged with the simple class name of the wrapped upcaster:
+ * <ul>
+ *     <li>{@code upcaster.invocations} - the number of events handed to the upcaster, tagged with {@code outcome}
+ *     {@code hit} if the upcaster upcast the event and {@code miss} if it passed the event on as is</li>
+ *     <li>{@code upcaster.upcast} - the time spent validating and upcasting an event, excluding deferred payload
+ *     transformations</li>
+ *     <li>{@code upcaster.transform} - a histogram of the time spent in the payload transformations of the upcaster,
+ *     whenever they are executed</li>
+ *     <li>{@code upcaster.fanout} - the number of events an {@link EventMultiUpcaster} upcast a single event into</li>
+ * </ul>
+ * To measure the payload transformations, which Axon defers until the payload is read, every event is wrapped in an
+ * {@link InstrumentedEventRepresentation} before it is handed to the upcaster.
+ * <p>
+ * The wrapped upcaster receives a single stream with all events, so upcasters carrying context from one event to the
+ * next keep working. Every result is attributed to the event it was upcast from by the identity of the wrapped event,
+ * or to the last event handed to the upcaster if the upcaster constructed the result itself. The time spent upcasting
+ * excludes the time spent in the upcasters before this one. The fanout and upcast time of an event that was upcast are
+ * recorded once the upcaster produced a result for another event, or ran out of events.
+ * <p>
+ * Use {@link #instrument(EventUpcaster, MeterRegistry)} to wrap an upcaster, which retains the {@link
+ * SourceTypeAwareUpcaster} contract of the wrapped upcaster if present.
+ */
+public class InstrumentedEventUpcaster implements EventUpcaster {
+
+    static final String INVOCATIONS = "upcaster.invocations";
+    static final String UPCAST = "upcaster.upcast";
+    static final String TRANSFORM = "upcaster.transform";
+    static final String FANOUT = "upcaster.fanout";
+    static final String UPCASTER_TAG = "upcaster";
+    static final String OUTCOME_TAG = "outcome";
+    static final String HIT = "hit";
+    static final String MISS = "miss";
+
+    private final EventUpcaster delegate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer upcastTimer;
+    private final Timer transformTimer;
+    private final DistributionSummary fanout;
+
+    /**
+     * Wraps the given {@code delegate} in an instrumented upcaster registering its meters with the given {@code
+     * meterRegistry}.
+     *
+     * @param delegate      the upcaster to instrument
+     * @param meterRegistry the registry to register the meters with
+     * @return an instrumented upcaster, which is a {@link SourceTypeAwareUpcaster} if the {@code delegate} is one
+     */
+    public static InstrumentedEventUpcaster instrument(EventUpcaster delegate, MeterRegistry meterRegistry) {
+        return delegate instanceof SourceTypeAwareUpcaster
+                ? new InstrumentedSourceTypeAwareEventUpcaster((SourceTypeAwareUpcaster) delegate, meterRegistry)
+                : new InstrumentedEventUpcaster(delegate, meterRegistry);
+    }
+
+    /**
+     * Construct an instrumented upcaster wrapping the given {@code delegate}, registering its meters with the given
+     * {@code meterRegistry}.
+     *
+     * @param delegate      the upcaster to instrument
+     * @param meterRegistry the registry to register the meters with
+     */
+    protected InstrumentedEventUpcaster(EventUpcaster delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        String upcasterName = delegate.getClass().getSimpleName();
+        this.hits = Counter.builder(INVOCATIONS)
+                           .description("The number of events handed to the upcaster")
+                           .tags(UPCASTER_TAG, upcasterName, OUTCOME_TAG, HIT)
+                           .register(meterRegistry);
+        this.misses = Counter.builder(INVOCATIONS)
+                             .description("The number of events handed to the upcaster")
+                             .tags(UPCASTER_TAG, upcasterName, OUTCOME_TAG, MISS)
+                             .register(meterRegistry);
+        this.upcastTimer = Timer.builder(UPCAST)
+                                .description("The time spent validating and upcasting an event")
+                                .tag(UPCASTER_TAG, upcasterName)
+                                .register(meterRegistry);
+        this.transformTimer = Timer.builder(TRANSFORM)
+                                   .description("The time spent transforming the payload of an event")
+                                   .tag(UPCASTER_TAG, upcasterName)
+                                   .publishPercentileHistogram()
+                                   .register(meterRegistry);
+        this.fanout = delegate instanceof EventMultiUpcaster
+                ? DistributionSummary.builder(FANOUT)
+                                     .description("The number of events a single event is upcast into")
+                                     .tag(UPCASTER_TAG, upcasterName)
+                                     .register(meterRegistry)
+                : null;
+    }
+
+    /**
+     * Returns the upcaster instrumented by this upcaster.
+     *
+     * @return the upcaster instrumented by this upcaster
+     */
+    public EventUpcaster getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Stream<IntermediateEventRepresentation> upcast(
+            Stream<IntermediateEventRepresentation> intermediateRepresentations
+    ) {
+        return StreamSupport.stream(new InstrumentedResults(intermediateRepresentations.spliterator()), false)
+                            .onClose(intermediateRepresentations::close);
+    }
+
+    /**
+     * Spliterator over the results of the single stream of events handed to the delegate, recording the meters of
+     * every event as its results pass.
+     */
+    private class InstrumentedResults extends Spliterators.AbstractSpliterator<IntermediateEventRepresentation>
+            implements Consumer<IntermediateEventRepresentation> {
+
+        private final Spliterator<IntermediateEventRepresentation> source;
+        private final Spliterator<IntermediateEventRepresentation> results;
+        private IntermediateEventRepresentation currentResult;
+        private InstrumentedEventRepresentation lastHanded;
+        // The time spent in the source while the delegate produced the current result
+        private long sourceNanos;
+        // The event that was upcast the last result came from, with the results and time spent on it so far
+        private InstrumentedEventRepresentation upcastOrigin;
+        private int upcastResults;
+        private long upcastNanos;
+
+        private InstrumentedResults(Spliterator<IntermediateEventRepresentation> source) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.source = source;
+            this.results = delegate.upcast(StreamSupport.stream(new HandedEvents(), false)).spliterator();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super IntermediateEventRepresentation> action) {
+            sourceNanos = 0;
+            long start = System.nanoTime();
+            boolean advanced = results.tryAdvance(this);
+            long nanos = System.nanoTime() - start - sourceNanos;
+            if (!advanced) {
+                completeUpcast();
+                return false;
+            }
+            IntermediateEventRepresentation result = currentResult;
+            currentResult = null;
+            InstrumentedEventRepresentation origin = lastHanded;
+            if (result instanceof InstrumentedEventRepresentation) {
+                origin = ((InstrumentedEventRepresentation) result).getOrigin();
+                result = ((InstrumentedEventRepresentation) result).getSource();
+            }
+            if (origin != upcastOrigin) {
+                completeUpcast();
+            }
+            if (result == origin.getSource()) {
+                misses.increment();
+                upcastTimer.record(nanos, TimeUnit.NANOSECONDS);
+            } else {
+                if (upcastOrigin == null) {
+                    hits.increment();
+                    upcastOrigin = origin;
+                }
+                upcastResults++;
+                upcastNanos += nanos;
+            }
+            action.accept(result);
+            return true;
+        }
+
+        private void completeUpcast() {
+            if (upcastOrigin == null) {
+                return;
+            }
+            upcastTimer.record(upcastNanos, TimeUnit.NANOSECONDS);
+            if (fanout != null) {
+                fanout.record(upcastResults);
+            }
+            upcastOrigin = null;
+            upcastResults = 0;
+            upcastNanos = 0;
+        }
+
+        @Override
+        public void accept(IntermediateEventRepresentation representation) {
+            this.currentResult = representation;
+        }
+
+        /**
+         * The events handed to the delegate, each wrapped in an {@link InstrumentedEventRepresentation}.
+         */
+        private class HandedEvents extends Spliterators.AbstractSpliterator<IntermediateEventRepresentation>
+                implements Consumer<IntermediateEventRepresentation> {
+
+            private IntermediateEventRepresentation taken;
+
+            private HandedEvents() {
+                super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super IntermediateEventRepresentation> action) {
+                long start = System.nanoTime();
+                boolean advanced = source.tryAdvance(this);
+                sourceNanos += System.nanoTime() - start;
+                if (!advanced) {
+                    return false;
+                }
+                lastHanded = new InstrumentedEventRepresentation(taken, transformTimer);
+                taken = null;
+                action.accept(lastHanded);
+                return true;
+            }
+
+            @Override
+            public void accept(IntermediateEventRepresentation representation) {
+                this.taken = representation;
+            }
+        }
+    }
+}
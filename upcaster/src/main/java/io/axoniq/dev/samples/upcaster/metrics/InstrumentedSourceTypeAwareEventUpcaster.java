@@ -0,0 +1,33 @@
+package io.axoniq.dev.samples.upcaster.metrics;
+
+import io.axoniq.dev.samples.upcaster.json.SourceTypeAwareUpcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.axonframework.serialization.SerializedType;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An {@link InstrumentedEventUpcaster} for a {@link SourceTypeAwareUpcaster}, exposing the source and target types of
+ * the wrapped upcaster. This allows a {@link io.axoniq.dev.samples.upcaster.json.TypeIndexedEventUpcasterChain} to
+ * index instrumented upcasters.
+ */
+class InstrumentedSourceTypeAwareEventUpcaster extends InstrumentedEventUpcaster implements SourceTypeAwareUpcaster {
+
+    private final SourceTypeAwareUpcaster delegate;
+
+    InstrumentedSourceTypeAwareEventUpcaster(SourceTypeAwareUpcaster delegate, MeterRegistry meterRegistry) {
+        super(delegate, meterRegistry);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Set<SerializedType> sourceTypes() {
+        return delegate.sourceTypes();
+    }
+
+    @Override
+    public Optional<Set<SerializedType>> targetTypes() {
+        return delegate.targetTypes();
+    }
+}
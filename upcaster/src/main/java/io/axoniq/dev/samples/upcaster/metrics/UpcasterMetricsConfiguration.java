@@ -0,0 +1,25 @@
+package io.axoniq.dev.samples.upcaster.metrics;
+
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration exposing the instrumented {@link EventUpcasterChain} of this application, together with the
+ * {@link UpcasterMetricsEndpoint} summarizing its meters.
+ */
+@Configuration
+public class UpcasterMetricsConfiguration {
+
+    @Bean
+    public EventUpcasterChain eventUpcasterChain(MeterRegistry meterRegistry) {
+        return EventUpcasterChainFactory.buildEventUpcasterChain(meterRegistry);
+    }
+
+    @Bean
+    public UpcasterMetricsEndpoint upcasterMetricsEndpoint(MeterRegistry meterRegistry) {
+        return new UpcasterMetricsEndpoint(meterRegistry);
+    }
+}
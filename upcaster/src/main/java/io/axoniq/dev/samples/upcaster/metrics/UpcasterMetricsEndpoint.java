@@ -0,0 +1,88 @@
+package io.axoniq.dev.samples.upcaster.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint summarizing the meters of every {@link InstrumentedEventUpcaster}, to find the upcaster slowing
+ * down a replay at a glance. Exposed under {@code /actuator/upcasters} once included in the {@code
+ * management.endpoints.web.exposure.include} property.
+ * <p>
+ * Every upcaster is summarized by its invocations, hit ratio, the total and mean time spent upcasting and transforming
+ * payloads in milliseconds, and the mean fan-out of {@code EventMultiUpcaster}s.
+ */
+@Endpoint(id = "upcasters")
+public class UpcasterMetricsEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Construct an endpoint reading the upcaster meters from the given {@code meterRegistry}.
+     *
+     * @param meterRegistry the registry the {@link InstrumentedEventUpcaster}s register their meters with
+     */
+    public UpcasterMetricsEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the summary of every instrumented upcaster, keyed by the simple class name of the upcaster.
+     *
+     * @return the summary of every instrumented upcaster
+     */
+    @ReadOperation
+    public Map<String, Map<String, Object>> upcasters() {
+        Map<String, Map<String, Object>> upcasters = new TreeMap<>();
+        for (Timer upcastTimer : meterRegistry.find(InstrumentedEventUpcaster.UPCAST).timers()) {
+            String upcaster = upcastTimer.getId().getTag(InstrumentedEventUpcaster.UPCASTER_TAG);
+            upcasters.put(upcaster, summarize(upcaster, upcastTimer));
+        }
+        return upcasters;
+    }
+
+    private Map<String, Object> summarize(String upcaster, Timer upcastTimer) {
+        double hits = count(upcaster, InstrumentedEventUpcaster.HIT);
+        double misses = count(upcaster, InstrumentedEventUpcaster.MISS);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("invocations", (long) (hits + misses));
+        summary.put("hitRatio", hits + misses == 0 ? 0 : hits / (hits + misses));
+        summary.put("upcastTotalMs", upcastTimer.totalTime(TimeUnit.MILLISECONDS));
+        summary.put("upcastMeanMs", upcastTimer.mean(TimeUnit.MILLISECONDS));
+
+        Timer transformTimer = meterRegistry.find(InstrumentedEventUpcaster.TRANSFORM)
+                                            .tag(InstrumentedEventUpcaster.UPCASTER_TAG, upcaster)
+                                            .timer();
+        if (transformTimer != null) {
+            summary.put("transformations", transformTimer.count());
+            summary.put("transformTotalMs", transformTimer.totalTime(TimeUnit.MILLISECONDS));
+            summary.put("transformMeanMs", transformTimer.mean(TimeUnit.MILLISECONDS));
+            summary.put("transformMaxMs", transformTimer.max(TimeUnit.MILLISECONDS));
+        }
+
+        DistributionSummary fanout = meterRegistry.find(InstrumentedEventUpcaster.FANOUT)
+                                                  .tag(InstrumentedEventUpcaster.UPCASTER_TAG, upcaster)
+                                                  .summary();
+        if (fanout != null) {
+            summary.put("fanoutMean", fanout.mean());
+            summary.put("fanoutMax", fanout.max());
+        }
+        return summary;
+    }
+
+    private double count(String upcaster, String outcome) {
+        Counter counter = meterRegistry.find(InstrumentedEventUpcaster.INVOCATIONS)
+                                       .tags(InstrumentedEventUpcaster.UPCASTER_TAG, upcaster,
+                                             InstrumentedEventUpcaster.OUTCOME_TAG, outcome)
+                                       .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,185 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import org.axonframework.common.jdbc.ConnectionProvider;
+import org.axonframework.eventhandling.DomainEventData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.axonframework.common.DateTimeUtils.formatInstant;
+
+/**
+ * A {@link MigrationEventSink} inserting the migrated events into a table following the schema of Axon's {@code
+ * domain_event_entry} table. The {@code global_index} of the events is generated by the database.
+ * <p>
+ * Every batch is inserted in a single transaction, together with the checkpoint of the migration in the {@code
+ * checkpointTable}. The checkpoint table holds a row per migration name, so several migrations can share it. Use
+ * {@link #createCheckpointTable()} to create it.
+ * <p>
+ * The last sequence numbers of the aggregates a migration asks for are read with a single grouped query per batch,
+ * split into queries of at most {@value #MAX_QUERY_PARAMETERS} aggregates.
+ */
+public class JdbcEventSink implements MigrationEventSink {
+
+    private static final int MAX_QUERY_PARAMETERS = 500;
+
+    private final ConnectionProvider connectionProvider;
+    private final String eventTable;
+    private final String checkpointTable;
+    private final String migrationName;
+
+    /**
+     * Initializes a sink inserting the migrated events in the given {@code eventTable}.
+     *
+     * @param connectionProvider the {@link ConnectionProvider} to obtain a connection to the target store with
+     * @param eventTable         the name of the table to insert the events in
+     * @param checkpointTable    the name of the table holding the checkpoints
+     * @param migrationName      the name of the migration to store the checkpoint for
+     */
+    public JdbcEventSink(ConnectionProvider connectionProvider,
+                         String eventTable,
+                         String checkpointTable,
+                         String migrationName) {
+        this.connectionProvider = connectionProvider;
+        this.eventTable = eventTable;
+        this.checkpointTable = checkpointTable;
+        this.migrationName = migrationName;
+    }
+
+    /**
+     * Creates the table holding the checkpoints of the migrations, if it does not exist yet.
+     */
+    public void createCheckpointTable() {
+        try (Connection connection = connectionProvider.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + checkpointTable + " ("
+                                            + "migration_name VARCHAR(255) NOT NULL, "
+                                            + "source_position BIGINT NOT NULL, "
+                                            + "PRIMARY KEY (migration_name))");
+        } catch (SQLException e) {
+            throw new UpcastMigrationException("Unable to create checkpoint table [" + checkpointTable + "]", e);
+        }
+    }
+
+    @Override
+    public long lastCheckpoint() {
+        try (Connection connection = connectionProvider.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT source_position FROM " + checkpointTable + " WHERE migration_name = ?"
+             )) {
+            statement.setString(1, migrationName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            throw new UpcastMigrationException("Unable to read the checkpoint of [" + migrationName + "]", e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> lastSequenceNumbers(Set<String> aggregateIdentifiers) {
+        Map<String, Long> lastSequenceNumbers = new HashMap<>();
+        List<String> remaining = new ArrayList<>(aggregateIdentifiers);
+        try (Connection connection = connectionProvider.getConnection()) {
+            for (int from = 0; from < remaining.size(); from += MAX_QUERY_PARAMETERS) {
+                List<String> chunk = remaining.subList(from, Math.min(from + MAX_QUERY_PARAMETERS, remaining.size()));
+                readLastSequenceNumbers(connection, chunk, lastSequenceNumbers);
+            }
+        } catch (SQLException e) {
+            throw new UpcastMigrationException(
+                    "Unable to read the last sequence numbers of " + aggregateIdentifiers.size() + " aggregates", e
+            );
+        }
+        return lastSequenceNumbers;
+    }
+
+    private void readLastSequenceNumbers(Connection connection,
+                                         List<String> aggregateIdentifiers,
+                                         Map<String, Long> lastSequenceNumbers) throws SQLException {
+        String parameters = String.join(", ", Collections.nCopies(aggregateIdentifiers.size(), "?"));
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT aggregate_identifier, MAX(sequence_number) FROM " + eventTable
+                        + " WHERE aggregate_identifier IN (" + parameters + ") GROUP BY aggregate_identifier"
+        )) {
+            for (int i = 0; i < aggregateIdentifiers.size(); i++) {
+                statement.setString(i + 1, aggregateIdentifiers.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    lastSequenceNumbers.put(resultSet.getString(1), resultSet.getLong(2));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void write(List<? extends DomainEventData<byte[]>> events, long checkpoint) {
+        try (Connection connection = connectionProvider.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                insertEvents(connection, events);
+                storeCheckpoint(connection, checkpoint);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new UpcastMigrationException("Unable to write events to table [" + eventTable + "]", e);
+        }
+    }
+
+    private void insertEvents(Connection connection, List<? extends DomainEventData<byte[]>> events)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + eventTable + " (event_identifier, type, aggregate_identifier, sequence_number, "
+                        + "time_stamp, payload_type, payload_revision, payload, meta_data) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+        )) {
+            for (DomainEventData<byte[]> event : events) {
+                statement.setString(1, event.getEventIdentifier());
+                statement.setString(2, event.getType());
+                statement.setString(3, event.getAggregateIdentifier());
+                statement.setLong(4, event.getSequenceNumber());
+                statement.setString(5, formatInstant(event.getTimestamp()));
+                statement.setString(6, event.getPayload().getType().getName());
+                statement.setString(7, event.getPayload().getType().getRevision());
+                statement.setBytes(8, event.getPayload().getData());
+                statement.setBytes(9, event.getMetaData().getData());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void storeCheckpoint(Connection connection, long checkpoint) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + checkpointTable + " SET source_position = ? WHERE migration_name = ?"
+        )) {
+            update.setLong(1, checkpoint);
+            update.setString(2, migrationName);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + checkpointTable + " (migration_name, source_position) VALUES (?, ?)"
+        )) {
+            insert.setString(1, migrationName);
+            insert.setLong(2, checkpoint);
+            insert.executeUpdate();
+        }
+    }
+}
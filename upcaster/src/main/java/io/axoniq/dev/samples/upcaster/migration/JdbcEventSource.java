@@ -0,0 +1,122 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import org.axonframework.common.jdbc.ConnectionProvider;
+import org.axonframework.common.jdbc.JdbcUtils;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedDomainEventData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link MigrationEventSource} reading events from a table following the schema of Axon's {@code
+ * domain_event_entry} table, as used by the {@code JdbcEventStorageEngine}. The position of an event is its {@code
+ * global_index}.
+ * <p>
+ * Events are read through a single forward-only cursor, fetching {@code fetchSize} rows at a time.
+ */
+public class JdbcEventSource implements MigrationEventSource {
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final ConnectionProvider connectionProvider;
+    private final String eventTable;
+    private final int fetchSize;
+
+    /**
+     * Initializes a source reading the events from the {@code domain_event_entry} table.
+     *
+     * @param connectionProvider the {@link ConnectionProvider} to obtain a connection to the event store with
+     */
+    public JdbcEventSource(ConnectionProvider connectionProvider) {
+        this(connectionProvider, "domain_event_entry", DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Initializes a source reading the events from the given {@code eventTable}.
+     *
+     * @param connectionProvider the {@link ConnectionProvider} to obtain a connection to the event store with
+     * @param eventTable         the name of the table to read the events from
+     * @param fetchSize          the number of rows to fetch from the database at a time
+     */
+    public JdbcEventSource(ConnectionProvider connectionProvider, String eventTable, int fetchSize) {
+        this.connectionProvider = connectionProvider;
+        this.eventTable = eventTable;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<TrackedDomainEventData<byte[]>> readEvents(long afterPosition) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet;
+        try {
+            connection = connectionProvider.getConnection();
+            // Some drivers only use a cursor within a transaction
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(
+                    "SELECT global_index, event_identifier, type, aggregate_identifier, sequence_number, time_stamp, "
+                            + "payload_type, payload_revision, payload, meta_data FROM " + eventTable
+                            + " WHERE global_index > ? ORDER BY global_index ASC",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+            );
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, afterPosition);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            JdbcUtils.closeQuietly(statement);
+            JdbcUtils.closeQuietly(connection);
+            throw new UpcastMigrationException("Unable to read events from table [" + eventTable + "]", e);
+        }
+        Connection openConnection = connection;
+        PreparedStatement openStatement = statement;
+        return StreamSupport.stream(new ResultSetSpliterator(resultSet), false)
+                            .onClose(() -> {
+                                JdbcUtils.closeQuietly(resultSet);
+                                JdbcUtils.closeQuietly(openStatement);
+                                JdbcUtils.closeQuietly(openConnection);
+                            });
+    }
+
+    private class ResultSetSpliterator extends Spliterators.AbstractSpliterator<TrackedDomainEventData<byte[]>> {
+
+        private final ResultSet resultSet;
+
+        private ResultSetSpliterator(ResultSet resultSet) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TrackedDomainEventData<byte[]>> action) {
+            try {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                action.accept(new TrackedDomainEventData<>(
+                        new GlobalSequenceTrackingToken(resultSet.getLong("global_index")),
+                        new GenericDomainEventEntry<>(resultSet.getString("type"),
+                                                      resultSet.getString("aggregate_identifier"),
+                                                      resultSet.getLong("sequence_number"),
+                                                      resultSet.getString("event_identifier"),
+                                                      resultSet.getString("time_stamp"),
+                                                      resultSet.getString("payload_type"),
+                                                      resultSet.getString("payload_revision"),
+                                                      resultSet.getBytes("payload"),
+                                                      resultSet.getBytes("meta_data"))
+                ));
+                return true;
+            } catch (SQLException e) {
+                throw new UpcastMigrationException("Unable to read events from table [" + eventTable + "]", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import org.axonframework.eventhandling.DomainEventData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The store to write the migrated events to.
+ * <p>
+ * A sink writes every batch of events together with the position of the last source event it covers, the checkpoint.
+ * The batch and the checkpoint should be stored atomically, so a migration can always resume after the last checkpoint
+ * without losing or duplicating events.
+ */
+public interface MigrationEventSink {
+
+    /**
+     * Returns the source position of the last batch written to this sink, or {@code -1} if nothing has been written.
+     *
+     * @return the source position of the last batch written to this sink
+     */
+    long lastCheckpoint();
+
+    /**
+     * Returns the highest sequence number written to this sink for each of the aggregates with the given {@code
+     * aggregateIdentifiers}. The migration asks for all aggregates of a batch it has no sequence number for at once.
+     *
+     * @param aggregateIdentifiers the identifiers of the aggregates to return the last sequence numbers for
+     * @return the highest sequence number written per aggregate, leaving out the aggregates nothing was written for
+     */
+    Map<String, Long> lastSequenceNumbers(Set<String> aggregateIdentifiers);
+
+    /**
+     * Writes the given {@code events} and stores the given {@code checkpoint} as a single atomic operation.
+     *
+     * @param events     the migrated events to write, in order
+     * @param checkpoint the position of the last source event these {@code events} originate from
+     */
+    void write(List<? extends DomainEventData<byte[]>> events, long checkpoint);
+}
@@ -0,0 +1,25 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedDomainEventData;
+
+import java.util.stream.Stream;
+
+/**
+ * The store to read the events to migrate from.
+ * <p>
+ * Every event carries a {@link GlobalSequenceTrackingToken} holding its position in the source. Positions ascend in
+ * the order of the returned {@link Stream}, which allows an {@link UpcastMigration} to resume after the last position
+ * it has written.
+ */
+public interface MigrationEventSource {
+
+    /**
+     * Opens a {@link Stream} of all events positioned after the given {@code afterPosition}, in order. The stream
+     * should read the events lazily, and has to be closed once done.
+     *
+     * @param afterPosition the position to read after, or {@code -1} to read all events
+     * @return a {@link Stream} of the events after the given {@code afterPosition}
+     */
+    Stream<TrackedDomainEventData<byte[]>> readEvents(long afterPosition);
+}
@@ -0,0 +1,69 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+
+import java.io.IOException;
+
+import static org.axonframework.common.DateTimeUtils.formatInstant;
+
+/**
+ * The format of a single event on a line of a newline delimited JSON event file.
+ * <p>
+ * Every line holds a JSON object with the fields of Axon's {@code domain_event_entry} table. The payload and meta data
+ * are embedded as JSON, since the events are serialized with the {@link
+ * org.axonframework.serialization.json.JacksonSerializer}.
+ */
+class NdjsonEventFormat {
+
+    private static final String EVENT_IDENTIFIER = "eventIdentifier";
+    private static final String AGGREGATE_TYPE = "aggregateType";
+    private static final String AGGREGATE_IDENTIFIER = "aggregateIdentifier";
+    private static final String SEQUENCE_NUMBER = "sequenceNumber";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String PAYLOAD_TYPE = "payloadType";
+    private static final String PAYLOAD_REVISION = "payloadRevision";
+    private static final String PAYLOAD = "payload";
+    private static final String META_DATA = "metaData";
+
+    private final ObjectMapper objectMapper;
+
+    NdjsonEventFormat(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    DomainEventData<byte[]> read(String line) throws IOException {
+        JsonNode event = objectMapper.readTree(line);
+        return new GenericDomainEventEntry<>(textOrNull(event, AGGREGATE_TYPE),
+                                             event.get(AGGREGATE_IDENTIFIER).asText(),
+                                             event.get(SEQUENCE_NUMBER).asLong(),
+                                             event.get(EVENT_IDENTIFIER).asText(),
+                                             event.get(TIMESTAMP).asText(),
+                                             event.get(PAYLOAD_TYPE).asText(),
+                                             textOrNull(event, PAYLOAD_REVISION),
+                                             objectMapper.writeValueAsBytes(event.get(PAYLOAD)),
+                                             objectMapper.writeValueAsBytes(event.get(META_DATA)));
+    }
+
+    private static String textOrNull(JsonNode event, String field) {
+        JsonNode value = event.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    String write(DomainEventData<byte[]> event) throws IOException {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put(EVENT_IDENTIFIER, event.getEventIdentifier());
+        line.put(AGGREGATE_TYPE, event.getType());
+        line.put(AGGREGATE_IDENTIFIER, event.getAggregateIdentifier());
+        line.put(SEQUENCE_NUMBER, event.getSequenceNumber());
+        line.put(TIMESTAMP, formatInstant(event.getTimestamp()));
+        line.put(PAYLOAD_TYPE, event.getPayload().getType().getName());
+        line.put(PAYLOAD_REVISION, event.getPayload().getType().getRevision());
+        line.set(PAYLOAD, objectMapper.readTree(event.getPayload().getData()));
+        line.set(META_DATA, objectMapper.readTree(event.getMetaData().getData()));
+        return objectMapper.writeValueAsString(line);
+    }
+}
@@ -0,0 +1,168 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.axonframework.eventhandling.DomainEventData;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link MigrationEventSink} appending the migrated events to a newline delimited JSON file, in the format read by
+ * the {@link NdjsonEventSource}.
+ * <p>
+ * The checkpoint is stored next to the output file, with a {@code .checkpoint} suffix, and holds the length of the
+ * output file at that checkpoint. It is replaced atomically once a batch is flushed to disk. When opening the sink, the
+ * output file is truncated to the length in the checkpoint, discarding any batch that was written only partially.
+ * <p>
+ * The first time the last sequence numbers of aggregates are looked up, the sink reads the output file once, and
+ * indexes the last sequence number of every aggregate in it. From then on it keeps that index up to date with every
+ * batch it writes, so later lookups never read the file again. As the {@link UpcastMigration} only looks up aggregates
+ * that may have been written already and were not migrated recently, a migration of fewer aggregates than it caches,
+ * started from scratch, never builds the index. Otherwise the index holds every aggregate in the output file, so the
+ * memory it takes grows with the number of aggregates. If they do not fit in memory, migrate to a database through the
+ * {@link JdbcEventSink} instead, which looks up the sequence numbers with an indexed query.
+ */
+public class NdjsonEventSink implements MigrationEventSink, Closeable {
+
+    private static final String POSITION = "position";
+    private static final String LENGTH = "length";
+
+    private final Path file;
+    private final Path checkpointFile;
+    private final ObjectMapper objectMapper;
+    private final NdjsonEventFormat format;
+    private final FileChannel channel;
+    private long checkpoint;
+    // The last sequence number of every aggregate in the output file, once looked up
+    private Map<String, Long> lastSequenceNumbers;
+
+    /**
+     * Opens a sink appending the migrated events to the given {@code file}, resuming from its checkpoint if present.
+     *
+     * @param file the newline delimited JSON file to write the events to
+     */
+    public NdjsonEventSink(Path file) {
+        this(file, new ObjectMapper());
+    }
+
+    /**
+     * Opens a sink appending the migrated events to the given {@code file}, resuming from its checkpoint if present.
+     *
+     * @param file         the newline delimited JSON file to write the events to
+     * @param objectMapper the {@link ObjectMapper} to write the events and checkpoint with
+     */
+    public NdjsonEventSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+        this.objectMapper = objectMapper;
+        this.format = new NdjsonEventFormat(objectMapper);
+        try {
+            long length = 0;
+            checkpoint = -1;
+            if (Files.exists(checkpointFile)) {
+                JsonNode storedCheckpoint = objectMapper.readTree(checkpointFile.toFile());
+                checkpoint = storedCheckpoint.get(POSITION).asLong();
+                length = storedCheckpoint.get(LENGTH).asLong();
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(length);
+            channel.position(length);
+        } catch (IOException e) {
+            throw new UpcastMigrationException("Unable to open event file [" + file + "]", e);
+        }
+    }
+
+    @Override
+    public long lastCheckpoint() {
+        return checkpoint;
+    }
+
+    @Override
+    public Map<String, Long> lastSequenceNumbers(Set<String> aggregateIdentifiers) {
+        if (lastSequenceNumbers == null) {
+            lastSequenceNumbers = readLastSequenceNumbers();
+        }
+        Map<String, Long> result = new HashMap<>();
+        for (String aggregateIdentifier : aggregateIdentifiers) {
+            Long lastSequenceNumber = lastSequenceNumbers.get(aggregateIdentifier);
+            if (lastSequenceNumber != null) {
+                result.put(aggregateIdentifier, lastSequenceNumber);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Long> readLastSequenceNumbers() {
+        Map<String, Long> result = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                DomainEventData<byte[]> event = format.read(line);
+                result.merge(event.getAggregateIdentifier(), event.getSequenceNumber(), Math::max);
+            }
+        } catch (IOException e) {
+            throw new UpcastMigrationException("Unable to read the last sequence numbers from [" + file + "]", e);
+        }
+        return result;
+    }
+
+    @Override
+    public void write(List<? extends DomainEventData<byte[]>> events, long checkpoint) {
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (DomainEventData<byte[]> event : events) {
+                lines.append(format.write(event)).append('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            writeCheckpoint(checkpoint, channel.position());
+        } catch (IOException e) {
+            throw new UpcastMigrationException("Unable to write events to [" + file + "]", e);
+        }
+        this.checkpoint = checkpoint;
+        if (lastSequenceNumbers != null) {
+            for (DomainEventData<byte[]> event : events) {
+                lastSequenceNumbers.merge(event.getAggregateIdentifier(), event.getSequenceNumber(), Math::max);
+            }
+        }
+    }
+
+    private void writeCheckpoint(long position, long length) throws IOException {
+        Path temporaryFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        byte[] content = objectMapper.writeValueAsBytes(
+                objectMapper.createObjectNode().put(POSITION, position).put(LENGTH, length)
+        );
+        try (FileChannel checkpointChannel = FileChannel.open(temporaryFile,
+                                                              StandardOpenOption.CREATE,
+                                                              StandardOpenOption.TRUNCATE_EXISTING,
+                                                              StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                checkpointChannel.write(buffer);
+            }
+            checkpointChannel.force(false);
+        }
+        Files.move(temporaryFile, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,80 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedDomainEventData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * A {@link MigrationEventSource} reading events from a newline delimited JSON file, holding one event per line. The
+ * position of an event is its zero based line number.
+ * <p>
+ * The file is read line by line, so it may be larger than the available memory.
+ */
+public class NdjsonEventSource implements MigrationEventSource {
+
+    private final Path file;
+    private final NdjsonEventFormat format;
+
+    /**
+     * Initializes a source reading the events from the given {@code file}.
+     *
+     * @param file the newline delimited JSON file to read the events from
+     */
+    public NdjsonEventSource(Path file) {
+        this(file, new ObjectMapper());
+    }
+
+    /**
+     * Initializes a source reading the events from the given {@code file}, parsing them with the given {@code
+     * objectMapper}.
+     *
+     * @param file         the newline delimited JSON file to read the events from
+     * @param objectMapper the {@link ObjectMapper} to parse the events with
+     */
+    public NdjsonEventSource(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.format = new NdjsonEventFormat(objectMapper);
+    }
+
+    @Override
+    public Stream<TrackedDomainEventData<byte[]>> readEvents(long afterPosition) {
+        BufferedReader reader;
+        try {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UpcastMigrationException("Unable to open event file [" + file + "]", e);
+        }
+        AtomicLong position = new AtomicLong(afterPosition);
+        return reader.lines()
+                     .skip(afterPosition + 1)
+                     .map(line -> toEvent(line, position.incrementAndGet()))
+                     .onClose(() -> close(reader));
+    }
+
+    private TrackedDomainEventData<byte[]> toEvent(String line, long position) {
+        try {
+            return new TrackedDomainEventData<>(new GlobalSequenceTrackingToken(position), format.read(line));
+        } catch (IOException e) {
+            throw new UpcastMigrationException(
+                    "Unable to read the event at line [" + position + "] of [" + file + "]", e
+            );
+        }
+    }
+
+    private void close(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedDomainEventData;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Offline migration reading all events from a {@link MigrationEventSource}, upcasting them with an {@link
+ * EventUpcasterChain}, and writing them to a {@link MigrationEventSink} at their latest revision. Once the entire
+ * history has been migrated and the application uses the new store, replays no longer need to upcast anything.
+ * <p>
+ * Events are read lazily and migrated in batches of {@code batchSize} source events. After every batch the sink stores
+ * a checkpoint, from which a later run resumes. The memory used is thus bounded by the batch size, regardless of the
+ * size of the event store.
+ * <p>
+ * An upcaster may split up a single event into several events. To keep the event identifiers unique, the first event
+ * keeps the identifier of the original event, while every subsequent event gets an identifier derived from the
+ * original identifier and its index. As a result, running the migration twice yields the same identifiers. To keep
+ * the sequence numbers of an aggregate consecutive, the sequence numbers of all subsequent events of that aggregate are
+ * shifted accordingly. Note that snapshots refer to the original sequence numbers, and should thus not be migrated.
+ * <p>
+ * The last sequence numbers written for the most recently migrated aggregates are cached. For the other aggregates of
+ * a batch, the sink is asked once per batch. Aggregates whose first event in the batch has sequence number {@code 0}
+ * are left out, as nothing can have been written for them yet.
+ */
+public class UpcastMigration {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int SEQUENCE_NUMBER_CACHE_SIZE = 10_000;
+
+    private final MigrationEventSource source;
+    private final MigrationEventSink sink;
+    private final EventUpcasterChain upcasterChain;
+    private final Serializer serializer;
+    private final int batchSize;
+    private final Map<String, Long> lastSequenceNumbers = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        private static final long serialVersionUID = -3180937153532744431L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > SEQUENCE_NUMBER_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Initializes a migration of all events in the given {@code source} to the given {@code sink}, using the {@link
+     * EventUpcasterChainFactory#buildEventUpcasterChain()} and the {@link JacksonSerializer}.
+     *
+     * @param source the store to read the events to migrate from
+     * @param sink   the store to write the migrated events to
+     */
+    public UpcastMigration(MigrationEventSource source, MigrationEventSink sink) {
+        this(source,
+             sink,
+             EventUpcasterChainFactory.buildEventUpcasterChain(),
+             JacksonSerializer.defaultSerializer(),
+             DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Initializes a migration of all events in the given {@code source} to the given {@code sink}.
+     *
+     * @param source        the store to read the events to migrate from
+     * @param sink          the store to write the migrated events to
+     * @param upcasterChain the upcaster chain to upcast the events with
+     * @param serializer    the serializer the events in the {@code source} are serialized with
+     * @param batchSize     the number of source events to migrate between checkpoints
+     */
+    public UpcastMigration(MigrationEventSource source,
+                           MigrationEventSink sink,
+                           EventUpcasterChain upcasterChain,
+                           Serializer serializer,
+                           int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size should be positive");
+        }
+        this.source = source;
+        this.sink = sink;
+        this.upcasterChain = upcasterChain;
+        this.serializer = serializer;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Migrates all events after the last checkpoint of the sink.
+     *
+     * @return the {@link MigrationResult} of this run
+     */
+    public MigrationResult run() {
+        long checkpoint = sink.lastCheckpoint();
+        long eventsRead = 0;
+        long eventsWritten = 0;
+        try (Stream<TrackedDomainEventData<byte[]>> events = source.readEvents(checkpoint)) {
+            Iterator<TrackedDomainEventData<byte[]>> iterator = events.iterator();
+            List<TrackedDomainEventData<byte[]>> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    checkpoint = position(batch.get(batch.size() - 1));
+                    eventsWritten += migrate(batch, checkpoint);
+                    eventsRead += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        return new MigrationResult(eventsRead, eventsWritten, checkpoint);
+    }
+
+    private static long position(TrackedDomainEventData<?> event) {
+        return ((GlobalSequenceTrackingToken) event.trackingToken()).getGlobalIndex();
+    }
+
+    private int migrate(List<TrackedDomainEventData<byte[]>> batch, long checkpoint) {
+        List<IntermediateEventRepresentation> upcastEvents =
+                upcasterChain.upcast(batch.stream().map(event -> new InitialEventRepresentation(event, serializer)))
+                             .collect(Collectors.toList());
+
+        Map<String, Long> storedSequenceNumbers = storedSequenceNumbers(upcastEvents);
+        Map<String, Long> batchSequenceNumbers = new HashMap<>();
+        List<DomainEventData<byte[]>> migratedEvents = new ArrayList<>(upcastEvents.size());
+        String previousIdentifier = null;
+        int splitIndex = 0;
+        for (IntermediateEventRepresentation event : upcastEvents) {
+            String sourceIdentifier = event.getMessageIdentifier();
+            splitIndex = sourceIdentifier.equals(previousIdentifier) ? splitIndex + 1 : 0;
+            previousIdentifier = sourceIdentifier;
+            String eventIdentifier = splitIndex == 0 ? sourceIdentifier : splitIdentifier(sourceIdentifier, splitIndex);
+
+            String aggregateIdentifier = event.getAggregateIdentifier().orElse(eventIdentifier);
+            long sequenceNumber =
+                    nextSequenceNumber(aggregateIdentifier, event, batchSequenceNumbers, storedSequenceNumbers);
+            batchSequenceNumbers.put(aggregateIdentifier, sequenceNumber);
+
+            SerializedType type = event.getType();
+            migratedEvents.add(new GenericDomainEventEntry<>(
+                    event.getAggregateType().orElse(null),
+                    aggregateIdentifier,
+                    sequenceNumber,
+                    eventIdentifier,
+                    event.getTimestamp(),
+                    type.getName(),
+                    type.getRevision(),
+                    event.getData(byte[].class).getData(),
+                    serializer.serialize(event.getMetaData().getObject(), byte[].class).getData()
+            ));
+        }
+
+        sink.write(migratedEvents, checkpoint);
+        lastSequenceNumbers.putAll(batchSequenceNumbers);
+        return migratedEvents.size();
+    }
+
+    /**
+     * Returns the last sequence numbers stored in the sink for the aggregates of the given {@code upcastEvents} that
+     * are not cached, and may have been written already.
+     */
+    private Map<String, Long> storedSequenceNumbers(List<IntermediateEventRepresentation> upcastEvents) {
+        Set<String> batchAggregates = new HashSet<>();
+        Set<String> unknownAggregates = new HashSet<>();
+        for (IntermediateEventRepresentation event : upcastEvents) {
+            if (!event.getAggregateIdentifier().isPresent()) {
+                continue;
+            }
+            String aggregateIdentifier = event.getAggregateIdentifier().get();
+            if (batchAggregates.add(aggregateIdentifier)
+                    && event.getSequenceNumber().orElse(0L) > 0
+                    && !lastSequenceNumbers.containsKey(aggregateIdentifier)) {
+                unknownAggregates.add(aggregateIdentifier);
+            }
+        }
+        return unknownAggregates.isEmpty()
+                ? Collections.emptyMap()
+                : sink.lastSequenceNumbers(unknownAggregates);
+    }
+
+    private static String splitIdentifier(String sourceIdentifier, int splitIndex) {
+        byte[] name = (sourceIdentifier + "#" + splitIndex).getBytes(StandardCharsets.UTF_8);
+        return UUID.nameUUIDFromBytes(name).toString();
+    }
+
+    /**
+     * Returns the sequence number following the last one written for the given aggregate, or the original sequence
+     * number of the {@code event} if nothing has been written for the aggregate yet.
+     */
+    private long nextSequenceNumber(String aggregateIdentifier,
+                                    IntermediateEventRepresentation event,
+                                    Map<String, Long> batchSequenceNumbers,
+                                    Map<String, Long> storedSequenceNumbers) {
+        Long lastSequenceNumber = batchSequenceNumbers.get(aggregateIdentifier);
+        if (lastSequenceNumber == null) {
+            lastSequenceNumber = lastSequenceNumbers.get(aggregateIdentifier);
+        }
+        if (lastSequenceNumber == null) {
+            lastSequenceNumber = storedSequenceNumbers.get(aggregateIdentifier);
+        }
+        return lastSequenceNumber == null ? event.getSequenceNumber().orElse(0L) : lastSequenceNumber + 1;
+    }
+
+    /**
+     * The outcome of a single {@link UpcastMigration#run()}.
+     */
+    public static class MigrationResult {
+
+        private final long eventsRead;
+        private final long eventsWritten;
+        private final long checkpoint;
+
+        MigrationResult(long eventsRead, long eventsWritten, long checkpoint) {
+            this.eventsRead = eventsRead;
+            this.eventsWritten = eventsWritten;
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * Returns the number of events read from the source during this run.
+         *
+         * @return the number of events read from the source
+         */
+        public long getEventsRead() {
+            return eventsRead;
+        }
+
+        /**
+         * Returns the number of events written to the sink during this run.
+         *
+         * @return the number of events written to the sink
+         */
+        public long getEventsWritten() {
+            return eventsWritten;
+        }
+
+        /**
+         * Returns the position of the last source event migrated, or {@code -1} if nothing has been migrated.
+         *
+         * @return the position of the last source event migrated
+         */
+        public long getCheckpoint() {
+            return checkpoint;
+        }
+
+        @Override
+        public String toString() {
+            return "MigrationResult{eventsRead=" + eventsRead + ", eventsWritten=" + eventsWritten
+                    + ", checkpoint=" + checkpoint + "}";
+        }
+    }
+}
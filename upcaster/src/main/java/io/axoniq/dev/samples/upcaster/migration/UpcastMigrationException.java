@@ -0,0 +1,22 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import org.axonframework.common.AxonNonTransientException;
+
+/**
+ * Exception thrown when an {@link UpcastMigration} fails to read from its source or write to its sink. The migration
+ * can be resumed from its last checkpoint once the cause has been resolved.
+ */
+public class UpcastMigrationException extends AxonNonTransientException {
+
+    private static final long serialVersionUID = 7245983045378516728L;
+
+    /**
+     * Initializes the exception using the given {@code message} and {@code cause}.
+     *
+     * @param message the message describing the exception
+     * @param cause   the underlying cause of the exception
+     */
+    public UpcastMigrationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,53 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import org.axonframework.common.jdbc.ConnectionProvider;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.DriverManager;
+
+/**
+ * Command line entry point running an {@link UpcastMigration} with the upcasters of this application.
+ * <p>
+ * Supports migrating a newline delimited JSON event file to another file:
+ * <pre>
+ * ndjson &lt;source-file&gt; &lt;target-file&gt;
+ * </pre>
+ * And migrating a JDBC event table to another table with the same schema, which should exist already:
+ * <pre>
+ * jdbc &lt;jdbc-url&gt; &lt;user&gt; &lt;password&gt; &lt;source-table&gt; &lt;target-table&gt;
+ * </pre>
+ * Running the same command again resumes the migration from its last checkpoint.
+ */
+public class UpcastMigrationTool {
+
+    private static final String USAGE = "Usage:\n"
+            + "  ndjson <source-file> <target-file>\n"
+            + "  jdbc <jdbc-url> <user> <password> <source-table> <target-table>";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && "ndjson".equals(args[0])) {
+            try (NdjsonEventSink sink = new NdjsonEventSink(Paths.get(args[2]))) {
+                run(new UpcastMigration(new NdjsonEventSource(Paths.get(args[1])), sink));
+            }
+        } else if (args.length == 6 && "jdbc".equals(args[0])) {
+            ConnectionProvider connectionProvider = () -> DriverManager.getConnection(args[1], args[2], args[3]);
+            JdbcEventSink sink = new JdbcEventSink(
+                    connectionProvider, args[5], "upcast_migration_checkpoint", args[4] + "_to_" + args[5]
+            );
+            sink.createCheckpointTable();
+            run(new UpcastMigration(new JdbcEventSource(connectionProvider, args[4], 1000), sink));
+        } else {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    private static void run(UpcastMigration migration) {
+        long start = System.currentTimeMillis();
+        UpcastMigration.MigrationResult result = migration.run();
+        System.out.println("Migrated " + result.getEventsRead() + " events into " + result.getEventsWritten()
+                                   + " events in " + (System.currentTimeMillis() - start) + " ms, up to position "
+                                   + result.getCheckpoint());
+    }
+}
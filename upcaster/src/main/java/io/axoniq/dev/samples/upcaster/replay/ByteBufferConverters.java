@@ -0,0 +1,87 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.axonframework.serialization.ChainingConverter;
+import org.axonframework.serialization.CannotConvertBetweenTypesException;
+import org.axonframework.serialization.ContentTypeConverter;
+import org.axonframework.serialization.json.JacksonSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Utility class teaching a {@link JacksonSerializer} to read payloads and meta data held in a {@link ByteBuffer}, like
+ * the slices of a {@link MappedEventDump}.
+ * <p>
+ * A {@code ByteBuffer} is parsed into a {@link JsonNode} straight from the buffer. Only upcasters working on {@code
+ * byte[]} payloads, like the streaming upcasters, require the buffer to be copied onto the heap.
+ */
+public abstract class ByteBufferConverters {
+
+    /**
+     * Registers the {@code ByteBuffer} converters with the {@link ChainingConverter} of the given {@code serializer}.
+     *
+     * @param serializer the serializer to register the converters with
+     * @return the given {@code serializer}, for fluent interfacing
+     */
+    public static JacksonSerializer register(JacksonSerializer serializer) {
+        ChainingConverter converter = (ChainingConverter) serializer.getConverter();
+        converter.registerConverter(new ByteBufferToByteArrayConverter());
+        converter.registerConverter(new ByteBufferToJsonNodeConverter(serializer.getObjectMapper()));
+        return serializer;
+    }
+
+    private ByteBufferConverters() {
+        // Utility class
+    }
+
+    private static class ByteBufferToByteArrayConverter implements ContentTypeConverter<ByteBuffer, byte[]> {
+
+        @Override
+        public Class<ByteBuffer> expectedSourceType() {
+            return ByteBuffer.class;
+        }
+
+        @Override
+        public Class<byte[]> targetType() {
+            return byte[].class;
+        }
+
+        @Override
+        public byte[] convert(ByteBuffer original) {
+            byte[] bytes = new byte[original.remaining()];
+            original.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+
+    private static class ByteBufferToJsonNodeConverter implements ContentTypeConverter<ByteBuffer, JsonNode> {
+
+        private final ObjectMapper objectMapper;
+
+        private ByteBufferToJsonNodeConverter(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Class<ByteBuffer> expectedSourceType() {
+            return ByteBuffer.class;
+        }
+
+        @Override
+        public Class<JsonNode> targetType() {
+            return JsonNode.class;
+        }
+
+        @Override
+        public JsonNode convert(ByteBuffer original) {
+            try {
+                return objectMapper.readTree(new ByteBufferBackedInputStream(original.duplicate()));
+            } catch (IOException e) {
+                throw new CannotConvertBetweenTypesException("Unable to parse a ByteBuffer into a JsonNode", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.axonframework.serialization.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.axonframework.common.DateTimeUtils.parseInstant;
+
+/**
+ * The record formats a {@link MappedEventDump} can read.
+ */
+public enum DumpFormat {
+
+    /**
+     * Newline delimited JSON, with one event per line in the format of the {@link
+     * io.axoniq.dev.samples.upcaster.migration.NdjsonEventSink}. The payload and meta data are embedded as JSON, of
+     * which the mapped bytes are used as is.
+     */
+    NDJSON {
+        private final JsonFactory jsonFactory = new JsonFactory();
+
+        @Override
+        int recordEnd(ByteBuffer window, int start, boolean endOfFile) {
+            for (int position = start; position < window.limit(); position++) {
+                if (window.get(position) == '\n') {
+                    return position + 1;
+                }
+            }
+            return endOfFile ? window.limit() : -1;
+        }
+
+        @Override
+        MappedEventRecord read(ByteBuffer record) {
+            try (JsonParser parser = jsonFactory.createParser(new ByteBufferBackedInputStream(record.duplicate()))) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    // Blank lines, like the one ending the file, hold no event
+                    return null;
+                }
+                String eventIdentifier = null;
+                String aggregateType = null;
+                String aggregateIdentifier = null;
+                long sequenceNumber = 0;
+                Instant timestamp = null;
+                String payloadType = null;
+                String payloadRevision = null;
+                ByteBuffer payload = null;
+                ByteBuffer metaData = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    switch (fieldName) {
+                        case "eventIdentifier":
+                            eventIdentifier = parser.getValueAsString();
+                            break;
+                        case "aggregateType":
+                            aggregateType = parser.getValueAsString();
+                            break;
+                        case "aggregateIdentifier":
+                            aggregateIdentifier = parser.getValueAsString();
+                            break;
+                        case "sequenceNumber":
+                            sequenceNumber = parser.getValueAsLong();
+                            break;
+                        case "timestamp":
+                            timestamp = parseInstant(parser.getValueAsString());
+                            break;
+                        case "payloadType":
+                            payloadType = parser.getValueAsString();
+                            break;
+                        case "payloadRevision":
+                            payloadRevision = parser.getValueAsString();
+                            break;
+                        case "payload":
+                            payload = valueSlice(parser, record);
+                            break;
+                        case "metaData":
+                            metaData = valueSlice(parser, record);
+                            break;
+                        default:
+                            if (value.isStructStart()) {
+                                parser.skipChildren();
+                            }
+                    }
+                }
+                return new MappedEventRecord(eventIdentifier, aggregateType, aggregateIdentifier, sequenceNumber,
+                                             timestamp, payloadType, payloadRevision, payload, metaData);
+            } catch (IOException e) {
+                throw new SerializationException("Unable to read an event from a newline delimited JSON dump", e);
+            }
+        }
+
+        /**
+         * Returns the slice of the given {@code record} holding the value the given {@code parser} points to.
+         */
+        private ByteBuffer valueSlice(JsonParser parser, ByteBuffer record) throws IOException {
+            int start = (int) parser.getTokenLocation().getByteOffset();
+            parser.skipChildren();
+            // Scalar values are read lazily, so the parser may not have reached their end yet
+            parser.finishToken();
+            int end = (int) parser.getCurrentLocation().getByteOffset();
+            return slice(record, start, end);
+        }
+    },
+
+    /**
+     * A binary format, in which every record starts with its length in bytes. All numbers are big endian, and strings
+     * are UTF-8 bytes preceded by their length, or length {@code -1} for {@code null}. A record holds, in order:
+     * <ol>
+     *     <li>the length of the rest of the record as an {@code int},</li>
+     *     <li>the event identifier, aggregate type and aggregate identifier as strings,</li>
+     *     <li>the sequence number as a {@code long},</li>
+     *     <li>the timestamp as the epoch second {@code long} and nanosecond {@code int},</li>
+     *     <li>the payload type and payload revision as strings,</li>
+     *     <li>the length of the payload as an {@code int}, followed by the payload,</li>
+     *     <li>the length of the meta data as an {@code int}, followed by the meta data.</li>
+     * </ol>
+     * The {@link LengthPrefixedDumpWriter} writes events in this format.
+     */
+    LENGTH_PREFIXED {
+        @Override
+        int recordEnd(ByteBuffer window, int start, boolean endOfFile) {
+            if (window.limit() - start < Integer.BYTES) {
+                return -1;
+            }
+            long end = (long) start + Integer.BYTES + window.getInt(start);
+            return end <= window.limit() ? (int) end : -1;
+        }
+
+        @Override
+        MappedEventRecord read(ByteBuffer record) {
+            ByteBuffer buffer = record.duplicate();
+            buffer.position(buffer.position() + Integer.BYTES);
+            String eventIdentifier = readString(buffer);
+            String aggregateType = readString(buffer);
+            String aggregateIdentifier = readString(buffer);
+            long sequenceNumber = buffer.getLong();
+            Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            String payloadType = readString(buffer);
+            String payloadRevision = readString(buffer);
+            ByteBuffer payload = readBytes(buffer);
+            ByteBuffer metaData = readBytes(buffer);
+            return new MappedEventRecord(eventIdentifier, aggregateType, aggregateIdentifier, sequenceNumber,
+                                         timestamp, payloadType, payloadRevision, payload, metaData);
+        }
+
+        private String readString(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            String value;
+            if (buffer.hasArray()) {
+                value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                                   StandardCharsets.UTF_8);
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.duplicate().get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        private ByteBuffer readBytes(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            ByteBuffer bytes = slice(buffer, buffer.position(), buffer.position() + length);
+            buffer.position(buffer.position() + length);
+            return bytes;
+        }
+    };
+
+    /**
+     * Returns the position right after the record starting at {@code start} in the given {@code window}, or {@code -1}
+     * if the record does not end within the window.
+     *
+     * @param window    the mapped part of the dump
+     * @param start     the position of the record in the {@code window}
+     * @param endOfFile whether the {@code window} ends at the end of the dump
+     * @return the position right after the record, or {@code -1} if the record does not end within the {@code window}
+     */
+    abstract int recordEnd(ByteBuffer window, int start, boolean endOfFile);
+
+    /**
+     * Reads the event in the given {@code record}, which spans from its position to its limit.
+     *
+     * @param record the bytes of a single record
+     * @return the event in the given {@code record}, or {@code null} if the record holds no event
+     */
+    abstract MappedEventRecord read(ByteBuffer record);
+
+    /**
+     * Returns a slice of the given {@code buffer} from the absolute {@code start} to the absolute {@code end}, sharing
+     * its content.
+     */
+    static ByteBuffer slice(ByteBuffer buffer, int start, int end) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(end);
+        slice.position(start);
+        return slice.slice();
+    }
+}
@@ -0,0 +1,74 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import org.axonframework.eventhandling.DomainEventData;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Writes events to a dump in the {@link DumpFormat#LENGTH_PREFIXED} format.
+ */
+public class LengthPrefixedDumpWriter implements Closeable {
+
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(recordBuffer);
+
+    /**
+     * Creates a writer replacing the contents of the given {@code file}.
+     *
+     * @param file the file to write the dump to
+     * @throws IOException if the file cannot be opened
+     */
+    public LengthPrefixedDumpWriter(Path file) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    /**
+     * Appends the given {@code event} to the dump.
+     *
+     * @param event the event to append
+     * @throws IOException if writing the event fails
+     */
+    public void write(DomainEventData<byte[]> event) throws IOException {
+        recordBuffer.reset();
+        writeString(event.getEventIdentifier());
+        writeString(event.getType());
+        writeString(event.getAggregateIdentifier());
+        record.writeLong(event.getSequenceNumber());
+        Instant timestamp = event.getTimestamp();
+        record.writeLong(timestamp.getEpochSecond());
+        record.writeInt(timestamp.getNano());
+        writeString(event.getPayload().getType().getName());
+        writeString(event.getPayload().getType().getRevision());
+        writeBytes(event.getPayload().getData());
+        writeBytes(event.getMetaData().getData());
+        output.writeInt(recordBuffer.size());
+        recordBuffer.writeTo(output);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            record.writeInt(-1);
+        } else {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        record.writeInt(bytes.length);
+        record.write(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
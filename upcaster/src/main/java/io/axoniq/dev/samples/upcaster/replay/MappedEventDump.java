@@ -0,0 +1,170 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A dump of serialized events in a file that is memory mapped instead of read.
+ * <p>
+ * The file is mapped in windows of at most {@link #DEFAULT_WINDOW_SIZE} bytes, so dumps beyond the 2 GB a single
+ * mapping can hold are supported. When a record crosses the end of a window, the next window starts at that record.
+ * Every event is handed out as a {@link MappedEventRecord}, of which the payload and meta data are slices of the
+ * mapped window. Events thus are not copied onto the heap while they are read.
+ */
+public class MappedEventDump implements Closeable {
+
+    /**
+     * The maximum number of bytes mapped at once, which is also the maximum size of a single record.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final DumpFormat format;
+    private final int windowSize;
+
+    /**
+     * Opens the dump in the given {@code file}, of which the records are in the given {@code format}.
+     *
+     * @param file   the file holding the dump
+     * @param format the {@link DumpFormat} of the records in the dump
+     * @return the opened dump
+     * @throws IOException if the file cannot be opened
+     */
+    public static MappedEventDump open(Path file, DumpFormat format) throws IOException {
+        return new MappedEventDump(file, format, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedEventDump(Path file, DumpFormat format, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.format = format;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Returns the size of the dump in bytes.
+     *
+     * @return the size of the dump in bytes
+     * @throws IOException if the size cannot be determined
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Returns a stream of all events in the dump, in order.
+     *
+     * @return a stream of all events in the dump, in order
+     */
+    public Stream<DomainEventData<ByteBuffer>> records() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new RecordIterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        );
+    }
+
+    /**
+     * Returns a stream of all events in the dump as the {@link InitialEventRepresentation}s the upcaster chain
+     * receives when reading from an event store. The given {@code serializer} should be able to convert {@link
+     * ByteBuffer}s, as the {@link ByteBufferConverters} allow.
+     *
+     * @param serializer the serializer converting the payload and meta data of the events
+     * @return a stream of all events in the dump as {@link InitialEventRepresentation}s
+     */
+    public Stream<IntermediateEventRepresentation> events(Serializer serializer) {
+        return records().map(record -> new InitialEventRepresentation(record, serializer));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private class RecordIterator implements Iterator<DomainEventData<ByteBuffer>> {
+
+        private ByteBuffer window;
+        private long windowStart;
+        private MappedEventRecord next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = readNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public DomainEventData<ByteBuffer> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            MappedEventRecord record = next;
+            next = null;
+            return record;
+        }
+
+        private MappedEventRecord readNext() {
+            try {
+                long fileSize = channel.size();
+                if (window == null) {
+                    map(0, fileSize);
+                }
+                while (true) {
+                    boolean endOfFile = windowStart + window.limit() == fileSize;
+                    int start = window.position();
+                    if (start == window.limit()) {
+                        if (endOfFile) {
+                            return null;
+                        }
+                        map(windowStart + start, fileSize);
+                        continue;
+                    }
+                    int end = format.recordEnd(window, start, endOfFile);
+                    if (end < 0) {
+                        if (endOfFile) {
+                            throw new SerializationException(
+                                    "The dump ends within the record at position [" + (windowStart + start) + "]"
+                            );
+                        } else if (start == 0) {
+                            throw new SerializationException(
+                                    "The record at position [" + windowStart + "] exceeds the window size of ["
+                                            + windowSize + "] bytes"
+                            );
+                        }
+                        map(windowStart + start, fileSize);
+                        continue;
+                    }
+                    window.position(end);
+                    MappedEventRecord record = format.read(DumpFormat.slice(window, start, end));
+                    if (record != null) {
+                        return record;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void map(long position, long fileSize) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, fileSize - position));
+        }
+    }
+}
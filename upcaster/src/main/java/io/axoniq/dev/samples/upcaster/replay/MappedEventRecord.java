@@ -0,0 +1,82 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.SimpleSerializedType;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * A {@link DomainEventData} of a single record in a memory mapped event dump.
+ * <p>
+ * The payload and meta data are slices of the mapped file, so they are not copied onto the heap until an upcaster or
+ * handler converts them.
+ */
+class MappedEventRecord implements DomainEventData<ByteBuffer> {
+
+    private static final SimpleSerializedType META_DATA_TYPE = new SimpleSerializedType(MetaData.class.getName(), null);
+
+    private final String eventIdentifier;
+    private final String aggregateType;
+    private final String aggregateIdentifier;
+    private final long sequenceNumber;
+    private final Instant timestamp;
+    private final SerializedObject<ByteBuffer> payload;
+    private final SerializedObject<ByteBuffer> metaData;
+
+    MappedEventRecord(String eventIdentifier,
+                      String aggregateType,
+                      String aggregateIdentifier,
+                      long sequenceNumber,
+                      Instant timestamp,
+                      String payloadType,
+                      String payloadRevision,
+                      ByteBuffer payload,
+                      ByteBuffer metaData) {
+        this.eventIdentifier = eventIdentifier;
+        this.aggregateType = aggregateType;
+        this.aggregateIdentifier = aggregateIdentifier;
+        this.sequenceNumber = sequenceNumber;
+        this.timestamp = timestamp;
+        this.payload = new SimpleSerializedObject<>(payload, ByteBuffer.class, payloadType, payloadRevision);
+        this.metaData = new SimpleSerializedObject<>(metaData, ByteBuffer.class, META_DATA_TYPE);
+    }
+
+    @Override
+    public String getType() {
+        return aggregateType;
+    }
+
+    @Override
+    public String getAggregateIdentifier() {
+        return aggregateIdentifier;
+    }
+
+    @Override
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    @Override
+    public String getEventIdentifier() {
+        return eventIdentifier;
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public SerializedObject<ByteBuffer> getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public SerializedObject<ByteBuffer> getPayload() {
+        return payload;
+    }
+}
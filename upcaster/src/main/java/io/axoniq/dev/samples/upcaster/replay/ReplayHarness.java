@@ -0,0 +1,147 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Replays a {@link MappedEventDump} through an {@link EventUpcasterChain}, measuring the throughput, the allocations
+ * and the garbage collections along the way.
+ * <p>
+ * Every event the chain produces is converted into a {@link JsonNode}, as an event handler deserializing the payload
+ * would. Allocations are measured for the replaying thread only, so allocations on other threads, like those of a
+ * {@link io.axoniq.dev.samples.upcaster.json.ParallelEventUpcasterChain}, are not included.
+ */
+public class ReplayHarness {
+
+    private final EventUpcasterChain upcasterChain;
+    private final JacksonSerializer serializer;
+
+    /**
+     * Construct a harness replaying events through the given {@code upcasterChain}, registering the {@link
+     * ByteBufferConverters} with the given {@code serializer}.
+     *
+     * @param upcasterChain the upcaster chain to replay the events through
+     * @param serializer    the serializer converting the payload and meta data of the events
+     */
+    public ReplayHarness(EventUpcasterChain upcasterChain, JacksonSerializer serializer) {
+        this.upcasterChain = upcasterChain;
+        this.serializer = ByteBufferConverters.register(serializer);
+    }
+
+    /**
+     * Replays all events in the given {@code dump}.
+     *
+     * @param dump the dump to replay
+     * @return a {@link ReplayReport} of the replay
+     * @throws IOException if the dump cannot be read
+     */
+    public ReplayReport replay(MappedEventDump dump) throws IOException {
+        LongAdder eventsRead = new LongAdder();
+        LongAdder eventsUpcast = new LongAdder();
+        try (GcRecorder gcRecorder = new GcRecorder()) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            upcasterChain.upcast(dump.events(serializer).peek(event -> eventsRead.increment()))
+                         .forEach(representation -> {
+                             representation.getType();
+                             representation.getData(JsonNode.class).getData();
+                             eventsUpcast.increment();
+                         });
+            long elapsedNanos = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+            return new ReplayReport(eventsRead.sum(),
+                                    eventsUpcast.sum(),
+                                    dump.size(),
+                                    elapsedNanos,
+                                    allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore,
+                                    gcRecorder.collections(),
+                                    gcRecorder.collectionTimeMillis(),
+                                    gcRecorder.maxPauseMillis());
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationMXBean.isThreadAllocatedMemorySupported()
+                    && allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records the garbage collections from its construction until it is closed. The count and accumulated time are
+     * taken from the {@link GarbageCollectorMXBean}s, while the longest pause is taken from the notifications of every
+     * single collection.
+     */
+    private static class GcRecorder implements NotificationListener, AutoCloseable {
+
+        private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        private final long countBefore;
+        private final long timeBefore;
+        private final AtomicLong maxPause = new AtomicLong();
+
+        private GcRecorder() {
+            this.countBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+            this.timeBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+            for (GarbageCollectorMXBean collector : collectors) {
+                if (collector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+                }
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                long duration = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+                                                                 .getGcInfo()
+                                                                 .getDuration();
+                maxPause.accumulateAndGet(duration, Math::max);
+            }
+        }
+
+        private long collections() {
+            return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum() - countBefore;
+        }
+
+        private long collectionTimeMillis() {
+            return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum() - timeBefore;
+        }
+
+        private long maxPauseMillis() {
+            return maxPause.get();
+        }
+
+        @Override
+        public void close() {
+            for (GarbageCollectorMXBean collector : collectors) {
+                if (collector instanceof NotificationEmitter) {
+                    try {
+                        ((NotificationEmitter) collector).removeNotificationListener(this);
+                    } catch (ListenerNotFoundException e) {
+                        // Nothing to remove
+                    }
+                }
+            }
+        }
+    }
+}
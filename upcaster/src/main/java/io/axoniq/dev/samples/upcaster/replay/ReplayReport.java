@@ -0,0 +1,143 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a replay by the {@link ReplayHarness}, covering the throughput, the allocations of the replaying
+ * thread and the garbage collections during the replay.
+ */
+public class ReplayReport {
+
+    private final long eventsRead;
+    private final long eventsUpcast;
+    private final long dumpBytes;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final long maxGcPauseMillis;
+
+    ReplayReport(long eventsRead,
+                 long eventsUpcast,
+                 long dumpBytes,
+                 long elapsedNanos,
+                 long allocatedBytes,
+                 long gcCount,
+                 long gcTimeMillis,
+                 long maxGcPauseMillis) {
+        this.eventsRead = eventsRead;
+        this.eventsUpcast = eventsUpcast;
+        this.dumpBytes = dumpBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.maxGcPauseMillis = maxGcPauseMillis;
+    }
+
+    /**
+     * Returns the number of events read from the dump.
+     *
+     * @return the number of events read from the dump
+     */
+    public long getEventsRead() {
+        return eventsRead;
+    }
+
+    /**
+     * Returns the number of events the upcaster chain produced, which differs from {@link #getEventsRead()} when
+     * upcasters split or remove events.
+     *
+     * @return the number of events the upcaster chain produced
+     */
+    public long getEventsUpcast() {
+        return eventsUpcast;
+    }
+
+    /**
+     * Returns the time the replay took in nanoseconds.
+     *
+     * @return the time the replay took in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of bytes the replaying thread allocated, or {@code -1} if the JVM does not support measuring
+     * this.
+     *
+     * @return the number of bytes the replaying thread allocated, or {@code -1} if unsupported
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the number of garbage collections during the replay.
+     *
+     * @return the number of garbage collections during the replay
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Returns the accumulated time of the garbage collections during the replay in milliseconds.
+     *
+     * @return the accumulated time of the garbage collections during the replay in milliseconds
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * Returns the duration of the longest garbage collection during the replay in milliseconds.
+     *
+     * @return the duration of the longest garbage collection during the replay in milliseconds
+     */
+    public long getMaxGcPauseMillis() {
+        return maxGcPauseMillis;
+    }
+
+    /**
+     * Returns the number of events read from the dump per second.
+     *
+     * @return the number of events read from the dump per second
+     */
+    public double getEventsPerSecond() {
+        return perSecond(eventsRead);
+    }
+
+    /**
+     * Returns the number of bytes the replaying thread allocated per second, or {@code -1} if unsupported.
+     *
+     * @return the number of bytes the replaying thread allocated per second, or {@code -1} if unsupported
+     */
+    public double getAllocationRate() {
+        return allocatedBytes < 0 ? -1 : perSecond(allocatedBytes);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * 1_000_000_000d / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        double seconds = elapsedNanos / 1_000_000_000d;
+        return String.format(
+                Locale.ROOT,
+                "Replayed %d events (%.1f MB) into %d events in %.3f s%n"
+                        + "  throughput:      %.0f events/s, %.1f MB/s%n"
+                        + "  allocations:     %s%n"
+                        + "  garbage collect: %d collections, %d ms in total, %d ms longest",
+                eventsRead, dumpBytes / 1_000_000d, eventsUpcast, seconds,
+                getEventsPerSecond(), perSecond(dumpBytes) / 1_000_000d,
+                allocatedBytes < 0
+                        ? "unsupported by this JVM"
+                        : String.format(Locale.ROOT, "%.1f MB/s, %.0f bytes/event", getAllocationRate() / 1_000_000d,
+                                        eventsRead == 0 ? 0d : (double) allocatedBytes / eventsRead),
+                gcCount, gcTimeMillis, maxGcPauseMillis
+        );
+    }
+}
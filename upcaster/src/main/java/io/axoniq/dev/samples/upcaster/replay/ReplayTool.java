@@ -0,0 +1,114 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import io.axoniq.dev.samples.upcaster.migration.NdjsonEventSource;
+import org.axonframework.eventhandling.TrackedDomainEventData;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Command line entry point replaying a memory mapped dump of serialized events through the upcaster chain of this
+ * application, without an event store.
+ * <p>
+ * Replays a newline delimited JSON or length prefixed dump, optionally through another chain of the {@link
+ * EventUpcasterChainFactory} than the {@code default} one:
+ * <pre>
+ * replay &lt;ndjson|length-prefixed&gt; &lt;dump-file&gt; [default|streaming|type-indexed|fused|parallel|lazy|rules]
+ * </pre>
+ * And converts a newline delimited JSON dump into a length prefixed dump, which is faster to read:
+ * <pre>
+ * convert &lt;ndjson-file&gt; &lt;length-prefixed-file&gt;
+ * </pre>
+ * Run with {@code -Xlog:gc} or {@code -verbose:gc} for the details of every garbage collection.
+ */
+public class ReplayTool {
+
+    private static final String USAGE = "Usage:\n"
+            + "  replay <ndjson|length-prefixed> <dump-file> "
+            + "[default|streaming|type-indexed|fused|parallel|lazy|rules]\n"
+            + "  convert <ndjson-file> <length-prefixed-file>";
+
+    public static void main(String[] args) throws IOException {
+        if ((args.length == 3 || args.length == 4) && "replay".equals(args[0])) {
+            DumpFormat format = dumpFormat(args[1]);
+            ReplayHarness harness = new ReplayHarness(
+                    upcasterChain(args.length == 4 ? args[3] : "default"), JacksonSerializer.defaultSerializer()
+            );
+            try (MappedEventDump dump = MappedEventDump.open(Paths.get(args[2]), format)) {
+                System.out.println(harness.replay(dump));
+            }
+        } else if (args.length == 3 && "convert".equals(args[0])) {
+            System.out.println("Converted " + convert(Paths.get(args[1]), Paths.get(args[2])) + " events");
+        } else {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the {@link DumpFormat} of the given {@code name}, as given on the command line.
+     *
+     * @param name the name of the dump format, being {@code ndjson} or {@code length-prefixed}
+     * @return the {@link DumpFormat} of the given {@code name}
+     * @throws IllegalArgumentException if no dump format has the given {@code name}
+     */
+    static DumpFormat dumpFormat(String name) {
+        switch (name) {
+            case "ndjson":
+                return DumpFormat.NDJSON;
+            case "length-prefixed":
+                return DumpFormat.LENGTH_PREFIXED;
+            default:
+                throw new IllegalArgumentException("Unknown dump format [" + name + "]\n" + USAGE);
+        }
+    }
+
+    private static EventUpcasterChain upcasterChain(String name) {
+        switch (name) {
+            case "default":
+                return EventUpcasterChainFactory.buildEventUpcasterChain();
+            case "streaming":
+                return EventUpcasterChainFactory.buildStreamingEventUpcasterChain();
+            case "type-indexed":
+                return EventUpcasterChainFactory.buildTypeIndexedEventUpcasterChain();
+            case "fused":
+                return EventUpcasterChainFactory.buildFusedEventUpcasterChain();
+            case "parallel":
+                return EventUpcasterChainFactory.buildParallelEventUpcasterChain();
+            case "lazy":
+                return EventUpcasterChainFactory.buildLazyEventUpcasterChain();
+            case "rules":
+                return EventUpcasterChainFactory.buildRuleBasedEventUpcasterChain();
+            default:
+                throw new IllegalArgumentException("Unknown upcaster chain [" + name + "]\n" + USAGE);
+        }
+    }
+
+    /**
+     * Converts the newline delimited JSON dump in the given {@code source} into a length prefixed dump in the given
+     * {@code target}.
+     *
+     * @param source the newline delimited JSON dump to convert
+     * @param target the file to write the length prefixed dump to
+     * @return the number of converted events
+     * @throws IOException if reading or writing a dump fails
+     */
+    static long convert(Path source, Path target) throws IOException {
+        long converted = 0;
+        try (LengthPrefixedDumpWriter writer = new LengthPrefixedDumpWriter(target);
+             Stream<TrackedDomainEventData<byte[]>> events = new NdjsonEventSource(source).readEvents(-1)) {
+            Iterator<TrackedDomainEventData<byte[]>> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                converted++;
+            }
+        }
+        return converted;
+    }
+}
@@ -0,0 +1,85 @@
+package io.axoniq.dev.samples.upcaster.rules;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.axoniq.dev.samples.upcaster.json.RevisionUpcaster;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Upcaster compiled from an {@link UpcastingRule}, moving one event type from one revision to the next.
+ * <p>
+ * The payload is rewritten straight from {@code byte[]} to {@code byte[]} in a single streaming pass. Being a {@link
+ * RevisionUpcaster}, consecutive compiled rules of one event type can be fused by the {@link
+ * io.axoniq.dev.samples.upcaster.json.RevisionChainFuser}.
+ */
+public class CompiledRevisionUpcaster extends SingleEventUpcaster implements RevisionUpcaster<byte[]> {
+
+    // Room for the fields a rule adds, preventing a resize of the output buffer
+    private static final int OUTPUT_OVERHEAD = 64;
+
+    private final SerializedType sourceType;
+    private final SerializedType targetType;
+    private final JsonFactory jsonFactory;
+    private final FieldRewritePlan plan;
+
+    CompiledRevisionUpcaster(SerializedType sourceType,
+                             SerializedType targetType,
+                             JsonFactory jsonFactory,
+                             FieldRewritePlan plan) {
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+        this.jsonFactory = jsonFactory;
+        this.plan = plan;
+    }
+
+    @Override
+    public SerializedType sourceType() {
+        return sourceType;
+    }
+
+    @Override
+    public SerializedType targetType() {
+        return targetType;
+    }
+
+    @Override
+    public Class<byte[]> payloadType() {
+        return byte[].class;
+    }
+
+    @Override
+    protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+        return intermediateRepresentation.getType().equals(sourceType);
+    }
+
+    @Override
+    protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+        return intermediateRepresentation.upcastPayload(targetType, byte[].class, this::transformPayload);
+    }
+
+    @Override
+    public byte[] transformPayload(byte[] payload) {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return payload;
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length + OUTPUT_OVERHEAD);
+            try (JsonGenerator generator = jsonFactory.createGenerator(output)) {
+                generator.writeStartObject();
+                plan.rewriteFields(parser, generator);
+                generator.writeEndObject();
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Unable to upcast the payload of a [" + sourceType + "]", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.axoniq.dev.samples.upcaster.rules;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.axoniq.dev.samples.upcaster.json.MaterializedEventRepresentation;
+import io.axoniq.dev.samples.upcaster.json.SourceTypeAwareUpcaster;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.upcasting.event.EventMultiUpcaster;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Upcaster compiled from an {@link UpcastingRule}, splitting every event into one event per entry of an object field.
+ * <p>
+ * The original payload is parsed once, setting the rewritten shared fields straight on a tree and reading the object
+ * field into a tree. Every resulting payload is a copy of the shared fields holding the key and value of one entry,
+ * where the last entry takes the shared fields themselves. Just like the single parse split of the {@link
+ * io.axoniq.dev.samples.upcaster.json.PassengerSeatsToPassengerSeatAdjustedEventUpcaster}, the resulting events are
+ * materialized right away as trees, as they no longer depend on the original payload. Their payloads are only written
+ * in the serialized format when a downstream upcaster or handler asks for it.
+ * <p>
+ * An event without an object in the split field cannot be split, and fails with a {@link SerializationException}, as
+ * it does with the hand-written upcaster. Dropping it instead would lose the event for good once the upcast events are
+ * written back, like the {@link io.axoniq.dev.samples.upcaster.migration.UpcastMigration} does. An empty object splits
+ * into no events.
+ */
+public class CompiledSplitUpcaster extends EventMultiUpcaster implements SourceTypeAwareUpcaster {
+
+    private final SerializedType sourceType;
+    private final SerializedType targetType;
+    private final ObjectMapper objectMapper;
+    private final Converter converter;
+    private final FieldRewritePlan plan;
+    private final String splitField;
+    private final String keyField;
+    private final String valueField;
+
+    CompiledSplitUpcaster(SerializedType sourceType,
+                          SerializedType targetType,
+                          ObjectMapper objectMapper,
+                          Converter converter,
+                          FieldRewritePlan plan,
+                          String splitField,
+                          String keyField,
+                          String valueField) {
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+        this.objectMapper = objectMapper;
+        this.converter = converter;
+        this.plan = plan;
+        this.splitField = splitField;
+        this.keyField = keyField;
+        this.valueField = valueField;
+    }
+
+    @Override
+    public Set<SerializedType> sourceTypes() {
+        return Collections.singleton(sourceType);
+    }
+
+    @Override
+    public Optional<Set<SerializedType>> targetTypes() {
+        return Optional.of(Collections.singleton(targetType));
+    }
+
+    @Override
+    protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+        return intermediateRepresentation.getType().equals(sourceType);
+    }
+
+    @Override
+    protected Stream<IntermediateEventRepresentation> doUpcast(IntermediateEventRepresentation intermediateRep) {
+        byte[] payload = intermediateRep.getData(byte[].class).getData();
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Stream.of(intermediateRep);
+            }
+            ObjectNode sharedFields = objectMapper.createObjectNode();
+            ObjectNode entries = plan.rewriteFields(parser, sharedFields);
+            if (entries == null) {
+                throw new SerializationException(
+                        "Unable to split a [" + sourceType + "], as it has no object in field [" + splitField + "]"
+                );
+            }
+            return split(intermediateRep, sharedFields, entries).stream();
+        } catch (IOException e) {
+            throw new SerializationException("Unable to upcast the payload of a [" + sourceType + "]", e);
+        }
+    }
+
+    private List<IntermediateEventRepresentation> split(IntermediateEventRepresentation intermediateRep,
+                                                        ObjectNode sharedFields,
+                                                        ObjectNode entries) {
+        List<IntermediateEventRepresentation> result = new ArrayList<>(entries.size());
+        Iterator<Map.Entry<String, JsonNode>> entryIterator = entries.fields();
+        while (entryIterator.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entryIterator.next();
+            ObjectNode data = entryIterator.hasNext() ? sharedFields.deepCopy() : sharedFields;
+            data.set(keyField, new TextNode(entry.getKey()));
+            data.set(valueField, entry.getValue());
+            result.add(new MaterializedEventRepresentation(
+                    targetType, new SimpleSerializedObject<>(data, JsonNode.class, targetType), intermediateRep, converter
+            ));
+        }
+        return result;
+    }
+}
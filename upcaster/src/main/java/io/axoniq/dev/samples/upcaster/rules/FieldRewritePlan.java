@@ -0,0 +1,283 @@
+package io.axoniq.dev.samples.upcaster.rules;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compiled form of the field rules of an {@link UpcastingRule}, rewriting the fields of a payload object in a
+ * single pass from a {@link JsonParser} to either a {@link JsonGenerator} or an {@link ObjectNode}.
+ * <p>
+ * Compiling resolves every rule to an action per source field name up front. Rewriting a field thus takes a single
+ * lookup, after which the field is copied, renamed, held on to for a nested object, dropped, or collected for a split.
+ * Fields without a rule are copied as is. Nested objects and defaults are written after all other fields.
+ */
+final class FieldRewritePlan {
+
+    private static final int COPY = 0;
+    private static final int RENAME = 1;
+    private static final int NEST = 2;
+    private static final int DROP = 3;
+    private static final int SPLIT = 4;
+
+    private final Map<String, FieldAction> actions = new HashMap<>();
+    private final String[] nestedObjects;
+    private final String[][] nestedFields;
+    private final int nestedFieldCount;
+    private final String[] defaultFields;
+    private final Object[] defaultValues;
+    private final JsonNode[] defaultNodes;
+
+    FieldRewritePlan(Map<String, String> renames,
+                     Map<String, List<String>> nests,
+                     Map<String, Object> defaults,
+                     String splitField) {
+        this.defaultFields = defaults.keySet().toArray(new String[0]);
+        this.defaultValues = defaults.values().toArray();
+        this.defaultNodes = new JsonNode[defaultValues.length];
+        ObjectMapper objectMapper = defaultValues.length == 0 ? null : new ObjectMapper();
+        for (int i = 0; i < defaultValues.length; i++) {
+            defaultNodes[i] = defaultValues[i] == null
+                    ? NullNode.getInstance()
+                    : objectMapper.valueToTree(defaultValues[i]);
+        }
+        for (Map.Entry<String, String> rename : renames.entrySet()) {
+            String outputName = rename.getValue();
+            actions.put(rename.getKey(), new FieldAction(RENAME, outputName, -1, defaultIndex(outputName)));
+        }
+        this.nestedObjects = nests.keySet().toArray(new String[0]);
+        this.nestedFields = new String[nestedObjects.length][];
+        int slot = 0;
+        for (int i = 0; i < nestedObjects.length; i++) {
+            nestedFields[i] = nests.get(nestedObjects[i]).toArray(new String[0]);
+            // The nested object replaces a field of the same name in the source
+            actions.put(nestedObjects[i], new FieldAction(DROP, null, -1, -1));
+            for (String nestedField : nestedFields[i]) {
+                actions.put(nestedField, new FieldAction(NEST, nestedField, slot++, -1));
+            }
+        }
+        this.nestedFieldCount = slot;
+        if (splitField != null) {
+            actions.put(splitField, new FieldAction(SPLIT, null, -1, -1));
+        }
+        for (int i = 0; i < defaultFields.length; i++) {
+            actions.putIfAbsent(defaultFields[i], new FieldAction(COPY, defaultFields[i], -1, i));
+        }
+    }
+
+    /**
+     * Returns the index of the default for the given output {@code field}, or {@code -1} if it has no default.
+     */
+    private int defaultIndex(String field) {
+        for (int i = 0; i < defaultFields.length; i++) {
+            if (defaultFields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rewrites the fields of the object the given {@code parser} just started, up to and including its end, and writes
+     * them to the given {@code generator}. The caller writes the start and end of the object itself.
+     *
+     * @param parser    the parser positioned at the start of the payload object
+     * @param generator the generator to write the rewritten fields to
+     * @return the object of the split field read as a tree, or {@code null} if there is no split field in the payload.
+     * Reading the split field requires the {@code parser} to have an {@link com.fasterxml.jackson.databind.ObjectMapper}
+     * as its codec
+     * @throws IOException if reading or writing the payload fails
+     */
+    ObjectNode rewriteFields(JsonParser parser, JsonGenerator generator) throws IOException {
+        Object[] nestedValues = nestedFieldCount == 0 ? null : new Object[nestedFieldCount];
+        boolean[] writtenDefaults = defaultFields.length == 0 ? null : new boolean[defaultFields.length];
+        ObjectNode splitEntries = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            FieldAction action = actions.get(fieldName);
+            if (action == null) {
+                generator.writeFieldName(fieldName);
+                generator.copyCurrentStructure(parser);
+                continue;
+            }
+            switch (action.kind) {
+                case COPY:
+                case RENAME:
+                    generator.writeFieldName(action.outputName);
+                    generator.copyCurrentStructure(parser);
+                    if (action.defaultIndex >= 0) {
+                        writtenDefaults[action.defaultIndex] = true;
+                    }
+                    break;
+                case NEST:
+                    nestedValues[action.slot] = readValue(parser);
+                    break;
+                case SPLIT:
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        splitEntries = parser.readValueAsTree();
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        int slot = 0;
+        for (int i = 0; i < nestedObjects.length; i++) {
+            generator.writeObjectFieldStart(nestedObjects[i]);
+            for (String nestedField : nestedFields[i]) {
+                writeValue(generator, nestedField, nestedValues[slot++]);
+            }
+            generator.writeEndObject();
+        }
+        for (int i = 0; i < defaultFields.length; i++) {
+            if (!writtenDefaults[i]) {
+                generator.writeFieldName(defaultFields[i]);
+                generator.writeObject(defaultValues[i]);
+            }
+        }
+        return splitEntries;
+    }
+
+    /**
+     * Rewrites the fields of the object the given {@code parser} just started, up to and including its end, and sets
+     * them on the given {@code target}. Scalar values are turned into nodes directly, only objects and arrays are read
+     * as a tree through the codec of the {@code parser}.
+     *
+     * @param parser the parser positioned at the start of the payload object, with an {@link ObjectMapper} as its codec
+     * @param target the object to set the rewritten fields on
+     * @return the object of the split field read as a tree, or {@code null} if there is no split field in the payload
+     * @throws IOException if reading the payload fails
+     */
+    ObjectNode rewriteFields(JsonParser parser, ObjectNode target) throws IOException {
+        JsonNode[] nestedValues = nestedFieldCount == 0 ? null : new JsonNode[nestedFieldCount];
+        boolean[] writtenDefaults = defaultFields.length == 0 ? null : new boolean[defaultFields.length];
+        ObjectNode splitEntries = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            FieldAction action = actions.get(fieldName);
+            if (action == null) {
+                target.set(fieldName, readNode(parser));
+                continue;
+            }
+            switch (action.kind) {
+                case COPY:
+                case RENAME:
+                    target.set(action.outputName, readNode(parser));
+                    if (action.defaultIndex >= 0) {
+                        writtenDefaults[action.defaultIndex] = true;
+                    }
+                    break;
+                case NEST:
+                    nestedValues[action.slot] = readNode(parser);
+                    break;
+                case SPLIT:
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        splitEntries = parser.readValueAsTree();
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        int slot = 0;
+        for (int i = 0; i < nestedObjects.length; i++) {
+            ObjectNode nestedObject = target.putObject(nestedObjects[i]);
+            for (String nestedField : nestedFields[i]) {
+                // A missing field is set as a null node
+                nestedObject.set(nestedField, nestedValues[slot++]);
+            }
+        }
+        for (int i = 0; i < defaultFields.length; i++) {
+            if (!writtenDefaults[i]) {
+                target.set(defaultFields[i], defaultNodes[i]);
+            }
+        }
+        return splitEntries;
+    }
+
+    /**
+     * Reads the value the given {@code parser} points to as a node. Strings, booleans, nulls and integers that fit a
+     * {@code long} are turned into a node directly, any other value is read by the codec of the {@code parser}.
+     */
+    private static JsonNode readNode(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_STRING:
+                return TextNode.valueOf(parser.getText());
+            case VALUE_TRUE:
+                return BooleanNode.TRUE;
+            case VALUE_FALSE:
+                return BooleanNode.FALSE;
+            case VALUE_NULL:
+                return NullNode.getInstance();
+            case VALUE_NUMBER_INT:
+                if (parser.getNumberType() == JsonParser.NumberType.INT) {
+                    return IntNode.valueOf(parser.getIntValue());
+                }
+                if (parser.getNumberType() == JsonParser.NumberType.LONG) {
+                    return LongNode.valueOf(parser.getLongValue());
+                }
+                return parser.readValueAsTree();
+            default:
+                return parser.readValueAsTree();
+        }
+    }
+
+    /**
+     * Reads the value the given {@code parser} points to. Textual values are kept as a {@link String}, any other value
+     * is buffered as is in a {@link TokenBuffer}.
+     */
+    private static Object readValue(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        TokenBuffer buffer = new TokenBuffer(parser);
+        buffer.copyCurrentStructure(parser);
+        return buffer;
+    }
+
+    private static void writeValue(JsonGenerator generator, String fieldName, Object value) throws IOException {
+        generator.writeFieldName(fieldName);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else {
+            ((TokenBuffer) value).serialize(generator);
+        }
+    }
+
+    private static final class FieldAction {
+
+        private final int kind;
+        private final String outputName;
+        private final int slot;
+        private final int defaultIndex;
+
+        private FieldAction(int kind, String outputName, int slot, int defaultIndex) {
+            this.kind = kind;
+            this.outputName = outputName;
+            this.slot = slot;
+            this.defaultIndex = defaultIndex;
+        }
+    }
+}
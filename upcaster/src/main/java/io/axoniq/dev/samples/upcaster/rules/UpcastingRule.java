@@ -0,0 +1,177 @@
+package io.axoniq.dev.samples.upcaster.rules;
+
+import io.axoniq.dev.samples.upcaster.json.JacksonFormat;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.SimpleSerializedType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declarative specification of the schema change of one event type, compiled into an upcaster instead of writing one
+ * by hand.
+ * <p>
+ * A rule combines any number of field rules on the top level fields of the payload:
+ * <ul>
+ *     <li>{@link #rename(String, String)} moves the value of a field to a field with another name,</li>
+ *     <li>{@link #nest(String, String...)} moves fields into a new object, like the {@code "leg"} of the
+ *     {@code FlightDelayedEvent},</li>
+ *     <li>{@link #setDefault(String, Object)} adds a field with a fixed value when the payload does not have it.</li>
+ * </ul>
+ * Completing a rule with {@link #toRevision(String)} compiles it into a {@link CompiledRevisionUpcaster} moving the
+ * event to a new revision. Completing it with {@link #splitInto(String, String, String, String, String)} compiles it
+ * into a {@link CompiledSplitUpcaster}, splitting the entries of an object field into separate events, like the
+ * {@code "passengerSeats"} of the {@code PassengerSeatsAdjustedEvent}.
+ * <p>
+ * Compiling resolves all rules to a single action per source field, applied while streaming through the serialized
+ * payload once. Contrary to a hand-written {@link com.fasterxml.jackson.databind.JsonNode} upcaster, the payload is
+ * never parsed into a tree, and the cost of a rule does not grow with the number of field rules it combines.
+ */
+public class UpcastingRule {
+
+    private final SerializedType sourceType;
+    private final Map<String, String> renames = new LinkedHashMap<>();
+    private final Map<String, List<String>> nests = new LinkedHashMap<>();
+    private final Map<String, Object> defaults = new LinkedHashMap<>();
+    private final Set<String> handledFields = new HashSet<>();
+    private JacksonFormat format = JacksonFormat.JSON;
+
+    /**
+     * Starts a rule for events of the given {@code typeName} and {@code revision}.
+     *
+     * @param typeName the type name of the events to upcast
+     * @param revision the revision of the events to upcast, or {@code null} for events without revision
+     * @return a rule for events of the given {@code typeName} and {@code revision}
+     */
+    public static UpcastingRule forEvent(String typeName, String revision) {
+        return new UpcastingRule(new SimpleSerializedType(typeName, revision));
+    }
+
+    private UpcastingRule(SerializedType sourceType) {
+        this.sourceType = sourceType;
+    }
+
+    /**
+     * Sets the {@link JacksonFormat} the events are stored in. Defaults to {@link JacksonFormat#JSON}.
+     *
+     * @param format the {@link JacksonFormat} the events are stored in
+     * @return this rule, for fluent interfacing
+     */
+    public UpcastingRule format(JacksonFormat format) {
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Moves the value of the given {@code field} to a field named {@code newName}. The payload should not contain a
+     * field named {@code newName} already.
+     *
+     * @param field   the name of the field to rename
+     * @param newName the new name of the field
+     * @return this rule, for fluent interfacing
+     */
+    public UpcastingRule rename(String field, String newName) {
+        handle(field);
+        renames.put(field, newName);
+        return this;
+    }
+
+    /**
+     * Moves the given {@code fields} into a new object named {@code objectField}, which is added after all other
+     * fields. Fields missing in the payload are set to {@code null} in the new object. A field named {@code
+     * objectField} in the payload is replaced by the new object.
+     *
+     * @param objectField the name of the object to move the {@code fields} into
+     * @param fields      the names of the fields to move into the object
+     * @return this rule, for fluent interfacing
+     */
+    public UpcastingRule nest(String objectField, String... fields) {
+        handle(objectField);
+        for (String field : fields) {
+            handle(field);
+        }
+        nests.put(objectField, new ArrayList<>(Arrays.asList(fields)));
+        return this;
+    }
+
+    /**
+     * Adds a field named {@code field} with the given {@code value} to every payload that does not contain it, after
+     * all other fields. A field renamed to {@code field} counts as being contained.
+     *
+     * @param field the name of the field to default
+     * @param value the default value, being {@code null}, a {@link String}, a {@link Number} or a {@link Boolean}
+     * @return this rule, for fluent interfacing
+     */
+    public UpcastingRule setDefault(String field, Object value) {
+        if (value != null && !(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+            throw new IllegalArgumentException(
+                    "The default of field [" + field + "] should be a String, Number or Boolean, but was ["
+                            + value.getClass().getName() + "]"
+            );
+        }
+        if (handledFields.contains(field)) {
+            throw new IllegalArgumentException("Field [" + field + "] is already moved by another rule");
+        }
+        defaults.put(field, value);
+        return this;
+    }
+
+    /**
+     * Compiles this rule into an upcaster moving the events to the given {@code revision}.
+     *
+     * @param revision the revision of the upcast events
+     * @return a {@link CompiledRevisionUpcaster} applying this rule
+     */
+    public CompiledRevisionUpcaster toRevision(String revision) {
+        return new CompiledRevisionUpcaster(sourceType,
+                                            new SimpleSerializedType(sourceType.getName(), revision),
+                                            format.jsonFactory(),
+                                            compile(null));
+    }
+
+    /**
+     * Compiles this rule into an upcaster splitting every event into one event of the given {@code typeName} and
+     * {@code revision} per entry of the object in {@code mapField}. Every resulting event contains the fields of the
+     * original event, with the key of the entry in {@code keyField} and the value of the entry in {@code valueField}.
+     * Completing the rule does not change it, so it can be compiled more than once.
+     *
+     * @param typeName   the type name of the resulting events
+     * @param revision   the revision of the resulting events
+     * @param mapField   the name of the object field to split the event on
+     * @param keyField   the name of the field to hold the key of an entry
+     * @param valueField the name of the field to hold the value of an entry
+     * @return a {@link CompiledSplitUpcaster} applying this rule
+     */
+    public CompiledSplitUpcaster splitInto(String typeName,
+                                           String revision,
+                                           String mapField,
+                                           String keyField,
+                                           String valueField) {
+        if (handledFields.contains(mapField) || defaults.containsKey(mapField)) {
+            throw new IllegalArgumentException("Field [" + mapField + "] is already handled by another rule");
+        }
+        return new CompiledSplitUpcaster(sourceType,
+                                         new SimpleSerializedType(typeName, revision),
+                                         format.objectMapper(),
+                                         format.serializer().getConverter(),
+                                         compile(mapField),
+                                         mapField,
+                                         keyField,
+                                         valueField);
+    }
+
+    private void handle(String field) {
+        if (!handledFields.add(field) || defaults.containsKey(field)) {
+            throw new IllegalArgumentException("Field [" + field + "] is already handled by another rule");
+        }
+    }
+
+    private FieldRewritePlan compile(String splitField) {
+        return new FieldRewritePlan(renames, nests, defaults, splitField);
+    }
+}
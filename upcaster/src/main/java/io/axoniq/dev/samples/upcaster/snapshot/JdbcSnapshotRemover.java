@@ -0,0 +1,73 @@
+package io.axoniq.dev.samples.upcaster.snapshot;
+
+import org.axonframework.common.jdbc.ConnectionProvider;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.eventsourcing.eventstore.EventStoreException;
+import org.axonframework.eventsourcing.eventstore.jdbc.EventSchema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A {@link SnapshotRemover} deleting a snapshot from the snapshot table of an {@link EventSchema}, which should be the
+ * schema of the {@link org.axonframework.eventsourcing.eventstore.jdbc.JdbcEventStorageEngine}.
+ * <p>
+ * Like the {@link org.axonframework.eventsourcing.eventstore.jdbc.JdbcEventStorageEngine}, the snapshot is deleted in a
+ * transaction of the given {@link TransactionManager}, which is separate from the one storing its upcast version.
+ * Should storing fail, the aggregate is loaded from its events until the next snapshot is taken, as if it never had a
+ * snapshot.
+ */
+public class JdbcSnapshotRemover implements SnapshotRemover {
+
+    private final ConnectionProvider connectionProvider;
+    private final TransactionManager transactionManager;
+    private final EventSchema schema;
+
+    /**
+     * Initializes a remover deleting snapshots from the snapshot table of the default {@link EventSchema}.
+     *
+     * @param connectionProvider the {@link ConnectionProvider} to obtain a connection to the event store with
+     * @param transactionManager the {@link TransactionManager} to delete the snapshots in a transaction with
+     */
+    public JdbcSnapshotRemover(ConnectionProvider connectionProvider, TransactionManager transactionManager) {
+        this(connectionProvider, transactionManager, new EventSchema());
+    }
+
+    /**
+     * Initializes a remover deleting snapshots from the snapshot table of the given {@code schema}.
+     *
+     * @param connectionProvider the {@link ConnectionProvider} to obtain a connection to the event store with
+     * @param transactionManager the {@link TransactionManager} to delete the snapshots in a transaction with
+     * @param schema             the {@link EventSchema} of the event store
+     */
+    public JdbcSnapshotRemover(ConnectionProvider connectionProvider,
+                               TransactionManager transactionManager,
+                               EventSchema schema) {
+        this.connectionProvider = connectionProvider;
+        this.transactionManager = transactionManager;
+        this.schema = schema;
+    }
+
+    @Override
+    public void remove(String aggregateIdentifier, long sequenceNumber) {
+        transactionManager.executeInTransaction(() -> delete(aggregateIdentifier, sequenceNumber));
+    }
+
+    private void delete(String aggregateIdentifier, long sequenceNumber) {
+        try (Connection connection = connectionProvider.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM " + schema.snapshotTable() + " WHERE " + schema.aggregateIdentifierColumn()
+                             + " = ? AND " + schema.sequenceNumberColumn() + " = ?"
+             )) {
+            statement.setString(1, aggregateIdentifier);
+            statement.setLong(2, sequenceNumber);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new EventStoreException(
+                    "Unable to remove the snapshot of aggregate [" + aggregateIdentifier + "] with sequence number ["
+                            + sequenceNumber + "]", e
+            );
+        }
+    }
+}
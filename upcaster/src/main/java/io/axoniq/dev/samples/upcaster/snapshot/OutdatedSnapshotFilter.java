@@ -0,0 +1,79 @@
+package io.axoniq.dev.samples.upcaster.snapshot;
+
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.eventsourcing.snapshotting.SnapshotFilter;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.UnknownSerializedType;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SnapshotFilter} recognizing snapshots stored with an older revision than the current revision of their
+ * payload class.
+ * <p>
+ * The filter does not reject any snapshot, as the upcaster chain of the {@link
+ * org.axonframework.eventsourcing.eventstore.EventStorageEngine} moves an outdated snapshot to the current revision
+ * when reading it. Instead, it remembers the outdated snapshot of an aggregate, for the {@link
+ * SnapshotWriteBackEventStorageEngine} to write back once it has been upcast. Hence this filter should only be
+ * configured on an engine decorated by a {@link SnapshotWriteBackEventStorageEngine}, which clears the remembered
+ * snapshots again.
+ * <p>
+ * The current revision of every payload type is resolved once, as resolving the class of a type is relatively costly.
+ */
+public class OutdatedSnapshotFilter implements SnapshotFilter {
+
+    private final Serializer serializer;
+    private final Map<String, Optional<String>> currentRevisions = new ConcurrentHashMap<>();
+    private final Map<String, Long> outdatedSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a filter resolving the current revision of the snapshot payloads with the given {@code serializer},
+     * being the snapshot serializer of the storage engine.
+     *
+     * @param serializer the {@link Serializer} resolving the current revision of the snapshot payloads
+     */
+    public OutdatedSnapshotFilter(Serializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    public boolean test(DomainEventData<?> snapshotData) {
+        SerializedType storedType = snapshotData.getPayload().getType();
+        Optional<String> currentRevision = currentRevisions.computeIfAbsent(storedType.getName(), this::resolveRevision);
+        if (currentRevision.isPresent() && !currentRevision.get().equals(revisionOf(storedType))) {
+            outdatedSnapshots.put(snapshotData.getAggregateIdentifier(), snapshotData.getSequenceNumber());
+        }
+        return true;
+    }
+
+    /**
+     * Returns the current revision of the given {@code typeName}, or an empty {@link Optional} if the type is unknown.
+     * An empty revision of a known type is represented by an empty {@link String}, as a {@code null} value cannot be
+     * cached.
+     */
+    private Optional<String> resolveRevision(String typeName) {
+        Class<?> payloadClass = serializer.classForType(new SimpleSerializedType(typeName, null));
+        if (UnknownSerializedType.class.equals(payloadClass)) {
+            return Optional.empty();
+        }
+        return Optional.of(revisionOf(serializer.typeForClass(payloadClass)));
+    }
+
+    private static String revisionOf(SerializedType type) {
+        return type.getRevision() == null ? "" : type.getRevision();
+    }
+
+    /**
+     * Removes the outdated snapshot remembered for the given {@code aggregateIdentifier}, if any.
+     *
+     * @param aggregateIdentifier the identifier of the aggregate to remove the outdated snapshot of
+     * @return the sequence number of the outdated snapshot, or {@code null} if the aggregate has none
+     */
+    Long removeOutdated(String aggregateIdentifier) {
+        return outdatedSnapshots.remove(aggregateIdentifier);
+    }
+}
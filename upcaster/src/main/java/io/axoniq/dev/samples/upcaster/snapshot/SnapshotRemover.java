@@ -0,0 +1,29 @@
+package io.axoniq.dev.samples.upcaster.snapshot;
+
+/**
+ * Removes a single stored snapshot, so the {@link SnapshotWriteBackEventStorageEngine} can store its upcast version
+ * under the same sequence number.
+ * <p>
+ * Storage engines replacing a snapshot with the same sequence number when storing it, like the {@link
+ * org.axonframework.eventsourcing.eventstore.jpa.JpaEventStorageEngine}, need no remover. Others keep the stored
+ * snapshot, like the {@link org.axonframework.eventsourcing.eventstore.jdbc.JdbcEventStorageEngine}, for which the
+ * {@link JdbcSnapshotRemover} removes the outdated snapshot first.
+ */
+@FunctionalInterface
+public interface SnapshotRemover {
+
+    /**
+     * A remover not removing anything, for storage engines replacing a snapshot with the same sequence number.
+     */
+    SnapshotRemover NONE = (aggregateIdentifier, sequenceNumber) -> {
+    };
+
+    /**
+     * Removes the snapshot of the aggregate with the given {@code aggregateIdentifier} with the given {@code
+     * sequenceNumber}.
+     *
+     * @param aggregateIdentifier the identifier of the aggregate to remove the snapshot of
+     * @param sequenceNumber      the sequence number of the snapshot to remove
+     */
+    void remove(String aggregateIdentifier, long sequenceNumber);
+}
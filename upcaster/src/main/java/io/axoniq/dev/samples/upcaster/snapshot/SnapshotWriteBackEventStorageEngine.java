@@ -0,0 +1,143 @@
+package io.axoniq.dev.samples.upcaster.snapshot;
+
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * An {@link EventStorageEngine} decorator writing snapshots back once they have been upcast, so every outdated
+ * snapshot is upcast only once instead of on every load of its aggregate.
+ * <p>
+ * Axon's storage engines already pass snapshots through their upcaster chain when reading them, so upcasting a
+ * snapshot only takes registering upcasters for the snapshot payload types in that chain. The decorated engine should
+ * be configured with the {@link OutdatedSnapshotFilter} given to this decorator, which recognizes the snapshots read
+ * with an older revision. After such a snapshot has been read, the decorator stores the upcast snapshot, which is
+ * serialized with the current revision, in place of the outdated one. The {@link SnapshotRemover} removes the outdated
+ * snapshot first, for storage engines not replacing a snapshot with the same sequence number.
+ * <p>
+ * Writing back is a best effort: a failure is logged, after which the upcast snapshot is still returned. All other
+ * operations are delegated as is.
+ */
+public class SnapshotWriteBackEventStorageEngine implements EventStorageEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotWriteBackEventStorageEngine.class);
+
+    private final EventStorageEngine delegate;
+    private final OutdatedSnapshotFilter outdatedSnapshotFilter;
+    private final SnapshotRemover snapshotRemover;
+    private final AtomicLong writtenBack = new AtomicLong();
+
+    /**
+     * Decorates the given {@code delegate}, which replaces a snapshot with the same sequence number when storing it.
+     *
+     * @param delegate               the {@link EventStorageEngine} to decorate
+     * @param outdatedSnapshotFilter the {@link OutdatedSnapshotFilter} the {@code delegate} is configured with
+     */
+    public SnapshotWriteBackEventStorageEngine(EventStorageEngine delegate,
+                                               OutdatedSnapshotFilter outdatedSnapshotFilter) {
+        this(delegate, outdatedSnapshotFilter, SnapshotRemover.NONE);
+    }
+
+    /**
+     * Decorates the given {@code delegate}, removing outdated snapshots with the given {@code snapshotRemover} before
+     * writing them back.
+     *
+     * @param delegate               the {@link EventStorageEngine} to decorate
+     * @param outdatedSnapshotFilter the {@link OutdatedSnapshotFilter} the {@code delegate} is configured with
+     * @param snapshotRemover        the {@link SnapshotRemover} removing an outdated snapshot before writing it back
+     */
+    public SnapshotWriteBackEventStorageEngine(EventStorageEngine delegate,
+                                               OutdatedSnapshotFilter outdatedSnapshotFilter,
+                                               SnapshotRemover snapshotRemover) {
+        this.delegate = delegate;
+        this.outdatedSnapshotFilter = outdatedSnapshotFilter;
+        this.snapshotRemover = snapshotRemover;
+    }
+
+    @Override
+    public Optional<DomainEventMessage<?>> readSnapshot(String aggregateIdentifier) {
+        Optional<DomainEventMessage<?>> snapshot;
+        Long outdatedSequenceNumber;
+        try {
+            snapshot = delegate.readSnapshot(aggregateIdentifier);
+        } finally {
+            outdatedSequenceNumber = outdatedSnapshotFilter.removeOutdated(aggregateIdentifier);
+        }
+        if (snapshot.isPresent() && outdatedSequenceNumber != null
+                && outdatedSequenceNumber == snapshot.get().getSequenceNumber()) {
+            writeBack(snapshot.get());
+        }
+        return snapshot;
+    }
+
+    private void writeBack(DomainEventMessage<?> snapshot) {
+        try {
+            snapshotRemover.remove(snapshot.getAggregateIdentifier(), snapshot.getSequenceNumber());
+            delegate.storeSnapshot(snapshot);
+            writtenBack.incrementAndGet();
+        } catch (Exception e) {
+            logger.warn("Unable to write back the upcast snapshot of aggregate [{}] with sequence number [{}]",
+                        snapshot.getAggregateIdentifier(), snapshot.getSequenceNumber(), e);
+        }
+    }
+
+    /**
+     * Returns the number of upcast snapshots this engine has stored with the decorated engine.
+     *
+     * @return the number of upcast snapshots this engine has stored with the decorated engine
+     */
+    public long getWrittenBackCount() {
+        return writtenBack.get();
+    }
+
+    @Override
+    public void appendEvents(List<? extends EventMessage<?>> events) {
+        delegate.appendEvents(events);
+    }
+
+    @Override
+    public void storeSnapshot(DomainEventMessage<?> snapshot) {
+        delegate.storeSnapshot(snapshot);
+    }
+
+    @Override
+    public Stream<? extends TrackedEventMessage<?>> readEvents(TrackingToken trackingToken, boolean mayBlock) {
+        return delegate.readEvents(trackingToken, mayBlock);
+    }
+
+    @Override
+    public DomainEventStream readEvents(String aggregateIdentifier, long firstSequenceNumber) {
+        return delegate.readEvents(aggregateIdentifier, firstSequenceNumber);
+    }
+
+    @Override
+    public Optional<Long> lastSequenceNumberFor(String aggregateIdentifier) {
+        return delegate.lastSequenceNumberFor(aggregateIdentifier);
+    }
+
+    @Override
+    public TrackingToken createTailToken() {
+        return delegate.createTailToken();
+    }
+
+    @Override
+    public TrackingToken createHeadToken() {
+        return delegate.createHeadToken();
+    }
+
+    @Override
+    public TrackingToken createTokenAt(Instant dateTime) {
+        return delegate.createTokenAt(dateTime);
+    }
+}
@@ -0,0 +1,52 @@
+package io.axoniq.dev.samples.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testOfReturnsCanonicalInstance() {
+        Leg result = Leg.of(AirportCode.LAX, AirportCode.LON);
+
+        assertSame(result, Leg.of(AirportCode.LAX, AirportCode.LON));
+        assertNotSame(result, Leg.of(AirportCode.LON, AirportCode.LAX));
+        assertEquals(AirportCode.LAX, result.getOrigin());
+        assertEquals(AirportCode.LON, result.getDestination());
+    }
+
+    @Test
+    void testCanonicalInstanceEqualsConstructedLeg() {
+        Leg constructed = new Leg(AirportCode.AMS, AirportCode.NYC);
+
+        assertEquals(constructed, Leg.of(AirportCode.AMS, AirportCode.NYC));
+        assertEquals(constructed.hashCode(), Leg.of(AirportCode.AMS, AirportCode.NYC).hashCode());
+        assertNotEquals(constructed, Leg.of(AirportCode.NYC, AirportCode.AMS));
+    }
+
+    @Test
+    void testDeserializationReturnsCanonicalInstance() throws IOException {
+        String legJson = "{\"origin\":\"LAX\",\"destination\":\"LON\"}";
+
+        Leg first = objectMapper.readValue(legJson, Leg.class);
+        Leg second = objectMapper.readValue(legJson, Leg.class);
+
+        assertSame(Leg.of(AirportCode.LAX, AirportCode.LON), first);
+        assertSame(first, second);
+        assertEquals(legJson, objectMapper.writeValueAsString(first));
+    }
+
+    @Test
+    void testLegWithMissingAirportIsNotCanonicalized() throws IOException {
+        Leg result = objectMapper.readValue("{\"origin\":\"AMS\"}", Leg.class);
+
+        assertNull(result.getDestination());
+        assertEquals(new Leg(AirportCode.AMS, null), result);
+    }
+}
@@ -0,0 +1,76 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.generateDomainEventData;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFormatUpcastingTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(value = JacksonFormat.class, names = {"SMILE", "CBOR"})
+    void testTreeBasedUpcastersWorkOnBinaryPayloads(JacksonFormat format) throws IOException {
+        assertUpcastsLikeJson(format, EventUpcasterChainFactory.buildEventUpcasterChain());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = JacksonFormat.class, names = {"SMILE", "CBOR"})
+    void testStreamingUpcastersWorkOnBinaryPayloads(JacksonFormat format) throws IOException {
+        assertUpcastsLikeJson(format, EventUpcasterChainFactory.buildStreamingEventUpcasterChain(format));
+    }
+
+    private void assertUpcastsLikeJson(JacksonFormat format, EventUpcasterChain testSubject) throws IOException {
+        List<IntermediateEventRepresentation> expected =
+                EventUpcasterChainFactory.buildEventUpcasterChain()
+                                         .upcast(events(JacksonFormat.JSON).stream())
+                                         .collect(Collectors.toList());
+
+        List<IntermediateEventRepresentation> result = testSubject.upcast(events(format).stream())
+                                                                  .collect(Collectors.toList());
+
+        assertEquals(4, result.size());
+        ObjectMapper formatMapper = format.objectMapper();
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), result.get(i).getType());
+            byte[] upcastPayload = result.get(i).getData(byte[].class).getData();
+            assertNotEquals('{', upcastPayload[0], "The payload should not have been converted to text");
+            assertEquals(expected.get(i).getData(JsonNode.class).getData(), formatMapper.readTree(upcastPayload));
+        }
+    }
+
+    private List<IntermediateEventRepresentation> events(JacksonFormat format) throws IOException {
+        Serializer serializer = format.serializer();
+        ObjectMapper formatMapper = format.objectMapper();
+        return Arrays.asList(
+                new InitialEventRepresentation(generateDomainEventData(
+                        FLIGHT_DELAYED_EVENT_TYPE, null, encode(formatMapper, "/FlightDelayedEventRev_null.json")
+                ), serializer),
+                new InitialEventRepresentation(generateDomainEventData(
+                        PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null, encode(formatMapper, "/PassengerSeatsAdjustedEvent.json")
+                ), serializer)
+        );
+    }
+
+    private byte[] encode(ObjectMapper formatMapper, String fileName) throws IOException {
+        return formatMapper.writeValueAsBytes(jsonMapper.readTree(extractFileContentsToString(fileName)));
+    }
+}
@@ -0,0 +1,130 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.generateDomainEventData;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyEventUpcasterChainTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+
+    private final Serializer serializer = JacksonSerializer.defaultSerializer();
+
+    private IntermediateEventRepresentation flightDelayedEvent;
+    private IntermediateEventRepresentation passengerSeatsAdjustedEvent;
+    private IntermediateEventRepresentation upToDateFlightDelayedEvent;
+
+    @BeforeEach
+    void setUp() {
+        flightDelayedEvent = representationOf(
+                FLIGHT_DELAYED_EVENT_TYPE, null, extractFileContentsToString("/FlightDelayedEventRev_null.json")
+        );
+        passengerSeatsAdjustedEvent = representationOf(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE,
+                                                       null,
+                                                       extractFileContentsToString("/PassengerSeatsAdjustedEvent.json"));
+        upToDateFlightDelayedEvent = representationOf(
+                FLIGHT_DELAYED_EVENT_TYPE, "1.0", extractFileContentsToString("/FlightDelayedEventRev_1.json")
+        );
+    }
+
+    private IntermediateEventRepresentation representationOf(String type, String revision, String payload) {
+        return new InitialEventRepresentation(generateDomainEventData(type, revision, payload), serializer);
+    }
+
+    private LazyEventUpcasterChain lazyChain(CountingRevisionUpcaster countingUpcaster) {
+        return new LazyEventUpcasterChain(
+                new EventUpcasterChain(new FlightDelayedEvent0_to_1Upcaster(), countingUpcaster),
+                serializer.getConverter()
+        );
+    }
+
+    @Test
+    void testTypeIsUpcastWithoutTransformingThePayload() {
+        CountingRevisionUpcaster countingUpcaster = new CountingRevisionUpcaster();
+
+        IntermediateEventRepresentation result = lazyChain(countingUpcaster).upcast(Stream.of(flightDelayedEvent))
+                                                                            .findFirst()
+                                                                            .orElseThrow(IllegalStateException::new);
+
+        assertEquals(new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, "2.0"), result.getType());
+        assertEquals(0, countingUpcaster.transformations.get());
+    }
+
+    @Test
+    void testPayloadIsTransformedOnlyOnce() {
+        CountingRevisionUpcaster countingUpcaster = new CountingRevisionUpcaster();
+
+        IntermediateEventRepresentation result = lazyChain(countingUpcaster).upcast(Stream.of(flightDelayedEvent))
+                                                                            .findFirst()
+                                                                            .orElseThrow(IllegalStateException::new);
+        JsonNode first = result.getData(JsonNode.class).getData();
+        ((ObjectNode) first).remove("leg");
+        JsonNode second = result.getData(JsonNode.class).getData();
+        result.getData();
+
+        assertEquals(1, countingUpcaster.transformations.get());
+        assertTrue(second.has("leg"));
+        assertEquals("2.0", second.get("revision").asText());
+    }
+
+    @Test
+    void testUpcastsIdenticalToRegularChain() {
+        List<IntermediateEventRepresentation> events =
+                Arrays.asList(upToDateFlightDelayedEvent, flightDelayedEvent, passengerSeatsAdjustedEvent);
+        EventUpcasterChain regularChain = EventUpcasterChainFactory.buildEventUpcasterChain();
+        EventUpcasterChain testSubject = EventUpcasterChainFactory.buildLazyEventUpcasterChain();
+
+        List<IntermediateEventRepresentation> expected = regularChain.upcast(events.stream())
+                                                                     .collect(Collectors.toList());
+        List<IntermediateEventRepresentation> result = testSubject.upcast(events.stream())
+                                                                  .collect(Collectors.toList());
+
+        assertEquals(5, result.size());
+        assertSame(upToDateFlightDelayedEvent, result.get(0));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), result.get(i).getType());
+            assertEquals(expected.get(i).getData(JsonNode.class).getData(),
+                         result.get(i).getData(JsonNode.class).getData());
+        }
+    }
+
+    private static class CountingRevisionUpcaster extends SingleEventUpcaster {
+
+        private static final SimpleSerializedType SOURCE = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, "1.0");
+        private static final SimpleSerializedType TARGET = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, "2.0");
+
+        private final AtomicInteger transformations = new AtomicInteger();
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.getType().equals(SOURCE);
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.upcastPayload(TARGET, JsonNode.class, jsonNode -> {
+                transformations.incrementAndGet();
+                return ((ObjectNode) jsonNode).put("revision", "2.0");
+            });
+        }
+    }
+}
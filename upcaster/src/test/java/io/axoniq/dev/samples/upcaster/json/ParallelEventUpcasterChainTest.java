@@ -0,0 +1,149 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.ContextAwareSingleEventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.generateDomainEventData;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelEventUpcasterChainTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+
+    private final Serializer serializer = JacksonSerializer.defaultSerializer();
+
+    private ForkJoinPool pool;
+    private List<IntermediateEventRepresentation> events;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        String flightDelayedPayload = extractFileContentsToString("/FlightDelayedEventRev_null.json");
+        String upToDatePayload = extractFileContentsToString("/FlightDelayedEventRev_1.json");
+        String passengerSeatsPayload = extractFileContentsToString("/PassengerSeatsAdjustedEvent.json");
+        events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(representationOf(FLIGHT_DELAYED_EVENT_TYPE, null, flightDelayedPayload));
+            events.add(representationOf(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null, passengerSeatsPayload));
+            events.add(representationOf(FLIGHT_DELAYED_EVENT_TYPE, "1.0", upToDatePayload));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private IntermediateEventRepresentation representationOf(String type, String revision, String payload) {
+        return new InitialEventRepresentation(generateDomainEventData(type, revision, payload), serializer);
+    }
+
+    @Test
+    void testUpcastsInTheSameOrderAsRegularChain() {
+        EventUpcasterChain regularChain = EventUpcasterChainFactory.buildEventUpcasterChain();
+        ParallelEventUpcasterChain testSubject = new ParallelEventUpcasterChain(
+                EventUpcasterChainFactory.buildEventUpcasterChain(), serializer.getConverter(), 7, 3, pool
+        );
+
+        List<IntermediateEventRepresentation> expected = regularChain.upcast(events.stream())
+                                                                     .collect(Collectors.toList());
+        List<IntermediateEventRepresentation> result = testSubject.upcast(events.stream())
+                                                                  .collect(Collectors.toList());
+
+        assertEquals(500, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getMessageIdentifier(), result.get(i).getMessageIdentifier());
+            assertEquals(expected.get(i).getType(), result.get(i).getType());
+            assertEquals(expected.get(i).getData(JsonNode.class).getData(),
+                         result.get(i).getData(JsonNode.class).getData());
+        }
+    }
+
+    @Test
+    void testUpcastEventsAreMaterialized() {
+        ParallelEventUpcasterChain testSubject = new ParallelEventUpcasterChain(
+                EventUpcasterChainFactory.buildEventUpcasterChain(), serializer.getConverter(), 2, pool
+        );
+
+        List<IntermediateEventRepresentation> result = testSubject.upcast(events.subList(0, 3).stream())
+                                                                  .collect(Collectors.toList());
+
+        assertTrue(result.get(0) instanceof MaterializedEventRepresentation);
+        assertEquals("1.0", result.get(0).getType().getRevision());
+        assertTrue(result.get(0).getData(JsonNode.class).getData().has("leg"));
+        assertSame(events.get(2), result.get(result.size() - 1));
+    }
+
+    @Test
+    void testUpcastingExceptionIsRethrownToConsumer() {
+        ParallelEventUpcasterChain testSubject = new ParallelEventUpcasterChain(
+                new EventUpcasterChain(new FlightDelayedEvent0_to_1Upcaster()), serializer.getConverter(), 2, pool
+        );
+        IntermediateEventRepresentation corruptEvent = representationOf(FLIGHT_DELAYED_EVENT_TYPE, null, "{corrupt");
+
+        assertThrows(RuntimeException.class,
+                     () -> testSubject.upcast(Stream.of(corruptEvent)).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testContextAwareDelegateIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ParallelEventUpcasterChain(new NumberingUpcaster(), serializer.getConverter(), 2, pool));
+    }
+
+    @Test
+    void testContextOfUpcasterInDelegateChainStartsOverEveryBatch() {
+        ParallelEventUpcasterChain testSubject = new ParallelEventUpcasterChain(
+                new EventUpcasterChain(new NumberingUpcaster()), serializer.getConverter(), 2, pool
+        );
+        List<IntermediateEventRepresentation> input = Arrays.asList(events.get(0), events.get(0), events.get(0));
+
+        List<String> result = testSubject.upcast(input.stream())
+                                         .map(event -> event.getType().getRevision())
+                                         .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("number-1", "number-2", "number-1"), result);
+    }
+
+    private static class NumberingUpcaster extends ContextAwareSingleEventUpcaster<AtomicInteger> {
+
+        private static final SimpleSerializedType SOURCE = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, null);
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation,
+                                    AtomicInteger context) {
+            return intermediateRepresentation.getType().equals(SOURCE);
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation,
+                                                           AtomicInteger context) {
+            SimpleSerializedType target =
+                    new SimpleSerializedType(SOURCE.getName(), "number-" + context.incrementAndGet());
+            return intermediateRepresentation.upcastPayload(target, JsonNode.class, jsonNode -> jsonNode);
+        }
+
+        @Override
+        protected AtomicInteger buildContext() {
+            return new AtomicInteger();
+        }
+    }
+}
@@ -89,4 +89,37 @@ class PassengerSeatsToPassengerSeatAdjustedEventUpcasterTest {
         assertEquals(PAYLOAD_REVISION, thirdResult.getType().getRevision());
         JSONAssert.assertEquals(expectedThirdEventJson, thirdResult.getData().getData().toString(), true);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSingleParseSplitMatchesDefaultSplit() throws JSONException {
+        PassengerSeatsToPassengerSeatAdjustedEventUpcaster singleParseSubject =
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(testSerializer.getConverter());
+        EventData<?> testEventData =
+                generateDomainEventData(FROM_PAYLOAD_TYPE, PAYLOAD_REVISION, charterFlightEvent(400));
+
+        List<IntermediateEventRepresentation> expected =
+                testSubject.doUpcast(new InitialEventRepresentation(testEventData, testSerializer))
+                           .collect(Collectors.toList());
+        List<IntermediateEventRepresentation> result =
+                singleParseSubject.doUpcast(new InitialEventRepresentation(testEventData, testSerializer))
+                                  .collect(Collectors.toList());
+
+        assertEquals(400, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), result.get(i).getType());
+            assertEquals(testEventData.getEventIdentifier(), result.get(i).getMessageIdentifier());
+            JSONAssert.assertEquals(expected.get(i).getData(String.class).getData(),
+                                    result.get(i).getData(String.class).getData(),
+                                    true);
+        }
+    }
+
+    private static String charterFlightEvent(int passengers) {
+        StringBuilder passengerSeats = new StringBuilder();
+        for (int passenger = 0; passenger < passengers; passenger++) {
+            passengerSeats.append(passenger == 0 ? "" : ",").append("\"passenger-").append(passenger).append("\":")
+                          .append(passenger + 1);
+        }
+        return "{\"flightId\":\"KL123\",\"passengerSeats\":{" + passengerSeats + "}}";
+    }
+}
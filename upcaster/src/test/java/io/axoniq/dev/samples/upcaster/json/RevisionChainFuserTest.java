@@ -0,0 +1,231 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.generateDomainEventData;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevisionChainFuserTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+
+    private final Serializer serializer = JacksonSerializer.defaultSerializer();
+
+    @Test
+    void testConsecutiveRevisionsAreFusedIntoOneUpcaster() {
+        List<EventUpcaster> result = RevisionChainFuser.fuse(Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(),
+                new JsonRevisionHop("1.0", "2.0"),
+                new JsonRevisionHop("2.0", "3.0")
+        ));
+
+        assertEquals(2, result.size());
+        assertTrue(result.get(0) instanceof FusedRevisionUpcaster);
+        FusedRevisionUpcaster<?> fusedUpcaster = (FusedRevisionUpcaster<?>) result.get(0);
+        assertEquals(3, fusedUpcaster.revisionCount());
+        assertNull(fusedUpcaster.sourceType().getRevision());
+        assertEquals("3.0", fusedUpcaster.targetType().getRevision());
+        assertTrue(result.get(1) instanceof PassengerSeatsToPassengerSeatAdjustedEventUpcaster);
+    }
+
+    @Test
+    void testFusedUpcasterProducesTheSameResultAsSeparateRevisions() {
+        List<EventUpcaster> upcasters = Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new JsonRevisionHop("1.0", "2.0"),
+                new JsonRevisionHop("2.0", "3.0")
+        );
+        IntermediateEventRepresentation flightDelayedEvent = new InitialEventRepresentation(generateDomainEventData(
+                FLIGHT_DELAYED_EVENT_TYPE, null, extractFileContentsToString("/FlightDelayedEventRev_null.json")
+        ), serializer);
+
+        IntermediateEventRepresentation expected = new EventUpcasterChain(upcasters)
+                .upcast(Stream.of(flightDelayedEvent))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        IntermediateEventRepresentation result = new EventUpcasterChain(RevisionChainFuser.fuse(upcasters))
+                .upcast(Stream.of(flightDelayedEvent))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+
+        assertEquals(expected.getType(), result.getType());
+        assertEquals("3.0", result.getType().getRevision());
+        assertEquals(expected.getData(JsonNode.class).getData(), result.getData(JsonNode.class).getData());
+    }
+
+    @Test
+    void testFusedUpcasterUpcastsEventsStoredAtIntermediateRevisions() {
+        List<EventUpcaster> upcasters = Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new JsonRevisionHop("1.0", "2.0"),
+                new JsonRevisionHop("2.0", "3.0")
+        );
+        String payload = extractFileContentsToString("/FlightDelayedEventRev_1.json");
+
+        for (String revision : Arrays.asList("1.0", "2.0", "3.0")) {
+            IntermediateEventRepresentation flightDelayedEvent = new InitialEventRepresentation(
+                    generateDomainEventData(FLIGHT_DELAYED_EVENT_TYPE, revision, payload), serializer
+            );
+
+            IntermediateEventRepresentation expected = new EventUpcasterChain(upcasters)
+                    .upcast(Stream.of(flightDelayedEvent))
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+            IntermediateEventRepresentation result = new EventUpcasterChain(RevisionChainFuser.fuse(upcasters))
+                    .upcast(Stream.of(flightDelayedEvent))
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+
+            assertEquals("3.0", result.getType().getRevision());
+            assertEquals(expected.getType(), result.getType());
+            assertEquals(expected.getData(JsonNode.class).getData(), result.getData(JsonNode.class).getData());
+        }
+    }
+
+    @Test
+    void testChainIsCutAtUpcasterWithoutDeclaredTypes() {
+        List<EventUpcaster> result = RevisionChainFuser.fuse(Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new PassThroughUpcaster(),
+                new JsonRevisionHop("1.0", "2.0")
+        ));
+
+        assertEquals(3, result.size());
+        assertTrue(result.get(0) instanceof FlightDelayedEvent0_to_1Upcaster);
+    }
+
+    @Test
+    void testChainIsCutAtUpcasterHandlingOneOfTheChainTypes() {
+        List<EventUpcaster> result = RevisionChainFuser.fuse(Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new JsonRevisionHop("1.0", "2.0"),
+                new JsonRevisionHop("3.0", "4.0"),
+                new JsonRevisionHop("2.0", "3.0")
+        ));
+
+        assertEquals(3, result.size());
+        assertEquals(2, ((FusedRevisionUpcaster<?>) result.get(0)).revisionCount());
+    }
+
+    @Test
+    void testChainIsCutAtUpcasterProducingOneOfTheChainTypes() {
+        SerializedType otherType = new SimpleSerializedType("io.axoniq.dev.samples.api.FlightRescheduledEvent", null);
+        List<EventUpcaster> result = RevisionChainFuser.fuse(Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new TypedUpcaster(otherType, new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, "1.0")),
+                new JsonRevisionHop("1.0", "2.0")
+        ));
+
+        assertEquals(3, result.size());
+        assertTrue(result.get(0) instanceof FlightDelayedEvent0_to_1Upcaster);
+    }
+
+    @Test
+    void testChainIsCutAtUpcasterWithUnknownTargetTypes() {
+        SerializedType otherType = new SimpleSerializedType("io.axoniq.dev.samples.api.FlightRescheduledEvent", null);
+        List<EventUpcaster> result = RevisionChainFuser.fuse(Arrays.asList(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new TypedUpcaster(otherType, null),
+                new JsonRevisionHop("1.0", "2.0")
+        ));
+
+        assertEquals(3, result.size());
+        assertTrue(result.get(0) instanceof FlightDelayedEvent0_to_1Upcaster);
+    }
+
+    private static class JsonRevisionHop extends SingleEventUpcaster implements RevisionUpcaster<JsonNode> {
+
+        private final SerializedType sourceType;
+        private final SerializedType targetType;
+
+        private JsonRevisionHop(String sourceRevision, String targetRevision) {
+            this.sourceType = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, sourceRevision);
+            this.targetType = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, targetRevision);
+        }
+
+        @Override
+        public SerializedType sourceType() {
+            return sourceType;
+        }
+
+        @Override
+        public SerializedType targetType() {
+            return targetType;
+        }
+
+        @Override
+        public Class<JsonNode> payloadType() {
+            return JsonNode.class;
+        }
+
+        @Override
+        public JsonNode transformPayload(JsonNode payload) {
+            ((ObjectNode) payload).put("revision", targetType.getRevision());
+            return payload;
+        }
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.getType().equals(sourceType);
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.upcastPayload(targetType, JsonNode.class, this::transformPayload);
+        }
+    }
+
+    private static class TypedUpcaster extends PassThroughUpcaster implements SourceTypeAwareUpcaster {
+
+        private final SerializedType sourceType;
+        private final SerializedType targetType;
+
+        private TypedUpcaster(SerializedType sourceType, SerializedType targetType) {
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+        }
+
+        @Override
+        public Set<SerializedType> sourceTypes() {
+            return Collections.singleton(sourceType);
+        }
+
+        @Override
+        public Optional<Set<SerializedType>> targetTypes() {
+            return Optional.ofNullable(targetType).map(Collections::singleton);
+        }
+    }
+
+    private static class PassThroughUpcaster extends SingleEventUpcaster {
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return false;
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.axoniq.dev.samples.upcaster.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.ContextAwareSingleEventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.generateDomainEventData;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeIndexedEventUpcasterChainTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+
+    private final Serializer serializer = JacksonSerializer.defaultSerializer();
+
+    private IntermediateEventRepresentation flightDelayedEvent;
+    private IntermediateEventRepresentation passengerSeatsAdjustedEvent;
+    private IntermediateEventRepresentation upToDateFlightDelayedEvent;
+
+    @BeforeEach
+    void setUp() {
+        flightDelayedEvent = representationOf(
+                FLIGHT_DELAYED_EVENT_TYPE, null, extractFileContentsToString("/FlightDelayedEventRev_null.json")
+        );
+        passengerSeatsAdjustedEvent = representationOf(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE,
+                                                       null,
+                                                       extractFileContentsToString("/PassengerSeatsAdjustedEvent.json"));
+        upToDateFlightDelayedEvent = representationOf(
+                FLIGHT_DELAYED_EVENT_TYPE, "1.0", extractFileContentsToString("/FlightDelayedEventRev_1.json")
+        );
+    }
+
+    private IntermediateEventRepresentation representationOf(String type, String revision, String payload) {
+        return new InitialEventRepresentation(generateDomainEventData(type, revision, payload), serializer);
+    }
+
+    @Test
+    void testEventsWithoutUpcasterArePassedOnUntouched() {
+        TypeIndexedEventUpcasterChain testSubject = new TypeIndexedEventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(), new PassengerSeatsToPassengerSeatAdjustedEventUpcaster()
+        );
+
+        List<IntermediateEventRepresentation> result = testSubject.upcast(Stream.of(upToDateFlightDelayedEvent))
+                                                                  .collect(Collectors.toList());
+
+        assertEquals(1, result.size());
+        assertSame(upToDateFlightDelayedEvent, result.get(0));
+    }
+
+    @Test
+    void testUpcastsIdenticalToRegularChain() {
+        List<IntermediateEventRepresentation> events =
+                Arrays.asList(upToDateFlightDelayedEvent, flightDelayedEvent, passengerSeatsAdjustedEvent);
+        EventUpcasterChain regularChain = new EventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(), new PassengerSeatsToPassengerSeatAdjustedEventUpcaster()
+        );
+        TypeIndexedEventUpcasterChain testSubject = new TypeIndexedEventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(), new PassengerSeatsToPassengerSeatAdjustedEventUpcaster()
+        );
+
+        List<IntermediateEventRepresentation> expected = regularChain.upcast(events.stream())
+                                                                     .collect(Collectors.toList());
+        List<IntermediateEventRepresentation> result = testSubject.upcast(events.stream())
+                                                                  .collect(Collectors.toList());
+
+        assertEquals(5, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), result.get(i).getType());
+            assertEquals(expected.get(i).getData(JsonNode.class).getData(),
+                         result.get(i).getData(JsonNode.class).getData());
+        }
+    }
+
+    @Test
+    void testUpcastResultIsOnlyHandedToSubsequentUpcasters() {
+        RevisionOneToTwoUpcaster revisionOneToTwoUpcaster = new RevisionOneToTwoUpcaster();
+
+        TypeIndexedEventUpcasterChain inOrder = new TypeIndexedEventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(), revisionOneToTwoUpcaster
+        );
+        IntermediateEventRepresentation inOrderResult = inOrder.upcast(Stream.of(flightDelayedEvent))
+                                                               .findFirst()
+                                                               .orElseThrow(IllegalStateException::new);
+        assertEquals("2.0", inOrderResult.getType().getRevision());
+
+        TypeIndexedEventUpcasterChain reversed = new TypeIndexedEventUpcasterChain(
+                revisionOneToTwoUpcaster, new FlightDelayedEvent0_to_1Upcaster()
+        );
+        IntermediateEventRepresentation reversedResult = reversed.upcast(Stream.of(flightDelayedEvent))
+                                                                 .findFirst()
+                                                                 .orElseThrow(IllegalStateException::new);
+        assertEquals("1.0", reversedResult.getType().getRevision());
+    }
+
+    @Test
+    void testRoutesResultsPastUpcastersNotHandlingThemIdenticalToRegularChain() {
+        List<IntermediateEventRepresentation> events = Arrays.asList(
+                flightDelayedEvent, upToDateFlightDelayedEvent, passengerSeatsAdjustedEvent, flightDelayedEvent,
+                passengerSeatsAdjustedEvent, upToDateFlightDelayedEvent
+        );
+        EventUpcasterChain regularChain = new EventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(),
+                new RevisionOneToTwoUpcaster()
+        );
+        TypeIndexedEventUpcasterChain testSubject = new TypeIndexedEventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(),
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster(),
+                new RevisionOneToTwoUpcaster()
+        );
+
+        List<IntermediateEventRepresentation> expected = regularChain.upcast(events.stream())
+                                                                     .collect(Collectors.toList());
+        List<IntermediateEventRepresentation> result = testSubject.upcast(events.stream())
+                                                                  .collect(Collectors.toList());
+
+        assertEquals(expected.stream().map(IntermediateEventRepresentation::getType).collect(Collectors.toList()),
+                     result.stream().map(IntermediateEventRepresentation::getType).collect(Collectors.toList()));
+        assertEquals("2.0", result.get(0).getType().getRevision());
+    }
+
+    @Test
+    void testUpcastersWithoutSourceTypesReceiveEveryEvent() {
+        CountingUpcaster countingUpcaster = new CountingUpcaster();
+        TypeIndexedEventUpcasterChain testSubject = new TypeIndexedEventUpcasterChain(
+                new FlightDelayedEvent0_to_1Upcaster(), countingUpcaster
+        );
+
+        long resultCount = testSubject.upcast(Stream.of(upToDateFlightDelayedEvent, flightDelayedEvent)).count();
+
+        assertEquals(2, resultCount);
+        assertEquals(2, countingUpcaster.invocations.get());
+    }
+
+    @Test
+    void testHandsEventsToContextAwareUpcasterInSingleStream() {
+        NumberingUpcaster numberingUpcaster = new NumberingUpcaster();
+        TypeIndexedEventUpcasterChain testSubject = new TypeIndexedEventUpcasterChain(numberingUpcaster);
+
+        List<IntermediateEventRepresentation> result = testSubject.upcast(Stream.of(
+                flightDelayedEvent, upToDateFlightDelayedEvent, passengerSeatsAdjustedEvent, flightDelayedEvent,
+                upToDateFlightDelayedEvent, flightDelayedEvent
+        )).collect(Collectors.toList());
+
+        assertEquals(1, numberingUpcaster.streams.get());
+        assertEquals(Arrays.asList("number-1", "1.0", null, "number-2", "1.0", "number-3"),
+                     result.stream().map(event -> event.getType().getRevision()).collect(Collectors.toList()));
+        assertSame(upToDateFlightDelayedEvent, result.get(1));
+        assertSame(passengerSeatsAdjustedEvent, result.get(2));
+    }
+
+    private static class RevisionOneToTwoUpcaster extends SingleEventUpcaster implements SourceTypeAwareUpcaster {
+
+        private static final SimpleSerializedType SOURCE = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, "1.0");
+        private static final SimpleSerializedType TARGET = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, "2.0");
+
+        @Override
+        public Set<SerializedType> sourceTypes() {
+            return Collections.singleton(SOURCE);
+        }
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.getType().equals(SOURCE);
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation.upcastPayload(TARGET, JsonNode.class, jsonNode -> jsonNode);
+        }
+    }
+
+    private static class NumberingUpcaster extends ContextAwareSingleEventUpcaster<AtomicInteger>
+            implements SourceTypeAwareUpcaster {
+
+        private static final SimpleSerializedType SOURCE = new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, null);
+
+        private final AtomicInteger streams = new AtomicInteger();
+
+        @Override
+        public Set<SerializedType> sourceTypes() {
+            return Collections.singleton(SOURCE);
+        }
+
+        @Override
+        public Stream<IntermediateEventRepresentation> upcast(
+                Stream<IntermediateEventRepresentation> intermediateRepresentations
+        ) {
+            streams.incrementAndGet();
+            return super.upcast(intermediateRepresentations);
+        }
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation,
+                                    AtomicInteger context) {
+            return intermediateRepresentation.getType().equals(SOURCE);
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation,
+                                                           AtomicInteger context) {
+            SimpleSerializedType target =
+                    new SimpleSerializedType(FLIGHT_DELAYED_EVENT_TYPE, "number-" + context.incrementAndGet());
+            return intermediateRepresentation.upcastPayload(target, JsonNode.class, jsonNode -> jsonNode);
+        }
+
+        @Override
+        protected AtomicInteger buildContext() {
+            return new AtomicInteger();
+        }
+    }
+
+    private static class CountingUpcaster extends SingleEventUpcaster {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            invocations.incrementAndGet();
+            return false;
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+            return intermediateRepresentation;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package io.axoniq.dev.samples.upcaster.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import io.axoniq.dev.samples.upcaster.json.FlightDelayedEvent0_to_1Upcaster;
+import io.axoniq.dev.samples.upcaster.json.PassengerSeatsToPassengerSeatAdjustedEventUpcaster;
+import io.axoniq.dev.samples.upcaster.json.SourceTypeAwareUpcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.ContextAwareSingleEventUpcaster;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.generateDomainEventData;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedEventUpcasterTest {
+
+    private static final String FLIGHT_DELAYED_UPCASTER = "FlightDelayedEvent0_to_1Upcaster";
+    private static final String PASSENGER_SEATS_UPCASTER = "PassengerSeatsToPassengerSeatAdjustedEventUpcaster";
+
+    private final Serializer serializer = JacksonSerializer.defaultSerializer();
+
+    private MeterRegistry meterRegistry;
+    private List<IntermediateEventRepresentation> events;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        events = Arrays.asList(
+                representationOf("io.axoniq.dev.samples.api.FlightDelayedEvent", null,
+                                 extractFileContentsToString("/FlightDelayedEventRev_null.json")),
+                representationOf("io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent", null,
+                                 extractFileContentsToString("/PassengerSeatsAdjustedEvent.json")),
+                representationOf("io.axoniq.dev.samples.api.FlightDelayedEvent", "1.0",
+                                 extractFileContentsToString("/FlightDelayedEventRev_1.json"))
+        );
+    }
+
+    private IntermediateEventRepresentation representationOf(String type, String revision, String payload) {
+        return new InitialEventRepresentation(generateDomainEventData(type, revision, payload), serializer);
+    }
+
+    @Test
+    void testInstrumentedChainUpcastsIdenticalToRegularChain() {
+        List<IntermediateEventRepresentation> expected = EventUpcasterChainFactory.buildEventUpcasterChain()
+                                                                                  .upcast(events.stream())
+                                                                                  .collect(Collectors.toList());
+        List<IntermediateEventRepresentation> result = EventUpcasterChainFactory.buildEventUpcasterChain(meterRegistry)
+                                                                                .upcast(events.stream())
+                                                                                .collect(Collectors.toList());
+
+        assertEquals(expected.size(), result.size());
+        assertSame(events.get(2), result.get(4));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), result.get(i).getType());
+            assertEquals(expected.get(i).getData(JsonNode.class).getData(),
+                         result.get(i).getData(JsonNode.class).getData());
+        }
+    }
+
+    @Test
+    void testHitsMissesAndFanoutAreRecorded() {
+        EventUpcasterChain testSubject = EventUpcasterChainFactory.buildEventUpcasterChain(meterRegistry);
+
+        testSubject.upcast(events.stream()).collect(Collectors.toList());
+
+        assertEquals(1, invocations(FLIGHT_DELAYED_UPCASTER, InstrumentedEventUpcaster.HIT));
+        assertEquals(2, invocations(FLIGHT_DELAYED_UPCASTER, InstrumentedEventUpcaster.MISS));
+        assertEquals(1, invocations(PASSENGER_SEATS_UPCASTER, InstrumentedEventUpcaster.HIT));
+        assertEquals(2, invocations(PASSENGER_SEATS_UPCASTER, InstrumentedEventUpcaster.MISS));
+        assertEquals(3, meterRegistry.get(InstrumentedEventUpcaster.FANOUT).summary().totalAmount());
+        assertEquals(3, meterRegistry.get(InstrumentedEventUpcaster.UPCAST)
+                                     .tag(InstrumentedEventUpcaster.UPCASTER_TAG, PASSENGER_SEATS_UPCASTER)
+                                     .timer()
+                                     .count());
+    }
+
+    @Test
+    void testContextAwareUpcasterReceivesAllEventsInSingleStream() {
+        NumberingUpcaster numberingUpcaster = new NumberingUpcaster();
+        List<IntermediateEventRepresentation> input = Arrays.asList(events.get(0), events.get(2), events.get(0));
+
+        List<IntermediateEventRepresentation> result =
+                InstrumentedEventUpcaster.instrument(numberingUpcaster, meterRegistry)
+                                         .upcast(input.stream())
+                                         .collect(Collectors.toList());
+
+        assertEquals(1, numberingUpcaster.streams.get());
+        assertEquals(Arrays.asList("number-1", "1.0", "number-2"),
+                     result.stream().map(event -> event.getType().getRevision()).collect(Collectors.toList()));
+        assertSame(events.get(2), result.get(1));
+        assertEquals(2, invocations("NumberingUpcaster", InstrumentedEventUpcaster.HIT));
+        assertEquals(1, invocations("NumberingUpcaster", InstrumentedEventUpcaster.MISS));
+    }
+
+    @Test
+    void testTransformationIsOnlyTimedOnceThePayloadIsRead() {
+        IntermediateEventRepresentation result =
+                InstrumentedEventUpcaster.instrument(new FlightDelayedEvent0_to_1Upcaster(), meterRegistry)
+                                         .upcast(events.subList(0, 1).stream())
+                                         .findFirst()
+                                         .orElseThrow(IllegalStateException::new);
+        long transformationsBeforeRead = transformations(FLIGHT_DELAYED_UPCASTER);
+
+        result.getData(JsonNode.class);
+
+        assertEquals(0, transformationsBeforeRead);
+        assertEquals(1, transformations(FLIGHT_DELAYED_UPCASTER));
+    }
+
+    @Test
+    void testInstrumentedUpcasterRetainsSourceTypes() {
+        PassengerSeatsToPassengerSeatAdjustedEventUpcaster upcaster =
+                new PassengerSeatsToPassengerSeatAdjustedEventUpcaster();
+
+        InstrumentedEventUpcaster result = InstrumentedEventUpcaster.instrument(upcaster, meterRegistry);
+
+        assertTrue(result instanceof SourceTypeAwareUpcaster);
+        assertEquals(upcaster.sourceTypes(), ((SourceTypeAwareUpcaster) result).sourceTypes());
+    }
+
+    @Test
+    void testEndpointSummarizesEveryUpcaster() {
+        EventUpcasterChainFactory.buildEventUpcasterChain(meterRegistry)
+                                 .upcast(events.stream())
+                                 .collect(Collectors.toList());
+
+        Map<String, Map<String, Object>> result = new UpcasterMetricsEndpoint(meterRegistry).upcasters();
+
+        assertEquals(2, result.size());
+        assertEquals(3L, result.get(FLIGHT_DELAYED_UPCASTER).get("invocations"));
+        assertEquals(1.0 / 3, (double) result.get(FLIGHT_DELAYED_UPCASTER).get("hitRatio"), 0.0001);
+        assertEquals(3.0, result.get(PASSENGER_SEATS_UPCASTER).get("fanoutMean"));
+        assertFalse(result.get(FLIGHT_DELAYED_UPCASTER).containsKey("fanoutMean"));
+    }
+
+    private static class NumberingUpcaster extends ContextAwareSingleEventUpcaster<AtomicInteger> {
+
+        private static final SimpleSerializedType SOURCE =
+                new SimpleSerializedType("io.axoniq.dev.samples.api.FlightDelayedEvent", null);
+
+        private final AtomicInteger streams = new AtomicInteger();
+
+        @Override
+        public Stream<IntermediateEventRepresentation> upcast(
+                Stream<IntermediateEventRepresentation> intermediateRepresentations
+        ) {
+            streams.incrementAndGet();
+            return super.upcast(intermediateRepresentations);
+        }
+
+        @Override
+        protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation,
+                                    AtomicInteger context) {
+            return intermediateRepresentation.getType().equals(SOURCE);
+        }
+
+        @Override
+        protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation,
+                                                           AtomicInteger context) {
+            SimpleSerializedType target =
+                    new SimpleSerializedType(SOURCE.getName(), "number-" + context.incrementAndGet());
+            return intermediateRepresentation.upcastPayload(target, JsonNode.class, jsonNode -> jsonNode);
+        }
+
+        @Override
+        protected AtomicInteger buildContext() {
+            return new AtomicInteger();
+        }
+    }
+
+    private double invocations(String upcaster, String outcome) {
+        return meterRegistry.get(InstrumentedEventUpcaster.INVOCATIONS)
+                            .tags(InstrumentedEventUpcaster.UPCASTER_TAG, upcaster,
+                                  InstrumentedEventUpcaster.OUTCOME_TAG, outcome)
+                            .counter()
+                            .count();
+    }
+
+    private long transformations(String upcaster) {
+        return meterRegistry.get(InstrumentedEventUpcaster.TRANSFORM)
+                            .tag(InstrumentedEventUpcaster.UPCASTER_TAG, upcaster)
+                            .timer()
+                            .count();
+    }
+}
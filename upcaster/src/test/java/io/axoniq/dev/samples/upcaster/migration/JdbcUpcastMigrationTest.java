@@ -0,0 +1,138 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import org.axonframework.common.jdbc.ConnectionProvider;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static org.axonframework.common.DateTimeUtils.formatInstant;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcUpcastMigrationTest {
+
+    private static final String DOMAIN_EVENT_ENTRY_COLUMNS = " ("
+            + "global_index BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "event_identifier VARCHAR(255) NOT NULL UNIQUE, "
+            + "type VARCHAR(255), "
+            + "aggregate_identifier VARCHAR(255) NOT NULL, "
+            + "sequence_number BIGINT NOT NULL, "
+            + "time_stamp VARCHAR(255) NOT NULL, "
+            + "payload_type VARCHAR(255) NOT NULL, "
+            + "payload_revision VARCHAR(255), "
+            + "payload BLOB NOT NULL, "
+            + "meta_data BLOB, "
+            + "UNIQUE (aggregate_identifier, sequence_number))";
+
+    private final ConnectionProvider connectionProvider =
+            () -> DriverManager.getConnection("jdbc:h2:mem:upcast-migration;DB_CLOSE_DELAY=-1", "sa", "");
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = connectionProvider.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP ALL OBJECTS");
+            statement.executeUpdate("CREATE TABLE domain_event_entry" + DOMAIN_EVENT_ENTRY_COLUMNS);
+            statement.executeUpdate("CREATE TABLE migrated_event_entry" + DOMAIN_EVENT_ENTRY_COLUMNS);
+        }
+        insertSourceEvent("flight-1", 0, "io.axoniq.dev.samples.api.FlightDelayedEvent", null,
+                          extractFileContentsToString("/FlightDelayedEventRev_null.json"));
+        insertSourceEvent("flight-2", 0, "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent", null,
+                          extractFileContentsToString("/PassengerSeatsAdjustedEvent.json"));
+        insertSourceEvent("flight-2", 1, "io.axoniq.dev.samples.api.FlightDelayedEvent", null,
+                          extractFileContentsToString("/FlightDelayedEventRev_null.json"));
+    }
+
+    private void insertSourceEvent(String aggregateIdentifier,
+                                   long sequenceNumber,
+                                   String payloadType,
+                                   String payloadRevision,
+                                   String payload) throws SQLException {
+        try (Connection connection = connectionProvider.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO domain_event_entry (event_identifier, type, aggregate_identifier, sequence_number, "
+                             + "time_stamp, payload_type, payload_revision, payload, meta_data) "
+                             + "VALUES (?, 'Flight', ?, ?, ?, ?, ?, ?, ?)"
+             )) {
+            statement.setString(1, aggregateIdentifier + "-" + sequenceNumber);
+            statement.setString(2, aggregateIdentifier);
+            statement.setLong(3, sequenceNumber);
+            statement.setString(4, formatInstant(Instant.now()));
+            statement.setString(5, payloadType);
+            statement.setString(6, payloadRevision);
+            statement.setBytes(7, payload.getBytes(StandardCharsets.UTF_8));
+            statement.setBytes(8, "{}".getBytes(StandardCharsets.UTF_8));
+            statement.executeUpdate();
+        }
+    }
+
+    private UpcastMigration migration() {
+        JdbcEventSink sink = new JdbcEventSink(
+                connectionProvider, "migrated_event_entry", "upcast_migration_checkpoint", "test-migration"
+        );
+        sink.createCheckpointTable();
+        return new UpcastMigration(new JdbcEventSource(connectionProvider, "domain_event_entry", 2),
+                                   sink,
+                                   EventUpcasterChainFactory.buildEventUpcasterChain(),
+                                   JacksonSerializer.defaultSerializer(),
+                                   2);
+    }
+
+    @Test
+    void testEventsAreMigratedToTargetTable() throws SQLException {
+        UpcastMigration.MigrationResult result = migration().run();
+
+        assertEquals(3, result.getEventsRead());
+        assertEquals(5, result.getEventsWritten());
+
+        List<String> migratedEvents = new ArrayList<>();
+        try (Connection connection = connectionProvider.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT aggregate_identifier, sequence_number, payload_type, payload_revision "
+                             + "FROM migrated_event_entry ORDER BY global_index"
+             )) {
+            while (resultSet.next()) {
+                migratedEvents.add(resultSet.getString(1) + "/" + resultSet.getLong(2) + "/"
+                                           + resultSet.getString(3) + "/" + resultSet.getString(4));
+            }
+        }
+        assertEquals(5, migratedEvents.size());
+        assertEquals("flight-1/0/io.axoniq.dev.samples.api.FlightDelayedEvent/1.0", migratedEvents.get(0));
+        assertEquals("flight-2/2/io.axoniq.dev.samples.api.PassengerSeatAdjustedEvent/null", migratedEvents.get(3));
+        assertEquals("flight-2/3/io.axoniq.dev.samples.api.FlightDelayedEvent/1.0", migratedEvents.get(4));
+    }
+
+    @Test
+    void testMigrationResumesFromStoredCheckpoint() throws SQLException {
+        migration().run();
+        insertSourceEvent("flight-2", 2, "io.axoniq.dev.samples.api.FlightDelayedEvent", "1.0",
+                          extractFileContentsToString("/FlightDelayedEventRev_1.json"));
+
+        UpcastMigration.MigrationResult result = migration().run();
+
+        assertEquals(1, result.getEventsRead());
+        assertEquals(1, result.getEventsWritten());
+        try (Connection connection = connectionProvider.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT MAX(sequence_number), COUNT(*) FROM migrated_event_entry "
+                             + "WHERE aggregate_identifier = 'flight-2'"
+             )) {
+            assertTrue(resultSet.next());
+            assertEquals(4, resultSet.getLong(1));
+            assertEquals(5, resultSet.getLong(2));
+        }
+    }
+}
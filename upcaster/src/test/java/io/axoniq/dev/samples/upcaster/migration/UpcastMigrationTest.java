@@ -0,0 +1,274 @@
+package io.axoniq.dev.samples.upcaster.migration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.eventhandling.TrackedDomainEventData;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpcastMigrationTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+    private static final String PASSENGER_SEAT_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatAdjustedEvent";
+
+    @TempDir
+    Path tempDir;
+
+    private Path sourceFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String flightDelayedPayload = extractFileContentsToString("/FlightDelayedEventRev_null.json");
+        String upToDatePayload = extractFileContentsToString("/FlightDelayedEventRev_1.json");
+        String passengerSeatsPayload = extractFileContentsToString("/PassengerSeatsAdjustedEvent.json");
+        List<DomainEventData<byte[]>> events = new ArrayList<>();
+        events.add(event("flight-1", 0, FLIGHT_DELAYED_EVENT_TYPE, null, flightDelayedPayload));
+        events.add(event("flight-2", 0, PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null, passengerSeatsPayload));
+        events.add(event("flight-2", 1, FLIGHT_DELAYED_EVENT_TYPE, null, flightDelayedPayload));
+        events.add(event("flight-1", 1, FLIGHT_DELAYED_EVENT_TYPE, "1.0", upToDatePayload));
+
+        NdjsonEventFormat format = new NdjsonEventFormat(new ObjectMapper());
+        List<String> lines = new ArrayList<>();
+        for (DomainEventData<byte[]> event : events) {
+            lines.add(format.write(event));
+        }
+        sourceFile = Files.write(tempDir.resolve("source.ndjson"), lines, StandardCharsets.UTF_8);
+    }
+
+    private static DomainEventData<byte[]> event(String aggregateIdentifier,
+                                                 long sequenceNumber,
+                                                 String payloadType,
+                                                 String payloadRevision,
+                                                 String payload) {
+        return new GenericDomainEventEntry<>("Flight",
+                                             aggregateIdentifier,
+                                             sequenceNumber,
+                                             aggregateIdentifier + "-" + sequenceNumber,
+                                             Instant.now(),
+                                             payloadType,
+                                             payloadRevision,
+                                             payload.getBytes(StandardCharsets.UTF_8),
+                                             "{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private UpcastMigration migration(MigrationEventSink sink, int batchSize) {
+        return new UpcastMigration(new NdjsonEventSource(sourceFile),
+                                   sink,
+                                   EventUpcasterChainFactory.buildEventUpcasterChain(),
+                                   JacksonSerializer.defaultSerializer(),
+                                   batchSize);
+    }
+
+    private static List<DomainEventData<byte[]>> readAll(Path file) {
+        try (Stream<TrackedDomainEventData<byte[]>> events = new NdjsonEventSource(file).readEvents(-1)) {
+            return events.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testEventsAreMigratedToTheirLatestRevision() throws IOException {
+        Path targetFile = tempDir.resolve("target.ndjson");
+
+        UpcastMigration.MigrationResult result;
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            result = migration(sink, 10).run();
+        }
+
+        assertEquals(4, result.getEventsRead());
+        assertEquals(6, result.getEventsWritten());
+        assertEquals(3, result.getCheckpoint());
+
+        List<DomainEventData<byte[]>> migrated = readAll(targetFile);
+        assertEquals(6, migrated.size());
+        assertEquals(6, migrated.stream().map(DomainEventData::getEventIdentifier).collect(Collectors.toSet()).size());
+        assertEquals("flight-2-0", migrated.get(1).getEventIdentifier());
+        for (DomainEventData<byte[]> event : migrated) {
+            String type = event.getPayload().getType().getName();
+            if (FLIGHT_DELAYED_EVENT_TYPE.equals(type)) {
+                assertEquals("1.0", event.getPayload().getType().getRevision());
+            } else {
+                assertEquals(PASSENGER_SEAT_ADJUSTED_EVENT_TYPE, type);
+            }
+        }
+        List<Long> flightTwoSequenceNumbers =
+                migrated.stream()
+                        .filter(event -> "flight-2".equals(event.getAggregateIdentifier()))
+                        .map(DomainEventData::getSequenceNumber)
+                        .collect(Collectors.toList());
+        assertEquals(4, new HashSet<>(flightTwoSequenceNumbers).size());
+        assertEquals(3L, flightTwoSequenceNumbers.get(3));
+        assertEquals(1L, migrated.get(5).getSequenceNumber());
+    }
+
+    @Test
+    void testMigrationResumesFromLastCheckpoint() throws IOException {
+        Path expectedFile = tempDir.resolve("expected.ndjson");
+        try (NdjsonEventSink sink = new NdjsonEventSink(expectedFile)) {
+            migration(sink, 2).run();
+        }
+
+        Path targetFile = tempDir.resolve("target.ndjson");
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            assertThrows(IllegalStateException.class, () -> migration(new FailingSink(sink, 1), 2).run());
+        }
+        // A partially written batch is discarded when the sink is opened again
+        Files.write(targetFile, "{\"partial\":".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        UpcastMigration.MigrationResult result;
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            assertEquals(1, sink.lastCheckpoint());
+            result = migration(sink, 2).run();
+        }
+
+        assertEquals(2, result.getEventsRead());
+        assertEquals(new String(Files.readAllBytes(expectedFile), StandardCharsets.UTF_8),
+                     new String(Files.readAllBytes(targetFile), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCompletedMigrationDoesNothingWhenRunAgain() throws IOException {
+        Path targetFile = tempDir.resolve("target.ndjson");
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            migration(sink, 3).run();
+        }
+
+        UpcastMigration.MigrationResult result;
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            result = migration(sink, 3).run();
+        }
+
+        assertEquals(0, result.getEventsRead());
+        assertEquals(3, result.getCheckpoint());
+        assertEquals(6, readAll(targetFile).size());
+    }
+
+    @Test
+    void testLooksUpLastSequenceNumbersOncePerBatchForAggregatesNotCached() throws IOException {
+        Path targetFile = tempDir.resolve("target.ndjson");
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            LookupRecordingSink firstRun = new LookupRecordingSink(new FailingSink(sink, 1));
+            assertThrows(IllegalStateException.class, () -> migration(firstRun, 2).run());
+            // Both aggregates start with sequence number 0 in the first batch, so nothing can have been written
+            assertTrue(firstRun.lookups.isEmpty());
+        }
+
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            LookupRecordingSink secondRun = new LookupRecordingSink(sink);
+            migration(secondRun, 2).run();
+
+            assertEquals(1, secondRun.lookups.size());
+            assertEquals(new HashSet<>(Arrays.asList("flight-1", "flight-2")), secondRun.lookups.get(0));
+        }
+        List<Long> flightTwoSequenceNumbers =
+                readAll(targetFile).stream()
+                                   .filter(event -> "flight-2".equals(event.getAggregateIdentifier()))
+                                   .map(DomainEventData::getSequenceNumber)
+                                   .collect(Collectors.toList());
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L), flightTwoSequenceNumbers);
+    }
+
+    @Test
+    void testNdjsonSinkKeepsLastSequenceNumbersUpToDateAfterLookup() throws IOException {
+        Path targetFile = tempDir.resolve("target.ndjson");
+        String payload = extractFileContentsToString("/FlightDelayedEventRev_1.json");
+        Set<String> aggregates = new HashSet<>(Arrays.asList("flight-1", "flight-2", "flight-3"));
+        Map<String, Long> expected = new HashMap<>();
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            sink.write(Arrays.asList(event("flight-1", 0, FLIGHT_DELAYED_EVENT_TYPE, "1.0", payload),
+                                     event("flight-2", 0, FLIGHT_DELAYED_EVENT_TYPE, "1.0", payload)), 0);
+            expected.put("flight-1", 0L);
+            expected.put("flight-2", 0L);
+            assertEquals(expected, sink.lastSequenceNumbers(aggregates));
+
+            sink.write(Arrays.asList(event("flight-1", 1, FLIGHT_DELAYED_EVENT_TYPE, "1.0", payload),
+                                     event("flight-3", 0, FLIGHT_DELAYED_EVENT_TYPE, "1.0", payload)), 1);
+            expected.put("flight-1", 1L);
+            expected.put("flight-3", 0L);
+            assertEquals(expected, sink.lastSequenceNumbers(aggregates));
+        }
+
+        try (NdjsonEventSink sink = new NdjsonEventSink(targetFile)) {
+            assertEquals(expected, sink.lastSequenceNumbers(aggregates));
+        }
+    }
+
+    private static class LookupRecordingSink implements MigrationEventSink {
+
+        private final MigrationEventSink delegate;
+        private final List<Set<String>> lookups = new ArrayList<>();
+
+        private LookupRecordingSink(MigrationEventSink delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long lastCheckpoint() {
+            return delegate.lastCheckpoint();
+        }
+
+        @Override
+        public Map<String, Long> lastSequenceNumbers(Set<String> aggregateIdentifiers) {
+            lookups.add(new HashSet<>(aggregateIdentifiers));
+            return delegate.lastSequenceNumbers(aggregateIdentifiers);
+        }
+
+        @Override
+        public void write(List<? extends DomainEventData<byte[]>> events, long checkpoint) {
+            delegate.write(events, checkpoint);
+        }
+    }
+
+    private static class FailingSink implements MigrationEventSink {
+
+        private final MigrationEventSink delegate;
+        private int remainingWrites;
+
+        private FailingSink(MigrationEventSink delegate, int successfulWrites) {
+            this.delegate = delegate;
+            this.remainingWrites = successfulWrites;
+        }
+
+        @Override
+        public long lastCheckpoint() {
+            return delegate.lastCheckpoint();
+        }
+
+        @Override
+        public Map<String, Long> lastSequenceNumbers(Set<String> aggregateIdentifiers) {
+            return delegate.lastSequenceNumbers(aggregateIdentifiers);
+        }
+
+        @Override
+        public void write(List<? extends DomainEventData<byte[]>> events, long checkpoint) {
+            if (remainingWrites-- == 0) {
+                throw new IllegalStateException("Simulated crash");
+            }
+            delegate.write(events, checkpoint);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.axoniq.dev.samples.upcaster.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import io.axoniq.dev.samples.upcaster.migration.NdjsonEventSink;
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedEventDumpTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+    // Small enough for every dump to span several windows
+    private static final int WINDOW_SIZE = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private final Serializer serializer = ByteBufferConverters.register(JacksonSerializer.defaultSerializer());
+
+    private List<DomainEventData<byte[]>> events;
+    private Path ndjsonDump;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String flightDelayedPayload = extractFileContentsToString("/FlightDelayedEventRev_null.json");
+        String upToDatePayload = extractFileContentsToString("/FlightDelayedEventRev_1.json");
+        String passengerSeatsPayload = extractFileContentsToString("/PassengerSeatsAdjustedEvent.json");
+        events = new ArrayList<>();
+        for (int flight = 0; flight < 20; flight++) {
+            events.add(event("flight-" + flight, 0, FLIGHT_DELAYED_EVENT_TYPE, null, flightDelayedPayload));
+            events.add(event("flight-" + flight, 1, PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null, passengerSeatsPayload));
+            events.add(event("flight-" + flight, 2, FLIGHT_DELAYED_EVENT_TYPE, "1.0", upToDatePayload));
+        }
+        ndjsonDump = tempDir.resolve("events.ndjson");
+        try (NdjsonEventSink sink = new NdjsonEventSink(ndjsonDump)) {
+            sink.write(events, events.size() - 1);
+        }
+    }
+
+    private static DomainEventData<byte[]> event(String aggregateIdentifier,
+                                                 long sequenceNumber,
+                                                 String payloadType,
+                                                 String payloadRevision,
+                                                 String payload) {
+        return new GenericDomainEventEntry<>("Flight",
+                                             aggregateIdentifier,
+                                             sequenceNumber,
+                                             aggregateIdentifier + "-" + sequenceNumber,
+                                             Instant.now(),
+                                             payloadType,
+                                             payloadRevision,
+                                             payload.getBytes(StandardCharsets.UTF_8),
+                                             "{\"tenant\":\"axoniq\"}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNdjsonDumpUpcastsLikeTheOriginalEvents() throws IOException {
+        try (MappedEventDump testSubject = new MappedEventDump(ndjsonDump, DumpFormat.NDJSON, WINDOW_SIZE)) {
+            assertUpcastsLikeTheOriginalEvents(testSubject);
+        }
+    }
+
+    @Test
+    void testLengthPrefixedDumpUpcastsLikeTheOriginalEvents() throws IOException {
+        Path lengthPrefixedDump = tempDir.resolve("events.bin");
+        assertEquals(events.size(), ReplayTool.convert(ndjsonDump, lengthPrefixedDump));
+
+        try (MappedEventDump testSubject =
+                     new MappedEventDump(lengthPrefixedDump, DumpFormat.LENGTH_PREFIXED, WINDOW_SIZE)) {
+            assertUpcastsLikeTheOriginalEvents(testSubject);
+        }
+    }
+
+    @Test
+    void testDumpFormatIsMatchedByExactName() {
+        assertEquals(DumpFormat.NDJSON, ReplayTool.dumpFormat("ndjson"));
+        assertEquals(DumpFormat.LENGTH_PREFIXED, ReplayTool.dumpFormat("length-prefixed"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayTool.dumpFormat("ndjsn"));
+    }
+
+    @Test
+    void testReplayReportsAllEvents() throws IOException {
+        ReplayHarness testSubject = new ReplayHarness(EventUpcasterChainFactory.buildEventUpcasterChain(),
+                                                      JacksonSerializer.defaultSerializer());
+
+        try (MappedEventDump dump = MappedEventDump.open(ndjsonDump, DumpFormat.NDJSON)) {
+            ReplayReport result = testSubject.replay(dump);
+
+            assertEquals(60, result.getEventsRead());
+            // Every PassengerSeatsAdjustedEvent is split into three events
+            assertEquals(100, result.getEventsUpcast());
+            assertTrue(result.getElapsedNanos() > 0);
+            assertTrue(result.getGcCount() >= 0);
+        }
+    }
+
+    @Test
+    void testRecordExceedingTheWindowIsRejected() throws IOException {
+        try (MappedEventDump testSubject = new MappedEventDump(ndjsonDump, DumpFormat.NDJSON, 64)) {
+            assertThrows(SerializationException.class, () -> testSubject.records().count());
+        }
+    }
+
+    @Test
+    void testScalarPayloadIsSlicedWhole() throws IOException {
+        Path scalarDump = tempDir.resolve("scalar.ndjson");
+        String payload = "\"delayed \\\"by an hour\\\"\"";
+        try (NdjsonEventSink sink = new NdjsonEventSink(scalarDump)) {
+            sink.write(Collections.singletonList(event("flight-0", 0, FLIGHT_DELAYED_EVENT_TYPE, null, payload)), 0);
+        }
+
+        try (MappedEventDump testSubject = new MappedEventDump(scalarDump, DumpFormat.NDJSON, WINDOW_SIZE)) {
+            List<DomainEventData<ByteBuffer>> result = testSubject.records().collect(Collectors.toList());
+
+            assertEquals(1, result.size());
+            assertEquals(payload, StandardCharsets.UTF_8.decode(result.get(0).getPayload().getData()).toString());
+        }
+    }
+
+    private void assertUpcastsLikeTheOriginalEvents(MappedEventDump dump) {
+        Stream<IntermediateEventRepresentation> originalEvents =
+                events.stream().map(event -> new InitialEventRepresentation(event, serializer));
+        List<IntermediateEventRepresentation> expected = EventUpcasterChainFactory.buildEventUpcasterChain()
+                                                                                  .upcast(originalEvents)
+                                                                                  .collect(Collectors.toList());
+
+        List<IntermediateEventRepresentation> result = EventUpcasterChainFactory.buildEventUpcasterChain()
+                                                                                .upcast(dump.events(serializer))
+                                                                                .collect(Collectors.toList());
+
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            IntermediateEventRepresentation expectedEvent = expected.get(i);
+            IntermediateEventRepresentation resultEvent = result.get(i);
+            assertEquals(expectedEvent.getType(), resultEvent.getType());
+            assertEquals(expectedEvent.getMessageIdentifier(), resultEvent.getMessageIdentifier());
+            assertEquals(expectedEvent.getAggregateIdentifier(), resultEvent.getAggregateIdentifier());
+            assertEquals(expectedEvent.getSequenceNumber(), resultEvent.getSequenceNumber());
+            assertEquals(expectedEvent.getTimestamp(), resultEvent.getTimestamp());
+            assertEquals(expectedEvent.getMetaData().getObject(), resultEvent.getMetaData().getObject());
+            assertEquals(expectedEvent.getData(JsonNode.class).getData(),
+                         resultEvent.getData(JsonNode.class).getData());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package io.axoniq.dev.samples.upcaster.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.axoniq.dev.samples.upcaster.json.EventUpcasterChainFactory;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.extractFileContentsToString;
+import static io.axoniq.dev.samples.upcaster.json.UpcasterTestingUtils.generateDomainEventData;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpcastingRuleTest {
+
+    private static final String FLIGHT_DELAYED_EVENT_TYPE = "io.axoniq.dev.samples.api.FlightDelayedEvent";
+    private static final String PASSENGER_SEATS_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatsAdjustedEvent";
+    private static final String PASSENGER_SEAT_ADJUSTED_EVENT_TYPE =
+            "io.axoniq.dev.samples.api.PassengerSeatAdjustedEvent";
+
+    private final Serializer serializer = JacksonSerializer.defaultSerializer();
+
+    @Test
+    void testRuleBasedChainMatchesHandWrittenUpcasters() {
+        List<IntermediateEventRepresentation> events = Arrays.asList(
+                event(FLIGHT_DELAYED_EVENT_TYPE, extractFileContentsToString("/FlightDelayedEventRev_null.json")),
+                event(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE,
+                      extractFileContentsToString("/PassengerSeatsAdjustedEvent.json"))
+        );
+
+        List<IntermediateEventRepresentation> expected = EventUpcasterChainFactory.buildEventUpcasterChain()
+                                                                                  .upcast(events.stream())
+                                                                                  .collect(Collectors.toList());
+        List<IntermediateEventRepresentation> result = EventUpcasterChainFactory.buildRuleBasedEventUpcasterChain()
+                                                                                .upcast(events.stream())
+                                                                                .collect(Collectors.toList());
+
+        assertEquals(4, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), result.get(i).getType());
+            assertEquals(expected.get(i).getData(JsonNode.class).getData(),
+                         result.get(i).getData(JsonNode.class).getData());
+        }
+    }
+
+    @Test
+    void testRenameAndDefaultRules() {
+        CompiledRevisionUpcaster testSubject = UpcastingRule.forEvent(FLIGHT_DELAYED_EVENT_TYPE, "1.0")
+                                                            .rename("flightId", "flightNumber")
+                                                            .setDefault("flightNumber", "unknown")
+                                                            .setDefault("cancelled", false)
+                                                            .setDefault("gate", "A1")
+                                                            .toRevision("2.0");
+
+        IntermediateEventRepresentation result = upcast(
+                testSubject, event(FLIGHT_DELAYED_EVENT_TYPE, "1.0", "{\"flightId\":\"KL123\",\"gate\":\"B2\"}")
+        );
+
+        assertEquals("2.0", result.getType().getRevision());
+        assertEquals("{\"flightNumber\":\"KL123\",\"gate\":\"B2\",\"cancelled\":false}",
+                     result.getData(String.class).getData());
+    }
+
+    @Test
+    void testSplitWithoutEntriesRemovesTheEvent() {
+        CompiledSplitUpcaster testSubject = passengerSeatsSplit();
+
+        IntermediateEventRepresentation event =
+                event(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, "{\"flightId\":\"KL123\",\"passengerSeats\":{}}");
+
+        long result = testSubject.upcast(Stream.of(event)).count();
+
+        assertEquals(0, result);
+    }
+
+    @Test
+    void testSplitWithoutSplitFieldFails() {
+        CompiledSplitUpcaster testSubject = passengerSeatsSplit();
+
+        IntermediateEventRepresentation event = event(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, "{\"flightId\":\"KL123\"}");
+
+        assertThrows(SerializationException.class, () -> testSubject.upcast(Stream.of(event)).count());
+    }
+
+    @Test
+    void testSplitAppliesFieldRulesToEveryResult() {
+        CompiledSplitUpcaster testSubject = UpcastingRule.forEvent(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null)
+                                                         .rename("flightId", "flightNumber")
+                                                         .nest("leg", "origin", "destination")
+                                                         .setDefault("gate", "A1")
+                                                         .setDefault("delay", 5L)
+                                                         .splitInto(PASSENGER_SEAT_ADJUSTED_EVENT_TYPE, null,
+                                                                    "passengerSeats", "passengerId", "seatNumber");
+
+        IntermediateEventRepresentation event = event(
+                PASSENGER_SEATS_ADJUSTED_EVENT_TYPE,
+                "{\"flightId\":\"KL123\",\"origin\":\"AMS\",\"rows\":[1,2],\"gate\":null,"
+                        + "\"passengerSeats\":{\"p1\":\"1A\",\"p2\":\"2B\"}}"
+        );
+
+        List<String> result = testSubject.upcast(Stream.of(event))
+                                         .map(upcast -> upcast.getData(String.class).getData())
+                                         .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList(
+                "{\"flightNumber\":\"KL123\",\"rows\":[1,2],\"gate\":null,"
+                        + "\"leg\":{\"origin\":\"AMS\",\"destination\":null},\"delay\":5,"
+                        + "\"passengerId\":\"p1\",\"seatNumber\":\"1A\"}",
+                "{\"flightNumber\":\"KL123\",\"rows\":[1,2],\"gate\":null,"
+                        + "\"leg\":{\"origin\":\"AMS\",\"destination\":null},\"delay\":5,"
+                        + "\"passengerId\":\"p2\",\"seatNumber\":\"2B\"}"
+        ), result);
+    }
+
+    @Test
+    void testRuleCanBeSplitMoreThanOnce() {
+        UpcastingRule testSubject = UpcastingRule.forEvent(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null);
+        IntermediateEventRepresentation event = event(
+                PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, "{\"flightId\":\"KL123\",\"passengerSeats\":{\"p1\":\"1A\"}}"
+        );
+
+        CompiledSplitUpcaster first = testSubject.splitInto(PASSENGER_SEAT_ADJUSTED_EVENT_TYPE, null,
+                                                            "passengerSeats", "passengerId", "seatNumber");
+        CompiledSplitUpcaster second = testSubject.splitInto(PASSENGER_SEAT_ADJUSTED_EVENT_TYPE, null,
+                                                             "passengerSeats", "passengerId", "seatNumber");
+
+        assertEquals(first.upcast(Stream.of(event)).findFirst().orElseThrow(IllegalStateException::new)
+                          .getData(String.class).getData(),
+                     second.upcast(Stream.of(event)).findFirst().orElseThrow(IllegalStateException::new)
+                           .getData(String.class).getData());
+    }
+
+    @Test
+    void testFieldHandledByTwoRulesIsRejected() {
+        UpcastingRule testSubject = UpcastingRule.forEvent(FLIGHT_DELAYED_EVENT_TYPE, null)
+                                                 .nest("leg", "origin", "destination");
+
+        assertThrows(IllegalArgumentException.class, () -> testSubject.rename("origin", "from"));
+        assertThrows(IllegalArgumentException.class, () -> testSubject.setDefault("destination", "AMS"));
+        assertThrows(IllegalArgumentException.class, () -> testSubject.setDefault("leg", new Object()));
+    }
+
+    private static CompiledSplitUpcaster passengerSeatsSplit() {
+        return UpcastingRule.forEvent(PASSENGER_SEATS_ADJUSTED_EVENT_TYPE, null)
+                            .splitInto(PASSENGER_SEAT_ADJUSTED_EVENT_TYPE, null,
+                                       "passengerSeats", "passengerId", "seatNumber");
+    }
+
+    private IntermediateEventRepresentation upcast(CompiledRevisionUpcaster upcaster,
+                                                   IntermediateEventRepresentation event) {
+        return upcaster.upcast(Stream.of(event))
+                       .findFirst()
+                       .orElseThrow(IllegalStateException::new);
+    }
+
+    private IntermediateEventRepresentation event(String type, String payload) {
+        return event(type, null, payload);
+    }
+
+    private IntermediateEventRepresentation event(String type, String revision, String payload) {
+        return new InitialEventRepresentation(generateDomainEventData(type, revision, payload), serializer);
+    }
+}
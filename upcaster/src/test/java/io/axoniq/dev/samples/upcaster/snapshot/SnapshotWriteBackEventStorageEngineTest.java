@@ -0,0 +1,172 @@
+package io.axoniq.dev.samples.upcaster.snapshot;
+
+import io.axoniq.dev.samples.upcaster.rules.UpcastingRule;
+import org.axonframework.common.jdbc.ConnectionProvider;
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.jdbc.JdbcEventStorageEngine;
+import org.axonframework.serialization.Revision;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.axonframework.common.DateTimeUtils.formatInstant;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotWriteBackEventStorageEngineTest {
+
+    private static final String FLIGHT_SNAPSHOT_TYPE = FlightSnapshot.class.getName();
+
+    private final ConnectionProvider connectionProvider =
+            () -> DriverManager.getConnection("jdbc:h2:mem:snapshot-write-back;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JacksonSerializer serializer = JacksonSerializer.defaultSerializer();
+    private final OutdatedSnapshotFilter outdatedSnapshotFilter = new OutdatedSnapshotFilter(serializer);
+
+    private JdbcEventStorageEngine jdbcEngine;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = connectionProvider.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP ALL OBJECTS");
+            statement.executeUpdate("CREATE TABLE SnapshotEventEntry ("
+                                            + "aggregateIdentifier VARCHAR(255) NOT NULL, "
+                                            + "sequenceNumber BIGINT NOT NULL, "
+                                            + "type VARCHAR(255) NOT NULL, "
+                                            + "eventIdentifier VARCHAR(255) NOT NULL UNIQUE, "
+                                            + "metaData BLOB, "
+                                            + "payload BLOB NOT NULL, "
+                                            + "payloadRevision VARCHAR(255), "
+                                            + "payloadType VARCHAR(255) NOT NULL, "
+                                            + "timeStamp VARCHAR(255) NOT NULL, "
+                                            + "PRIMARY KEY (aggregateIdentifier, sequenceNumber))");
+        }
+        jdbcEngine = JdbcEventStorageEngine.builder()
+                                           .connectionProvider(connectionProvider)
+                                           .transactionManager(NoTransactionManager.INSTANCE)
+                                           .eventSerializer(serializer)
+                                           .snapshotSerializer(serializer)
+                                           .snapshotFilter(outdatedSnapshotFilter)
+                                           .upcasterChain(new EventUpcasterChain(
+                                                   UpcastingRule.forEvent(FLIGHT_SNAPSHOT_TYPE, "1.0")
+                                                                .rename("delay", "delayInMinutes")
+                                                                .toRevision("2.0")
+                                           ))
+                                           .build();
+    }
+
+    private void insertSnapshot(String aggregateIdentifier, long sequenceNumber, String revision, String payload)
+            throws SQLException {
+        try (Connection connection = connectionProvider.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO SnapshotEventEntry (aggregateIdentifier, sequenceNumber, type, eventIdentifier, "
+                             + "metaData, payload, payloadRevision, payloadType, timeStamp) "
+                             + "VALUES (?, ?, 'Flight', ?, ?, ?, ?, ?, ?)"
+             )) {
+            statement.setString(1, aggregateIdentifier);
+            statement.setLong(2, sequenceNumber);
+            statement.setString(3, aggregateIdentifier + "-snapshot-" + sequenceNumber);
+            statement.setBytes(4, "{}".getBytes(StandardCharsets.UTF_8));
+            statement.setBytes(5, payload.getBytes(StandardCharsets.UTF_8));
+            statement.setString(6, revision);
+            statement.setString(7, FLIGHT_SNAPSHOT_TYPE);
+            statement.setString(8, formatInstant(Instant.now()));
+            statement.executeUpdate();
+        }
+    }
+
+    private String storedRevision(String aggregateIdentifier) throws SQLException {
+        try (Connection connection = connectionProvider.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT payloadRevision FROM SnapshotEventEntry WHERE aggregateIdentifier = ?"
+             )) {
+            statement.setString(1, aggregateIdentifier);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertTrue(resultSet.next());
+                String revision = resultSet.getString(1);
+                assertFalse(resultSet.next());
+                return revision;
+            }
+        }
+    }
+
+    private static FlightSnapshot payloadOf(Optional<DomainEventMessage<?>> snapshot) {
+        assertTrue(snapshot.isPresent());
+        return (FlightSnapshot) snapshot.get().getPayload();
+    }
+
+    @Test
+    void testOutdatedSnapshotIsWrittenBackOnce() throws SQLException {
+        insertSnapshot("flight-1", 4, "1.0", "{\"flightId\":\"KL1001\",\"delay\":30}");
+        SnapshotWriteBackEventStorageEngine testSubject = new SnapshotWriteBackEventStorageEngine(
+                jdbcEngine, outdatedSnapshotFilter, new JdbcSnapshotRemover(connectionProvider,
+                                                                          NoTransactionManager.INSTANCE)
+        );
+
+        FlightSnapshot upcast = payloadOf(testSubject.readSnapshot("flight-1"));
+        assertEquals("KL1001", upcast.flightId);
+        assertEquals(30, upcast.delayInMinutes);
+        assertEquals("2.0", storedRevision("flight-1"));
+        assertEquals(1, testSubject.getWrittenBackCount());
+
+        FlightSnapshot reread = payloadOf(testSubject.readSnapshot("flight-1"));
+        assertEquals(30, reread.delayInMinutes);
+        assertEquals(4, testSubject.readSnapshot("flight-1").map(DomainEventMessage::getSequenceNumber).orElse(-1L));
+        assertEquals(1, testSubject.getWrittenBackCount());
+    }
+
+    @Test
+    void testCurrentSnapshotIsNotWrittenBack() throws SQLException {
+        FlightSnapshot current = new FlightSnapshot();
+        current.flightId = "KL1002";
+        current.delayInMinutes = 15;
+        jdbcEngine.storeSnapshot(new GenericDomainEventMessage<>("Flight", "flight-2", 7, current));
+        SnapshotWriteBackEventStorageEngine testSubject = new SnapshotWriteBackEventStorageEngine(
+                jdbcEngine, outdatedSnapshotFilter, new JdbcSnapshotRemover(connectionProvider,
+                                                                          NoTransactionManager.INSTANCE)
+        );
+
+        assertEquals(15, payloadOf(testSubject.readSnapshot("flight-2")).delayInMinutes);
+        assertEquals("2.0", storedRevision("flight-2"));
+        assertEquals(0, testSubject.getWrittenBackCount());
+    }
+
+    @Test
+    void testOutdatedSnapshotIsUpcastOnEveryReadWithoutWriteBack() throws SQLException {
+        insertSnapshot("flight-3", 2, "1.0", "{\"flightId\":\"KL1003\",\"delay\":45}");
+
+        assertEquals(45, payloadOf(jdbcEngine.readSnapshot("flight-3")).delayInMinutes);
+        assertEquals(45, payloadOf(jdbcEngine.readSnapshot("flight-3")).delayInMinutes);
+        assertEquals("1.0", storedRevision("flight-3"));
+    }
+
+    @Test
+    void testOutdatedSnapshotIsKeptByJdbcEngineWithoutRemover() throws SQLException {
+        insertSnapshot("flight-4", 9, "1.0", "{\"flightId\":\"KL1004\",\"delay\":60}");
+        // Without a remover, the JDBC engine does not replace the snapshot with the same sequence number
+        SnapshotWriteBackEventStorageEngine testSubject =
+                new SnapshotWriteBackEventStorageEngine(jdbcEngine, outdatedSnapshotFilter);
+
+        assertEquals(60, payloadOf(testSubject.readSnapshot("flight-4")).delayInMinutes);
+        assertEquals(60, payloadOf(testSubject.readSnapshot("flight-4")).delayInMinutes);
+        assertEquals("1.0", storedRevision("flight-4"));
+    }
+
+    @Revision("2.0")
+    public static class FlightSnapshot {
+
+        public String flightId;
+        public int delayInMinutes;
+    }
+}